@@ -11,7 +11,7 @@ import java.awt.geom.RectangularShape;
  * 
  * @author Joschi <josua.krause@gmail.com>
  */
-public abstract class AbstractKanvasContext implements KanvasContext {
+public abstract class AbstractKanvasContext implements DraftContext {
 
   /** Whether this context is in canvas space. */
   private final boolean inCanvasSpace;
@@ -93,6 +93,11 @@ public abstract class AbstractKanvasContext implements KanvasContext {
     return visCanvas;
   }
 
+  @Override
+  public boolean isDraft() {
+    return false;
+  }
+
   @Override
   public boolean inCanvasCoordinates() {
     return inCanvasSpace;
@@ -7,8 +7,9 @@ import java.awt.geom.Rectangle2D;
 import java.awt.geom.RectangularShape;
 import java.util.Objects;
 
-import jkanvas.animation.Animated;
+import jkanvas.animation.ActiveAnimated;
 import jkanvas.animation.AnimationAction;
+import jkanvas.animation.AnimationList;
 import jkanvas.animation.AnimationTiming;
 import jkanvas.animation.GenericAnimated;
 import jkanvas.painter.Renderpass;
@@ -18,7 +19,7 @@ import jkanvas.painter.Renderpass;
  * 
  * @author Joschi <josua.krause@gmail.com>
  */
-class CameraZUI implements ZoomableView, Camera, Animated {
+class CameraZUI implements ZoomableView, Camera, ActiveAnimated {
 
   /** The underlying zoom-able UI. */
   private final ZoomableUI zui;
@@ -148,6 +149,19 @@ class CameraZUI implements ZoomableView, Camera, Animated {
     return true;
   }
 
+  @Override
+  public void setActivationList(final AnimationList list) {
+    ensureView();
+    view.setActivationList(list, this);
+  }
+
+  @Override
+  public boolean keepActive() {
+    // the view stays marked active while a rectangle is waiting to be shown
+    if(toBeSet != null) return true;
+    return view.keepActive();
+  }
+
   @Override
   public void showRectangle(final RectangularShape view,
       final RectangularShape screen, final double margin, final boolean fit) {
@@ -5,6 +5,7 @@ import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseWheelEvent;
@@ -23,6 +24,7 @@ import javax.swing.ActionMap;
 import javax.swing.InputMap;
 import javax.swing.JComponent;
 import javax.swing.KeyStroke;
+import javax.swing.Timer;
 
 import jkanvas.animation.AnimationAction;
 import jkanvas.animation.AnimationBarrier;
@@ -30,7 +32,9 @@ import jkanvas.animation.AnimationBarrier.CloseBlock;
 import jkanvas.animation.AnimationList;
 import jkanvas.animation.AnimationTiming;
 import jkanvas.animation.Animator;
+import jkanvas.animation.ScheduledAction;
 import jkanvas.painter.HUDRenderpass;
+import jkanvas.painter.ImageCache;
 import jkanvas.painter.Renderpass;
 import jkanvas.util.Stopwatch;
 
@@ -40,7 +44,7 @@ import jkanvas.util.Stopwatch;
  *
  * @author Joschi <josua.krause@gmail.com>
  */
-public class Canvas extends JComponent implements Refreshable {
+public class Canvas extends JComponent implements RegionRefreshable {
 
   /**
    * A debug flag to activate bounding box rendering. This flag is optional for
@@ -65,6 +69,12 @@ public class Canvas extends JComponent implements Refreshable {
   /** Disables render pass caching. */
   public static boolean DISABLE_CACHING;
 
+  /**
+   * The margin in pixels that is added to refreshed regions to account for
+   * antialiasing and strokes drawn beyond the bounding box of render passes.
+   */
+  public static int REFRESH_MARGIN = 2;
+
   /** The current view configuration for the canvas. */
   private ViewConfiguration cfg;
 
@@ -336,6 +346,7 @@ public class Canvas extends JComponent implements Refreshable {
 
   @Override
   protected void paintComponent(final Graphics gfx) {
+    ImageCache.getDefault().beginFrame(this);
     final boolean mft = isMeasuringFrameTime();
     final AnimationBarrier barrier = this.barrier;
     // only use own stop-watch when no barrier is installed
@@ -348,7 +359,8 @@ public class Canvas extends JComponent implements Refreshable {
     }
     // clip the visible area
     g.clip(getCanvasRect());
-    g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+    g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, cfg.isDraft()
+        ? RenderingHints.VALUE_ANTIALIAS_OFF : RenderingHints.VALUE_ANTIALIAS_ON);
     if(barrier == null) {
       cfg.paint(g);
     } else {
@@ -391,12 +403,133 @@ public class Canvas extends JComponent implements Refreshable {
     return cfg.getHUDContext();
   }
 
+  /** Whether drafts are drawn during interaction. */
+  private boolean progressive;
+
+  /** Ends the draft mode once the user stops interacting. */
+  private Timer refineTimer;
+
+  /** The idle time in milliseconds before drawing in full quality. */
+  private int refineDelay = 250;
+
+  /**
+   * Setter.
+   *
+   * @param progressive Whether to draw drafts while the user pans or zooms.
+   *          Drafts are drawn without antialiasing and render passes may
+   *          reduce their quality further. A full quality frame is drawn once
+   *          the user has been idle for the {@link #getRefineDelay() refine
+   *          delay}.
+   * @see DraftContext#isDraft()
+   */
+  public void setProgressive(final boolean progressive) {
+    this.progressive = progressive;
+    if(!progressive) {
+      refine();
+    }
+  }
+
+  /**
+   * Getter.
+   *
+   * @return Whether drafts are drawn while the user pans or zooms.
+   */
+  public boolean isProgressive() {
+    return progressive;
+  }
+
+  /**
+   * Setter.
+   *
+   * @param refineDelay The idle time in milliseconds after which the canvas is
+   *          drawn in full quality again.
+   */
+  public void setRefineDelay(final int refineDelay) {
+    if(refineDelay < 0) throw new IllegalArgumentException("refineDelay: " + refineDelay);
+    this.refineDelay = refineDelay;
+    if(refineTimer != null) {
+      refineTimer.setInitialDelay(refineDelay);
+    }
+  }
+
+  /**
+   * Getter.
+   *
+   * @return The idle time in milliseconds after which the canvas is drawn in
+   *         full quality again.
+   */
+  public int getRefineDelay() {
+    return refineDelay;
+  }
+
+  /**
+   * Signals that the user changes the view. In progressive mode the canvas is
+   * drawn as draft until the user has been idle for the refine delay.
+   */
+  void interacting() {
+    if(!progressive || disposed) return;
+    if(refineTimer == null) {
+      // TODO #43 -- Java 8 simplification
+      refineTimer = new Timer(refineDelay, new ActionListener() {
+
+        @Override
+        public void actionPerformed(final ActionEvent e) {
+          refine();
+        }
+
+      });
+      refineTimer.setRepeats(false);
+    }
+    cfg.setDraft(true);
+    refineTimer.restart();
+  }
+
+  /** Ends the draft mode and draws the canvas in full quality. */
+  private void refine() {
+    if(refineTimer != null) {
+      refineTimer.stop();
+    }
+    if(!cfg.isDraft()) return;
+    cfg.setDraft(false);
+    refresh();
+  }
+
   /** The animator. */
   private Animator animator;
 
   /** The animation barrier. */
   private AnimationBarrier barrier;
 
+  /** Whether animation and drawing may overlap. */
+  private boolean overlappingAnimation;
+
+  /**
+   * Setter.
+   *
+   * @param overlappingAnimation Whether the animation of the next frame may be
+   *          computed while the current frame is drawn. Only
+   *          {@link jkanvas.animation.DoubleBuffered double buffered} objects
+   *          can be safely changed by the animation in this mode.
+   * @see AnimationBarrier#setDoubleBuffered(boolean)
+   */
+  public void setOverlappingAnimation(final boolean overlappingAnimation) {
+    this.overlappingAnimation = overlappingAnimation;
+    final AnimationBarrier barrier = this.barrier;
+    if(barrier != null) {
+      barrier.setDoubleBuffered(overlappingAnimation);
+    }
+  }
+
+  /**
+   * Getter.
+   *
+   * @return Whether the animation of the next frame may be computed while the
+   *         current frame is drawn.
+   */
+  public boolean isOverlappingAnimation() {
+    return overlappingAnimation;
+  }
+
   /**
    * Setter.
    *
@@ -419,6 +552,7 @@ public class Canvas extends JComponent implements Refreshable {
       final CameraZUI zui = cfg.getZUI();
       al.addAnimated(zui);
       barrier = new AnimationBarrier(this);
+      barrier.setDoubleBuffered(overlappingAnimation);
       animator.setAnimationBarrier(barrier, this);
       animator.setFrameRateDisplayer(getFrameRateDisplayer());
     }
@@ -440,11 +574,14 @@ public class Canvas extends JComponent implements Refreshable {
    * @param action The action to be executed. May be <code>null</code> when no
    *          action needs to be executed.
    * @param timing The timing to infer the duration.
+   * @return The handle to cancel the action or <code>null</code> if the canvas
+   *         is disposed.
    * @see jkanvas.animation.AnimationList#scheduleAction(AnimationAction,
    *      AnimationTiming)
    */
-  public void scheduleAction(final AnimationAction action, final AnimationTiming timing) {
-    scheduleAction(action, timing.duration);
+  public ScheduledAction scheduleAction(
+      final AnimationAction action, final AnimationTiming timing) {
+    return scheduleAction(action, timing.duration);
   }
 
   /**
@@ -454,14 +591,16 @@ public class Canvas extends JComponent implements Refreshable {
    * @param action The action to be executed. May be <code>null</code> when no
    *          action needs to be executed.
    * @param delay The time to wait in milliseconds.
+   * @return The handle to cancel the action or <code>null</code> if the canvas
+   *         is disposed.
    * @see jkanvas.animation.AnimationList#scheduleAction(AnimationAction, long)
    */
-  public void scheduleAction(final AnimationAction action, final long delay) {
+  public ScheduledAction scheduleAction(final AnimationAction action, final long delay) {
     if(animator == null) {
-      if(disposed) return;
+      if(disposed) return null;
       throw new IllegalStateException("no animator installed");
     }
-    animator.getAnimationList().scheduleAction(action, delay);
+    return animator.getAnimationList().scheduleAction(action, delay);
   }
 
   /**
@@ -479,6 +618,7 @@ public class Canvas extends JComponent implements Refreshable {
    * @param cfg Sets the active view configuration.
    */
   public void setViewConfiguration(final ViewConfiguration cfg) {
+    this.cfg.setDraft(false);
     this.cfg = Objects.requireNonNull(cfg);
     if(animator == null) return;
     final AnimationList al = animator.getAnimationList();
@@ -1086,6 +1226,7 @@ public class Canvas extends JComponent implements Refreshable {
        * @param y The mouse y position.
        */
       private void move(final int x, final int y) {
+        canvas.interacting();
         final ViewConfiguration cfg = canvas.getViewConfiguration();
         cfg.getZUI().setOffset(getMoveX(x), getMoveY(y));
       }
@@ -1127,6 +1268,7 @@ public class Canvas extends JComponent implements Refreshable {
       @Override
       public void mouseWheelMoved(final MouseWheelEvent e) {
         if(!canvas.isUserZoomable()) {
+          canvas.interacting();
           final ViewConfiguration cfg = canvas.getViewConfiguration();
           final CameraZUI zui = cfg.getZUI();
           final double amount = -e.getPreciseWheelRotation() * 10;
@@ -1136,6 +1278,7 @@ public class Canvas extends JComponent implements Refreshable {
           return;
         }
         if(isDragging() || !canvas.isMoveable()) return;
+        canvas.interacting();
         final ViewConfiguration cfg = canvas.getViewConfiguration();
         cfg.getZUI().zoomTicks(e.getX(), e.getY(), e.getWheelRotation());
       }
@@ -1166,8 +1309,12 @@ public class Canvas extends JComponent implements Refreshable {
   public void dispose() {
     if(disposed) return;
     disposed = true;
+    if(refineTimer != null) {
+      refineTimer.stop();
+    }
     cfg.getPainter().dispose();
     setAnimator(null);
+    ImageCache.getDefault().removePainter(this);
   }
 
   @Override
@@ -1175,4 +1322,19 @@ public class Canvas extends JComponent implements Refreshable {
     repaint();
   }
 
+  @Override
+  public void refresh(final Rectangle2D region) {
+    // the frame rate is drawn in every frame
+    if(isMeasuringFrameTime()) {
+      refresh();
+      return;
+    }
+    final Rectangle2D comp = getContext().toComponentCoordinates(region);
+    final int x = (int) Math.floor(comp.getMinX()) - REFRESH_MARGIN;
+    final int y = (int) Math.floor(comp.getMinY()) - REFRESH_MARGIN;
+    final int w = (int) Math.ceil(comp.getMaxX()) + REFRESH_MARGIN - x;
+    final int h = (int) Math.ceil(comp.getMaxY()) + REFRESH_MARGIN - y;
+    repaint(x, y, w, h);
+  }
+
 }
@@ -0,0 +1,22 @@
+package jkanvas;
+
+/**
+ * A context that knows whether a draft of lower quality is sufficient. Render
+ * passes check contexts for this interface before asking for the quality.
+ * 
+ * @author Joschi <josua.krause@gmail.com>
+ */
+public interface DraftContext extends KanvasContext {
+
+  /**
+   * A quality hint for render passes. While the user is interacting with a
+   * progressive {@link Canvas} a cheap draft may be drawn, for example by
+   * drawing fewer elements or by using cached images. A full quality frame is
+   * drawn once the interaction has stopped.
+   * 
+   * @return Whether a draft of lower quality is sufficient.
+   * @see Canvas#setProgressive(boolean)
+   */
+  boolean isDraft();
+
+}
@@ -0,0 +1,21 @@
+package jkanvas;
+
+import jkanvas.animation.FrameStatistics;
+
+/**
+ * A frame rate displayer that also shows the frame timing statistics of the
+ * animator.
+ * 
+ * @author Joschi <josua.krause@gmail.com>
+ */
+public interface FrameStatisticsDisplayer extends FrameRateDisplayer {
+
+  /**
+   * Sets the frame timing statistics of the animator. This method is called by
+   * an {@link jkanvas.animation.Animator} after each animation frame.
+   * 
+   * @param stats The statistics. The object is updated by the animator.
+   */
+  void setFrameStatistics(FrameStatistics stats);
+
+}
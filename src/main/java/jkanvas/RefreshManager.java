@@ -47,7 +47,9 @@ public interface RefreshManager extends Refreshable {
 
   /**
    * Ends a bulk operation. After the last bulk operation has been terminated
-   * all {@link Refreshable Refreshables} get updated.
+   * all {@link Refreshable Refreshables} get updated. {@link RegionRefreshManager
+   * RegionRefreshManagers} only update the union of the regions if only
+   * regions have been refreshed during the bulk operation.
    */
   void endBulkOperation();
 
@@ -0,0 +1,27 @@
+package jkanvas;
+
+import java.awt.geom.Rectangle2D;
+
+/**
+ * A refresh manager that can refresh regions instead of everything. Other
+ * refresh managers are refreshed completely instead.
+ * 
+ * @author Joschi <josua.krause@gmail.com>
+ * @see jkanvas.painter.RenderpassPainter#refreshRegion(RefreshManager,
+ *      Rectangle2D)
+ */
+public interface RegionRefreshManager extends RefreshManager {
+
+  /**
+   * Refreshes a region of all {@link Refreshable Refreshables}.
+   * {@link RegionRefreshable RegionRefreshables} only refresh the region
+   * whereas other {@link Refreshable Refreshables} are refreshed completely.
+   * During a bulk operation the regions are combined and refreshed after the
+   * last bulk operation has been terminated.
+   * 
+   * @param region The region in top level canvas coordinates.
+   * @see jkanvas.painter.Renderpass#refreshBounds(RefreshManager)
+   */
+  void refreshRegion(Rectangle2D region);
+
+}
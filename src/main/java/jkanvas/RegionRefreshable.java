@@ -0,0 +1,20 @@
+package jkanvas;
+
+import java.awt.geom.Rectangle2D;
+
+/**
+ * A {@link Refreshable} that is able to refresh only a part of its view.
+ * 
+ * @author Joschi <josua.krause@gmail.com>
+ */
+public interface RegionRefreshable extends Refreshable {
+
+  /**
+   * Refreshes a part of the current view.
+   * 
+   * @param region The region in top level canvas coordinates. The rectangle
+   *          must not be altered.
+   */
+  void refresh(Rectangle2D region);
+
+}
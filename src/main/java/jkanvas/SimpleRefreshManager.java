@@ -1,47 +1,99 @@
 package jkanvas;
 
+import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
- * A simple implementation of a {@link RefreshManager}.
+ * A simple implementation of a {@link RegionRefreshManager}. The manager may be used
+ * from any thread. The {@link Refreshable Refreshables} are called on the
+ * thread that causes the refresh but never while the state of the manager is
+ * locked.
  * 
  * @author Joschi <josua.krause@gmail.com>
  */
-public class SimpleRefreshManager implements RefreshManager {
+public class SimpleRefreshManager implements RegionRefreshManager {
 
+  /** The lock guarding the state of the manager. */
+  private final Object lock = new Object();
   /** The list containing all {@link Refreshable Refreshables}. */
   private final List<Refreshable> refreshables = new ArrayList<>();
   /** The number of active bulk operations. */
   private int bulkOps = 0;
+  /**
+   * The union of all regions refreshed during the current bulk operation or
+   * <code>null</code>.
+   */
+  private Rectangle2D dirty;
+  /** Whether everything was refreshed during the current bulk operation. */
+  private boolean dirtyAll;
 
   @Override
   public void addRefreshable(final Refreshable r) {
-    if(refreshables.contains(r)) return;
-    refreshables.add(r);
+    synchronized(lock) {
+      if(refreshables.contains(r)) return;
+      refreshables.add(r);
+    }
   }
 
   @Override
   public void removeRefreshable(final Refreshable r) {
-    refreshables.remove(r);
+    synchronized(lock) {
+      refreshables.remove(r);
+    }
   }
 
   @Override
   public Refreshable[] getRefreshables() {
-    return refreshables.toArray(new Refreshable[refreshables.size()]);
+    synchronized(lock) {
+      return refreshables.toArray(new Refreshable[refreshables.size()]);
+    }
   }
 
   @Override
   public void refreshAll() {
-    if(bulkOps > 0) return;
-    for(final Refreshable r : refreshables) {
+    final Refreshable[] rs;
+    synchronized(lock) {
+      if(bulkOps > 0) {
+        dirtyAll = true;
+        return;
+      }
+      rs = refreshables.toArray(new Refreshable[refreshables.size()]);
+    }
+    for(final Refreshable r : rs) {
       r.refresh();
     }
   }
 
+  @Override
+  public void refreshRegion(final Rectangle2D region) {
+    if(region.isEmpty()) return;
+    final Refreshable[] rs;
+    synchronized(lock) {
+      if(bulkOps > 0) {
+        if(dirty == null) {
+          dirty = (Rectangle2D) region.clone();
+        } else {
+          dirty.add(region);
+        }
+        return;
+      }
+      rs = refreshables.toArray(new Refreshable[refreshables.size()]);
+    }
+    for(final Refreshable r : rs) {
+      if(r instanceof RegionRefreshable) {
+        ((RegionRefreshable) r).refresh(region);
+      } else {
+        r.refresh();
+      }
+    }
+  }
+
   @Override
   public boolean inBulkOperation() {
-    return bulkOps > 0;
+    synchronized(lock) {
+      return bulkOps > 0;
+    }
   }
 
   @Override
@@ -52,18 +104,55 @@ public class SimpleRefreshManager implements RefreshManager {
 
   @Override
   public void startBulkOperation() {
-    ++bulkOps;
+    synchronized(lock) {
+      ++bulkOps;
+    }
   }
 
   @Override
   public void endBulkOperation() {
-    --bulkOps;
-    refreshAll();
+    endBulkOperation(true);
+  }
+
+  /**
+   * Ends a bulk operation like {@link #endBulkOperation()}. However, after the
+   * last bulk operation has been terminated the {@link Refreshable
+   * Refreshables} only get updated when something has been refreshed during
+   * the bulk operation.
+   */
+  protected void flushBulkOperation() {
+    endBulkOperation(false);
+  }
+
+  /**
+   * Ends a bulk operation.
+   * 
+   * @param always Whether to refresh everything when nothing has been refreshed
+   *          during the bulk operation.
+   */
+  private void endBulkOperation(final boolean always) {
+    final Rectangle2D region;
+    final boolean all;
+    synchronized(lock) {
+      --bulkOps;
+      if(bulkOps > 0) return;
+      region = dirty;
+      all = dirtyAll;
+      dirty = null;
+      dirtyAll = false;
+    }
+    if(region != null && !all) {
+      refreshRegion(region);
+    } else if(all || always) {
+      refreshAll();
+    }
   }
 
   /** Clears all {@link Refreshable Refreshables}. */
   protected void clearRefreshables() {
-    refreshables.clear();
+    synchronized(lock) {
+      refreshables.clear();
+    }
   }
 
 }
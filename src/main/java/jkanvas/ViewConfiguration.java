@@ -24,6 +24,8 @@ public class ViewConfiguration {
   protected final CameraZUI zui;
   /** The restriction rectangle. */
   protected Rectangle2D restriction;
+  /** Whether the view is currently drawn as draft. */
+  private volatile boolean draft;
 
   /**
    * Creates a view configuration for the given painter.
@@ -91,6 +93,26 @@ public class ViewConfiguration {
     painter.drawHUD(gfx, getHUDContext());
   }
 
+  /**
+   * Getter.
+   * 
+   * @return Whether the view is currently drawn as draft.
+   * @see DraftContext#isDraft()
+   */
+  public boolean isDraft() {
+    return draft;
+  }
+
+  /**
+   * Setter.
+   * 
+   * @param draft Whether the view is drawn as draft. This method is called by
+   *          the canvas.
+   */
+  void setDraft(final boolean draft) {
+    this.draft = draft;
+  }
+
   /**
    * Returns the current canvas context. Note that it is not guaranteed that the
    * context returns correct values if the viewport changes after a call to this
@@ -99,7 +121,7 @@ public class ViewConfiguration {
    * @return The current canvas context.
    */
   public KanvasContext getContext() {
-    return new ViewContext(zui, true, 0, 0);
+    return new ViewContext(zui, draft, true, 0, 0);
   }
 
   /**
@@ -110,7 +132,7 @@ public class ViewConfiguration {
    * @return The current head-up display context.
    */
   public KanvasContext getHUDContext() {
-    return new ViewContext(zui, false, 0, 0);
+    return new ViewContext(zui, draft, false, 0, 0);
   }
 
   /**
@@ -196,26 +218,35 @@ public class ViewConfiguration {
 
     /** The ZUI camera. */
     private final CameraZUI zui;
+    /** Whether a draft is drawn. */
+    private final boolean draft;
 
     /**
      * Creates a context for this configuration.
      * 
      * @param zui The ZUI camera.
+     * @param draft Whether a draft is drawn.
      * @param inCanvasSpace Whether the normal
      *          {@link KanvasPainter#draw(Graphics2D, KanvasContext)} is called.
      * @param offX The x offset in canvas coordinates.
      * @param offY The y offset in canvas coordinates.
      */
-    public ViewContext(final CameraZUI zui, final boolean inCanvasSpace,
-        final double offX, final double offY) {
+    public ViewContext(final CameraZUI zui, final boolean draft,
+        final boolean inCanvasSpace, final double offX, final double offY) {
       super(inCanvasSpace, offX, offY);
       this.zui = Objects.requireNonNull(zui);
+      this.draft = draft;
     }
 
     @Override
     protected KanvasContext create(final boolean inCanvasSpace,
         final double offX, final double offY) {
-      return new ViewContext(zui, inCanvasSpace, offX, offY);
+      return new ViewContext(zui, draft, inCanvasSpace, offX, offY);
+    }
+
+    @Override
+    public boolean isDraft() {
+      return draft;
     }
 
     @Override
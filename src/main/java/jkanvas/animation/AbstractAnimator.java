@@ -1,9 +1,13 @@
 package jkanvas.animation;
 
+import java.awt.geom.Rectangle2D;
+import java.util.Objects;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
 import jkanvas.Canvas;
 import jkanvas.FrameRateDisplayer;
+import jkanvas.FrameStatisticsDisplayer;
 import jkanvas.Refreshable;
 import jkanvas.SimpleRefreshManager;
 import jkanvas.animation.AnimationBarrier.CloseBlock;
@@ -15,12 +19,6 @@ import jkanvas.animation.AnimationBarrier.CloseBlock;
  */
 public abstract class AbstractAnimator extends SimpleRefreshManager implements Animator {
 
-  /**
-   * Whether the pauses between animation calculations should be adjusted to
-   * compensate lag.
-   */
-  public static boolean COMPENSATE_LAG = false;
-
   /** The number of animation threads that were created. */
   private static final AtomicInteger ANIMATOR_COUNT = new AtomicInteger();
 
@@ -30,9 +28,36 @@ public abstract class AbstractAnimator extends SimpleRefreshManager implements A
   /** The waiting time resulting from the {@link #framerate}. */
   private long framewait;
 
-  /** The animator thread. */
+  /** The frame period in nano-seconds resulting from the {@link #framerate}. */
+  private volatile long period;
+
+  /** The policy when a frame deadline is missed. */
+  private volatile CatchUpPolicy policy = CatchUpPolicy.DROP;
+
+  /** The maximal number of frames that are computed back to back. */
+  private static final long MAX_COMPRESS = 4;
+
+  /** The time in nano-seconds the animation time was stretched. */
+  private volatile long stretchTime;
+
+  /** The frame timing statistics. */
+  private final FrameStatistics stats = new FrameStatistics();
+
+  /** Whether the next frame should be computed immediately. */
+  private volatile boolean forced;
+
+  /**
+   * The animator thread or <code>null</code> if the animator is driven by a
+   * {@link #scheduler}.
+   */
   private final Thread animator;
 
+  /** The scheduler or <code>null</code> if the animator has its own thread. */
+  private final AnimationScheduler scheduler;
+
+  /** The monitor for waiting and waking up. */
+  private final Object lock;
+
   /** The animation list containing all animated objects. */
   private final AnimationList list;
 
@@ -45,40 +70,84 @@ public abstract class AbstractAnimator extends SimpleRefreshManager implements A
    */
   private AnimationBarrier barrier;
 
-  /** Creates an animator. */
+  /** Whether the animation thread is parked until new work arrives. */
+  private volatile boolean idle;
+
+  /** The duration of the last step in nano-seconds. */
+  private long lastStepTime;
+
+  /** Whether the last step could not be computed since drawing was pending. */
+  private boolean blocked;
+
+  /** The clock for animations. */
+  private final AnimationClock clock;
+
+  /** Whether the animator is driven without a canvas. */
+  private final boolean headless;
+
+  /** Creates an animator with its own animation thread. */
   public AbstractAnimator() {
+    this(null);
+  }
+
+  /**
+   * Creates an animator.
+   * 
+   * @param scheduler The scheduler driving the animator or <code>null</code> if
+   *          the animator should use its own animation thread.
+   */
+  public AbstractAnimator(final AnimationScheduler scheduler) {
+    this(scheduler, AnimationClock.SYSTEM);
+  }
+
+  /**
+   * Creates an animator.
+   * 
+   * @param scheduler The scheduler driving the animator or <code>null</code> if
+   *          the animator should use its own animation thread. Animators of a
+   *          manual scheduler are animated even without animation barrier.
+   * @param clock The clock for animations.
+   */
+  public AbstractAnimator(final AnimationScheduler scheduler, final AnimationClock clock) {
+    this.clock = Objects.requireNonNull(clock);
+    headless = scheduler != null && scheduler.isManual();
     setFramerate(60);
+    list = new AnimationList();
+    list.setOwner(this);
+    this.scheduler = scheduler;
+    if(scheduler != null) {
+      animator = null;
+      lock = new Object();
+      scheduler.register(this);
+      return;
+    }
     // TODO #43 -- Java 8 simplification
     animator = new Thread("animation-thread-" + ANIMATOR_COUNT.getAndIncrement()) {
 
       @Override
       public void run() {
         try {
-          long lastStep = 0;
+          long deadline = System.nanoTime();
           while(!isInterrupted() && !isDisposed()) {
-            final long nextWait = getFramewait() - (COMPENSATE_LAG ? lastStep : 0L);
-            lastStep = 0;
-            if(nextWait > 0) {
-              synchronized(this) {
-                try {
-                  wait(nextWait);
-                } catch(final InterruptedException e) {
-                  interrupt();
-                  continue;
-                }
-              }
+            awaitDeadline(deadline);
+            if(isInterrupted()) {
+              continue;
             }
-            final long startStep = System.nanoTime();
-            final boolean needsRedraw = doStep();
-            if(needsRedraw) {
-              refreshAll();
+            final long start = System.nanoTime();
+            if(start < deadline) {
+              // forced frames start a new frame grid
+              deadline = start;
             }
-            final long stepTime = System.nanoTime() - startStep;
-            lastStep = stepTime / 1000000L;
-            final FrameRateDisplayer frd = getFrameRateDisplayer();
-            if(frd != null) {
-              final boolean lag = lastStep > getFramewait();
-              frd.setLastAnimationTime(stepTime, lag);
+            final boolean needsRedraw = frame(true);
+            deadline = nextDeadline(deadline, System.nanoTime());
+            if(!needsRedraw) {
+              try {
+                if(park()) {
+                  deadline = System.nanoTime();
+                }
+              } catch(final InterruptedException e) {
+                interrupt();
+              }
             }
           }
         } finally {
@@ -87,9 +156,336 @@ public abstract class AbstractAnimator extends SimpleRefreshManager implements A
       }
 
     };
+    lock = animator;
     animator.setDaemon(true);
     animator.start();
-    list = new AnimationList();
+  }
+
+  /**
+   * Waits until the given deadline is reached, the next frame is forced, or
+   * the thread is interrupted.
+   * 
+   * @param deadline The deadline in nano-seconds.
+   */
+  void awaitDeadline(final long deadline) {
+    long rem;
+    while(!forced && (rem = deadline - System.nanoTime()) > 0) {
+      LockSupport.parkNanos(this, rem);
+      if(Thread.currentThread().isInterrupted()) {
+        break;
+      }
+    }
+    forced = false;
+  }
+
+  /**
+   * Computes the deadline of the next frame according to the
+   * {@link CatchUpPolicy}.
+   * 
+   * @param deadline The deadline of the current frame in nano-seconds.
+   * @param now The current time in nano-seconds.
+   * @return The deadline of the next frame.
+   */
+  long nextDeadline(final long deadline, final long now) {
+    final long p = period;
+    final long next = deadline + p;
+    if(now <= next) return next;
+    switch(policy) {
+      case DROP: {
+        final long missed = (now - next) / p + 1;
+        stats.drop(missed);
+        return next + missed * p;
+      }
+      case COMPRESS: {
+        final long behind = (now - next) / p;
+        if(behind <= MAX_COMPRESS) return next;
+        stats.drop(behind - MAX_COMPRESS);
+        return next + (behind - MAX_COMPRESS) * p;
+      }
+      case STRETCH:
+        stretchTime += now - next;
+        return now;
+      default:
+        throw new AssertionError(policy);
+    }
+  }
+
+  /**
+   * Setter.
+   * 
+   * @param policy How to react when the deadline of a frame is missed. When
+   *          the animator is driven by a scheduler the scheduler's frame clock
+   *          decides when frames are computed.
+   */
+  public void setCatchUpPolicy(final CatchUpPolicy policy) {
+    this.policy = Objects.requireNonNull(policy);
+  }
+
+  /**
+   * Getter.
+   * 
+   * @return How to react when the deadline of a frame is missed.
+   */
+  public CatchUpPolicy getCatchUpPolicy() {
+    return policy;
+  }
+
+  /**
+   * Getter.
+   * 
+   * @return The total time in milliseconds the animation time lags behind the
+   *         real time due to {@link CatchUpPolicy#STRETCH}. Implementations of
+   *         {@link #step()} should subtract this time from their clock.
+   */
+  public long getStretchTime() {
+    return stretchTime / 1000000L;
+  }
+
+  /**
+   * Getter.
+   * 
+   * @return The clock for animations. Implementations of {@link #step()} should
+   *         use this clock.
+   */
+  public AnimationClock getClock() {
+    return clock;
+  }
+
+  /**
+   * Getter.
+   * 
+   * @return The frame timing statistics.
+   */
+  public FrameStatistics getFrameStatistics() {
+    return stats;
+  }
+
+  /** Whether animated content reports its changed regions. */
+  private volatile boolean regionRefresh;
+
+  /** Whether a region has been refreshed during the current frame. */
+  private volatile boolean regionsReported;
+
+  /**
+   * Setter.
+   * 
+   * @param regionRefresh Whether all animated content reports the regions that
+   *          change via {@link #refreshRegion(Rectangle2D)}, as for example
+   *          the members of a {@link jkanvas.painter.groups.RenderGroup} do.
+   *          If set only the union of the regions reported during a frame is
+   *          refreshed. Otherwise everything is refreshed whenever the
+   *          animation changes. Frames without reported regions always
+   *          refresh everything.
+   */
+  public void setRegionRefresh(final boolean regionRefresh) {
+    this.regionRefresh = regionRefresh;
+  }
+
+  /**
+   * Getter.
+   * 
+   * @return Whether only the regions reported during a frame are refreshed.
+   */
+  public boolean isRegionRefresh() {
+    return regionRefresh;
+  }
+
+  @Override
+  public void refreshRegion(final Rectangle2D region) {
+    regionsReported = true;
+    super.refreshRegion(region);
+  }
+
+  /**
+   * Computes one frame and refreshes the changed regions or all
+   * {@link Refreshable Refreshables} if necessary.
+   * 
+   * @param blocking Whether to wait for the drawing of the previous frame to
+   *          finish. If <code>false</code> and the drawing is not finished the
+   *          frame is skipped.
+   * @return Whether a redraw was necessary.
+   */
+  boolean frame(final boolean blocking) {
+    final long startStep = System.nanoTime();
+    final boolean needsRedraw;
+    // refreshes during the step are combined to one refresh per frame
+    startBulkOperation();
+    try {
+      regionsReported = false;
+      needsRedraw = doStep(blocking);
+      if(needsRedraw && !(regionRefresh && regionsReported)) {
+        refreshAll();
+      }
+    } finally {
+      flushBulkOperation();
+    }
+    final long stepTime = System.nanoTime() - startStep;
+    lastStepTime = stepTime;
+    stats.frame(startStep, stepTime);
+    final FrameRateDisplayer frd = getFrameRateDisplayer();
+    if(frd != null) {
+      final boolean lag = stepTime > period;
+      frd.setLastAnimationTime(stepTime, lag);
+      if(frd instanceof FrameStatisticsDisplayer) {
+        ((FrameStatisticsDisplayer) frd).setFrameStatistics(stats);
+      }
+    }
+    return needsRedraw;
+  }
+
+  /** The maximal number of frames an animator skips after a budget overrun. */
+  private static final int MAX_SKIP = 10;
+
+  /** The frame budget in nano-seconds or <code>0</code> for the default. */
+  private volatile long frameBudget;
+
+  /** The number of frames to skip due to budget overruns. */
+  private int skipFrames;
+
+  /** Whether the scheduler has reported this animator as idle. */
+  private boolean parked;
+
+  /**
+   * Setter.
+   * 
+   * @param frameBudget The time in nano-seconds this animator may use per frame
+   *          when driven by a scheduler. If the animator exceeds the budget it
+   *          skips frames. If the budget is <code>0</code> the frame is split
+   *          evenly between all animators with work.
+   */
+  public void setFrameBudget(final long frameBudget) {
+    if(frameBudget < 0) throw new IllegalArgumentException("budget: " + frameBudget);
+    this.frameBudget = frameBudget;
+  }
+
+  /**
+   * Getter.
+   * 
+   * @return The frame budget in nano-seconds or <code>0</code> for the default
+   *         budget.
+   */
+  public long getFrameBudget() {
+    return frameBudget;
+  }
+
+  /**
+   * Computes a frame on behalf of the scheduler.
+   * 
+   * @param defaultBudget The budget in nano-seconds when no budget is set.
+   *          <code>0</code> means no limit. A negative value disables all
+   *          budgets.
+   * @return Whether the animator is still awake.
+   */
+  boolean scheduledFrame(final long defaultBudget) {
+    if(defaultBudget >= 0 && skipFrames > 0) {
+      --skipFrames;
+      stats.drop(1);
+      return true;
+    }
+    if(parked) {
+      parked = false;
+      stats.restart();
+      idleChanged(false);
+    }
+    final boolean needsRedraw = frame(false);
+    final long budget = defaultBudget < 0 ? 0 : frameBudget > 0 ? frameBudget : defaultBudget;
+    if(budget > 0 && lastStepTime > budget) {
+      skipFrames = (int) Math.min(lastStepTime / budget - 1, MAX_SKIP);
+    }
+    if(needsRedraw || blocked) return true;
+    if(!tryIdle()) return true;
+    parked = true;
+    idleChanged(true);
+    return false;
+  }
+
+  /**
+   * Getter.
+   * 
+   * @return Whether there is work that requires further animation steps. The
+   *         default implementation checks whether the animation list is idle.
+   *         This method is called from the animation thread.
+   */
+  protected boolean hasPendingWork() {
+    return !list.isIdle();
+  }
+
+  /**
+   * Marks the animator as idle if there is no pending work.
+   * 
+   * @return Whether the animator is idle now.
+   */
+  private boolean tryIdle() {
+    if(hasPendingWork()) return false;
+    idle = true;
+    // work may have arrived before the flag was visible
+    if(hasPendingWork() || isDisposed()) {
+      idle = false;
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Parks the animation thread until new work arrives if there is no pending
+   * work. This method must only be called from the animation thread.
+   * 
+   * @return Whether the thread was parked.
+   * @throws InterruptedException If the thread is interrupted while waiting.
+   */
+  boolean park() throws InterruptedException {
+    synchronized(lock) {
+      if(!tryIdle()) return false;
+    }
+    idleChanged(true);
+    try {
+      synchronized(lock) {
+        while(idle && !isDisposed()) {
+          lock.wait();
+        }
+      }
+    } finally {
+      idle = false;
+      stats.restart();
+      idleChanged(false);
+    }
+    return true;
+  }
+
+  /**
+   * Wakes up the animation thread if it is idle. This method is cheap when the
+   * animator is not idle and may be called from any thread.
+   */
+  void wakeUp() {
+    if(!idle) return;
+    if(scheduler != null) {
+      idle = false;
+      scheduler.wakeUp();
+      return;
+    }
+    synchronized(lock) {
+      idle = false;
+      lock.notifyAll();
+    }
+  }
+
+  /**
+   * Getter.
+   * 
+   * @return Whether the animation thread is parked because there is no work.
+   */
+  public boolean isIdle() {
+    return idle;
+  }
+
+  /**
+   * Is called from the animation thread whenever the animator becomes idle or
+   * active again. The default implementation does nothing.
+   * 
+   * @param idle Whether the animator is idle now.
+   */
+  protected void idleChanged(final boolean idle) {
+    // nothing to do
   }
 
   /**
@@ -107,8 +503,11 @@ public abstract class AbstractAnimator extends SimpleRefreshManager implements A
    * @param framerate Sets the frame-rate.
    */
   public void setFramerate(final long framerate) {
+    if(framerate <= 0) throw new IllegalArgumentException("framerate: " + framerate);
     this.framerate = framerate;
     framewait = Math.max(1000 / this.framerate, 1);
+    period = 1000000000L / framerate;
+    stats.setPeriod(period);
   }
 
   @Override
@@ -117,6 +516,9 @@ public abstract class AbstractAnimator extends SimpleRefreshManager implements A
       barrier.ensureValidity(canvas);
     }
     this.barrier = barrier;
+    if(barrier != null) {
+      wakeUp();
+    }
   }
 
   @Override
@@ -131,10 +533,41 @@ public abstract class AbstractAnimator extends SimpleRefreshManager implements A
    * @return Whether a redraw is necessary.
    */
   protected final boolean doStep() {
-    if(barrier == null) return false;
-    try (CloseBlock b = barrier.openAnimationBlock()) {
+    return doStep(true);
+  }
+
+  /**
+   * Computes one step by calling {@link #step()}. If no animation barrier is
+   * installed nothing will happen while returning <code>false</code>.
+   * 
+   * @param blocking Whether to wait for the drawing of the previous step to
+   *          finish. If <code>false</code> and the drawing is not finished
+   *          nothing will happen while returning <code>false</code>.
+   * @return Whether a redraw is necessary.
+   */
+  private boolean doStep(final boolean blocking) {
+    final AnimationBarrier barrier = this.barrier;
+    blocked = false;
+    if(barrier == null) {
+      if(!headless || !step()) return false;
+      list.swapBuffers();
+      return true;
+    }
+    try (CloseBlock b = blocking
+        ? barrier.openAnimationBlock() : barrier.tryOpenAnimationBlock()) {
+      if(b == null) {
+        blocked = true;
+        return false;
+      }
       final boolean needsRedraw = step();
       if(needsRedraw) {
+        if(!b.isExclusive()) {
+          // drawing may be in progress
+          barrier.swapBuffers(list);
+        } else {
+          // drawing is excluded during the animation block
+          list.swapBuffers();
+        }
         // only animate further if redraw occurred
         b.setStateAfter(AnimationBarrier.ALLOW_DRAW);
       }
@@ -184,15 +617,40 @@ public abstract class AbstractAnimator extends SimpleRefreshManager implements A
     disposed = true;
     frd = null;
     clearRefreshables();
-    animator.interrupt();
+    if(animator != null) {
+      animator.interrupt();
+    } else {
+      synchronized(lock) {
+        idle = false;
+        lock.notifyAll();
+      }
+    }
     list.dispose();
   }
 
   @Override
   public void forceNextFrame() {
-    synchronized(animator) {
-      animator.notifyAll();
+    if(scheduler != null) {
+      idle = false;
+      scheduler.forceNextFrame();
+      return;
+    }
+    synchronized(lock) {
+      forced = true;
+      idle = false;
+      lock.notifyAll();
     }
+    LockSupport.unpark(animator);
+  }
+
+  /**
+   * Getter.
+   * 
+   * @return The scheduler driving this animator or <code>null</code> if the
+   *         animator has its own animation thread.
+   */
+  public AnimationScheduler getScheduler() {
+    return scheduler;
   }
 
   @Override
@@ -0,0 +1,33 @@
+package jkanvas.animation;
+
+/**
+ * An animated object that knows when it has work to do. Instead of being
+ * animated every frame such objects are only animated while they are active.
+ * An object becomes active by calling {@link AnimationList#activate(ActiveAnimated)}
+ * whenever a change is requested and leaves the set of active objects as soon
+ * as {@link #keepActive()} returns <code>false</code>.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ */
+public interface ActiveAnimated extends Animated {
+
+  /**
+   * Setter. This method is called by {@link AnimationList#addAnimated(Animated)}
+   * and must activate the object at least once.
+   *
+   * @param list The animation list that needs to be notified when the object
+   *          becomes active.
+   */
+  void setActivationList(AnimationList list);
+
+  /**
+   * Is called from the animation thread directly after
+   * {@link #animate(long)}. When this method returns <code>false</code> the
+   * object is removed from the set of active objects. Implementations must
+   * ensure that concurrent activations are not lost.
+   *
+   * @return Whether the object needs to be animated in the next frame as well.
+   */
+  boolean keepActive();
+
+}
@@ -0,0 +1,219 @@
+package jkanvas.animation;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The set of currently active {@link ActiveAnimated} objects. Activations may
+ * happen from any thread but animating the set is only allowed from the
+ * animation thread. The work per frame is proportional to the number of active
+ * objects.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ */
+final class ActiveSet {
+
+  /** The objects that have been activated since the last frame. */
+  private final Queue<ActiveAnimated> incoming = new ConcurrentLinkedQueue<>();
+
+  /**
+   * The active objects. Only accessed by the animation thread and
+   * {@link #clear()}.
+   */
+  private ActiveAnimated[] active = new ActiveAnimated[16];
+
+  /**
+   * The number of active objects. Only accessed by the animation thread and
+   * {@link #clear()}.
+   */
+  private int size;
+
+  /**
+   * Adds an object to the active set. The caller must guarantee that the object
+   * is not already active.
+   *
+   * @param a The object.
+   */
+  public void activate(final ActiveAnimated a) {
+    incoming.add(a);
+  }
+
+  /**
+   * Getter.
+   *
+   * @return Whether there are no active objects and no pending activations.
+   */
+  public boolean isEmpty() {
+    return size == 0 && incoming.isEmpty();
+  }
+
+  /**
+   * Getter.
+   *
+   * @return The number of active objects.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Moves all pending activations into the active array. This method must be
+   * called before {@link #animate(ForkJoinPool, int, AnimationToken, long)}.
+   *
+   * @return The number of active objects.
+   */
+  public int drainIncoming() {
+    ActiveAnimated a;
+    while((a = incoming.poll()) != null) {
+      if(size >= active.length) {
+        active = Arrays.copyOf(active, active.length + active.length / 2);
+      }
+      active[size++] = a;
+    }
+    return size;
+  }
+
+  /**
+   * A worker animating active objects when under a certain threshold or
+   * splitting the task further.
+   *
+   * @author Joschi <josua.krause@gmail.com>
+   */
+  private static final class Worker extends RecursiveAction {
+
+    /** The active objects. */
+    private final ActiveAnimated[] active;
+    /** The animation token. */
+    private final AnimationToken token;
+    /** The current time in milliseconds. */
+    private final long currentTime;
+    /** The depth of the worker. If 0 the worker does the computation. */
+    private final int depth;
+    /** The start position of this worker. */
+    private final int start;
+    /** The exclusive end position of this worker. */
+    private final int end;
+    /** Whether at least one animated object has been changed. */
+    private boolean changed;
+
+    /**
+     * Creates a worker to animate active objects.
+     *
+     * @param active The active objects.
+     * @param token The animation token.
+     * @param currentTime The current time in milliseconds.
+     * @param depth The depth of this worker. If it reaches 0 the worker
+     *          actually computes the result.
+     * @param start The start position.
+     * @param end The exclusive end position.
+     */
+    public Worker(final ActiveAnimated[] active, final AnimationToken token,
+        final long currentTime, final int depth, final int start, final int end) {
+      this.active = active;
+      this.token = token;
+      this.currentTime = currentTime;
+      this.depth = depth;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    protected void compute() {
+      if(depth <= 0) {
+        changed = ActiveSet.compute(active, token, start, end, currentTime);
+        return;
+      }
+      final int mid = (start + end) >>> 1;
+      final Worker left = new Worker(active, token, currentTime, depth - 1, start, mid);
+      final Worker right = new Worker(active, token, currentTime, depth - 1, mid, end);
+      right.fork();
+      left.compute();
+      right.join();
+      changed = left.changed || right.changed;
+    }
+
+    /**
+     * Getter.
+     *
+     * @return Whether the computation has changed any animated object.
+     */
+    public boolean hasChanged() {
+      return changed;
+    }
+
+  } // Worker
+
+  /**
+   * Animates a range of active objects. Objects that are no longer active are
+   * replaced by <code>null</code>.
+   *
+   * @param active The active objects.
+   * @param token The animation token.
+   * @param from The start index inclusive.
+   * @param to The end index exclusive.
+   * @param currentTime The current time in milliseconds.
+   * @return Whether a redraw is needed.
+   */
+  static boolean compute(final ActiveAnimated[] active, final AnimationToken token,
+      final int from, final int to, final long currentTime) {
+    AnimationAction.setToken(token);
+    boolean hasChanged = false;
+    for(int pos = from; pos < to; ++pos) {
+      final ActiveAnimated e = active[pos];
+      hasChanged |= e.animate(currentTime);
+      if(!e.keepActive()) {
+        active[pos] = null;
+      }
+    }
+    return hasChanged;
+  }
+
+  /**
+   * Animates all active objects and removes objects that are no longer active.
+   *
+   * @param pool The pool for parallel computation.
+   * @param depth The suggested depth of the computation tree. If it is not
+   *          positive the computation is performed sequentially.
+   * @param token The animation token.
+   * @param currentTime The current time in milliseconds.
+   * @return Whether a redraw is needed.
+   */
+  public boolean animate(final ForkJoinPool pool, final int depth,
+      final AnimationToken token, final long currentTime) {
+    if(size == 0) return false;
+    final boolean needsRedraw;
+    if(depth <= 0) {
+      needsRedraw = compute(active, token, 0, size, currentTime);
+    } else {
+      final Worker task = new Worker(active, token, currentTime, depth, 0, size);
+      pool.invoke(task);
+      needsRedraw = task.hasChanged();
+    }
+    // compact the array
+    int i = 0;
+    for(int k = 0; k < size; ++k) {
+      final ActiveAnimated a = active[k];
+      if(a == null) {
+        continue;
+      }
+      active[i++] = a;
+    }
+    Arrays.fill(active, i, size, null);
+    size = i;
+    return needsRedraw;
+  }
+
+  /**
+   * Removes all active objects. Callers outside the animation thread must
+   * ensure that the set is not animated at the same time.
+   */
+  public void clear() {
+    incoming.clear();
+    Arrays.fill(active, 0, size, null);
+    size = 0;
+  }
+
+}
@@ -1,11 +1,14 @@
 package jkanvas.animation;
 
+import java.awt.geom.Rectangle2D;
+import java.util.Objects;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 import jkanvas.Canvas;
 import jkanvas.FrameRateDisplayer;
 import jkanvas.Refreshable;
+import jkanvas.RegionRefreshManager;
 import jkanvas.painter.Renderpass;
 import jkanvas.painter.RenderpassPainter;
 
@@ -14,7 +17,8 @@ import jkanvas.painter.RenderpassPainter;
  * 
  * @author Joschi <josua.krause@gmail.com>
  */
-public class AnimatedPainter extends RenderpassPainter implements Animator {
+public class AnimatedPainter extends RenderpassPainter
+    implements Animator, RegionRefreshManager {
 
   /** The internal animator. */
   private AbstractAnimator animator;
@@ -25,38 +29,95 @@ public class AnimatedPainter extends RenderpassPainter implements Animator {
   /** The time in milliseconds when the last stop occurred. */
   private AtomicLong lastStop;
 
-  /** Creates an animated painter. */
+  /** The clock for animations. */
+  private final AnimationClock clock;
+
+  /** Creates an animated painter with its own animation thread. */
   public AnimatedPainter() {
+    this(null);
+  }
+
+  /**
+   * Creates an animated painter using the system time.
+   * 
+   * @param scheduler The scheduler that drives the animation or
+   *          <code>null</code> if the painter should use its own animation
+   *          thread.
+   * @see AnimationScheduler#getShared()
+   */
+  public AnimatedPainter(final AnimationScheduler scheduler) {
+    this(scheduler, AnimationClock.SYSTEM);
+  }
+
+  /**
+   * Creates an animated painter.
+   * 
+   * @param scheduler The scheduler that drives the animation or
+   *          <code>null</code> if the painter should use its own animation
+   *          thread.
+   * @param clock The clock for animations.
+   * @see AnimationScheduler#getShared()
+   * @see HeadlessAnimationDriver
+   */
+  public AnimatedPainter(final AnimationScheduler scheduler, final AnimationClock clock) {
+    this.clock = Objects.requireNonNull(clock);
     final AtomicBoolean isStopped = new AtomicBoolean();
     this.isStopped = isStopped;
     final AtomicLong lastStop = new AtomicLong(getTime());
     this.lastStop = lastStop;
     // TODO #43 -- Java 8 simplification
-    animator = new AbstractAnimator() {
+    animator = new AbstractAnimator(scheduler, clock) {
 
       @Override
       protected boolean step() {
         final long currentTime;
         synchronized(isStopped) {
           if(isStopped.get()) return false;
-          currentTime = getTime() - lastStop.get();
+          currentTime = getTime() - lastStop.get() - getStretchTime();
         }
         return getAnimationList().doAnimate(currentTime);
       }
 
+      @Override
+      protected void idleChanged(final boolean idle) {
+        AnimatedPainter.this.idleChanged(idle);
+      }
+
     };
   }
 
   /**
    * Getter.
    * 
-   * @return Returns the current time. This method can be overwritten to gain
-   *         full control over animation timing. This method is called exactly
-   *         once every step, once when the {@link #setStopped(boolean)} is
-   *         called, and once during initialization.
+   * @return Returns the current time of the {@link AnimationClock}. This
+   *         method can be overwritten to gain full control over animation
+   *         timing. This method is called exactly once every step, once when
+   *         the {@link #setStopped(boolean)} is called, and once during
+   *         initialization.
    */
   protected long getTime() {
-    return System.currentTimeMillis();
+    return clock.now();
+  }
+
+  /**
+   * Getter.
+   * 
+   * @return Whether the animator is parked because no animation is running and
+   *         no action is scheduled.
+   */
+  public boolean isIdle() {
+    return animator.isIdle();
+  }
+
+  /**
+   * Is called from the animation thread whenever the animator becomes idle or
+   * active again. This method can be overwritten to observe the state. The
+   * default implementation does nothing.
+   * 
+   * @param idle Whether the animator is idle now.
+   */
+  protected void idleChanged(final boolean idle) {
+    // nothing to do
   }
 
   /**
@@ -101,6 +162,36 @@ public class AnimatedPainter extends RenderpassPainter implements Animator {
     animator.setFramerate(framerate);
   }
 
+  /**
+   * Setter.
+   * 
+   * @param policy How the animator reacts when it misses a frame deadline.
+   * @see AbstractAnimator#setCatchUpPolicy(CatchUpPolicy)
+   */
+  public void setCatchUpPolicy(final CatchUpPolicy policy) {
+    animator.setCatchUpPolicy(policy);
+  }
+
+  /**
+   * Getter.
+   * 
+   * @return The frame timing statistics of the animator.
+   */
+  public FrameStatistics getFrameStatistics() {
+    return animator.getFrameStatistics();
+  }
+
+  /**
+   * Setter.
+   * 
+   * @param frameBudget The time in nano-seconds the animator may use per frame
+   *          when driven by a scheduler or <code>0</code> for an even split.
+   * @see AbstractAnimator#setFrameBudget(long)
+   */
+  public void setFrameBudget(final long frameBudget) {
+    animator.setFrameBudget(frameBudget);
+  }
+
   @Override
   public void addPass(final Renderpass r) {
     super.addPass(r);
@@ -167,6 +258,11 @@ public class AnimatedPainter extends RenderpassPainter implements Animator {
     animator.refreshAll();
   }
 
+  @Override
+  public void refreshRegion(final Rectangle2D region) {
+    animator.refreshRegion(region);
+  }
+
   @Override
   // TODO #43 -- Java 8 simplification
   public void refresh() {
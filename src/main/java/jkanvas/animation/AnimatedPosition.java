@@ -11,7 +11,7 @@ import jkanvas.util.VecUtil;
  * 
  * @author Joschi <josua.krause@gmail.com>
  */
-public class AnimatedPosition extends Position2D implements Animated {
+public class AnimatedPosition extends Position2D implements ActiveAnimated {
 
   /**
    * An animated {@link Point2D}. The values of this class are used in
@@ -206,6 +206,36 @@ public class AnimatedPosition extends Position2D implements Animated {
     return position.animate(currentTime);
   }
 
+  @Override
+  public void setActivationList(final AnimationList list) {
+    position.setActivationList(list, this);
+  }
+
+  @Override
+  public boolean keepActive() {
+    return position.keepActive();
+  }
+
+  /**
+   * Setter.
+   * 
+   * @param doubleBuffered Whether the position returns the value of the last
+   *          completed frame while the animation computes the next frame.
+   * @see GenericAnimated#setDoubleBuffered(boolean)
+   */
+  public void setDoubleBuffered(final boolean doubleBuffered) {
+    position.setDoubleBuffered(doubleBuffered);
+  }
+
+  /**
+   * Getter.
+   * 
+   * @return Whether the position is double buffered.
+   */
+  public boolean isDoubleBuffered() {
+    return position.isDoubleBuffered();
+  }
+
   /**
    * Getter.
    * 
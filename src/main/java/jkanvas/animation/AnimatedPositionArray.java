@@ -0,0 +1,460 @@
+package jkanvas.animation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+
+import jkanvas.util.Interpolator;
+
+/**
+ * A fixed number of animated positions stored in primitive arrays. In contrast
+ * to {@link AnimatedPosition} no objects are created per position and whole
+ * ranges of positions are interpolated in tight loops. The array is animated
+ * as a single object by the {@link AnimationList}. Operations are delayed until
+ * the next frame of animation is computed. Arrays passed into this object are
+ * copied immediately.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ */
+public class AnimatedPositionArray implements ActiveAnimated {
+
+  /** The marker for slots that are not in animation. */
+  private static final byte NO_POL = -1;
+
+  /** The marker for pending slots that should only be set. */
+  private static final long NO_DURATION = 0L;
+
+  /** The number of positions. */
+  private final int size;
+
+  /** The current x coordinates. */
+  private final double[] curX;
+  /** The current y coordinates. */
+  private final double[] curY;
+  /** The x coordinates at the start of the animation. */
+  private final double[] startX;
+  /** The y coordinates at the start of the animation. */
+  private final double[] startY;
+  /** The x coordinates at the end of the animation. */
+  private final double[] endX;
+  /** The y coordinates at the end of the animation. */
+  private final double[] endY;
+  /** The start times of the animations. */
+  private final long[] startTime;
+  /** The end times of the animations. */
+  private final long[] endTime;
+  /** The interpolator ids of the animations or {@link #NO_POL}. */
+  private final byte[] pol;
+  /** The slots that are currently in animation. */
+  private final BitSet inAnimation;
+
+  /** The actions that are waiting for their due time. */
+  private final List<DueAction> actions = new ArrayList<>();
+
+  /**
+   * The monitor for all pending operations. Pending operations are written by
+   * arbitrary threads and read by the animation thread.
+   */
+  private final Object lock = new Object();
+  /** The pending x coordinates. */
+  private final double[] nextX;
+  /** The pending y coordinates. */
+  private final double[] nextY;
+  /** The pending durations or {@link #NO_DURATION} for setting. */
+  private final long[] nextDuration;
+  /** The pending interpolator ids. */
+  private final byte[] nextPol;
+  /** The slots with pending operations. */
+  private final BitSet pending;
+  /** The pending actions with relative due times. */
+  private final List<DueAction> pendingActions = new ArrayList<>();
+  /** Whether all animations should be cleared before dispatching. */
+  private boolean clearPending;
+  /**
+   * The interpolators referenced by the ids. Ids are only added in
+   * synchronization and never change afterwards.
+   */
+  private final Interpolator[] interpolators = new Interpolator[Byte.MAX_VALUE + 1];
+  /** The number of known interpolators. */
+  private int interpolatorCount;
+  /** The animation list to activate this object. */
+  private AnimationList activationList;
+  /** Whether this object is currently in the active set. */
+  private boolean active;
+
+  /** Whether a value has changed since the last frame. */
+  private boolean changed;
+
+  /**
+   * An action that is executed when its due.
+   *
+   * @author Joschi <josua.krause@gmail.com>
+   */
+  private static final class DueAction {
+
+    /** The action. */
+    final AnimationAction action;
+    /** The relative or absolute due time. */
+    long due;
+
+    /**
+     * Creates an action that is due after the given time.
+     *
+     * @param action The action.
+     * @param wait The relative time.
+     */
+    DueAction(final AnimationAction action, final long wait) {
+      this.action = Objects.requireNonNull(action);
+      due = wait;
+    }
+
+  } // DueAction
+
+  /**
+   * Creates an array of animated positions all starting at the origin.
+   *
+   * @param size The number of positions.
+   */
+  public AnimatedPositionArray(final int size) {
+    if(size < 0) throw new IllegalArgumentException("size: " + size);
+    this.size = size;
+    curX = new double[size];
+    curY = new double[size];
+    startX = new double[size];
+    startY = new double[size];
+    endX = new double[size];
+    endY = new double[size];
+    startTime = new long[size];
+    endTime = new long[size];
+    pol = new byte[size];
+    Arrays.fill(pol, NO_POL);
+    inAnimation = new BitSet(size);
+    nextX = new double[size];
+    nextY = new double[size];
+    nextDuration = new long[size];
+    nextPol = new byte[size];
+    pending = new BitSet(size);
+  }
+
+  /**
+   * Creates an array of animated positions.
+   *
+   * @param xs The initial x coordinates.
+   * @param ys The initial y coordinates. Must have the same length as the x
+   *          coordinates.
+   */
+  public AnimatedPositionArray(final double[] xs, final double[] ys) {
+    this(xs.length);
+    if(ys.length != xs.length) throw new IllegalArgumentException(
+        "length mismatch: " + xs.length + " != " + ys.length);
+    System.arraycopy(xs, 0, curX, 0, size);
+    System.arraycopy(ys, 0, curY, 0, size);
+  }
+
+  /**
+   * Getter.
+   *
+   * @return The number of positions.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Getter.
+   *
+   * @param index The index.
+   * @return The current x coordinate.
+   */
+  public double getX(final int index) {
+    return curX[index];
+  }
+
+  /**
+   * Getter.
+   *
+   * @param index The index.
+   * @return The current y coordinate.
+   */
+  public double getY(final int index) {
+    return curY[index];
+  }
+
+  /**
+   * Copies the current positions into the given arrays.
+   *
+   * @param from The first index to copy.
+   * @param xs The array for the x coordinates.
+   * @param ys The array for the y coordinates.
+   * @param length The number of positions to copy.
+   */
+  public void getPositions(final int from,
+      final double[] xs, final double[] ys, final int length) {
+    System.arraycopy(curX, from, xs, 0, length);
+    System.arraycopy(curY, from, ys, 0, length);
+  }
+
+  /**
+   * Getter.
+   *
+   * @param index The index.
+   * @return Whether the position is in animation.
+   */
+  public boolean inAnimation(final int index) {
+    return inAnimation.get(index);
+  }
+
+  /**
+   * Getter.
+   *
+   * @return Whether any position is in animation.
+   */
+  public boolean inAnimation() {
+    return !inAnimation.isEmpty();
+  }
+
+  /**
+   * Finds the id of the given interpolator. Must be called in synchronization.
+   *
+   * @param interpolator The interpolator.
+   * @return The id.
+   */
+  private byte interpolatorId(final Interpolator interpolator) {
+    Objects.requireNonNull(interpolator);
+    for(int i = 0; i < interpolatorCount; ++i) {
+      if(interpolators[i] == interpolator) return (byte) i;
+    }
+    if(interpolatorCount >= interpolators.length) throw new IllegalStateException(
+        "too many different interpolators");
+    interpolators[interpolatorCount] = interpolator;
+    return (byte) interpolatorCount++;
+  }
+
+  /** Activates this object. Must be called in synchronization. */
+  private void activate() {
+    if(active || activationList == null) return;
+    active = true;
+    activationList.activate(this);
+  }
+
+  /**
+   * Setter.
+   *
+   * @param index The index.
+   * @param x The new x coordinate.
+   * @param y The new y coordinate.
+   */
+  public void set(final int index, final double x, final double y) {
+    synchronized(lock) {
+      nextX[index] = x;
+      nextY[index] = y;
+      nextDuration[index] = NO_DURATION;
+      pending.set(index);
+      activate();
+    }
+  }
+
+  /**
+   * Sets a range of positions.
+   *
+   * @param from The first index.
+   * @param xs The new x coordinates.
+   * @param ys The new y coordinates. Must have the same length as the x
+   *          coordinates.
+   */
+  public void set(final int from, final double[] xs, final double[] ys) {
+    startAnimationTo(from, xs, ys, AnimationTiming.NO_ANIMATION, null);
+  }
+
+  /**
+   * Starts an animation to the given position.
+   *
+   * @param index The index.
+   * @param x The x coordinate of the destination.
+   * @param y The y coordinate of the destination.
+   * @param timing The timing.
+   */
+  public void startAnimationTo(final int index,
+      final double x, final double y, final AnimationTiming timing) {
+    synchronized(lock) {
+      nextX[index] = x;
+      nextY[index] = y;
+      nextDuration[index] = timing.duration;
+      nextPol[index] = interpolatorId(timing.pol);
+      pending.set(index);
+      activate();
+    }
+  }
+
+  /**
+   * Starts animations for a range of positions.
+   *
+   * @param from The first index.
+   * @param xs The x coordinates of the destinations.
+   * @param ys The y coordinates of the destinations. Must have the same length
+   *          as the x coordinates.
+   * @param timing The timing.
+   * @param onFinish The action that is executed once the duration of the
+   *          animation has passed. This may be <code>null</code> when no action
+   *          is required.
+   */
+  public void startAnimationTo(final int from, final double[] xs, final double[] ys,
+      final AnimationTiming timing, final AnimationAction onFinish) {
+    if(ys.length != xs.length) throw new IllegalArgumentException(
+        "length mismatch: " + xs.length + " != " + ys.length);
+    final int to = from + xs.length;
+    if(from < 0 || to > size) throw new IndexOutOfBoundsException(
+        "[" + from + ", " + to + ") size: " + size);
+    synchronized(lock) {
+      System.arraycopy(xs, 0, nextX, from, xs.length);
+      System.arraycopy(ys, 0, nextY, from, ys.length);
+      Arrays.fill(nextDuration, from, to, timing.duration);
+      Arrays.fill(nextPol, from, to, interpolatorId(timing.pol));
+      pending.set(from, to);
+      if(onFinish != null) {
+        pendingActions.add(new DueAction(onFinish, timing.duration));
+      }
+      activate();
+    }
+  }
+
+  /** Aborts all animations and keeps the current positions. */
+  public void clearAnimation() {
+    synchronized(lock) {
+      pending.clear();
+      clearPending = true;
+      activate();
+    }
+  }
+
+  @Override
+  public boolean animate(final long currentTime) {
+    synchronized(lock) {
+      if(clearPending) {
+        // clear was called prior to animation so we
+        // do not compute the next value
+        for(int i = inAnimation.nextSetBit(0); i >= 0; i = inAnimation.nextSetBit(i + 1)) {
+          pol[i] = NO_POL;
+        }
+        inAnimation.clear();
+        clearPending = false;
+      }
+    }
+    interpolate(currentTime);
+    dispatchAll(currentTime);
+    if(!actions.isEmpty()) {
+      int i = 0;
+      for(int k = 0; k < actions.size(); ++k) {
+        final DueAction a = actions.get(k);
+        if(a.due <= currentTime) {
+          AnimationAction.enqueue(a.action);
+          continue;
+        }
+        actions.set(i++, a);
+      }
+      actions.subList(i, actions.size()).clear();
+    }
+    final boolean res = changed;
+    changed = false;
+    return res;
+  }
+
+  /**
+   * Interpolates all positions in animation.
+   *
+   * @param currentTime The current time in milliseconds.
+   */
+  private void interpolate(final long currentTime) {
+    final BitSet inAnimation = this.inAnimation;
+    if(inAnimation.isEmpty()) return;
+    final Interpolator[] interpolators = this.interpolators;
+    changed = true;
+    for(int i = inAnimation.nextSetBit(0); i >= 0; i = inAnimation.nextSetBit(i + 1)) {
+      // we know the current index is set so we can start at the next position
+      final int endOfRun = inAnimation.nextClearBit(i + 1);
+      for(int k = i; k < endOfRun; ++k) {
+        final long end = endTime[k];
+        if(currentTime >= end) {
+          curX[k] = endX[k];
+          curY[k] = endY[k];
+          pol[k] = NO_POL;
+          continue;
+        }
+        final long start = startTime[k];
+        final double t = ((double) currentTime - start) / ((double) end - start);
+        final double f = interpolators[pol[k]].interpolate(t);
+        curX[k] = startX[k] * (1 - f) + endX[k] * f;
+        curY[k] = startY[k] * (1 - f) + endY[k] * f;
+      }
+      i = endOfRun;
+    }
+    // remove finished animations
+    for(int i = inAnimation.nextSetBit(0); i >= 0; i = inAnimation.nextSetBit(i + 1)) {
+      if(pol[i] == NO_POL) {
+        inAnimation.clear(i);
+      }
+    }
+  }
+
+  /**
+   * Dispatches all pending operations.
+   *
+   * @param currentTime The current time in milliseconds.
+   */
+  private void dispatchAll(final long currentTime) {
+    synchronized(lock) {
+      if(!pending.isEmpty()) {
+        changed = true;
+      }
+      for(int i = pending.nextSetBit(0); i >= 0; i = pending.nextSetBit(i + 1)) {
+        final long duration = nextDuration[i];
+        if(duration <= NO_DURATION) {
+          curX[i] = nextX[i];
+          curY[i] = nextY[i];
+          pol[i] = NO_POL;
+          inAnimation.clear(i);
+          continue;
+        }
+        startX[i] = curX[i];
+        startY[i] = curY[i];
+        endX[i] = nextX[i];
+        endY[i] = nextY[i];
+        startTime[i] = currentTime;
+        endTime[i] = currentTime + duration;
+        pol[i] = nextPol[i];
+        inAnimation.set(i);
+      }
+      pending.clear();
+      for(final DueAction a : pendingActions) {
+        a.due += currentTime;
+        actions.add(a);
+      }
+      pendingActions.clear();
+    }
+  }
+
+  @Override
+  public void setActivationList(final AnimationList list) {
+    synchronized(lock) {
+      final AnimationList old = activationList;
+      activationList = Objects.requireNonNull(list);
+      if(old != list) {
+        active = true;
+        list.activate(this);
+      }
+    }
+  }
+
+  @Override
+  public boolean keepActive() {
+    if(!inAnimation.isEmpty() || !actions.isEmpty()) return true;
+    synchronized(lock) {
+      if(!pending.isEmpty() || clearPending) return true;
+      active = false;
+      return false;
+    }
+  }
+
+}
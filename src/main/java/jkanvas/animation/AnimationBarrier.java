@@ -7,7 +7,12 @@ import jkanvas.Canvas;
 import jkanvas.util.Stopwatch;
 
 /**
- * An animation barrier coordinates drawing and animating.
+ * An animation barrier coordinates drawing and animating. By default animation
+ * and drawing are mutually exclusive and the animation of the next frame waits
+ * until the current frame is drawn. In {@link #setDoubleBuffered(boolean)
+ * double buffered} mode animation writes into the back state of
+ * {@link DoubleBuffered} objects and may run in parallel to drawing. The
+ * buffers are only swapped while no drawing is in progress.
  * 
  * @author Joschi <josua.krause@gmail.com>
  */
@@ -48,6 +53,9 @@ public class AnimationBarrier {
   /** The current state. */
   private volatile int state;
 
+  /** Whether animation and drawing may overlap. */
+  private volatile boolean doubleBuffered;
+
   /**
    * Creates an animation barrier for the given canvas. This method should only
    * called from within the given canvas.
@@ -142,6 +150,8 @@ public class AnimationBarrier {
     private final int stateBefore;
     /** The state to be set after the block closes. */
     private int stateAfter;
+    /** Whether the block does not change the state of the barrier. */
+    private final boolean stateless;
 
     /**
      * Creates a block.
@@ -149,11 +159,15 @@ public class AnimationBarrier {
      * @param stateAfter The state to set after the block closes.
      * @param stateBefore The state that is expected.
      * @param duration The object to store the duration of the block in.
+     * @param stateless Whether the block does not change the state of the
+     *          barrier.
      */
-    CloseBlock(final int stateAfter, final int stateBefore, final AtomicLong duration) {
+    CloseBlock(final int stateAfter, final int stateBefore,
+        final AtomicLong duration, final boolean stateless) {
       this.stateAfter = stateAfter;
       this.stateBefore = stateBefore;
       this.duration = duration;
+      this.stateless = stateless;
       timer = new Stopwatch();
     }
 
@@ -166,6 +180,7 @@ public class AnimationBarrier {
      * Setter.
      * 
      * @param stateAfter Overwrites the state to be set after closing the block.
+     *          This has no effect for animation blocks in double buffered mode.
      */
     public void setStateAfter(final int stateAfter) {
       if(stateAfter == INVALID) throw new IllegalArgumentException("invalid not allowed");
@@ -173,10 +188,21 @@ public class AnimationBarrier {
       this.stateAfter = stateAfter;
     }
 
+    /**
+     * Getter.
+     * 
+     * @return Whether the block excludes other blocks while it is open.
+     */
+    boolean isExclusive() {
+      return !stateless;
+    }
+
     @Override
     public void close() {
       ensureValid();
-      setState(stateAfter, stateBefore);
+      if(!stateless) {
+        setState(stateAfter, stateBefore);
+      }
       stateAfter = INVALID;
       duration.set(timer.currentNano());
     }
@@ -192,7 +218,7 @@ public class AnimationBarrier {
     synchronized(barrier) {
       awaitState(ALLOW_ALL | ALLOW_DRAW);
       setState(IN_DRAWING, ALLOW_ALL | ALLOW_DRAW);
-      return new CloseBlock(ALLOW_ALL, IN_DRAWING, drawing);
+      return new CloseBlock(ALLOW_ALL, IN_DRAWING, drawing, false);
     }
   }
 
@@ -202,10 +228,65 @@ public class AnimationBarrier {
    * @return The object to be closed after animating.
    */
   public CloseBlock openAnimationBlock() {
+    if(doubleBuffered) return new CloseBlock(ALLOW_ALL, DONT_CARE, animating, true);
     synchronized(barrier) {
       awaitState(ALLOW_ALL);
       setState(IN_ANIMATION, ALLOW_ALL);
-      return new CloseBlock(ALLOW_ALL, IN_ANIMATION, animating);
+      return new CloseBlock(ALLOW_ALL, IN_ANIMATION, animating, false);
+    }
+  }
+
+  /**
+   * Opens a block for animating if this is possible without waiting.
+   * 
+   * @return The object to be closed after animating or <code>null</code> if
+   *         the drawing of the last animation step has not finished yet. In
+   *         double buffered mode this method always succeeds.
+   */
+  public CloseBlock tryOpenAnimationBlock() {
+    if(doubleBuffered) return new CloseBlock(ALLOW_ALL, DONT_CARE, animating, true);
+    synchronized(barrier) {
+      if((state & ALLOW_ALL) != state) return null;
+      setState(IN_ANIMATION, ALLOW_ALL);
+      return new CloseBlock(ALLOW_ALL, IN_ANIMATION, animating, false);
+    }
+  }
+
+  /**
+   * Setter.
+   * 
+   * @param doubleBuffered Whether animation and drawing may overlap. In this
+   *          mode animation blocks never wait for drawing and
+   *          {@link DoubleBuffered} objects are swapped via
+   *          {@link #swapBuffers(AnimationList)} after each frame.
+   */
+  public void setDoubleBuffered(final boolean doubleBuffered) {
+    synchronized(barrier) {
+      this.doubleBuffered = doubleBuffered;
+      barrier.notifyAll();
+    }
+  }
+
+  /**
+   * Getter.
+   * 
+   * @return Whether animation and drawing may overlap.
+   */
+  public boolean isDoubleBuffered() {
+    return doubleBuffered;
+  }
+
+  /**
+   * Swaps the buffers of all {@link DoubleBuffered} objects of the given list.
+   * This method waits until the current drawing has finished and no drawing
+   * can start until the swap is done.
+   * 
+   * @param list The animation list.
+   */
+  public void swapBuffers(final AnimationList list) {
+    synchronized(barrier) {
+      awaitState(ALLOW_ALL | ALLOW_DRAW);
+      list.swapBuffers();
     }
   }
 
@@ -213,9 +294,11 @@ public class AnimationBarrier {
    * Getter.
    * 
    * @return The time of the last drawing and animation phase combined in
-   *         nano-seconds.
+   *         nano-seconds. In double buffered mode both phases overlap and the
+   *         longer one is reported.
    */
   public long lastCycle() {
+    if(doubleBuffered) return Math.max(drawing.get(), animating.get());
     return drawing.get() + animating.get();
   }
 
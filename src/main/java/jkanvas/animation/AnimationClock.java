@@ -0,0 +1,30 @@
+package jkanvas.animation;
+
+/**
+ * A source of time for animations. Replacing the clock makes it possible to
+ * drive animations with synthetic time.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ * @see ManualClock
+ */
+public interface AnimationClock {
+
+  /** The clock using the system time. */
+  // TODO #43 -- Java 8 simplification
+  AnimationClock SYSTEM = new AnimationClock() {
+
+    @Override
+    public long now() {
+      return System.currentTimeMillis();
+    }
+
+  };
+
+  /**
+   * Getter.
+   *
+   * @return The current time in milliseconds.
+   */
+  long now();
+
+}
@@ -30,20 +30,83 @@ public final class AnimationList implements AnimationToken {
 
   // ### managing animatable objects ###
 
+  /** The set of currently active objects. */
+  private final ActiveSet active = new ActiveSet();
+
   /**
    * Adds an animatable object. Elements are guaranteed to appear only once in
-   * the list.
+   * the list. {@link ActiveAnimated} objects are only animated while they are
+   * active.
    *
    * @param animate The object.
    */
   public void addAnimated(final Animated animate) {
+    if(animate instanceof ActiveAnimated) {
+      ((ActiveAnimated) animate).setActivationList(this);
+      return;
+    }
     animated.add(animate);
+    wakeUp();
+  }
+
+  /**
+   * Activates the given object. The object will be animated until
+   * {@link ActiveAnimated#keepActive()} returns <code>false</code>. The caller
+   * must guarantee that the object is not already active. This method may be
+   * called from any thread.
+   *
+   * @param animate The object to activate.
+   */
+  public void activate(final ActiveAnimated animate) {
+    active.activate(Objects.requireNonNull(animate));
+    wakeUp();
+  }
+
+  /** The animator that is woken up when new work arrives or <code>null</code>. */
+  private volatile AbstractAnimator owner;
+
+  /**
+   * Setter.
+   *
+   * @param owner The animator that is woken up when new work arrives.
+   */
+  void setOwner(final AbstractAnimator owner) {
+    this.owner = owner;
+  }
+
+  /** Wakes up the owning animator if it is idle. */
+  private void wakeUp() {
+    final AbstractAnimator o = owner;
+    if(o != null) {
+      o.wakeUp();
+    }
+  }
+
+  /**
+   * Getter.
+   *
+   * @return Whether there is no work to do. This is the case when there are no
+   *         plain {@link Animated} objects, no active objects, and no scheduled
+   *         actions. Plain {@link Animated} objects cannot report whether they
+   *         have work and therefore always prevent the list from being idle.
+   */
+  public boolean isIdle() {
+    return animated.isEmpty() && active.isEmpty() && timers.isEmpty();
+  }
+
+  /**
+   * Getter.
+   *
+   * @return The number of active objects during the last frame.
+   */
+  public int activeCount() {
+    return active.size();
   }
 
   // ### performing the animation ###
 
-  /** The internal fork join pool. */
-  private final ForkJoinPool pool = new ForkJoinPool();
+  /** The worker pool that is shared by all animation lists. */
+  private final ForkJoinPool pool = AnimationScheduler.getWorkerPool();
 
   /**
    * Suggests the deep of a parallel computation tree. This method is copied
@@ -160,6 +223,12 @@ public final class AnimationList implements AnimationToken {
     return hasChanged;
   }
 
+  /**
+   * Guards the active objects and the timers which otherwise are only accessed
+   * by the animation thread against disposal from other threads.
+   */
+  private final Object frameLock = new Object();
+
   /**
    * Computes one step for all animated.
    *
@@ -167,7 +236,7 @@ public final class AnimationList implements AnimationToken {
    * @return Whether a redraw is needed.
    */
   boolean doAnimate(final long currentTime) {
-    final boolean needsRedraw;
+    boolean needsRedraw;
     try (Snapshot<Animated> s = animated.getSnapshot()) {
       final int size = s.size();
       final int depth = suggestDepth(size) - 4; // work on larger chunks
@@ -180,61 +249,52 @@ public final class AnimationList implements AnimationToken {
         pool.invoke(task);
         needsRedraw = task.hasChanged();
       }
-      processActions(currentTime);
+      synchronized(frameLock) {
+        final int activeDepth = suggestDepth(active.drainIncoming()) - 4;
+        needsRedraw |= active.animate(pool, activeDepth, this, currentTime);
+        processActions(currentTime);
+      }
       executeAndClear();
     }
     return needsRedraw;
   }
 
-  // ### managing delayed actions ###
+  // ### double buffering ###
+
+  /** The double buffered objects. */
+  private final SnapshotList<DoubleBuffered> buffered = new SnapshotList<>();
 
   /**
-   * A timed action that is executed when its due.
+   * Registers a double buffered object. The object is only weakly referenced.
+   * Its buffers are swapped after every frame that needs a redraw.
    *
-   * @author Joschi <josua.krause@gmail.com>
+   * @param db The double buffered object.
+   * @see AnimationBarrier#setDoubleBuffered(boolean)
    */
-  private static final class TimedAction {
-
-    /** The action to execute. */
-    private final AnimationAction action;
-    /** Whether the timing is relative. */
-    private boolean relative;
-    /** The relative or absolute due time. */
-    private long due;
-
-    /**
-     * Creates a timed action.
-     *
-     * @param action The action. Must not be <code>null</code>.
-     * @param wait The time to wait in milliseconds.
-     */
-    public TimedAction(final AnimationAction action, final long wait) {
-      this.action = Objects.requireNonNull(action);
-      relative = true;
-      due = wait > 0 ? wait : 0;
-    }
+  public void addDoubleBuffered(final DoubleBuffered db) {
+    buffered.add(Objects.requireNonNull(db));
+  }
 
-    /**
-     * Converts a relative action in to an absolute action. If the action is due
-     * it gets executed and needs not be to rescheduled any more.
-     *
-     * @param currentTime The current time.
-     * @return Whether to reschedule.
-     */
-    public boolean execute(final long currentTime) {
-      if(relative) {
-        due += currentTime;
-        relative = false;
+  /**
+   * Swaps the buffers of all registered double buffered objects. This method
+   * must only be called from the animation thread while no drawing is in
+   * progress.
+   */
+  void swapBuffers() {
+    if(buffered.isEmpty()) return;
+    try (Snapshot<DoubleBuffered> s = buffered.getSnapshot()) {
+      for(final DoubleBuffered db : s) {
+        if(db != null) {
+          db.swapBuffers();
+        }
       }
-      if(currentTime < due) return true;
-      AnimationAction.enqueue(action);
-      return false;
     }
+  }
 
-  } // TimedAction
+  // ### managing delayed actions ###
 
-  /** The queue containing all actions. */
-  private final Queue<TimedAction> actionQueue = new ConcurrentLinkedQueue<>();
+  /** The timer wheel containing all scheduled actions. */
+  private final TimerWheel timers = new TimerWheel();
 
   /**
    * Schedules the given action to be executed after the specified time in
@@ -243,52 +303,48 @@ public final class AnimationList implements AnimationToken {
    * @param action The action to be executed. May be <code>null</code> when no
    *          action needs to be executed.
    * @param timing The timing to infer the duration.
+   * @return The handle to cancel the action.
    */
-  public void scheduleAction(final AnimationAction action, final AnimationTiming timing) {
-    scheduleAction(action, timing.duration);
+  public ScheduledAction scheduleAction(
+      final AnimationAction action, final AnimationTiming timing) {
+    return scheduleAction(action, timing.duration);
   }
 
   /**
    * Schedules the given action to be executed after the specified time in
-   * milliseconds.
+   * milliseconds. Scheduling and cancelling an action takes constant time.
    *
    * @param action The action to be executed. May be <code>null</code> when no
    *          action needs to be executed.
    * @param wait The time to wait in milliseconds.
+   * @return The handle to cancel the action.
    */
-  public void scheduleAction(final AnimationAction action, final long wait) {
-    if(action == null) return;
-    actionQueue.add(new TimedAction(action, wait));
+  public ScheduledAction scheduleAction(final AnimationAction action, final long wait) {
+    final ScheduledAction res = timers.schedule(action, wait);
+    if(!res.isDone()) {
+      wakeUp();
+    }
+    return res;
   }
 
   /**
-   * Processes the actions.
+   * Getter.
+   *
+   * @return The number of scheduled actions that were waiting after the last
+   *         frame.
+   */
+  public int scheduledCount() {
+    return timers.size();
+  }
+
+  /**
+   * Processes the actions. Only actions that are due are touched.
    *
    * @param currentTime The current time.
    */
   private void processActions(final long currentTime) {
     AnimationAction.setToken(this);
-    // we work on the same queue for relative and absolute actions
-    // therefore we have to go through the whole list each time
-    // this is not that expensive because there are usually
-    // only few actions at a time
-    TimedAction first = null;
-    TimedAction cur;
-    for(;;) {
-      cur = actionQueue.poll();
-      if(cur == null) return;
-      if(cur == first) {
-        actionQueue.add(cur);
-        return;
-      }
-      final boolean reschedule = cur.execute(currentTime);
-      if(reschedule) {
-        actionQueue.add(cur);
-        if(first == null) {
-          first = cur;
-        }
-      }
-    }
+    timers.advance(currentTime);
   }
 
   // ### Animation Token ###
@@ -328,10 +384,17 @@ public final class AnimationList implements AnimationToken {
     }
   }
 
-  /** Disposes this animation list. The list cannot be used afterwards. */
+  /**
+   * Disposes this animation list. The list cannot be used afterwards. If the
+   * animation thread is computing a step this method waits for it to finish.
+   */
   public void dispose() {
     animated.clear();
-    pool.shutdown();
+    buffered.clear();
+    synchronized(frameLock) {
+      active.clear();
+      timers.clear();
+    }
   }
 
 }
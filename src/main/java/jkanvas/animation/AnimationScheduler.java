@@ -0,0 +1,352 @@
+package jkanvas.animation;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import jkanvas.util.SnapshotList;
+import jkanvas.util.SnapshotList.Snapshot;
+
+/**
+ * A scheduler driving multiple {@link AbstractAnimator animators} from a single
+ * thread with one frame clock. Each frame the time of one frame is split evenly
+ * between all animators that have work. An animator exceeding its budget skips
+ * frames proportional to the overrun so that a busy canvas cannot starve the
+ * others. Idle animators cost nothing and when all animators are idle the
+ * scheduler thread parks until one of them is woken up.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ */
+public final class AnimationScheduler {
+
+  /** The number of scheduler threads that were created. */
+  private static final AtomicInteger SCHEDULER_COUNT = new AtomicInteger();
+
+  /**
+   * Holds the worker pool so that it is only created when needed.
+   *
+   * @author Joschi <josua.krause@gmail.com>
+   */
+  private static final class PoolHolder {
+
+    /** The worker pool shared by all animation lists. */
+    static final ForkJoinPool POOL = new ForkJoinPool(
+        Runtime.getRuntime().availableProcessors());
+
+  } // PoolHolder
+
+  /**
+   * Holds the shared scheduler so that it is only created when needed.
+   *
+   * @author Joschi <josua.krause@gmail.com>
+   */
+  private static final class SharedHolder {
+
+    /** The shared scheduler. */
+    static final AnimationScheduler SHARED = new AnimationScheduler(60);
+
+  } // SharedHolder
+
+  /**
+   * Getter.
+   *
+   * @return The bounded worker pool that is shared by all
+   *         {@link AnimationList animation lists}.
+   */
+  public static ForkJoinPool getWorkerPool() {
+    return PoolHolder.POOL;
+  }
+
+  /**
+   * Getter.
+   *
+   * @return The JVM wide scheduler running at 60 frames per second.
+   */
+  public static AnimationScheduler getShared() {
+    return SharedHolder.SHARED;
+  }
+
+  /** The animators driven by this scheduler. */
+  private final SnapshotList<AbstractAnimator> animators;
+
+  /** The lock for waiting. */
+  private final Object lock = new Object();
+
+  /** The length of a frame in nano-seconds. */
+  private volatile long period;
+
+  /** Whether the scheduler thread is parked since all animators are idle. */
+  private volatile boolean sleeping;
+
+  /** Whether the next frame should be computed immediately. */
+  private volatile boolean forced;
+
+  /** Whether the scheduler is disposed. */
+  private volatile boolean disposed;
+
+  /** The scheduler thread or <code>null</code> if it is not started yet. */
+  private volatile Thread thread;
+
+  /** The animator that is computed first in the next frame. */
+  private int offset;
+
+  /** Whether frames are only computed when calling {@link #step()}. */
+  private final boolean manual;
+
+  /**
+   * Creates a scheduler. The scheduler thread is started when the first
+   * animator is registered.
+   *
+   * @param framerate The frame rate.
+   */
+  public AnimationScheduler(final long framerate) {
+    this(framerate, false);
+  }
+
+  /**
+   * Creates a scheduler.
+   *
+   * @param framerate The frame rate.
+   * @param manual Whether frames are only computed when calling
+   *          {@link #step()}. A manual scheduler has no thread, does not
+   *          throttle animators, and animates animators without a canvas.
+   */
+  AnimationScheduler(final long framerate, final boolean manual) {
+    this.manual = manual;
+    setFramerate(framerate);
+    // TODO #43 -- Java 8 simplification
+    animators = new SnapshotList<AbstractAnimator>() {
+
+      @Override
+      protected boolean isValid(final AbstractAnimator el) {
+        return el != null && !el.isDisposed();
+      }
+
+    };
+  }
+
+  /**
+   * Setter.
+   *
+   * @param framerate The frame rate of all animators driven by this scheduler.
+   */
+  public void setFramerate(final long framerate) {
+    if(framerate <= 0) throw new IllegalArgumentException("framerate: " + framerate);
+    period = 1000000000L / framerate;
+  }
+
+  /**
+   * Getter.
+   *
+   * @return The length of a frame in nano-seconds.
+   */
+  public long getFramePeriod() {
+    return period;
+  }
+
+  /**
+   * Registers an animator. This method is called by the constructor of the
+   * animator.
+   *
+   * @param animator The animator.
+   */
+  void register(final AbstractAnimator animator) {
+    if(disposed) throw new IllegalStateException("scheduler already disposed");
+    animators.add(animator);
+    synchronized(lock) {
+      if(thread == null && !manual) {
+        // TODO #43 -- Java 8 simplification
+        thread = new Thread("animation-scheduler-" + SCHEDULER_COUNT.getAndIncrement()) {
+
+          @Override
+          public void run() {
+            runLoop();
+          }
+
+        };
+        thread.setDaemon(true);
+        thread.start();
+      }
+    }
+    forceNextFrame();
+  }
+
+  /**
+   * Getter.
+   *
+   * @return Whether frames are only computed when calling {@link #step()}.
+   */
+  public boolean isManual() {
+    return manual;
+  }
+
+  /**
+   * Computes one frame on the calling thread. This is only allowed for manual
+   * schedulers.
+   *
+   * @return Whether at least one animator is still awake.
+   */
+  boolean step() {
+    if(!manual) throw new IllegalStateException("scheduler has its own thread");
+    return frame();
+  }
+
+  /** Wakes up the scheduler thread if it is parked. */
+  void wakeUp() {
+    if(!sleeping) return;
+    synchronized(lock) {
+      sleeping = false;
+      lock.notifyAll();
+    }
+  }
+
+  /** Computes the next frame as soon as possible. */
+  void forceNextFrame() {
+    synchronized(lock) {
+      forced = true;
+      sleeping = false;
+      lock.notifyAll();
+    }
+    unpark();
+  }
+
+  /** Ends waiting for the deadline of the next frame. */
+  private void unpark() {
+    final Thread t = thread;
+    if(t != null) {
+      LockSupport.unpark(t);
+    }
+  }
+
+  /** The scheduler loop. */
+  void runLoop() {
+    try {
+      long next = System.nanoTime();
+      while(!disposed) {
+        forced = false;
+        if(!frame()) {
+          park();
+          next = System.nanoTime();
+          continue;
+        }
+        next += period;
+        final long now = System.nanoTime();
+        if(next < now) {
+          // frames that are already missed are dropped
+          next = now;
+        }
+        awaitDeadline(next);
+      }
+    } catch(final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Waits until the given deadline is reached, the next frame is forced, or
+   * the scheduler is disposed. Like {@link AbstractAnimator} the thread is
+   * parked with nano-second precision.
+   *
+   * @param deadline The deadline in nano-seconds.
+   * @throws InterruptedException If the thread is interrupted.
+   */
+  private void awaitDeadline(final long deadline) throws InterruptedException {
+    long rem;
+    while(!forced && !disposed && (rem = deadline - System.nanoTime()) > 0) {
+      LockSupport.parkNanos(this, rem);
+      if(Thread.interrupted()) throw new InterruptedException();
+    }
+  }
+
+  /**
+   * Parks the scheduler thread until an animator is woken up.
+   *
+   * @throws InterruptedException If the thread is interrupted.
+   */
+  private void park() throws InterruptedException {
+    synchronized(lock) {
+      if(forced) return;
+      sleeping = true;
+      // an animator may have been woken before the flag was visible
+      if(anyAwake()) {
+        sleeping = false;
+        return;
+      }
+      while(sleeping && !disposed) {
+        lock.wait();
+      }
+    }
+  }
+
+  /**
+   * Getter.
+   *
+   * @return Whether at least one animator is not idle.
+   */
+  private boolean anyAwake() {
+    try (Snapshot<AbstractAnimator> s = animators.getSnapshot()) {
+      for(final AbstractAnimator a : s) {
+        if(a != null && !a.isIdle()) return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Computes one frame for all animators that are not idle.
+   *
+   * @return Whether at least one animator is still awake.
+   */
+  private boolean frame() {
+    boolean anyAwake = false;
+    try (Snapshot<AbstractAnimator> s = animators.getSnapshot()) {
+      final int size = s.size();
+      int awake = 0;
+      for(int i = 0; i < size; ++i) {
+        final AbstractAnimator a = s.get(i);
+        if(a != null && !a.isIdle()) {
+          ++awake;
+        }
+      }
+      if(awake == 0) return false;
+      // a single animator may use the whole frame and more
+      final long budget = manual ? -1L : awake > 1 ? period / awake : 0L;
+      offset = offset < size ? offset : 0;
+      for(int k = 0; k < size; ++k) {
+        final AbstractAnimator a = s.get((offset + k) % size);
+        if(a == null || a.isIdle()) {
+          continue;
+        }
+        anyAwake |= a.scheduledFrame(budget);
+      }
+      ++offset;
+    }
+    return anyAwake;
+  }
+
+  /**
+   * Getter.
+   *
+   * @return Whether the scheduler thread is parked because all animators are
+   *         idle.
+   */
+  public boolean isIdle() {
+    return sleeping;
+  }
+
+  /**
+   * Disposes the scheduler. Animators that are still registered will no longer
+   * be animated. The shared scheduler cannot be disposed.
+   */
+  public void dispose() {
+    if(this == SharedHolder.SHARED) throw new IllegalStateException(
+        "shared scheduler cannot be disposed");
+    synchronized(lock) {
+      disposed = true;
+      lock.notifyAll();
+    }
+    unpark();
+    animators.clear();
+  }
+
+}
@@ -0,0 +1,31 @@
+package jkanvas.animation;
+
+/**
+ * Determines how an animator reacts when it misses the deadline of a frame.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ * @see AbstractAnimator#setCatchUpPolicy(CatchUpPolicy)
+ */
+public enum CatchUpPolicy {
+
+  /**
+   * Missed frames are dropped. The next frame is computed at the next deadline
+   * of the regular frame grid. Animations jump by the missed time.
+   */
+  DROP,
+
+  /**
+   * Missed frames are computed back to back without waiting until the animator
+   * is back on the regular frame grid. If the animator is too far behind the
+   * remaining frames are dropped.
+   */
+  COMPRESS,
+
+  /**
+   * The animation time is stretched. Each frame advances the animation time by
+   * at most one frame so animations slow down instead of jumping. The frame
+   * grid starts anew after a missed frame.
+   */
+  STRETCH,
+
+}
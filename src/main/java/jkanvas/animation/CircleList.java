@@ -22,6 +22,33 @@ public class CircleList extends PointList<Ellipse2D> {
     super(initialSize, defaultColor, defaultBorder);
   }
 
+  /**
+   * Creates a circle list with initial size.
+   * 
+   * @param initialSize The initial size.
+   * @param defaultColor The default filling color.
+   * @param defaultBorder The default border color.
+   * @param singlePrecision Whether coordinates are stored as
+   *          <code>float</code>. This halves the memory of the coordinates.
+   */
+  public CircleList(final int initialSize, final Color defaultColor,
+      final Color defaultBorder, final boolean singlePrecision) {
+    super(initialSize, defaultColor, defaultBorder, singlePrecision);
+  }
+
+  /**
+   * Creates a circle list with initial size.
+   * 
+   * @param initialSize The initial size.
+   * @param defaultColor The default filling color.
+   * @param defaultBorder The default border color.
+   * @param storage Where coordinates and colors are stored.
+   */
+  public CircleList(final int initialSize, final Color defaultColor,
+      final Color defaultBorder, final PaintListStorage storage) {
+    super(initialSize, defaultColor, defaultBorder, storage);
+  }
+
   @Override
   protected Ellipse2D createDrawObject() {
     return new Ellipse2D.Double();
@@ -33,4 +60,9 @@ public class CircleList extends PointList<Ellipse2D> {
     circle.setFrame(x - s, y - s, s * 2.0, s * 2.0);
   }
 
+  @Override
+  protected int getStampType(final int index) {
+    return STAMP_CIRCLE;
+  }
+
 }
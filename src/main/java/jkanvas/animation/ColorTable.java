@@ -0,0 +1,69 @@
+package jkanvas.animation;
+
+import java.awt.Color;
+
+/**
+ * Converts between {@link Color} objects and packed ARGB values as stored by
+ * {@link GenericPaintList}. Recently used colors are interned so that painting
+ * packed colors does not create a new {@link Color} for each object.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ */
+public final class ColorTable {
+
+  /** The packed value representing no color. */
+  public static final int NO_COLOR = 0;
+
+  /**
+   * The packed value of fully transparent {@link Color} objects. They are
+   * stored as this value in order to distinguish them from {@link #NO_COLOR}.
+   * Packed values can be any other fully transparent value as well.
+   */
+  public static final int TRANSPARENT = 0x00ffffff;
+
+  /** The number of interned colors. Must be a power of two. */
+  private static final int SIZE = 1 << 12;
+
+  /**
+   * The interned colors. Each value can only be stored in one slot. Races
+   * between threads only result in additional color objects.
+   */
+  private static final Color[] TABLE = new Color[SIZE];
+
+  /** No instances. */
+  private ColorTable() {
+    throw new AssertionError();
+  }
+
+  /**
+   * Converts a color to a packed value.
+   *
+   * @param color The color or <code>null</code>.
+   * @return The packed ARGB value or {@link #NO_COLOR} if the color is
+   *         <code>null</code>. Fully transparent colors are returned as
+   *         {@link #TRANSPARENT}.
+   */
+  public static int toARGB(final Color color) {
+    if(color == null) return NO_COLOR;
+    final int argb = color.getRGB();
+    return (argb >>> 24) == 0 ? TRANSPARENT : argb;
+  }
+
+  /**
+   * Converts a packed value to a color.
+   *
+   * @param argb The packed ARGB value.
+   * @return The color or <code>null</code> if the value is {@link #NO_COLOR}.
+   */
+  public static Color get(final int argb) {
+    if(argb == NO_COLOR) return null;
+    final int h = argb * 0x9e3779b9;
+    final int slot = (h ^ (h >>> 16)) & (SIZE - 1);
+    final Color c = TABLE[slot];
+    if(c != null && c.getRGB() == argb) return c;
+    final Color res = new Color(argb, true);
+    TABLE[slot] = res;
+    return res;
+  }
+
+}
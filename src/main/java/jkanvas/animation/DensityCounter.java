@@ -0,0 +1,121 @@
+package jkanvas.animation;
+
+import java.util.BitSet;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A worker counting the objects of a {@link GenericPaintList} per pixel of a
+ * raster or splitting the task further. Each leaf counts into its own raster
+ * and the rasters are summed up when joining.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ */
+final class DensityCounter extends RecursiveAction {
+
+  /** The list. */
+  private final GenericPaintList<?> list;
+  /** The objects to count. */
+  private final BitSet visibles;
+  /** The start of the buffer in the values array. */
+  private final int offset;
+  /** The transformation from object coordinates to raster coordinates. */
+  private final double[] m;
+  /** The width of the raster. */
+  private final int width;
+  /** The height of the raster. */
+  private final int height;
+  /** The depth of the worker. If 0 the worker does the computation. */
+  private final int depth;
+  /** The start index of this worker. */
+  private final int start;
+  /** The exclusive end index of this worker. */
+  private final int end;
+  /** The raster or <code>null</code> if it has not been created yet. */
+  private int[] counts;
+
+  /**
+   * Creates a worker to count objects.
+   *
+   * @param list The list.
+   * @param visibles The objects to count.
+   * @param offset The start of the buffer in the values array.
+   * @param m The scale and translation in x and y direction mapping object
+   *          coordinates to raster coordinates.
+   * @param width The width of the raster.
+   * @param height The height of the raster.
+   * @param depth The depth of this worker. If it reaches 0 the worker actually
+   *          computes the result.
+   * @param start The start index.
+   * @param end The exclusive end index.
+   * @param counts The raster or <code>null</code> if it should be created.
+   */
+  public DensityCounter(final GenericPaintList<?> list, final BitSet visibles,
+      final int offset, final double[] m, final int width, final int height,
+      final int depth, final int start, final int end, final int[] counts) {
+    this.list = list;
+    this.visibles = visibles;
+    this.offset = offset;
+    this.m = m;
+    this.width = width;
+    this.height = height;
+    this.depth = depth;
+    this.start = start;
+    this.end = end;
+    this.counts = counts;
+  }
+
+  @Override
+  protected void compute() {
+    if(depth <= 0) {
+      if(counts == null) {
+        counts = new int[width * height];
+      }
+      count();
+      return;
+    }
+    final int mid = (start + end) >>> 1;
+    final DensityCounter left = new DensityCounter(
+        list, visibles, offset, m, width, height, depth - 1, start, mid, counts);
+    final DensityCounter right = new DensityCounter(
+        list, visibles, offset, m, width, height, depth - 1, mid, end, null);
+    right.fork();
+    left.compute();
+    right.join();
+    final int[] l = left.counts;
+    final int[] r = right.counts;
+    for(int i = 0; i < l.length; ++i) {
+      l[i] += r[i];
+    }
+    counts = l;
+  }
+
+  /** Counts the objects of the range of this worker. */
+  private void count() {
+    final double[] box = new double[4];
+    final double sx = m[0];
+    final double tx = m[1];
+    final double sy = m[2];
+    final double ty = m[3];
+    for(int i = visibles.nextSetBit(start); i >= 0 && i < end; i = visibles.nextSetBit(i + 1)) {
+      if(!list.getBounds(offset + list.getPosition(i), box)) {
+        continue;
+      }
+      final double x = Math.floor(sx * (box[0] + box[2]) * 0.5 + tx);
+      final double y = Math.floor(sy * (box[1] + box[3]) * 0.5 + ty);
+      if(x < 0 || y < 0 || x >= width || y >= height) {
+        continue;
+      }
+      ++counts[(int) y * width + (int) x];
+    }
+  }
+
+  /**
+   * Getter.
+   *
+   * @return The raster.
+   */
+  public int[] getCounts() {
+    return counts;
+  }
+
+}
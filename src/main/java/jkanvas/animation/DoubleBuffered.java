@@ -0,0 +1,21 @@
+package jkanvas.animation;
+
+/**
+ * An object whose animation writes into a back state while drawing reads a
+ * front state. This allows the animation of the next frame to overlap with
+ * drawing the current frame. Double buffered objects must be registered via
+ * {@link AnimationList#addDoubleBuffered(DoubleBuffered)}.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ * @see AnimationBarrier#setDoubleBuffered(boolean)
+ */
+public interface DoubleBuffered {
+
+  /**
+   * Publishes the back state so that it becomes visible for drawing. This
+   * method is called from the animation thread after a frame has been computed
+   * while no drawing is in progress.
+   */
+  void swapBuffers();
+
+}
@@ -0,0 +1,138 @@
+package jkanvas.animation;
+
+/**
+ * Frame timing statistics of an animator. The statistics are written by the
+ * animation thread and may be read from any thread. Averages are exponential
+ * moving averages.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ */
+public final class FrameStatistics {
+
+  /** The weight of a new value in the moving averages. */
+  private static final double ALPHA = 1.0 / 16.0;
+
+  /** The targeted frame period in nano-seconds. */
+  private volatile long period;
+  /** The start of the last frame in nano-seconds or <code>0</code>. */
+  private long lastStart;
+  /** The average time between two frames in nano-seconds. */
+  private volatile double interval;
+  /** The average deviation of the frame interval from the period. */
+  private volatile double jitter;
+  /** The average time to compute a frame in nano-seconds. */
+  private volatile double stepTime;
+  /** The number of computed frames. */
+  private volatile long frames;
+  /** The number of dropped frames. */
+  private volatile long dropped;
+
+  /**
+   * Setter.
+   *
+   * @param period The targeted frame period in nano-seconds.
+   */
+  void setPeriod(final long period) {
+    this.period = period;
+  }
+
+  /** Restarts the interval measurement, e.g., after the animator was idle. */
+  void restart() {
+    lastStart = 0;
+  }
+
+  /**
+   * Records a computed frame.
+   *
+   * @param start The start of the frame in nano-seconds.
+   * @param time The time it took to compute the frame in nano-seconds.
+   */
+  void frame(final long start, final long time) {
+    stepTime = frames == 0 ? time : stepTime + ALPHA * (time - stepTime);
+    if(lastStart != 0) {
+      final long i = start - lastStart;
+      final boolean first = interval == 0;
+      interval = first ? i : interval + ALPHA * (i - interval);
+      final double dev = Math.abs(i - period);
+      jitter = first ? dev : jitter + ALPHA * (dev - jitter);
+    }
+    lastStart = start;
+    ++frames;
+  }
+
+  /**
+   * Records dropped frames.
+   *
+   * @param count The number of dropped frames.
+   */
+  void drop(final long count) {
+    dropped += count;
+  }
+
+  /**
+   * Getter.
+   *
+   * @return The targeted frame period in nano-seconds.
+   */
+  public long getPeriod() {
+    return period;
+  }
+
+  /**
+   * Getter.
+   *
+   * @return The average time between two consecutive frames in nano-seconds
+   *         or <code>0</code> if unknown.
+   */
+  public double getInterval() {
+    return interval;
+  }
+
+  /**
+   * Getter.
+   *
+   * @return The average frame rate or <code>0</code> if unknown.
+   */
+  public double getFrameRate() {
+    final double i = interval;
+    return i > 0 ? 1e9 / i : 0;
+  }
+
+  /**
+   * Getter.
+   *
+   * @return The average deviation of the frame interval from the targeted
+   *         period in nano-seconds.
+   */
+  public double getJitter() {
+    return jitter;
+  }
+
+  /**
+   * Getter.
+   *
+   * @return The average time to compute a frame in nano-seconds.
+   */
+  public double getStepTime() {
+    return stepTime;
+  }
+
+  /**
+   * Getter.
+   *
+   * @return The number of computed frames.
+   */
+  public long getFrames() {
+    return frames;
+  }
+
+  /**
+   * Getter.
+   *
+   * @return The number of dropped frames.
+   */
+  public long getDropped() {
+    return dropped;
+  }
+
+}
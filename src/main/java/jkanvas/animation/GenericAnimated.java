@@ -1,8 +1,7 @@
 package jkanvas.animation;
 
 import java.util.Objects;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import jkanvas.util.Interpolator;
 
@@ -14,11 +13,17 @@ import jkanvas.util.Interpolator;
  * @author Joschi <josua.krause@gmail.com>
  * @param <T> The type of animated values.
  */
-public abstract class GenericAnimated<T> implements Animated {
+public abstract class GenericAnimated<T> implements ActiveAnimated, DoubleBuffered {
 
   /** The current value. */
   private T cur;
 
+  /** The value visible for drawing when double buffered. */
+  private volatile T front;
+
+  /** Whether the value is double buffered. */
+  private volatile boolean doubleBuffered;
+
   /** The animation start value. */
   private T start;
 
@@ -74,12 +79,49 @@ public abstract class GenericAnimated<T> implements Animated {
   /**
    * Getter.
    * 
-   * @return The current value.
+   * @return The current value. When the value is double buffered this is the
+   *         value of the last completed frame.
    */
   public T get() {
+    if(doubleBuffered) {
+      final T f = front;
+      if(f != null) return f;
+    }
     return cur;
   }
 
+  /**
+   * Setter.
+   * 
+   * @param doubleBuffered Whether {@link #get()} returns the value of the last
+   *          completed frame while the animation computes the next frame. This
+   *          allows to animate and draw in parallel.
+   * @see AnimationBarrier#setDoubleBuffered(boolean)
+   */
+  public void setDoubleBuffered(final boolean doubleBuffered) {
+    front = doubleBuffered ? cur : null;
+    this.doubleBuffered = doubleBuffered;
+    final AnimationList list = activationList;
+    if(doubleBuffered && list != null) {
+      list.addDoubleBuffered(this);
+    }
+  }
+
+  /**
+   * Getter.
+   * 
+   * @return Whether the value is double buffered.
+   */
+  public boolean isDoubleBuffered() {
+    return doubleBuffered;
+  }
+
+  @Override
+  public void swapBuffers() {
+    if(!doubleBuffered) return;
+    front = cur;
+  }
+
   /**
    * This method is called every time an animation is started.
    * 
@@ -114,10 +156,13 @@ public abstract class GenericAnimated<T> implements Animated {
   public void set(final T t, final AnimationAction onFinish) {
     Objects.requireNonNull(t);
     // ensures that every previous animation is cleared
-    pendingOperations.add(
-        new PendingOp<>(t, beforeAnimation(AnimationTiming.NO_ANIMATION, onFinish)));
+    addOperation(t, null, beforeAnimation(AnimationTiming.NO_ANIMATION, onFinish));
+    activate();
     // set value directly for immediate feed-back
     doSet(t);
+    if(doubleBuffered) {
+      front = t;
+    }
     pred = null;
   }
 
@@ -177,8 +222,8 @@ public abstract class GenericAnimated<T> implements Animated {
       return;
     }
     Objects.requireNonNull(t);
-    pendingOperations.add(
-        new PendingOp<>(t, timing, beforeAnimation(timing, onFinish)));
+    addOperation(t, timing, beforeAnimation(timing, onFinish));
+    activate();
     pred = t;
   }
 
@@ -206,8 +251,8 @@ public abstract class GenericAnimated<T> implements Animated {
    *          This may be <code>null</code> when no action has to be executed.
    */
   public void clearAnimation(final AnimationAction onFinish) {
-    pendingOperations.add(new PendingOp<T>(
-        beforeAnimation(AnimationTiming.NO_ANIMATION, onFinish)));
+    addOperation(null, null, beforeAnimation(AnimationTiming.NO_ANIMATION, onFinish));
+    activate();
     doClearAnimation();
   }
 
@@ -217,8 +262,7 @@ public abstract class GenericAnimated<T> implements Animated {
    * @param currentTime The current time in milliseconds.
    */
   private void dispatchAll(final long currentTime) {
-    PendingOp<T> op = pendingOperations.poll();
-    if(op == null) {
+    if(!pollOperation()) {
       doAnimate(currentTime);
       return;
     }
@@ -226,33 +270,31 @@ public abstract class GenericAnimated<T> implements Animated {
     boolean clearOnFinish;
     // process pending operations
     do {
-      switch(op.operation) {
-        case OP_CLEAR:
-          // clear was called prior to animation so we
-          // do not compute the next value
-          doClearAnimation();
-          clearOnFinish = true;
-          break;
-        case OP_START:
-          startAnimationTo(currentTime, op.destination, op.timing);
-          clearOnFinish = false;
-          break;
-        case OP_SET: {
-          doClearAnimation();
-          doSet(op.destination);
-          clearOnFinish = true;
-          break;
-        }
-        default:
-          throw new InternalError();
+      final T destination = opDestination;
+      final AnimationTiming timing = opTiming;
+      final AnimationAction action = opAction;
+      opDestination = null;
+      opTiming = null;
+      opAction = null;
+      if(destination == null) {
+        // clear was called prior to animation so we
+        // do not compute the next value
+        doClearAnimation();
+        clearOnFinish = true;
+      } else if(timing == null) {
+        doClearAnimation();
+        doSet(destination);
+        clearOnFinish = true;
+      } else {
+        startAnimationTo(currentTime, destination, timing);
+        clearOnFinish = false;
       }
       // call action which will otherwise be overwritten
       if(onFinish != null) {
         AnimationAction.enqueue(onFinish);
       }
-      onFinish = op.onFinish;
-      op = pendingOperations.poll();
-    } while(op != null);
+      onFinish = action;
+    } while(pollOperation());
     if(onFinish != null && clearOnFinish) {
       AnimationAction.enqueue(onFinish);
       onFinish = null;
@@ -290,81 +332,96 @@ public abstract class GenericAnimated<T> implements Animated {
     doSet(interpolate(start, end, f));
   }
 
-  /** The queue of pending operations. */
-  private final Queue<PendingOp<T>> pendingOperations = new ConcurrentLinkedQueue<>();
+  /** The number of slots per operation in {@link #operations}. */
+  private static final int OP_STRIDE = 3;
 
-  /** Animation clearing operation. */
-  private static final int OP_CLEAR = 0;
+  /**
+   * The pending operations as a ring buffer. Each operation occupies three
+   * slots: the destination, the timing, and the action. A clearing operation
+   * has no destination and a setting operation has no timing. The buffer is
+   * allocated lazily and only grows so that no garbage is produced in steady
+   * state.
+   */
+  private Object[] operations;
+
+  /** The index of the first pending operation. */
+  private int opHead;
+
+  /** The number of pending operations. Only written under the lock. */
+  private volatile int opCount;
 
-  /** Animation start operation. */
-  private static final int OP_START = 1;
+  /** The lock guarding the pending operations. */
+  private final Object opLock = new Object();
 
-  /** Value setting operation. */
-  private static final int OP_SET = 2;
+  /** The destination of the last polled operation. */
+  private T opDestination;
+
+  /** The timing of the last polled operation. */
+  private AnimationTiming opTiming;
+
+  /** The action of the last polled operation. */
+  private AnimationAction opAction;
 
   /**
-   * A pending animation operation.
+   * Adds a pending operation.
    * 
-   * @author Joschi <josua.krause@gmail.com>
-   * @param <T> The animation type.
+   * @param destination The destination or <code>null</code> for clearing the
+   *          animation.
+   * @param timing The timing or <code>null</code> for setting the value.
+   * @param action The action or <code>null</code>.
    */
-  private static final class PendingOp<T> {
-
-    /** The type of operation. */
-    public final int operation;
-
-    /** The destination of the animation. */
-    public final T destination;
-
-    /** The timing for the animation. */
-    public final AnimationTiming timing;
-
-    /** The associated action. */
-    public final AnimationAction onFinish;
-
-    /**
-     * Creates an animation clearing operation.
-     * 
-     * @param onFinish The action that will be executed when the clearing is
-     *          performed.
-     */
-    public PendingOp(final AnimationAction onFinish) {
-      operation = OP_CLEAR;
-      this.onFinish = onFinish;
-      destination = null;
-      timing = null;
-    }
-
-    /**
-     * Creates a value setting operation. This clears animations.
-     * 
-     * @param val The value.
-     * @param onFinish The action that will be executed when the position is
-     *          set.
-     */
-    public PendingOp(final T val, final AnimationAction onFinish) {
-      operation = OP_SET;
-      this.onFinish = onFinish;
-      destination = val;
-      timing = null;
+  private void addOperation(final T destination,
+      final AnimationTiming timing, final AnimationAction action) {
+    synchronized(opLock) {
+      final int count = opCount;
+      Object[] ops = operations;
+      int capacity = ops == null ? 0 : ops.length / OP_STRIDE;
+      if(count >= capacity) {
+        final int newCapacity = Math.max(2, capacity * 2);
+        final Object[] tmp = new Object[newCapacity * OP_STRIDE];
+        for(int i = 0; i < count; ++i) {
+          System.arraycopy(ops, ((opHead + i) % capacity) * OP_STRIDE,
+              tmp, i * OP_STRIDE, OP_STRIDE);
+        }
+        ops = tmp;
+        operations = tmp;
+        capacity = newCapacity;
+        opHead = 0;
+      }
+      final int pos = ((opHead + count) % capacity) * OP_STRIDE;
+      ops[pos] = destination;
+      ops[pos + 1] = timing;
+      ops[pos + 2] = action;
+      opCount = count + 1;
     }
+  }
 
-    /**
-     * Creates an animation initiating operation.
-     * 
-     * @param destination The destination of the animation.
-     * @param timing The timing.
-     * @param onFinish The action that will be executed when the animation ends.
-     */
-    public PendingOp(final T destination,
-        final AnimationTiming timing, final AnimationAction onFinish) {
-      operation = OP_START;
-      this.destination = destination;
-      this.timing = timing;
-      this.onFinish = onFinish;
+  /**
+   * Removes the first pending operation and stores it in
+   * {@link #opDestination}, {@link #opTiming}, and {@link #opAction}. This
+   * method is only called from the animation thread.
+   * 
+   * @return Whether there was a pending operation.
+   */
+  @SuppressWarnings("unchecked")
+  private boolean pollOperation() {
+    if(opCount == 0) return false;
+    synchronized(opLock) {
+      final int count = opCount;
+      if(count == 0) return false;
+      final Object[] ops = operations;
+      final int pos = opHead * OP_STRIDE;
+      opDestination = (T) ops[pos];
+      opTiming = (AnimationTiming) ops[pos + 1];
+      opAction = (AnimationAction) ops[pos + 2];
+      ops[pos] = null;
+      ops[pos + 1] = null;
+      ops[pos + 2] = null;
+      opHead = (opHead + 1) % (ops.length / OP_STRIDE);
+      opCount = count - 1;
+      return true;
     }
-
-  } // PendingOp
+  }
 
   /**
    * Getter.
@@ -375,6 +432,62 @@ public abstract class GenericAnimated<T> implements Animated {
     return pol != null || pred != null;
   }
 
+  /** The list to notify when this object becomes active. */
+  private volatile AnimationList activationList;
+
+  /** The object that is handed to the {@link #activationList}. */
+  private volatile ActiveAnimated activationTarget;
+
+  /** Whether this object is currently in the active set. */
+  private final AtomicBoolean active = new AtomicBoolean();
+
+  @Override
+  public void setActivationList(final AnimationList list) {
+    setActivationList(list, this);
+  }
+
+  /**
+   * Setter. This method can be used when this object is animated by a wrapping
+   * object that delegates its animation calls.
+   * 
+   * @param list The animation list that needs to be notified when this object
+   *          becomes active.
+   * @param target The object that is handed to the list on activation. Its
+   *          {@link ActiveAnimated#keepActive()} method must delegate to
+   *          {@link #keepActive()}.
+   */
+  public void setActivationList(final AnimationList list, final ActiveAnimated target) {
+    final AnimationList old = activationList;
+    activationTarget = Objects.requireNonNull(target);
+    activationList = Objects.requireNonNull(list);
+    if(doubleBuffered) {
+      list.addDoubleBuffered(this);
+    }
+    // the object could have been changed before registration
+    if(active.compareAndSet(false, true) || old != list) {
+      list.activate(target);
+    }
+  }
+
+  /** Puts this object into the active set if it is not already there. */
+  private void activate() {
+    final AnimationList list = activationList;
+    if(list == null) return;
+    if(active.compareAndSet(false, true)) {
+      list.activate(activationTarget);
+    }
+  }
+
+  @Override
+  public boolean keepActive() {
+    if(pol != null || opCount != 0) return true;
+    active.set(false);
+    // an operation may have been added before the flag was cleared
+    if(opCount == 0) return false;
+    // if the flag is already set again the object got re-activated
+    return active.compareAndSet(false, true);
+  }
+
   /** Whether the value has been changed. */
   private boolean changed;
 
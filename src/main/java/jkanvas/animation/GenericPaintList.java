@@ -4,22 +4,49 @@ import java.awt.Color;
 import java.awt.Composite;
 import java.awt.Graphics2D;
 import java.awt.Shape;
+import java.awt.geom.AffineTransform;
 import java.awt.geom.Area;
 import java.awt.geom.Point2D;
-import java.util.Arrays;
+import java.awt.geom.Rectangle2D;
+import java.io.IOException;
 import java.util.BitSet;
 import java.util.List;
-
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+
+import jkanvas.DraftContext;
+import jkanvas.KanvasContext;
+import jkanvas.animation.ValueStore.DoubleStore;
+import jkanvas.animation.ValueStore.IntStore;
+import jkanvas.painter.ImageCache;
 import jkanvas.util.BitSetIterable;
 
 /**
  * A list of paint-able objects. The class is not fully guaranteed to be thread
- * safe.
+ * safe. When the list is {@link #setDoubleBuffered(boolean) double buffered}
+ * painting and hit tests use the state of the last swap while changes are
+ * written into a back buffer.
  * 
  * @author Joschi <josua.krause@gmail.com>
  * @param <T> The modifiable shape object.
  */
-public abstract class GenericPaintList<T extends Shape> {
+public abstract class GenericPaintList<T extends Shape> implements DoubleBuffered {
+
+  /**
+   * The maximal number of objects that are painted when only a draft is
+   * needed. Larger lists paint an evenly spaced subset of their objects.
+   */
+  public static int DRAFT_SIZE = 10000;
+
+  /**
+   * The minimal number of visible objects for which
+   * {@link #setParallel(boolean) parallel} painting is used.
+   */
+  public static int PARALLEL_SIZE = 50000;
+
+  /** The minimal number of objects counted by a density counting task. */
+  private static final int DENSITY_TASK_SIZE = 1 << 16;
 
   /** The number of dimensions. */
   private final int dims;
@@ -31,10 +58,41 @@ public abstract class GenericPaintList<T extends Shape> {
   private final BitSet visibles;
   /** The capacity. */
   private int capacity;
-  /** The values. */
-  private double[] cur;
-  /** The colors. */
-  private Color[] colors;
+  /** Where values and colors are stored. */
+  private final PaintListStorage storage;
+  /**
+   * The values. When double buffered the front buffer follows the back buffer
+   * starting at {@link #frontOffset}.
+   */
+  private DoubleStore cur;
+  /**
+   * The colors as packed ARGB values. When double buffered the front buffer
+   * follows the back buffer starting at {@link #frontColorOffset}.
+   * 
+   * @see ColorTable
+   */
+  private IntStore colors;
+  /** The visible elements of the front buffer or <code>null</code>. */
+  private BitSet frontVisibles;
+  /** The start of the front buffer in the values array. */
+  private int frontOffset;
+  /** The start of the front buffer in the colors array. */
+  private int frontColorOffset;
+  /**
+   * Whether the back buffer has been changed since the last swap. The flag is
+   * not volatile since changes are expected to come from the animation thread.
+   */
+  private boolean dirty;
+  /** The spatial index or <code>null</code> if no index is used. */
+  private PaintListIndex index;
+  /** Whether large lists are painted in parallel. */
+  private volatile boolean parallel;
+
+  /**
+   * The stripe images of the last parallel painting or <code>null</code>.
+   * Painting threads take the images while they use them.
+   */
+  final AtomicReference<ImageCache.Entry[]> stripes = new AtomicReference<>();
 
   /**
    * Creates an empty list.
@@ -45,18 +103,183 @@ public abstract class GenericPaintList<T extends Shape> {
    */
   public GenericPaintList(final int numberOfDimensions,
       final int numberOfColors, final int initialSize) {
+    this(numberOfDimensions, numberOfColors, initialSize, false);
+  }
+
+  /**
+   * Creates an empty list.
+   * 
+   * @param numberOfDimensions The number of dimensions.
+   * @param numberOfColors The number of colors.
+   * @param initialSize The initial capacity.
+   * @param singlePrecision Whether values are stored as <code>float</code>.
+   *          This halves the memory of the values. Values are rounded to
+   *          single precision when they are set.
+   */
+  public GenericPaintList(final int numberOfDimensions,
+      final int numberOfColors, final int initialSize, final boolean singlePrecision) {
+    this(numberOfDimensions, numberOfColors, initialSize,
+        PaintListStorage.heap(singlePrecision));
+  }
+
+  /**
+   * Creates a list. If the storage contains a previously
+   * {@link #flush() flushed} list the list is restored.
+   * 
+   * @param numberOfDimensions The number of dimensions.
+   * @param numberOfColors The number of colors.
+   * @param initialSize The initial capacity.
+   * @param storage Where values and colors are stored.
+   */
+  public GenericPaintList(final int numberOfDimensions, final int numberOfColors,
+      final int initialSize, final PaintListStorage storage) {
     if(numberOfColors < 0) throw new IllegalArgumentException(
         "must be larger or equal to 0: " + numberOfColors);
     if(numberOfDimensions <= 0) throw new IllegalArgumentException(
         "must be larger than 0: " + numberOfDimensions);
     dims = numberOfDimensions;
     cols = numberOfColors;
-    final int is = Math.max(128, initialSize);
-    capacity = is;
-    cur = new double[numberOfDimensions * is];
-    colors = new Color[numberOfColors * is];
+    this.storage = Objects.requireNonNull(storage);
     actives = new BitSet();
     visibles = new BitSet();
+    final int is = Math.max(Math.max(128, initialSize),
+        storage.restore(numberOfDimensions, numberOfColors, actives, visibles));
+    capacity = is;
+    cur = storage.createValues(numberOfDimensions * is);
+    colors = storage.createColors(numberOfColors * is);
+  }
+
+  /**
+   * Getter.
+   * 
+   * @return Where values and colors are stored.
+   */
+  public PaintListStorage getStorage() {
+    return storage;
+  }
+
+  /**
+   * Writes the list to its storage. Lists stored in
+   * {@link PaintListStorage#mapped(java.io.File, boolean) files} can be
+   * restored afterwards. Other storages are not changed.
+   * 
+   * @throws IOException I/O Exception.
+   */
+  public void flush() throws IOException {
+    synchronized(actives) {
+      storage.save(dims, cols, capacity, actives, visibles, cur, colors);
+    }
+  }
+
+  /**
+   * Setter.
+   * 
+   * @param indexed Whether to maintain a spatial index over the elements. The
+   *          index speeds up hit tests and culling of
+   *          {@link #paintAll(Graphics2D, KanvasContext)} for large lists. It
+   *          is not used while the list is double buffered or when the list
+   *          has no {@link #hasBounds() bounding boxes}.
+   */
+  public void setIndexed(final boolean indexed) {
+    synchronized(actives) {
+      if(indexed == isIndexed()) return;
+      index = indexed ? new PaintListIndex(this) : null;
+    }
+  }
+
+  /**
+   * Getter.
+   * 
+   * @return Whether a spatial index is maintained over the elements.
+   */
+  public boolean isIndexed() {
+    return index != null;
+  }
+
+  /**
+   * Setter.
+   * 
+   * @param parallel Whether lists with at least {@link #PARALLEL_SIZE} visible
+   *          elements are painted in parallel. The screen is split into
+   *          horizontal stripes that are painted on the
+   *          {@link AnimationScheduler#getWorkerPool() worker pool} and drawn
+   *          afterwards. Painting must then be thread safe. Elements without
+   *          {@link #getBounds(int, double[]) bounding box} are not painted.
+   *          Lists without {@link #hasBounds() bounding boxes} are always
+   *          painted sequentially.
+   */
+  public void setParallel(final boolean parallel) {
+    this.parallel = parallel;
+  }
+
+  /**
+   * Getter.
+   * 
+   * @return Whether large lists are painted in parallel.
+   */
+  public boolean isParallel() {
+    return parallel;
+  }
+
+  /**
+   * Finds the visible elements whose bounding boxes may intersect the given
+   * rectangle.
+   * 
+   * @param rect The rectangle.
+   * @return The candidates or <code>null</code> if no index can be used.
+   */
+  private BitSet indexed(final Rectangle2D rect) {
+    final PaintListIndex idx = index;
+    if(idx == null || isDoubleBuffered() || !hasBounds()) return null;
+    final BitSet res;
+    synchronized(actives) {
+      res = idx.query(rect.getMinX(), rect.getMinY(), rect.getMaxX(), rect.getMaxY());
+    }
+    res.and(visibles);
+    return res;
+  }
+
+  /**
+   * Computes the bounding box of an element for the spatial index.
+   * 
+   * @param index The index of the element.
+   * @param bbox The array storing min x, min y, max x, and max y.
+   * @return Whether the element has a bounding box.
+   */
+  boolean getIndexBounds(final int index, final double[] bbox) {
+    return getBounds(getPosition(index), bbox);
+  }
+
+  /**
+   * Computes the bounding box of an element. No bounds need to be checked and
+   * the index is guaranteed to be active. The bounding box must contain
+   * everything that {@link #contains(Point2D, Shape, int, int)} and
+   * {@link #intersects(Area, Shape, int, int)} can hit.
+   * 
+   * @param pos The position in the array.
+   * @param bbox The array storing min x, min y, max x, and max y.
+   * @return Whether the element has a bounding box. Elements without bounding
+   *         box are neither painted nor hit when using a spatial index. The
+   *         default implementation returns <code>false</code>.
+   * @see #hasBounds()
+   */
+  protected boolean getBounds(
+      @SuppressWarnings("unused") final int pos,
+      @SuppressWarnings("unused") final double[] bbox) {
+    return false;
+  }
+
+  /**
+   * Whether the list computes {@link #getBounds(int, double[]) bounding boxes}
+   * of its elements. Only lists with bounding boxes use the spatial index, are
+   * painted in parallel, and can count densities. Subclasses that override
+   * {@link #getBounds(int, double[])} must return <code>true</code>.
+   * 
+   * @return Whether the list computes bounding boxes. The default
+   *         implementation returns <code>false</code>.
+   */
+  protected boolean hasBounds() {
+    return false;
   }
 
   /** Reduces the capacity of the arrays to the highest active index. */
@@ -64,6 +287,15 @@ public abstract class GenericPaintList<T extends Shape> {
     setCapacity(actives.length());
   }
 
+  /**
+   * Getter.
+   * 
+   * @return Whether values are stored as <code>float</code>.
+   */
+  public boolean isSinglePrecision() {
+    return cur.isSinglePrecision();
+  }
+
   /**
    * Sets the capacity of all arrays.
    * 
@@ -72,9 +304,85 @@ public abstract class GenericPaintList<T extends Shape> {
   private void setCapacity(final int newSize) {
     if(newSize == capacity()) return;
     synchronized(actives) {
+      if(frontVisibles == null) {
+        cur = cur.resize(newSize * dims);
+        colors = colors.resize(newSize * cols);
+        capacity = newSize;
+        return;
+      }
+      // the front buffer is moved behind the new back buffer
+      final int keep = Math.min(capacity, newSize);
+      if(newSize > capacity) {
+        cur = cur.resize(2 * newSize * dims);
+        colors = colors.resize(2 * newSize * cols);
+      }
+      cur.move(frontOffset, newSize * dims, keep * dims);
+      colors.move(frontColorOffset, newSize * cols, keep * cols);
+      if(newSize < capacity) {
+        cur = cur.resize(2 * newSize * dims);
+        colors = colors.resize(2 * newSize * cols);
+      }
       capacity = newSize;
-      cur = Arrays.copyOf(cur, newSize * dims);
-      colors = Arrays.copyOf(colors, newSize * cols);
+      frontOffset = newSize * dims;
+      frontColorOffset = newSize * cols;
+    }
+  }
+
+  /**
+   * Setter.
+   * 
+   * @param doubleBuffered Whether painting and hit tests use the state of the
+   *          last call to {@link #swapBuffers()}. This allows to change the
+   *          list from the animation thread while the previous frame is drawn.
+   *          The list must be registered via
+   *          {@link AnimationList#addDoubleBuffered(DoubleBuffered)}.
+   * @see AnimationBarrier#setDoubleBuffered(boolean)
+   */
+  public void setDoubleBuffered(final boolean doubleBuffered) {
+    synchronized(actives) {
+      if(doubleBuffered == isDoubleBuffered()) return;
+      final int size = capacity * dims;
+      final int colSize = capacity * cols;
+      if(doubleBuffered) {
+        cur = cur.resize(2 * size);
+        colors = colors.resize(2 * colSize);
+        frontOffset = size;
+        frontColorOffset = colSize;
+        frontVisibles = new BitSet();
+        dirty = true;
+        swapBuffers();
+      } else {
+        frontVisibles = null;
+        frontOffset = 0;
+        frontColorOffset = 0;
+        cur = cur.resize(size);
+        colors = colors.resize(colSize);
+      }
+    }
+  }
+
+  /**
+   * Getter.
+   * 
+   * @return Whether painting and hit tests use the state of the last swap.
+   */
+  public boolean isDoubleBuffered() {
+    return frontVisibles != null;
+  }
+
+  @Override
+  public void swapBuffers() {
+    if(!dirty) return;
+    synchronized(actives) {
+      final BitSet fv = frontVisibles;
+      if(fv == null) return;
+      // changes during the copy set the flag again
+      dirty = false;
+      final int len = actives.length();
+      cur.move(0, frontOffset, len * dims);
+      colors.move(0, frontColorOffset, len * cols);
+      fv.clear();
+      fv.or(visibles);
     }
   }
 
@@ -99,6 +407,10 @@ public abstract class GenericPaintList<T extends Shape> {
       nextIndex = actives.nextClearBit(0);
       actives.set(nextIndex);
       visibles.set(nextIndex);
+      dirty = true;
+      if(index != null) {
+        index.moved(nextIndex);
+      }
       if(nextIndex >= capacity()) {
         enlarge();
       }
@@ -106,6 +418,49 @@ public abstract class GenericPaintList<T extends Shape> {
     return nextIndex;
   }
 
+  /**
+   * Ensures that the list can hold the given number of objects without
+   * enlarging the arrays.
+   * 
+   * @param minCapacity The minimal capacity.
+   */
+  public void ensureCapacity(final int minCapacity) {
+    synchronized(actives) {
+      if(minCapacity > capacity()) {
+        setCapacity(minCapacity);
+      }
+    }
+  }
+
+  /**
+   * Makes room for a range of new objects. In contrast to {@link #addIndex()}
+   * the objects are always appended after the highest active index so that
+   * they get consecutive indices. The capacity is increased at most once and
+   * the colors of the new objects are cleared.
+   * 
+   * @param count The number of new objects.
+   * @return The index of the first new object. Note that the values must be
+   *         manually initialized.
+   */
+  protected int addIndices(final int count) {
+    if(count < 0) throw new IllegalArgumentException("" + count);
+    final int start;
+    synchronized(actives) {
+      start = actives.length();
+      if(start + count > capacity()) {
+        setCapacity(Math.max(start + count, capacity() + capacity() / 2));
+      }
+      colors.clear(getColorPosition(start), count * cols);
+      actives.set(start, start + count);
+      visibles.set(start, start + count);
+      dirty = true;
+      if(index != null) {
+        index.moved(start, start + count);
+      }
+    }
+    return start;
+  }
+
   /**
    * Getter.
    * 
@@ -124,6 +479,10 @@ public abstract class GenericPaintList<T extends Shape> {
     synchronized(actives) {
       actives.set(index, false);
       visibles.set(index, false);
+      dirty = true;
+      if(this.index != null) {
+        this.index.moved(index);
+      }
     }
   }
 
@@ -137,6 +496,10 @@ public abstract class GenericPaintList<T extends Shape> {
     synchronized(actives) {
       actives.set(fromIndex, toIndex, false);
       visibles.set(fromIndex, toIndex, false);
+      dirty = true;
+      if(index != null) {
+        index.moved(fromIndex, toIndex);
+      }
     }
   }
 
@@ -145,6 +508,10 @@ public abstract class GenericPaintList<T extends Shape> {
     synchronized(actives) {
       actives.clear();
       visibles.clear();
+      dirty = true;
+      if(index != null) {
+        index.invalidate();
+      }
     }
   }
 
@@ -168,6 +535,19 @@ public abstract class GenericPaintList<T extends Shape> {
     if(!isActive(index)) throw new IllegalArgumentException(index + " not active");
   }
 
+  /**
+   * Ensures that all indices in the given range are active.
+   * 
+   * @param fromIndex The inclusive lowest index.
+   * @param toIndex The exclusive highest index.
+   */
+  protected void ensureActive(final int fromIndex, final int toIndex) {
+    if(fromIndex < 0 || fromIndex > toIndex) throw new IllegalArgumentException(
+        fromIndex + " - " + toIndex);
+    final int i = actives.nextClearBit(fromIndex);
+    if(i < toIndex) throw new IllegalArgumentException(i + " not active");
+  }
+
   /**
    * Getter.
    * 
@@ -187,7 +567,7 @@ public abstract class GenericPaintList<T extends Shape> {
    * @see #ensureActive(int)
    */
   protected double get(final int dim, final int pos) {
-    return cur[pos + dim];
+    return cur.get(pos + dim);
   }
 
   /**
@@ -199,7 +579,37 @@ public abstract class GenericPaintList<T extends Shape> {
    * @see #ensureActive(int)
    */
   protected void set(final int dim, final int pos, final double val) {
-    cur[pos + dim] = val;
+    cur.set(pos + dim, val);
+    dirty = true;
+    final PaintListIndex idx = index;
+    if(idx != null) {
+      // queries clear the marks under the same lock
+      synchronized(actives) {
+        idx.moved(pos / dims);
+      }
+    }
+  }
+
+  /**
+   * Sets one dimension of consecutive objects. This method does no checks.
+   * 
+   * @param dim The dimension.
+   * @param fromIndex The index of the first object.
+   * @param vals The values.
+   * @param off The first value in the array.
+   * @param len The number of objects.
+   * @see #ensureActive(int, int)
+   */
+  protected void setRange(final int dim, final int fromIndex,
+      final double[] vals, final int off, final int len) {
+    cur.setAll(getPosition(fromIndex) + dim, dims, vals, off, len);
+    dirty = true;
+    final PaintListIndex idx = index;
+    if(idx != null) {
+      synchronized(actives) {
+        idx.moved(fromIndex, fromIndex + len);
+      }
+    }
   }
 
   /**
@@ -221,7 +631,7 @@ public abstract class GenericPaintList<T extends Shape> {
    * @see #ensureActive(int)
    */
   protected Color getColor(final int col, final int pos) {
-    return colors[pos + col];
+    return ColorTable.get(colors.getInt(pos + col));
   }
 
   /**
@@ -233,7 +643,54 @@ public abstract class GenericPaintList<T extends Shape> {
    * @see #ensureActive(int)
    */
   protected void setColor(final int col, final int pos, final Color color) {
-    colors[pos + col] = color;
+    colors.setInt(pos + col, ColorTable.toARGB(color));
+    dirty = true;
+  }
+
+  /**
+   * Getter. This method does no checks.
+   * 
+   * @param col The color column.
+   * @param pos The position in the array. Use {@link #getColorPosition(int)}.
+   * @return The packed ARGB value of the given index in the column or
+   *         {@link ColorTable#NO_COLOR}.
+   * @see #ensureActive(int)
+   */
+  protected int getARGB(final int col, final int pos) {
+    return colors.getInt(pos + col);
+  }
+
+  /**
+   * Setter. This method does no checks.
+   * 
+   * @param col The color column.
+   * @param pos The position in the array. Use {@link #getColorPosition(int)}.
+   * @param argb The packed ARGB value of the given index in the column or
+   *          {@link ColorTable#NO_COLOR}.
+   * @see #ensureActive(int)
+   */
+  protected void setARGB(final int col, final int pos, final int argb) {
+    colors.setInt(pos + col, argb);
+    dirty = true;
+  }
+
+  /**
+   * Sets one color column of consecutive objects. This method does no checks.
+   * 
+   * @param col The color column.
+   * @param fromIndex The index of the first object.
+   * @param argbs The packed ARGB values or {@link ColorTable#NO_COLOR}.
+   * @param off The first value in the array.
+   * @param len The number of objects.
+   * @see #ensureActive(int, int)
+   */
+  protected void setARGBRange(final int col, final int fromIndex,
+      final int[] argbs, final int off, final int len) {
+    final IntStore c = colors;
+    for(int k = 0, p = getColorPosition(fromIndex) + col; k < len; ++k, p += cols) {
+      c.setInt(p, argbs[off + k]);
+    }
+    dirty = true;
   }
 
   /**
@@ -257,6 +714,7 @@ public abstract class GenericPaintList<T extends Shape> {
   public void setVisible(final int index, final boolean isVisible) {
     ensureActive(index);
     visibles.set(index, isVisible);
+    dirty = true;
   }
 
   /**
@@ -284,17 +742,41 @@ public abstract class GenericPaintList<T extends Shape> {
    */
   protected abstract T createDrawObject();
 
+  /**
+   * Getter.
+   * 
+   * @return The visible elements that are used for painting and hit tests.
+   */
+  private BitSet drawnVisibles() {
+    final BitSet fv = frontVisibles;
+    return fv != null ? fv : visibles;
+  }
+
   /**
    * Paints all visible objects.
    * 
    * @param gfx The graphics context.
    */
   public void paintAll(final Graphics2D gfx) {
+    paintAll(gfx, drawnVisibles());
+  }
+
+  /**
+   * Paints the given objects.
+   * 
+   * @param gfx The graphics context.
+   * @param visibles The objects to paint.
+   */
+  private void paintAll(final Graphics2D gfx, final BitSet visibles) {
+    final int offset = frontOffset;
+    final int colorOffset = frontColorOffset;
+    if(paintDirect(gfx, visibles, offset, colorOffset)) return;
+    if(parallel && StripePainter.paint(this, gfx, visibles, offset, colorOffset)) return;
     final Composite defaultComposite = gfx.getComposite();
     final T drawObject = createDrawObject();
     for(int i = visibles.nextSetBit(0); i >= 0; i = visibles.nextSetBit(i + 1)) {
-      int pos = getPosition(i);
-      int cpos = getColorPosition(i);
+      int pos = offset + getPosition(i);
+      int cpos = colorOffset + getColorPosition(i);
       // we know the current index is set so we can start at the next position
       final int endOfRun = visibles.nextClearBit(i + 1);
       do {
@@ -305,6 +787,112 @@ public abstract class GenericPaintList<T extends Shape> {
     }
   }
 
+  /**
+   * Paints all visible objects. When the context only needs a
+   * {@link DraftContext#isDraft() draft} at most {@link #DRAFT_SIZE} evenly
+   * spaced objects are painted. When the list is
+   * {@link #setIndexed(boolean) indexed} only objects in the visible canvas
+   * are painted.
+   * 
+   * @param gfx The graphics context.
+   * @param ctx The canvas context.
+   */
+  public void paintAll(final Graphics2D gfx, final KanvasContext ctx) {
+    BitSet visibles = null;
+    if(index != null) {
+      final Rectangle2D view = ctx.getVisibleCanvas();
+      // borders may be drawn slightly outside of the bounding boxes
+      final double m = 1 + ctx.toCanvasLength(2);
+      visibles = indexed(new Rectangle2D.Double(view.getX() - m, view.getY() - m,
+          view.getWidth() + 2 * m, view.getHeight() + 2 * m));
+    }
+    if(visibles == null) {
+      visibles = drawnVisibles();
+    }
+    final int maxCount = Math.max(1, DRAFT_SIZE);
+    final int count;
+    if(!(ctx instanceof DraftContext && ((DraftContext) ctx).isDraft())
+        || (count = visibles.cardinality()) <= maxCount) {
+      paintAll(gfx, visibles);
+      return;
+    }
+    final int step = (count + maxCount - 1) / maxCount;
+    final Composite defaultComposite = gfx.getComposite();
+    final T drawObject = createDrawObject();
+    final int offset = frontOffset;
+    final int colorOffset = frontColorOffset;
+    int k = 0;
+    for(int i = visibles.nextSetBit(0); i >= 0; i = visibles.nextSetBit(i + 1)) {
+      if(k++ % step != 0) {
+        continue;
+      }
+      paint(gfx, drawObject, i, offset + getPosition(i),
+          colorOffset + getColorPosition(i), defaultComposite);
+    }
+  }
+
+  /**
+   * Counts the visible objects per pixel of a raster. An object is counted in
+   * the pixel containing the center of its bounding box. Large lists are
+   * counted in parallel on the {@link AnimationScheduler#getWorkerPool()
+   * worker pool}.
+   *
+   * @param counts The raster in row major order. The counts are added to the
+   *          values of the raster.
+   * @param width The width of the raster.
+   * @param height The height of the raster.
+   * @param toRaster The transformation from object coordinates to raster
+   *          coordinates. Only scaling and translation are considered.
+   * @return The highest count in the raster. Lists without
+   *         {@link #hasBounds() bounding boxes} count nothing.
+   */
+  public int countDensity(final int[] counts, final int width, final int height,
+      final AffineTransform toRaster) {
+    if(width * height > counts.length) throw new IllegalArgumentException(
+        "raster too small: " + counts.length);
+    if(!hasBounds()) return 0;
+    final double[] m = {
+        toRaster.getScaleX(), toRaster.getTranslateX(),
+        toRaster.getScaleY(), toRaster.getTranslateY(),
+    };
+    final BitSet visibles = drawnVisibles();
+    final int count = visibles.cardinality();
+    final ForkJoinPool pool = AnimationScheduler.getWorkerPool();
+    // every task counts at least as many objects as its raster has pixels
+    final int tasks = Math.min(pool.getParallelism(),
+        count / Math.max(width * height, DENSITY_TASK_SIZE));
+    final int depth = 31 - Integer.numberOfLeadingZeros(Math.max(tasks, 1));
+    final DensityCounter task = new DensityCounter(this, visibles, frontOffset,
+        m, width, height, depth, 0, visibles.length(), counts);
+    if(depth <= 0) {
+      task.compute();
+    } else {
+      pool.invoke(task);
+    }
+    int max = 0;
+    for(int i = 0; i < width * height; ++i) {
+      max = Math.max(max, counts[i]);
+    }
+    return max;
+  }
+
+  /**
+   * Paints the given objects without creating shapes. Subclasses may implement
+   * faster ways to paint objects with this method. The result must look like
+   * painting the objects one by one.
+   * 
+   * @param gfx The graphics context. The context must not be altered.
+   * @param visibles The objects to paint.
+   * @param offset The start of the buffer in the values array.
+   * @param colorOffset The start of the buffer in the colors array.
+   * @return Whether the objects have been painted. If <code>false</code> the
+   *         objects are painted one by one.
+   */
+  protected boolean paintDirect(final Graphics2D gfx, final BitSet visibles,
+      final int offset, final int colorOffset) {
+    return false;
+  }
+
   /**
    * Paints an object. No bounds need to be checked and the index is guaranteed
    * to be active.
@@ -330,8 +918,11 @@ public abstract class GenericPaintList<T extends Shape> {
    */
   public int hit(final Point2D point) {
     final T drawObject = createDrawObject();
+    final BitSet cand = indexed(new Rectangle2D.Double(point.getX(), point.getY(), 0, 0));
+    final BitSet visibles = cand != null ? cand : drawnVisibles();
+    final int offset = frontOffset;
     for(int i = visibles.length() - 1; i >= 0; i = visibles.previousSetBit(i - 1)) {
-      int pos = getPosition(i);
+      int pos = offset + getPosition(i);
       // we know the current index is set, so we can start looking one below
       final int endOfRun = visibles.previousClearBit(i - 1);
       do {
@@ -354,8 +945,11 @@ public abstract class GenericPaintList<T extends Shape> {
   public void hit(final Shape area, final List<Integer> elements) {
     final T drawObject = createDrawObject();
     final Area a = new Area(area);
+    final BitSet cand = indexed(area.getBounds2D());
+    final BitSet visibles = cand != null ? cand : drawnVisibles();
+    final int offset = frontOffset;
     for(int i = visibles.length() - 1; i >= 0; i = visibles.previousSetBit(i - 1)) {
-      int pos = getPosition(i);
+      int pos = offset + getPosition(i);
       // we know the current index is set, so we can start looking one below
       final int endOfRun = visibles.previousClearBit(i - 1);
       do {
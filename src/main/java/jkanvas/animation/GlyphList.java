@@ -30,6 +30,33 @@ public abstract class GlyphList extends PointList<Glyph> {
     super(initialSize, defaultColor, defaultBorder);
   }
 
+  /**
+   * Creates a glyph list.
+   * 
+   * @param initialSize The initial size.
+   * @param defaultColor The default fill color.
+   * @param defaultBorder The default border color.
+   * @param singlePrecision Whether coordinates are stored as
+   *          <code>float</code>. This halves the memory of the coordinates.
+   */
+  public GlyphList(final int initialSize, final Color defaultColor,
+      final Color defaultBorder, final boolean singlePrecision) {
+    super(initialSize, defaultColor, defaultBorder, singlePrecision);
+  }
+
+  /**
+   * Creates a glyph list.
+   * 
+   * @param initialSize The initial size.
+   * @param defaultColor The default fill color.
+   * @param defaultBorder The default border color.
+   * @param storage Where coordinates and colors are stored.
+   */
+  public GlyphList(final int initialSize, final Color defaultColor,
+      final Color defaultBorder, final PaintListStorage storage) {
+    super(initialSize, defaultColor, defaultBorder, storage);
+  }
+
   @Override
   protected Glyph createDrawObject() {
     return new Glyph();
@@ -41,6 +68,18 @@ public abstract class GlyphList extends PointList<Glyph> {
     g.setShape(getType(index), x, y, s);
   }
 
+  @Override
+  protected int getStampType(final int index) {
+    switch(getType(index)) {
+      case TYPE_CIRCLE:
+        return STAMP_CIRCLE;
+      case TYPE_RECT:
+        return STAMP_RECT;
+      default:
+        return STAMP_NONE;
+    }
+  }
+
   /**
    * Getter.
    * 
@@ -0,0 +1,106 @@
+package jkanvas.animation;
+
+/**
+ * Drives animations without a display and without waiting. Each frame advances
+ * a {@link ManualClock} by exactly one frame period so that animations are
+ * reproducible regardless of how long a frame takes to compute. This is useful
+ * for benchmarks and tests of transitions.
+ *
+ * <pre>
+ * final HeadlessAnimationDriver driver = new HeadlessAnimationDriver(60);
+ * final AnimatedPainter p = driver.createPainter();
+ * // ... set up render passes and start animations
+ * driver.runUntilIdle(10000);
+ * </pre>
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ */
+public final class HeadlessAnimationDriver {
+
+  /** The synthetic clock. */
+  private final ManualClock clock;
+
+  /** The manual scheduler. */
+  private final AnimationScheduler scheduler;
+
+  /**
+   * Creates a headless driver.
+   *
+   * @param framerate The synthetic frame rate.
+   */
+  public HeadlessAnimationDriver(final long framerate) {
+    clock = new ManualClock();
+    scheduler = new AnimationScheduler(framerate, true);
+  }
+
+  /**
+   * Getter.
+   *
+   * @return The synthetic clock.
+   */
+  public ManualClock getClock() {
+    return clock;
+  }
+
+  /**
+   * Getter.
+   *
+   * @return The manual scheduler driving all animators of this driver.
+   */
+  public AnimationScheduler getScheduler() {
+    return scheduler;
+  }
+
+  /**
+   * Creates a painter that is driven by this driver.
+   *
+   * @return The painter.
+   */
+  public AnimatedPainter createPainter() {
+    return new AnimatedPainter(scheduler, clock);
+  }
+
+  /**
+   * Advances the clock by one frame and computes the frame.
+   *
+   * @return Whether at least one animator is still awake.
+   */
+  public boolean step() {
+    clock.advanceNanos(scheduler.getFramePeriod());
+    return scheduler.step();
+  }
+
+  /**
+   * Computes the given number of frames as fast as possible.
+   *
+   * @param frames The number of frames.
+   */
+  public void run(final int frames) {
+    for(int i = 0; i < frames; ++i) {
+      step();
+    }
+  }
+
+  /**
+   * Computes frames until all animators are idle.
+   *
+   * @param maxFrames The maximal number of frames to compute.
+   * @return The number of computed frames.
+   */
+  public int runUntilIdle(final int maxFrames) {
+    int frames = 0;
+    while(frames < maxFrames) {
+      ++frames;
+      if(!step()) {
+        break;
+      }
+    }
+    return frames;
+  }
+
+  /** Disposes the driver. Its painters can no longer be animated. */
+  public void dispose() {
+    scheduler.dispose();
+  }
+
+}
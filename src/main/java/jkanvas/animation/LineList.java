@@ -44,7 +44,35 @@ public class LineList extends GenericPaintList<Line2D> {
    *          be transparent by default.
    */
   public LineList(final int initialSize, final Color defaultColor) {
-    super(5, 1, initialSize);
+    this(initialSize, defaultColor, false);
+  }
+
+  /**
+   * Creates a line list.
+   * 
+   * @param initialSize The initial size.
+   * @param defaultColor The default color or <code>null</code> if lines should
+   *          be transparent by default.
+   * @param singlePrecision Whether coordinates are stored as
+   *          <code>float</code>. This halves the memory of the coordinates.
+   */
+  public LineList(final int initialSize, final Color defaultColor,
+      final boolean singlePrecision) {
+    super(5, 1, initialSize, singlePrecision);
+    this.defaultColor = defaultColor;
+  }
+
+  /**
+   * Creates a line list.
+   * 
+   * @param initialSize The initial size.
+   * @param defaultColor The default color or <code>null</code> if lines should
+   *          be transparent by default.
+   * @param storage Where coordinates and colors are stored.
+   */
+  public LineList(final int initialSize, final Color defaultColor,
+      final PaintListStorage storage) {
+    super(5, 1, initialSize, storage);
     this.defaultColor = defaultColor;
   }
 
@@ -106,6 +134,49 @@ public class LineList extends GenericPaintList<Line2D> {
     return index;
   }
 
+  /**
+   * Adds many lines at once. The lines get consecutive indices after the
+   * highest active index and use the default color.
+   * 
+   * @param x1s The first x coordinates.
+   * @param y1s The first y coordinates.
+   * @param x2s The second x coordinates.
+   * @param y2s The second y coordinates.
+   * @param alphas The alpha values of the lines.
+   * @return The index of the first line.
+   */
+  public int addLines(final double[] x1s, final double[] y1s,
+      final double[] x2s, final double[] y2s, final double[] alphas) {
+    final int len = x1s.length;
+    if(y1s.length != len || x2s.length != len || y2s.length != len
+        || alphas.length != len) throw new IllegalArgumentException(
+        "arrays differ in length");
+    for(final double alpha : alphas) {
+      if(alpha < 0 || alpha > 1) throw new IllegalArgumentException("" + alpha);
+    }
+    final int index = addIndices(len);
+    setRange(X_COORD_0, index, x1s, 0, len);
+    setRange(Y_COORD_0, index, y1s, 0, len);
+    setRange(X_COORD_1, index, x2s, 0, len);
+    setRange(Y_COORD_1, index, y2s, 0, len);
+    setRange(ALPHA, index, alphas, 0, len);
+    return index;
+  }
+
+  /**
+   * Whether
+   * {@link #addLines(double[], double[], double[], double[], double[])} has
+   * the same result as adding each line with
+   * {@link #addLine(double, double, double, double, double)}. Callers may only
+   * add lines in bulk instead of one by one if this is the case. Subclasses
+   * that change how single lines are added must return <code>false</code>.
+   * 
+   * @return Whether lines can be added in bulk.
+   */
+  public boolean supportsBulk() {
+    return true;
+  }
+
   /**
    * Setter.
    * 
@@ -190,6 +261,46 @@ public class LineList extends GenericPaintList<Line2D> {
     return getColor(COLOR, cpos);
   }
 
+  /**
+   * Setter. Setting packed values avoids creating {@link Color} objects.
+   * 
+   * @param index The index.
+   * @param argb The color as ARGB value or {@link ColorTable#NO_COLOR} if the
+   *          default color should be used. Fully transparent colors need a
+   *          value different from {@link ColorTable#NO_COLOR}, for example
+   *          {@link ColorTable#TRANSPARENT}.
+   */
+  public void setColorARGB(final int index, final int argb) {
+    ensureActive(index);
+    final int cpos = getColorPosition(index);
+    setARGB(COLOR, cpos, argb);
+  }
+
+  /**
+   * Getter.
+   * 
+   * @param index The index.
+   * @return The color as packed ARGB value or {@link ColorTable#NO_COLOR} if
+   *         the default color should be used.
+   */
+  public int getColorARGB(final int index) {
+    ensureActive(index);
+    final int cpos = getColorPosition(index);
+    return getARGB(COLOR, cpos);
+  }
+
+  /**
+   * Sets the colors of consecutive lines.
+   * 
+   * @param fromIndex The index of the first line.
+   * @param argbs The colors as ARGB values. The value
+   *          {@link ColorTable#NO_COLOR} uses the default color.
+   */
+  public void setColorsARGB(final int fromIndex, final int[] argbs) {
+    ensureActive(fromIndex, fromIndex + argbs.length);
+    setARGBRange(COLOR, fromIndex, argbs, 0, argbs.length);
+  }
+
   @Override
   protected Line2D createDrawObject() {
     return new Line2D.Double();
@@ -220,6 +331,26 @@ public class LineList extends GenericPaintList<Line2D> {
     }
   }
 
+  @Override
+  protected boolean hasBounds() {
+    return true;
+  }
+
+  @Override
+  protected boolean getBounds(final int pos, final double[] bbox) {
+    final double x1 = get(X_COORD_0, pos);
+    final double y1 = get(Y_COORD_0, pos);
+    final double x2 = get(X_COORD_1, pos);
+    final double y2 = get(Y_COORD_1, pos);
+    if(Double.isNaN(x1) || Double.isNaN(y1) ||
+        Double.isNaN(x2) || Double.isNaN(y2)) return false;
+    bbox[0] = Math.min(x1, x2);
+    bbox[1] = Math.min(y1, y2);
+    bbox[2] = Math.max(x1, x2);
+    bbox[3] = Math.max(y1, y2);
+    return true;
+  }
+
   /**
    * {@inheritDoc}
    * <p>
@@ -0,0 +1,52 @@
+package jkanvas.animation;
+
+/**
+ * A clock that only advances when told to. The clock has nano-second precision
+ * so that fractional frame periods do not accumulate rounding errors.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ */
+public final class ManualClock implements AnimationClock {
+
+  /** The current time in nano-seconds. */
+  private volatile long nanos;
+
+  /** Creates a clock starting at time <code>0</code>. */
+  public ManualClock() {
+    this(0L);
+  }
+
+  /**
+   * Creates a clock.
+   *
+   * @param start The start time in milliseconds.
+   */
+  public ManualClock(final long start) {
+    nanos = start * 1000000L;
+  }
+
+  @Override
+  public long now() {
+    return nanos / 1000000L;
+  }
+
+  /**
+   * Advances the clock.
+   *
+   * @param millis The time in milliseconds.
+   */
+  public void advance(final long millis) {
+    advanceNanos(millis * 1000000L);
+  }
+
+  /**
+   * Advances the clock.
+   *
+   * @param delta The time in nano-seconds. Must not be negative.
+   */
+  public synchronized void advanceNanos(final long delta) {
+    if(delta < 0) throw new IllegalArgumentException("delta: " + delta);
+    nanos += delta;
+  }
+
+}
@@ -0,0 +1,304 @@
+package jkanvas.animation;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A uniform grid over the elements of a {@link GenericPaintList}. Each element
+ * is stored in the cell containing the center of its bounding box. Elements
+ * that are larger than a cell are kept in a separate set that is part of every
+ * query result. Changed elements are only marked and moved to their new cells
+ * before the next query. The grid is rebuilt when many elements have changed.
+ * All methods must be called while holding the lock of the list so that marks
+ * of changes from other threads are not lost.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ */
+final class PaintListIndex {
+
+  /** The average number of elements per cell. */
+  private static final int PER_CELL = 4;
+
+  /** Marks an element that is not in the grid. */
+  private static final int NONE = -1;
+
+  /** Marks an element that is too large for the grid. */
+  private static final int LARGE = -2;
+
+  /** The indexed list. */
+  private final GenericPaintList<?> list;
+
+  /** The elements that have changed since the last query. */
+  private final BitSet moved = new BitSet();
+
+  /** The elements that are larger than a cell. */
+  private final BitSet large = new BitSet();
+
+  /** Whether the grid needs to be rebuilt. */
+  private boolean rebuild = true;
+
+  /** The left side of the grid. */
+  private double minX;
+
+  /** The top side of the grid. */
+  private double minY;
+
+  /** The side length of a cell. */
+  private double cell;
+
+  /** The number of columns. */
+  private int cols;
+
+  /** The number of rows. */
+  private int rows;
+
+  /** The first element of every cell or {@link #NONE}. */
+  private int[] heads = new int[0];
+
+  /** The next element in the same cell or {@link #NONE}. */
+  private int[] next = new int[0];
+
+  /** The previous element in the same cell or {@link #NONE}. */
+  private int[] prev = new int[0];
+
+  /** The cell of every element or {@link #NONE} or {@link #LARGE}. */
+  private int[] cellOf = new int[0];
+
+  /** A buffer for bounding boxes. */
+  private final double[] box = new double[4];
+
+  /**
+   * Creates an index for the given list.
+   *
+   * @param list The list.
+   */
+  public PaintListIndex(final GenericPaintList<?> list) {
+    this.list = list;
+  }
+
+  /**
+   * Marks an element as changed.
+   *
+   * @param index The index of the element.
+   */
+  public void moved(final int index) {
+    moved.set(index);
+  }
+
+  /**
+   * Marks a range of elements as changed.
+   *
+   * @param fromIndex The inclusive lowest index.
+   * @param toIndex The exclusive highest index.
+   */
+  public void moved(final int fromIndex, final int toIndex) {
+    moved.set(fromIndex, toIndex);
+  }
+
+  /** Marks all elements as changed. */
+  public void invalidate() {
+    rebuild = true;
+  }
+
+  /**
+   * Ensures that the arrays can hold the given number of elements.
+   *
+   * @param size The number of elements.
+   */
+  private void ensureSize(final int size) {
+    if(size <= cellOf.length) return;
+    final int len = Math.max(size, cellOf.length + cellOf.length / 2);
+    final int old = cellOf.length;
+    cellOf = Arrays.copyOf(cellOf, len);
+    Arrays.fill(cellOf, old, len, NONE);
+    next = Arrays.copyOf(next, len);
+    prev = Arrays.copyOf(prev, len);
+  }
+
+  /** Brings the grid up to date. */
+  private void sync() {
+    final int length = list.length();
+    if(rebuild || moved.cardinality() > length / 4) {
+      build(length);
+      return;
+    }
+    for(int i = moved.nextSetBit(0); i >= 0; i = moved.nextSetBit(i + 1)) {
+      ensureSize(i + 1);
+      remove(i);
+      if(i < length && list.isActive(i)) {
+        insert(i);
+      }
+    }
+    moved.clear();
+  }
+
+  /**
+   * Rebuilds the grid. The size of the cells is chosen by the density of the
+   * elements and their average size.
+   *
+   * @param length The highest active index plus one.
+   */
+  private void build(final int length) {
+    rebuild = false;
+    moved.clear();
+    large.clear();
+    cellOf = new int[length];
+    next = new int[length];
+    prev = new int[length];
+    Arrays.fill(cellOf, NONE);
+    double x0 = Double.POSITIVE_INFINITY;
+    double y0 = Double.POSITIVE_INFINITY;
+    double x1 = Double.NEGATIVE_INFINITY;
+    double y1 = Double.NEGATIVE_INFINITY;
+    double extent = 0;
+    int count = 0;
+    for(int i = 0; i < length; ++i) {
+      if(!list.isActive(i) || !list.getIndexBounds(i, box)) {
+        continue;
+      }
+      final double cx = (box[0] + box[2]) * 0.5;
+      final double cy = (box[1] + box[3]) * 0.5;
+      x0 = Math.min(x0, cx);
+      y0 = Math.min(y0, cy);
+      x1 = Math.max(x1, cx);
+      y1 = Math.max(y1, cy);
+      extent += Math.max(box[2] - box[0], box[3] - box[1]);
+      ++count;
+    }
+    if(count == 0) {
+      cols = 0;
+      rows = 0;
+      heads = new int[0];
+      return;
+    }
+    final double w = x1 - x0;
+    final double h = y1 - y0;
+    double c = Math.max(Math.sqrt(w * h * PER_CELL / count), extent / count);
+    if(!(c > 0)) {
+      c = Math.max(Math.max(w, h), 1);
+    }
+    // limits the number of cells for very spread out elements
+    while((w / c + 1) * (h / c + 1) > 4.0 * count + 16) {
+      c *= 2;
+    }
+    minX = x0;
+    minY = y0;
+    cell = c;
+    cols = (int) (w / c) + 1;
+    rows = (int) (h / c) + 1;
+    heads = new int[cols * rows];
+    Arrays.fill(heads, NONE);
+    for(int i = 0; i < length; ++i) {
+      if(list.isActive(i)) {
+        insert(i);
+      }
+    }
+  }
+
+  /**
+   * Computes the column of the given x coordinate.
+   *
+   * @param x The x coordinate.
+   * @return The column clamped to the grid.
+   */
+  private int col(final double x) {
+    final double v = Math.floor((x - minX) / cell);
+    return (int) Math.max(0, Math.min(cols - 1, v));
+  }
+
+  /**
+   * Computes the row of the given y coordinate.
+   *
+   * @param y The y coordinate.
+   * @return The row clamped to the grid.
+   */
+  private int row(final double y) {
+    final double v = Math.floor((y - minY) / cell);
+    return (int) Math.max(0, Math.min(rows - 1, v));
+  }
+
+  /**
+   * Inserts an element.
+   *
+   * @param i The index of the element.
+   */
+  private void insert(final int i) {
+    if(heads.length == 0) {
+      // the grid has no geometry yet
+      rebuild = true;
+      return;
+    }
+    if(!list.getIndexBounds(i, box)) {
+      cellOf[i] = NONE;
+      return;
+    }
+    if(box[2] - box[0] > 2 * cell || box[3] - box[1] > 2 * cell) {
+      cellOf[i] = LARGE;
+      large.set(i);
+      return;
+    }
+    final int c = row((box[1] + box[3]) * 0.5) * cols + col((box[0] + box[2]) * 0.5);
+    cellOf[i] = c;
+    prev[i] = NONE;
+    next[i] = heads[c];
+    if(heads[c] != NONE) {
+      prev[heads[c]] = i;
+    }
+    heads[c] = i;
+  }
+
+  /**
+   * Removes an element.
+   *
+   * @param i The index of the element.
+   */
+  private void remove(final int i) {
+    final int c = cellOf[i];
+    if(c == NONE) return;
+    cellOf[i] = NONE;
+    if(c == LARGE) {
+      large.clear(i);
+      return;
+    }
+    if(prev[i] == NONE) {
+      heads[c] = next[i];
+    } else {
+      next[prev[i]] = next[i];
+    }
+    if(next[i] != NONE) {
+      prev[next[i]] = prev[i];
+    }
+  }
+
+  /**
+   * Finds all elements whose bounding boxes may intersect the given rectangle.
+   *
+   * @param x0 The left side.
+   * @param y0 The top side.
+   * @param x1 The right side.
+   * @param y1 The bottom side.
+   * @return The indices of the candidates. The set may be altered.
+   */
+  public BitSet query(final double x0, final double y0, final double x1, final double y1) {
+    sync();
+    if(rebuild) {
+      sync();
+    }
+    final BitSet res = (BitSet) large.clone();
+    if(heads.length == 0) return res;
+    // the center of an element is at most one cell away from its border
+    final int c0 = col(x0 - cell);
+    final int c1 = col(x1 + cell);
+    final int r0 = row(y0 - cell);
+    final int r1 = row(y1 + cell);
+    for(int r = r0; r <= r1; ++r) {
+      for(int c = c0; c <= c1; ++c) {
+        for(int i = heads[r * cols + c]; i != NONE; i = next[i]) {
+          res.set(i);
+        }
+      }
+    }
+    return res;
+  }
+
+}
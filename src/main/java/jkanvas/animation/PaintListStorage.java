@@ -0,0 +1,267 @@
+package jkanvas.animation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.Objects;
+
+import jkanvas.animation.ValueStore.DoubleStore;
+import jkanvas.animation.ValueStore.IntStore;
+
+/**
+ * Describes where a {@link GenericPaintList} stores its values and colors.
+ * Values and colors can either be stored in arrays on the Java heap, in direct
+ * memory outside of the heap, or in memory mapped files. Storage outside of
+ * the heap grows without copying and does not burden the garbage collector.
+ * Lists stored in files can be {@link GenericPaintList#flush() flushed} and
+ * reopened later by creating a list with the same storage.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ */
+public final class PaintListStorage {
+
+  /** Marks the beginning of a state file. */
+  private static final int MAGIC = 0x4a4b504c;
+
+  /** Stores values in arrays. */
+  private static final int HEAP = 0;
+  /** Stores values in direct memory. */
+  private static final int DIRECT = 1;
+  /** Stores values in memory mapped files. */
+  private static final int MAPPED = 2;
+
+  /** How values are stored. */
+  private final int type;
+  /** Whether values are stored as <code>float</code>. */
+  private final boolean singlePrecision;
+  /** The base name of the files or <code>null</code>. */
+  private final File base;
+
+  /**
+   * Creates a storage description.
+   *
+   * @param type How values are stored.
+   * @param singlePrecision Whether values are stored as <code>float</code>.
+   * @param base The base name of the files or <code>null</code>.
+   */
+  private PaintListStorage(final int type, final boolean singlePrecision, final File base) {
+    this.type = type;
+    this.singlePrecision = singlePrecision;
+    this.base = base;
+  }
+
+  /**
+   * Stores values in arrays on the Java heap.
+   *
+   * @param singlePrecision Whether values are stored as <code>float</code>.
+   * @return The storage.
+   */
+  public static PaintListStorage heap(final boolean singlePrecision) {
+    return new PaintListStorage(HEAP, singlePrecision, null);
+  }
+
+  /**
+   * Stores values in direct memory outside of the Java heap. The maximal
+   * amount of direct memory can be set with the
+   * <code>-XX:MaxDirectMemorySize</code> VM argument.
+   *
+   * @param singlePrecision Whether values are stored as <code>float</code>.
+   * @return The storage.
+   */
+  public static PaintListStorage direct(final boolean singlePrecision) {
+    return new PaintListStorage(DIRECT, singlePrecision, null);
+  }
+
+  /**
+   * Stores values in memory mapped files. The values are stored in
+   * <code>base.values</code> and the colors in <code>base.colors</code>. The
+   * active and visible elements are stored in <code>base.state</code> when the
+   * list is flushed. If the state file exists the list is restored from the
+   * files. The files use the same byte order on all platforms.
+   *
+   * @param base The base name of the files.
+   * @param singlePrecision Whether values are stored as <code>float</code>.
+   * @return The storage.
+   */
+  public static PaintListStorage mapped(final File base, final boolean singlePrecision) {
+    return new PaintListStorage(MAPPED, singlePrecision, Objects.requireNonNull(base));
+  }
+
+  /**
+   * Getter.
+   *
+   * @return Whether values are stored as <code>float</code>.
+   */
+  public boolean isSinglePrecision() {
+    return singlePrecision;
+  }
+
+  /**
+   * Getter.
+   *
+   * @return Whether values are stored outside of the Java heap.
+   */
+  public boolean isOffHeap() {
+    return type != HEAP;
+  }
+
+  /**
+   * Getter.
+   *
+   * @param ext The file extension.
+   * @return The file with the given extension.
+   */
+  private File file(final String ext) {
+    return new File(base.getPath() + "." + ext);
+  }
+
+  /**
+   * Creates a store for values.
+   *
+   * @param length The number of values.
+   * @return The store.
+   */
+  DoubleStore createValues(final int length) {
+    switch(type) {
+      case HEAP:
+        return singlePrecision ? new ValueStore.Floats(new float[length])
+            : new ValueStore.Doubles(new double[length]);
+      default:
+        return new ValueStore.ChunkedDoubles(
+            createChunked(singlePrecision ? 4 : 8, "values", length));
+    }
+  }
+
+  /**
+   * Creates a store for colors.
+   *
+   * @param length The number of colors.
+   * @return The store.
+   */
+  IntStore createColors(final int length) {
+    switch(type) {
+      case HEAP:
+        return new ValueStore.Ints(new int[length]);
+      default:
+        return new ValueStore.ChunkedInts(createChunked(4, "colors", length));
+    }
+  }
+
+  /**
+   * Creates chunks outside of the Java heap.
+   *
+   * @param bytes The number of bytes per value.
+   * @param ext The file extension.
+   * @param length The number of values.
+   * @return The chunks.
+   */
+  private ValueStore.Chunked createChunked(final int bytes,
+      final String ext, final int length) {
+    try {
+      return ValueStore.Chunked.create(bytes, type == MAPPED ? file(ext) : null, length);
+    } catch(final IOException e) {
+      throw new IllegalStateException("cannot map " + file(ext), e);
+    }
+  }
+
+  /**
+   * Restores the active and visible elements of a list.
+   *
+   * @param dims The number of dimensions of the list.
+   * @param cols The number of colors of the list.
+   * @param actives The set to store the active elements.
+   * @param visibles The set to store the visible elements.
+   * @return The capacity of the stored list or <code>0</code> if there is no
+   *         stored list.
+   */
+  int restore(final int dims, final int cols, final BitSet actives, final BitSet visibles) {
+    if(type != MAPPED) return 0;
+    final File state = file("state");
+    if(!state.exists()) return 0;
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(new FileInputStream(state)))) {
+      if(in.readInt() != MAGIC) throw new IllegalArgumentException(
+          "not a state file: " + state);
+      final int d = in.readInt();
+      final int c = in.readInt();
+      final boolean sp = in.readBoolean();
+      if(d != dims || c != cols || sp != singlePrecision) throw new IllegalArgumentException(
+          "incompatible list: " + state);
+      final int capacity = in.readInt();
+      actives.or(readBits(in));
+      visibles.or(readBits(in));
+      return capacity;
+    } catch(final IOException e) {
+      throw new IllegalStateException("cannot read " + state, e);
+    }
+  }
+
+  /**
+   * Reads a bit set.
+   *
+   * @param in The input.
+   * @return The bit set.
+   * @throws IOException I/O Exception.
+   */
+  private static BitSet readBits(final DataInputStream in) throws IOException {
+    final long[] words = new long[in.readInt()];
+    for(int i = 0; i < words.length; ++i) {
+      words[i] = in.readLong();
+    }
+    return BitSet.valueOf(words);
+  }
+
+  /**
+   * Writes a bit set.
+   *
+   * @param out The output.
+   * @param bits The bit set.
+   * @throws IOException I/O Exception.
+   */
+  private static void writeBits(final DataOutputStream out, final BitSet bits)
+      throws IOException {
+    final long[] words = bits.toLongArray();
+    out.writeInt(words.length);
+    for(final long w : words) {
+      out.writeLong(w);
+    }
+  }
+
+  /**
+   * Stores the state of a list. The values and colors must be at the start of
+   * their stores.
+   *
+   * @param dims The number of dimensions of the list.
+   * @param cols The number of colors of the list.
+   * @param capacity The capacity of the list.
+   * @param actives The active elements.
+   * @param visibles The visible elements.
+   * @param values The values.
+   * @param colors The colors.
+   * @throws IOException I/O Exception.
+   */
+  void save(final int dims, final int cols, final int capacity,
+      final BitSet actives, final BitSet visibles,
+      final DoubleStore values, final IntStore colors) throws IOException {
+    values.force();
+    colors.force();
+    if(type != MAPPED) return;
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(new FileOutputStream(file("state"))))) {
+      out.writeInt(MAGIC);
+      out.writeInt(dims);
+      out.writeInt(cols);
+      out.writeBoolean(singlePrecision);
+      out.writeInt(capacity);
+      writeBits(out, actives);
+      writeBits(out, visibles);
+    }
+  }
+
+}
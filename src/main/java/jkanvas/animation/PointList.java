@@ -7,6 +7,10 @@ import java.awt.Shape;
 import java.awt.geom.Area;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicReference;
+
+import jkanvas.painter.ImageCache;
 
 /**
  * A list of circular shaped points with filling and border color.
@@ -16,6 +20,26 @@ import java.awt.geom.Rectangle2D;
  */
 public abstract class PointList<T extends Shape> extends GenericPaintList<T> {
 
+  /**
+   * The radius in pixels up to which points are stamped directly into an image
+   * instead of being filled as shapes. Only lists whose points all have a
+   * {@link #getStampType(int) stamp type} and are smaller than this radius on
+   * the screen are stamped. Use <code>0</code> to always use shapes. Like
+   * shapes, stamped points are snapped to pixel centers which lets small points
+   * jitter during smooth zooming. Set
+   * {@link java.awt.RenderingHints#KEY_STROKE_CONTROL} to
+   * {@link java.awt.RenderingHints#VALUE_STROKE_PURE} to position them with a
+   * precision of a quarter pixel instead.
+   */
+  public static double SPLAT_RADIUS = 3;
+
+  /** The point cannot be stamped. */
+  protected static final int STAMP_NONE = -1;
+  /** The point is stamped as circle. */
+  protected static final int STAMP_CIRCLE = 0;
+  /** The point is stamped as square. */
+  protected static final int STAMP_RECT = 1;
+
   /** The index for the x coordinate. */
   protected static final int X_COORD = 0;
   /** The index for the y coordinate. */
@@ -31,6 +55,12 @@ public abstract class PointList<T extends Shape> extends GenericPaintList<T> {
   /** The default border color. */
   private Color defaultBorder;
 
+  /**
+   * The image of the last stamping or <code>null</code>. Painting threads take
+   * the image while they use it.
+   */
+  final AtomicReference<ImageCache.Entry> splats = new AtomicReference<>();
+
   /**
    * Creates a point list with initial size.
    * 
@@ -40,7 +70,36 @@ public abstract class PointList<T extends Shape> extends GenericPaintList<T> {
    */
   public PointList(final int initialSize,
       final Color defaultColor, final Color defaultBorder) {
-    super(3, 2, initialSize);
+    this(initialSize, defaultColor, defaultBorder, false);
+  }
+
+  /**
+   * Creates a point list with initial size.
+   * 
+   * @param initialSize The initial size.
+   * @param defaultColor The default filling color.
+   * @param defaultBorder The default border color.
+   * @param singlePrecision Whether coordinates are stored as
+   *          <code>float</code>. This halves the memory of the coordinates.
+   */
+  public PointList(final int initialSize, final Color defaultColor,
+      final Color defaultBorder, final boolean singlePrecision) {
+    super(3, 2, initialSize, singlePrecision);
+    this.defaultColor = defaultColor;
+    this.defaultBorder = defaultBorder;
+  }
+
+  /**
+   * Creates a point list with initial size.
+   * 
+   * @param initialSize The initial size.
+   * @param defaultColor The default filling color.
+   * @param defaultBorder The default border color.
+   * @param storage Where coordinates and colors are stored.
+   */
+  public PointList(final int initialSize, final Color defaultColor,
+      final Color defaultBorder, final PaintListStorage storage) {
+    super(3, 2, initialSize, storage);
     this.defaultColor = defaultColor;
     this.defaultBorder = defaultBorder;
   }
@@ -105,6 +164,39 @@ public abstract class PointList<T extends Shape> extends GenericPaintList<T> {
     return index;
   }
 
+  /**
+   * Adds many points at once. The points get consecutive indices after the
+   * highest active index and use the default colors.
+   * 
+   * @param xs The initial x coordinates.
+   * @param ys The initial y coordinates.
+   * @param sizes The initial sizes.
+   * @return The index of the first point.
+   */
+  public int addPoints(final double[] xs, final double[] ys, final double[] sizes) {
+    final int len = xs.length;
+    if(ys.length != len || sizes.length != len) throw new IllegalArgumentException(
+        "arrays differ in length");
+    final int index = addIndices(len);
+    setRange(X_COORD, index, xs, 0, len);
+    setRange(Y_COORD, index, ys, 0, len);
+    setRange(SIZE, index, sizes, 0, len);
+    return index;
+  }
+
+  /**
+   * Whether {@link #addPoints(double[], double[], double[])} has the same
+   * result as adding each point with
+   * {@link #addPoint(double, double, double)}. Callers may only add points in
+   * bulk instead of one by one if this is the case. Subclasses that change how
+   * single points are added must return <code>false</code>.
+   * 
+   * @return Whether points can be added in bulk.
+   */
+  public boolean supportsBulk() {
+    return true;
+  }
+
   /**
    * Sets the position of the given point.
    * 
@@ -171,6 +263,21 @@ public abstract class PointList<T extends Shape> extends GenericPaintList<T> {
     set(Y_COORD, pos, y);
   }
 
+  /**
+   * Sets the positions of consecutive points.
+   * 
+   * @param fromIndex The index of the first point.
+   * @param xs The x coordinates.
+   * @param ys The y coordinates.
+   */
+  public void setPositions(final int fromIndex, final double[] xs, final double[] ys) {
+    final int len = xs.length;
+    if(ys.length != len) throw new IllegalArgumentException("arrays differ in length");
+    ensureActive(fromIndex, fromIndex + len);
+    setRange(X_COORD, fromIndex, xs, 0, len);
+    setRange(Y_COORD, fromIndex, ys, 0, len);
+  }
+
   /**
    * Getter.
    * 
@@ -195,6 +302,17 @@ public abstract class PointList<T extends Shape> extends GenericPaintList<T> {
     set(SIZE, pos, radius);
   }
 
+  /**
+   * Sets the sizes of consecutive points.
+   * 
+   * @param fromIndex The index of the first point.
+   * @param radii The sizes.
+   */
+  public void setRadii(final int fromIndex, final double[] radii) {
+    ensureActive(fromIndex, fromIndex + radii.length);
+    setRange(SIZE, fromIndex, radii, 0, radii.length);
+  }
+
   /**
    * Setter.
    * 
@@ -221,6 +339,46 @@ public abstract class PointList<T extends Shape> extends GenericPaintList<T> {
     return getColor(COLOR_FILL, cpos);
   }
 
+  /**
+   * Setter. Setting packed values avoids creating {@link Color} objects.
+   * 
+   * @param index The index.
+   * @param argb The filling color as ARGB value or {@link ColorTable#NO_COLOR}
+   *          if the default color should be used. Fully transparent colors
+   *          need a value different from {@link ColorTable#NO_COLOR}, for
+   *          example {@link ColorTable#TRANSPARENT}.
+   */
+  public void setColorARGB(final int index, final int argb) {
+    ensureActive(index);
+    final int cpos = getColorPosition(index);
+    setARGB(COLOR_FILL, cpos, argb);
+  }
+
+  /**
+   * Getter.
+   * 
+   * @param index The index.
+   * @return The filling color as packed ARGB value or
+   *         {@link ColorTable#NO_COLOR} if the default color should be used.
+   */
+  public int getColorARGB(final int index) {
+    ensureActive(index);
+    final int cpos = getColorPosition(index);
+    return getARGB(COLOR_FILL, cpos);
+  }
+
+  /**
+   * Sets the filling colors of consecutive points.
+   * 
+   * @param fromIndex The index of the first point.
+   * @param argbs The filling colors as ARGB values. The value
+   *          {@link ColorTable#NO_COLOR} uses the default color.
+   */
+  public void setColorsARGB(final int fromIndex, final int[] argbs) {
+    ensureActive(fromIndex, fromIndex + argbs.length);
+    setARGBRange(COLOR_FILL, fromIndex, argbs, 0, argbs.length);
+  }
+
   /**
    * Setter.
    * 
@@ -247,6 +405,46 @@ public abstract class PointList<T extends Shape> extends GenericPaintList<T> {
     return getColor(COLOR_BORDER, cpos);
   }
 
+  /**
+   * Setter. Setting packed values avoids creating {@link Color} objects.
+   * 
+   * @param index The index.
+   * @param argb The border color as ARGB value or {@link ColorTable#NO_COLOR}
+   *          if the default should be used. Fully transparent colors need a
+   *          value different from {@link ColorTable#NO_COLOR}, for example
+   *          {@link ColorTable#TRANSPARENT}.
+   */
+  public void setBorderARGB(final int index, final int argb) {
+    ensureActive(index);
+    final int cpos = getColorPosition(index);
+    setARGB(COLOR_BORDER, cpos, argb);
+  }
+
+  /**
+   * Getter.
+   * 
+   * @param index The index.
+   * @return The border color as packed ARGB value or
+   *         {@link ColorTable#NO_COLOR} if the default should be used.
+   */
+  public int getBorderARGB(final int index) {
+    ensureActive(index);
+    final int cpos = getColorPosition(index);
+    return getARGB(COLOR_BORDER, cpos);
+  }
+
+  /**
+   * Sets the border colors of consecutive points.
+   * 
+   * @param fromIndex The index of the first point.
+   * @param argbs The border colors as ARGB values. The value
+   *          {@link ColorTable#NO_COLOR} uses the default.
+   */
+  public void setBordersARGB(final int fromIndex, final int[] argbs) {
+    ensureActive(fromIndex, fromIndex + argbs.length);
+    setARGBRange(COLOR_BORDER, fromIndex, argbs, 0, argbs.length);
+  }
+
   /**
    * Sets the given shape for the point.
    * 
@@ -258,6 +456,25 @@ public abstract class PointList<T extends Shape> extends GenericPaintList<T> {
    */
   protected abstract void setShape(T shape, int index, double x, double y, double s);
 
+  /**
+   * Getter.
+   * 
+   * @param index The index.
+   * @return How the point is stamped when it is small. This is either
+   *         {@link #STAMP_CIRCLE}, {@link #STAMP_RECT}, or {@link #STAMP_NONE}
+   *         if the shape cannot be stamped. Subclasses that change how
+   *         points are painted should return {@link #STAMP_NONE}.
+   */
+  protected int getStampType(final int index) {
+    return STAMP_NONE;
+  }
+
+  @Override
+  protected boolean paintDirect(final Graphics2D gfx, final BitSet visibles,
+      final int offset, final int colorOffset) {
+    return PointSplatter.paint(this, gfx, visibles, offset, colorOffset);
+  }
+
   @Override
   protected void paint(final Graphics2D gfx, final T shape,
       final int index, final int pos, final int cpos, final Composite defaultComposite) {
@@ -278,6 +495,31 @@ public abstract class PointList<T extends Shape> extends GenericPaintList<T> {
     }
   }
 
+  @Override
+  protected boolean hasBounds() {
+    return true;
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The bounding box is the square around the position whose half side length
+   * is the size. Subclasses with larger shapes must override this method.
+   */
+  @Override
+  protected boolean getBounds(final int pos, final double[] bbox) {
+    final double x = get(X_COORD, pos);
+    final double y = get(Y_COORD, pos);
+    final double s = get(SIZE, pos);
+    if(Double.isNaN(x) || Double.isNaN(y) || Double.isNaN(s)) return false;
+    final double r = Math.abs(s);
+    bbox[0] = x - r;
+    bbox[1] = y - r;
+    bbox[2] = x + r;
+    bbox[3] = y + r;
+    return true;
+  }
+
   @Override
   protected boolean contains(
       final Point2D point, final T shape, final int index, final int pos) {
@@ -0,0 +1,332 @@
+package jkanvas.animation;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Stroke;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import jkanvas.painter.ImageCache;
+
+/**
+ * Paints small points of a {@link PointList} without the shape pipeline. The
+ * points are stamped with precomputed coverage masks into the pixels of an
+ * image that is drawn at once. Like shapes the center of a point is snapped to
+ * a fixed position within its pixel unless pure strokes are requested with
+ * {@link RenderingHints#KEY_STROKE_CONTROL}. In that case the center is snapped
+ * to a quarter of a pixel. The image is kept in the
+ * {@link ImageCache#getDefault() image cache} and reused by the next painting
+ * of the list as long as the size of the clip stays the same.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ */
+final class PointSplatter {
+
+  /** The minimal number of points that are worth splatting. */
+  private static final int MIN_COUNT = 256;
+
+  /** The number of steps per pixel of radii and stroke widths. */
+  private static final int STEPS = 8;
+
+  /** The number of samples per pixel side when computing the coverage. */
+  private static final int SAMPLES = 4;
+
+  /** The number of sub-pixel positions per pixel side of a point center. */
+  private static final int PHASES = 4;
+
+  /** The maximal stroke width in pixels for splatting. */
+  private static final double MAX_STROKE = 2;
+
+  /** The maximal area of the image in pixels. */
+  private static final int MAX_AREA = 1 << 24;
+
+  /** The stamps shared by all lists. */
+  private static final ConcurrentMap<Integer, Stamp> STAMPS = new ConcurrentHashMap<>();
+
+  /** No instances. */
+  private PointSplatter() {
+    throw new AssertionError();
+  }
+
+  /**
+   * A coverage mask of a point with a given radius and border width.
+   *
+   * @author Joschi <josua.krause@gmail.com>
+   */
+  private static final class Stamp {
+
+    /** The side length of the masks. */
+    final int side;
+    /** The offset of the center pixel. */
+    final int center;
+    /** The coverage of the filling from 0 to 255. */
+    final int[] fill;
+    /** The coverage of the border from 0 to 255. */
+    final int[] border;
+
+    /**
+     * Computes a stamp.
+     *
+     * @param stamp The type of the stamp.
+     * @param radius The radius in pixels.
+     * @param width The border width in pixels.
+     * @param fx The horizontal offset of the point center from the left side
+     *          of the center pixel in pixels.
+     * @param fy The vertical offset of the point center from the top side of
+     *          the center pixel in pixels.
+     * @param aa Whether the stamp is anti-aliased.
+     */
+    public Stamp(final int stamp, final double radius, final double width,
+        final double fx, final double fy, final boolean aa) {
+      final double outer = radius + width * 0.5;
+      center = (int) Math.ceil(outer + 0.5);
+      side = 2 * center + 1;
+      fill = new int[side * side];
+      border = new int[side * side];
+      // without anti-aliasing pixels are covered when their center is covered
+      final int samples = aa ? SAMPLES : 1;
+      final int full = samples * samples;
+      for(int py = 0; py < side; ++py) {
+        for(int px = 0; px < side; ++px) {
+          int f = 0;
+          int b = 0;
+          for(int sy = 0; sy < samples; ++sy) {
+            final double y = py - center - fy + (sy + 0.5) / samples;
+            for(int sx = 0; sx < samples; ++sx) {
+              final double x = px - center - fx + (sx + 0.5) / samples;
+              final double d = stamp == PointList.STAMP_RECT
+                  ? Math.max(Math.abs(x), Math.abs(y)) : Math.sqrt(x * x + y * y);
+              if(d <= radius) {
+                ++f;
+              }
+              if(Math.abs(d - radius) <= width * 0.5) {
+                ++b;
+              }
+            }
+          }
+          fill[py * side + px] = coverage(f, full);
+          border[py * side + px] = coverage(b, full);
+        }
+      }
+    }
+
+    /**
+     * Converts a number of samples to a coverage value.
+     *
+     * @param count The number of covered samples.
+     * @param full The number of samples.
+     * @return The coverage from 0 to 255.
+     */
+    private static int coverage(final int count, final int full) {
+      return (count * 255 + full / 2) / full;
+    }
+
+  } // Stamp
+
+  /**
+   * Getter.
+   *
+   * @param stamp The type of the stamp.
+   * @param r The radius in steps.
+   * @param w The border width in steps.
+   * @param phx The horizontal sub-pixel position of the center.
+   * @param phy The vertical sub-pixel position of the center.
+   * @param aa Whether the stamp is anti-aliased.
+   * @return The stamp.
+   */
+  private static Stamp getStamp(final int stamp, final int r, final int w,
+      final int phx, final int phy, final boolean aa) {
+    final int type = (stamp * 2 + (aa ? 1 : 0)) * PHASES * PHASES + phy * PHASES + phx;
+    final Integer key = (type * 256 + w) * 256 + r;
+    Stamp res = STAMPS.get(key);
+    if(res == null) {
+      res = new Stamp(stamp, r / (double) STEPS, w / (double) STEPS,
+          phx / (double) PHASES, phy / (double) PHASES, aa);
+      STAMPS.putIfAbsent(key, res);
+    }
+    return res;
+  }
+
+  /**
+   * Paints the given points if all of them are small enough.
+   *
+   * @param list The list.
+   * @param gfx The graphics context.
+   * @param visibles The points to paint.
+   * @param offset The start of the buffer in the values array.
+   * @param colorOffset The start of the buffer in the colors array.
+   * @return Whether the points have been painted.
+   */
+  public static boolean paint(final PointList<?> list, final Graphics2D gfx,
+      final BitSet visibles, final int offset, final int colorOffset) {
+    final double maxRadius = PointList.SPLAT_RADIUS;
+    // radii are stored in one byte of the stamp key
+    if(!(maxRadius > 0) || Math.round(maxRadius * STEPS) > 255) return false;
+    if(visibles.cardinality() < MIN_COUNT) return false;
+    if(!AlphaComposite.SrcOver.equals(gfx.getComposite())) return false;
+    final AffineTransform at = gfx.getTransform();
+    final double scale = at.getScaleX();
+    // points must stay circles and squares
+    if(at.getShearX() != 0 || at.getShearY() != 0
+        || scale <= 0 || at.getScaleY() != scale) return false;
+    final Rectangle clip = gfx.getClipBounds();
+    if(clip == null) return false;
+    final Rectangle pixels = at.createTransformedShape(clip).getBounds();
+    if(pixels.isEmpty() || (long) pixels.width * pixels.height > MAX_AREA) return false;
+    final Stroke stroke = gfx.getStroke();
+    if(!(stroke instanceof BasicStroke)) return false;
+    // zero width strokes are drawn as thin lines
+    final double width = Math.max(((BasicStroke) stroke).getLineWidth() * scale, 1);
+    if(width > MAX_STROKE) return false;
+    final int w = (int) Math.round(width * STEPS);
+    final int pos0 = PointList.X_COORD;
+    final int pos1 = PointList.Y_COORD;
+    final int pos2 = PointList.SIZE;
+    for(int i = visibles.nextSetBit(0); i >= 0; i = visibles.nextSetBit(i + 1)) {
+      if(list.getStampType(i) < 0) return false;
+      final double s = list.get(pos2, offset + list.getPosition(i)) * scale;
+      if(s > maxRadius) return false;
+    }
+    final boolean aa = RenderingHints.VALUE_ANTIALIAS_ON.equals(
+        gfx.getRenderingHint(RenderingHints.KEY_ANTIALIASING));
+    final boolean pure = RenderingHints.VALUE_STROKE_PURE.equals(
+        gfx.getRenderingHint(RenderingHints.KEY_STROKE_CONTROL));
+    // other threads painting the same list at the same time use a new image
+    ImageCache.Entry entry = list.splats.getAndSet(null);
+    BufferedImage img = null;
+    if(entry != null) {
+      final Image cached = entry.get();
+      if(cached instanceof BufferedImage && cached.getWidth(null) == pixels.width
+          && cached.getHeight(null) == pixels.height) {
+        img = (BufferedImage) cached;
+      } else {
+        entry.release();
+      }
+    }
+    final int[] data;
+    if(img != null) {
+      data = ((DataBufferInt) img.getRaster().getDataBuffer()).getData();
+      Arrays.fill(data, 0);
+    } else {
+      img = new BufferedImage(pixels.width, pixels.height, BufferedImage.TYPE_INT_ARGB_PRE);
+      entry = ImageCache.getDefault().add(img);
+      data = ((DataBufferInt) img.getRaster().getDataBuffer()).getData();
+    }
+    final int defaultColor = ColorTable.toARGB(list.getDefaultColor());
+    final int defaultBorder = ColorTable.toARGB(list.getDefaultBorder());
+    final double tx = at.getTranslateX() - pixels.x;
+    final double ty = at.getTranslateY() - pixels.y;
+    for(int i = visibles.nextSetBit(0); i >= 0; i = visibles.nextSetBit(i + 1)) {
+      final int pos = offset + list.getPosition(i);
+      final double x = list.get(pos0, pos);
+      final double y = list.get(pos1, pos);
+      final double s = list.get(pos2, pos);
+      if(Double.isNaN(x) || Double.isNaN(y) || !(s > 0)) {
+        continue;
+      }
+      final double cx = x * scale + tx;
+      final double cy = y * scale + ty;
+      final int px;
+      final int py;
+      final int phx;
+      final int phy;
+      if(pure) {
+        final long qx = Math.round(cx * PHASES);
+        final long qy = Math.round(cy * PHASES);
+        px = (int) Math.floor(qx / (double) PHASES);
+        py = (int) Math.floor(qy / (double) PHASES);
+        phx = (int) (qx - px * (long) PHASES);
+        phy = (int) (qy - py * (long) PHASES);
+      } else if(aa) {
+        // like shapes the center is moved to the center of its pixel
+        px = (int) Math.floor(cx);
+        py = (int) Math.floor(cy);
+        phx = PHASES / 2;
+        phy = PHASES / 2;
+      } else {
+        // like shapes the center is moved to the nearest pixel corner plus a quarter
+        px = (int) Math.floor(cx + 0.5);
+        py = (int) Math.floor(cy + 0.5);
+        phx = PHASES / 4;
+        phy = PHASES / 4;
+      }
+      final Stamp stamp = getStamp(list.getStampType(i),
+          (int) Math.round(s * scale * STEPS), w, phx, phy, aa);
+      final int cpos = colorOffset + list.getColorPosition(i);
+      final int fill = list.getARGB(PointList.COLOR_FILL, cpos);
+      final int border = list.getARGB(PointList.COLOR_BORDER, cpos);
+      splat(data, pixels.width, pixels.height, stamp, stamp.fill, px, py,
+          fill != ColorTable.NO_COLOR ? fill : defaultColor);
+      splat(data, pixels.width, pixels.height, stamp, stamp.border, px, py,
+          border != ColorTable.NO_COLOR ? border : defaultBorder);
+    }
+    final Graphics2D g = (Graphics2D) gfx.create();
+    g.setTransform(new AffineTransform());
+    g.drawImage(img, pixels.x, pixels.y, null);
+    g.dispose();
+    if(!list.splats.compareAndSet(null, entry)) {
+      entry.release();
+    }
+    return true;
+  }
+
+  /**
+   * Blends a mask into premultiplied ARGB pixels.
+   *
+   * @param data The pixels.
+   * @param width The width of the image.
+   * @param height The height of the image.
+   * @param stamp The stamp.
+   * @param mask The mask of the stamp.
+   * @param px The x coordinate of the pixel containing the center.
+   * @param py The y coordinate of the pixel containing the center.
+   * @param argb The packed color or {@link ColorTable#NO_COLOR} if nothing is
+   *          drawn.
+   */
+  private static void splat(final int[] data, final int width, final int height,
+      final Stamp stamp, final int[] mask, final int px, final int py, final int argb) {
+    final int ca = argb >>> 24;
+    if(ca == 0) return;
+    final int cr = (argb >>> 16) & 0xff;
+    final int cg = (argb >>> 8) & 0xff;
+    final int cb = argb & 0xff;
+    final int side = stamp.side;
+    final int x0 = px - stamp.center;
+    final int y0 = py - stamp.center;
+    final int mx0 = Math.max(0, -x0);
+    final int my0 = Math.max(0, -y0);
+    final int mx1 = Math.min(side, width - x0);
+    final int my1 = Math.min(side, height - y0);
+    for(int my = my0; my < my1; ++my) {
+      int d = (y0 + my) * width + x0 + mx0;
+      int m = my * side + mx0;
+      for(int mx = mx0; mx < mx1; ++mx, ++d, ++m) {
+        final int cov = mask[m];
+        if(cov == 0) {
+          continue;
+        }
+        final int a = (ca * cov + 127) / 255;
+        if(a == 0) {
+          continue;
+        }
+        final int dst = data[d];
+        final int inv = 255 - a;
+        final int ra = a + ((dst >>> 24) * inv + 127) / 255;
+        final int rr = (cr * a + 127) / 255 + (((dst >>> 16) & 0xff) * inv + 127) / 255;
+        final int rg = (cg * a + 127) / 255 + (((dst >>> 8) & 0xff) * inv + 127) / 255;
+        final int rb = (cb * a + 127) / 255 + ((dst & 0xff) * inv + 127) / 255;
+        data[d] = (ra << 24) | (rr << 16) | (rg << 8) | rb;
+      }
+    }
+  }
+
+}
@@ -0,0 +1,100 @@
+package jkanvas.animation;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A handle to an {@link AnimationAction} that is scheduled to be executed after
+ * a given time. The handle can be used to cancel the action before it is
+ * executed.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ * @see AnimationList#scheduleAction(AnimationAction, long)
+ */
+public final class ScheduledAction {
+
+  /** The action is waiting to be executed. */
+  private static final int PENDING = 0;
+  /** The action has been handed over for execution. */
+  private static final int EXECUTED = 1;
+  /** The action has been cancelled. */
+  private static final int CANCELLED = 2;
+
+  /** The wheel that is notified about cancellations or <code>null</code>. */
+  private final TimerWheel wheel;
+  /** The action to execute. */
+  final AnimationAction action;
+  /** The time to wait in milliseconds before the action is due. */
+  final long wait;
+  /** The absolute due time. Only valid after being inserted into a wheel. */
+  long due;
+  /** The slot list containing this action or <code>null</code>. */
+  TimerWheel.Slot slot;
+  /** The previous action in the slot. */
+  ScheduledAction prev;
+  /** The next action in the slot. */
+  ScheduledAction next;
+  /** The state of the action. */
+  private final AtomicInteger state;
+
+  /**
+   * Creates a scheduled action.
+   *
+   * @param wheel The wheel that is notified about cancellations. May be
+   *          <code>null</code>.
+   * @param action The action or <code>null</code> if nothing needs to be
+   *          executed. In this case the action is considered done immediately.
+   * @param wait The time to wait in milliseconds.
+   */
+  ScheduledAction(final TimerWheel wheel, final AnimationAction action,
+      final long wait) {
+    this.wheel = wheel;
+    this.action = action;
+    this.wait = wait > 0 ? wait : 0;
+    state = new AtomicInteger(action != null ? PENDING : EXECUTED);
+  }
+
+  /**
+   * Marks the action as executed. This method is called by the animation thread
+   * when the action is due.
+   *
+   * @return Whether the action was still pending and needs to be executed.
+   */
+  boolean execute() {
+    return state.compareAndSet(PENDING, EXECUTED);
+  }
+
+  /**
+   * Cancels the action. The action is removed from its timer wheel during the
+   * next animation frame. This method may be called from any thread.
+   *
+   * @return Whether the action was cancelled. If <code>false</code> the action
+   *         was already executed or cancelled.
+   */
+  public boolean cancel() {
+    if(!state.compareAndSet(PENDING, CANCELLED)) return false;
+    if(wheel != null) {
+      wheel.cancelled(this);
+    }
+    return true;
+  }
+
+  /**
+   * Getter.
+   *
+   * @return Whether the action has been cancelled.
+   */
+  public boolean isCancelled() {
+    return state.get() == CANCELLED;
+  }
+
+  /**
+   * Getter.
+   *
+   * @return Whether the action is no longer waiting to be executed. This is the
+   *         case when the action is due or cancelled.
+   */
+  public boolean isDone() {
+    return state.get() != PENDING;
+  }
+
+}
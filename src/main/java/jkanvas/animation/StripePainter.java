@@ -0,0 +1,286 @@
+package jkanvas.animation;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.Stroke;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import jkanvas.painter.ImageCache;
+
+/**
+ * A worker painting the objects of a {@link GenericPaintList} that touch a
+ * horizontal stripe of the screen or splitting the task further. The objects
+ * are sorted into the stripes they touch beforehand. Each stripe is painted
+ * into its own image in index order. Since the stripes do not overlap drawing
+ * the images has the same result as painting all objects sequentially. The
+ * images are kept in the {@link ImageCache#getDefault() image cache} and
+ * reused by the next painting of the list as long as the size of the stripes
+ * stays the same.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ */
+final class StripePainter extends RecursiveAction {
+
+  /** The minimal height of a stripe in pixels. */
+  private static final int MIN_HEIGHT = 16;
+
+  /** The maximal area of all stripes in pixels. */
+  private static final int MAX_AREA = 1 << 24;
+
+  /** The list. */
+  private final GenericPaintList<?> list;
+  /** The graphics contexts of the stripes. */
+  private final Graphics2D[] graphics;
+  /** The indices of the objects touching each stripe in index order. */
+  private final int[][] buckets;
+  /** The number of objects touching each stripe. */
+  private final int[] sizes;
+  /** The start of the buffer in the values array. */
+  private final int offset;
+  /** The start of the buffer in the colors array. */
+  private final int colorOffset;
+  /** The first stripe of this worker. */
+  private final int from;
+  /** The exclusive last stripe of this worker. */
+  private final int to;
+
+  /**
+   * Creates a worker to paint stripes.
+   *
+   * @param list The list.
+   * @param graphics The graphics contexts of the stripes. They are disposed
+   *          after painting.
+   * @param buckets The indices of the objects touching each stripe in index
+   *          order.
+   * @param sizes The number of objects touching each stripe.
+   * @param offset The start of the buffer in the values array.
+   * @param colorOffset The start of the buffer in the colors array.
+   * @param from The first stripe.
+   * @param to The exclusive last stripe.
+   */
+  private StripePainter(final GenericPaintList<?> list, final Graphics2D[] graphics,
+      final int[][] buckets, final int[] sizes, final int offset,
+      final int colorOffset, final int from, final int to) {
+    this.list = list;
+    this.graphics = graphics;
+    this.buckets = buckets;
+    this.sizes = sizes;
+    this.offset = offset;
+    this.colorOffset = colorOffset;
+    this.from = from;
+    this.to = to;
+  }
+
+  @Override
+  protected void compute() {
+    if(to - from <= 1) {
+      paintStripe(from);
+      return;
+    }
+    final int mid = (from + to) >>> 1;
+    final StripePainter left = new StripePainter(list, graphics, buckets,
+        sizes, offset, colorOffset, from, mid);
+    final StripePainter right = new StripePainter(list, graphics, buckets,
+        sizes, offset, colorOffset, mid, to);
+    right.fork();
+    left.compute();
+    right.join();
+  }
+
+  /**
+   * Paints all objects touching a stripe.
+   *
+   * @param <T> The shape type.
+   * @param stripe The stripe.
+   */
+  private <T extends Shape> void paintStripe(final int stripe) {
+    @SuppressWarnings("unchecked")
+    final GenericPaintList<T> l = (GenericPaintList<T>) list;
+    final Graphics2D g = graphics[stripe];
+    final Composite defaultComposite = g.getComposite();
+    final T drawObject = l.createDrawObject();
+    final int[] bucket = buckets[stripe];
+    final int size = sizes[stripe];
+    for(int k = 0; k < size; ++k) {
+      final int i = bucket[k];
+      l.paint(g, drawObject, i, offset + l.getPosition(i),
+          colorOffset + l.getColorPosition(i), defaultComposite);
+    }
+    g.dispose();
+  }
+
+  /**
+   * Sorts the objects into the stripes they touch in one pass. Objects keep
+   * their index order within each stripe.
+   *
+   * @param list The list.
+   * @param visibles The objects to paint.
+   * @param offset The start of the buffer in the values array.
+   * @param rows The top rows of the stripes and the bottom row in device
+   *          coordinates.
+   * @param sy The vertical scale from object coordinates to device
+   *          coordinates.
+   * @param ty The vertical translation from object coordinates to device
+   *          coordinates.
+   * @param margin The margin around bounding boxes in pixels.
+   * @param sizes Is filled with the number of objects touching each stripe.
+   * @return The indices of the objects touching each stripe.
+   */
+  private static int[][] bucket(final GenericPaintList<?> list, final BitSet visibles,
+      final int offset, final int[] rows, final double sy, final double ty,
+      final double margin, final int[] sizes) {
+    final int n = sizes.length;
+    final int[][] buckets = new int[n][];
+    final int initial = Math.max(16, visibles.cardinality() / n);
+    for(int k = 0; k < n; ++k) {
+      buckets[k] = new int[initial];
+    }
+    final double[] box = new double[4];
+    for(int i = visibles.nextSetBit(0); i >= 0; i = visibles.nextSetBit(i + 1)) {
+      if(!list.getBounds(offset + list.getPosition(i), box)) {
+        continue;
+      }
+      final double a = box[1] * sy + ty;
+      final double b = box[3] * sy + ty;
+      final double top = Math.min(a, b) - margin;
+      final double bottom = Math.max(a, b) + margin;
+      for(int k = 0; k < n && rows[k] <= bottom; ++k) {
+        if(rows[k + 1] < top) {
+          continue;
+        }
+        if(sizes[k] == buckets[k].length) {
+          buckets[k] = Arrays.copyOf(buckets[k], sizes[k] * 2);
+        }
+        buckets[k][sizes[k]++] = i;
+      }
+    }
+    return buckets;
+  }
+
+  /**
+   * Paints the given objects in parallel if the graphics context allows it.
+   *
+   * @param list The list.
+   * @param gfx The graphics context.
+   * @param visibles The objects to paint.
+   * @param offset The start of the buffer in the values array.
+   * @param colorOffset The start of the buffer in the colors array.
+   * @return Whether the objects have been painted.
+   */
+  public static boolean paint(final GenericPaintList<?> list, final Graphics2D gfx,
+      final BitSet visibles, final int offset, final int colorOffset) {
+    return paint(list, gfx, visibles, offset, colorOffset,
+        AnimationScheduler.getWorkerPool());
+  }
+
+  /**
+   * Paints the given objects in parallel if the graphics context allows it.
+   *
+   * @param list The list.
+   * @param gfx The graphics context.
+   * @param visibles The objects to paint.
+   * @param offset The start of the buffer in the values array.
+   * @param colorOffset The start of the buffer in the colors array.
+   * @param pool The pool painting the stripes.
+   * @return Whether the objects have been painted.
+   */
+  static boolean paint(final GenericPaintList<?> list, final Graphics2D gfx,
+      final BitSet visibles, final int offset, final int colorOffset,
+      final ForkJoinPool pool) {
+    // stripes are selected by bounding boxes
+    if(!list.hasBounds()) return false;
+    final int count = visibles.cardinality();
+    if(count < Math.max(1, GenericPaintList.PARALLEL_SIZE)) return false;
+    // other composites are not associative
+    if(!AlphaComposite.SrcOver.equals(gfx.getComposite())) return false;
+    final AffineTransform at = gfx.getTransform();
+    if(at.getShearX() != 0 || at.getShearY() != 0) return false;
+    final Rectangle clip = gfx.getClipBounds();
+    if(clip == null) return false;
+    final Rectangle pixels = at.createTransformedShape(clip).getBounds();
+    if(pixels.isEmpty() || (long) pixels.width * pixels.height > MAX_AREA) return false;
+    final Stroke stroke = gfx.getStroke();
+    if(!(stroke instanceof BasicStroke)) return false;
+    final BasicStroke bs = (BasicStroke) stroke;
+    // miter joins may reach further than half of the line width
+    final double margin = 2 + bs.getLineWidth() * Math.max(1, bs.getMiterLimit())
+        * Math.max(Math.abs(at.getScaleX()), Math.abs(at.getScaleY()));
+    final int n = Math.min(pool.getParallelism(), pixels.height / MIN_HEIGHT);
+    if(n < 2) return false;
+    final int[] rows = new int[n + 1];
+    for(int k = 0; k <= n; ++k) {
+      rows[k] = pixels.y + (int) ((long) pixels.height * k / n);
+    }
+    // other threads painting the same list at the same time use new images
+    final ImageCache.Entry[] cached = list.stripes.getAndSet(null);
+    final ImageCache.Entry[] entries = new ImageCache.Entry[n];
+    // the stripes are prepared here since graphics contexts are not thread safe
+    final BufferedImage[] stripes = new BufferedImage[n];
+    final Graphics2D[] graphics = new Graphics2D[n];
+    for(int k = 0; k < n; ++k) {
+      final int height = rows[k + 1] - rows[k];
+      if(cached != null && k < cached.length) {
+        final Image img = cached[k].get();
+        if(img instanceof BufferedImage && img.getWidth(null) == pixels.width
+            && img.getHeight(null) == height) {
+          stripes[k] = (BufferedImage) img;
+          entries[k] = cached[k];
+        } else {
+          cached[k].release();
+        }
+      }
+      final Graphics2D g;
+      if(stripes[k] != null) {
+        g = stripes[k].createGraphics();
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(0, 0, pixels.width, height);
+        g.setComposite(AlphaComposite.SrcOver);
+      } else {
+        stripes[k] = new BufferedImage(pixels.width, height,
+            BufferedImage.TYPE_INT_ARGB_PRE);
+        entries[k] = ImageCache.getDefault().add(stripes[k]);
+        g = stripes[k].createGraphics();
+      }
+      g.setRenderingHints(gfx.getRenderingHints());
+      g.setStroke(stroke);
+      g.setPaint(gfx.getPaint());
+      g.setFont(gfx.getFont());
+      g.translate(-pixels.x, -rows[k]);
+      g.transform(at);
+      graphics[k] = g;
+    }
+    final int[] sizes = new int[n];
+    final int[][] buckets = bucket(list, visibles, offset, rows,
+        at.getScaleY(), at.getTranslateY(), margin, sizes);
+    pool.invoke(new StripePainter(list, graphics, buckets, sizes,
+        offset, colorOffset, 0, n));
+    final Graphics2D g = (Graphics2D) gfx.create();
+    g.setTransform(new AffineTransform());
+    for(int k = 0; k < n; ++k) {
+      g.drawImage(stripes[k], pixels.x, rows[k], null);
+    }
+    g.dispose();
+    if(cached != null) {
+      for(int k = n; k < cached.length; ++k) {
+        cached[k].release();
+      }
+    }
+    if(!list.stripes.compareAndSet(null, entries)) {
+      for(final ImageCache.Entry e : entries) {
+        e.release();
+      }
+    }
+    return true;
+  }
+
+}
@@ -0,0 +1,274 @@
+package jkanvas.animation;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A hierarchical timer wheel for scheduled actions. Scheduling and cancelling
+ * actions is possible from any thread and takes constant time. Advancing the
+ * wheel is only allowed from the animation thread and touches only the slots
+ * whose time has come. Each level has {@link #SLOTS} slots and a resolution
+ * that is {@link #SLOTS} times coarser than the level below. Actions further
+ * in the future than the highest level can represent are kept in an overflow
+ * slot.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ */
+final class TimerWheel {
+
+  /** The number of bits per level. */
+  private static final int BITS = 6;
+  /** The number of slots per level. */
+  private static final int SLOTS = 1 << BITS;
+  /** The mask for the slot index. */
+  private static final long MASK = SLOTS - 1;
+  /** The number of levels. */
+  private static final int LEVELS = 4;
+
+  /**
+   * A slot containing a doubly linked list of actions.
+   *
+   * @author Joschi <josua.krause@gmail.com>
+   */
+  static final class Slot {
+
+    /** The first action in the slot. */
+    private ScheduledAction head;
+
+    /**
+     * Adds an action to the slot.
+     *
+     * @param a The action.
+     */
+    void add(final ScheduledAction a) {
+      a.slot = this;
+      a.prev = null;
+      a.next = head;
+      if(head != null) {
+        head.prev = a;
+      }
+      head = a;
+    }
+
+    /**
+     * Removes an action from the slot.
+     *
+     * @param a The action.
+     */
+    void remove(final ScheduledAction a) {
+      if(a.prev != null) {
+        a.prev.next = a.next;
+      } else {
+        head = a.next;
+      }
+      if(a.next != null) {
+        a.next.prev = a.prev;
+      }
+      a.prev = null;
+      a.next = null;
+      a.slot = null;
+    }
+
+    /**
+     * Removes all actions from the slot. The actions are still linked via
+     * {@link ScheduledAction#next}.
+     *
+     * @return The first action of the slot.
+     */
+    ScheduledAction detach() {
+      final ScheduledAction h = head;
+      head = null;
+      return h;
+    }
+
+  } // Slot
+
+  /** The slots of all levels. */
+  private final Slot[][] wheels;
+  /** The actions that are too far in the future for the wheel. */
+  private final Slot overflow = new Slot();
+  /** Newly scheduled actions with relative timing. */
+  private final Queue<ScheduledAction> incoming = new ConcurrentLinkedQueue<>();
+  /** Actions that have been cancelled since the last frame. */
+  private final Queue<ScheduledAction> cancelled = new ConcurrentLinkedQueue<>();
+  /** The current time of the wheel. */
+  private long now;
+  /** Whether the wheel has been advanced at least once. */
+  private boolean started;
+  /** The number of actions in the wheel. */
+  private int size;
+
+  /** Creates an empty timer wheel. */
+  public TimerWheel() {
+    wheels = new Slot[LEVELS][SLOTS];
+    for(final Slot[] level : wheels) {
+      for(int i = 0; i < level.length; ++i) {
+        level[i] = new Slot();
+      }
+    }
+  }
+
+  /**
+   * Schedules an action. The delay is relative to the time of the next call to
+   * {@link #advance(long)}. This method may be called from any thread.
+   *
+   * @param action The action or <code>null</code>.
+   * @param wait The time to wait in milliseconds.
+   * @return The handle of the scheduled action.
+   */
+  public ScheduledAction schedule(final AnimationAction action, final long wait) {
+    final ScheduledAction a = new ScheduledAction(this, action, wait);
+    if(!a.isDone()) {
+      incoming.add(a);
+    }
+    return a;
+  }
+
+  /**
+   * Notifies the wheel that an action has been cancelled.
+   *
+   * @param a The action.
+   */
+  void cancelled(final ScheduledAction a) {
+    cancelled.add(a);
+  }
+
+  /**
+   * Getter.
+   *
+   * @return Whether there are no actions waiting to be executed.
+   */
+  public boolean isEmpty() {
+    return size == 0 && incoming.isEmpty();
+  }
+
+  /**
+   * Getter.
+   *
+   * @return The number of actions in the wheel as of the last advance.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Advances the wheel to the given time and enqueues all due actions via
+   * {@link AnimationAction#enqueue(AnimationAction)}. The animation token must
+   * be set by the caller. Times smaller than the current time of the wheel are
+   * treated as the current time.
+   *
+   * @param currentTime The current time in milliseconds.
+   */
+  public void advance(final long currentTime) {
+    ScheduledAction c;
+    while((c = cancelled.poll()) != null) {
+      if(c.slot == null) {
+        continue;
+      }
+      c.slot.remove(c);
+      --size;
+    }
+    if(!started) {
+      now = currentTime;
+      started = true;
+    }
+    if(currentTime > now) {
+      final long old = now;
+      now = currentTime;
+      final long ticks = currentTime - old;
+      final Slot[] first = wheels[0];
+      if(ticks >= SLOTS) {
+        for(final Slot s : first) {
+          cascade(s);
+        }
+      } else {
+        for(long t = old + 1; t <= currentTime; ++t) {
+          cascade(first[(int) (t & MASK)]);
+        }
+      }
+      boolean top = false;
+      for(int level = 1; level < LEVELS; ++level) {
+        final int shift = BITS * level;
+        final long from = old >> shift;
+        final long to = currentTime >> shift;
+        if(from == to) {
+          break;
+        }
+        final Slot[] slots = wheels[level];
+        final long n = Math.min(to - from, SLOTS);
+        for(long k = 1; k <= n; ++k) {
+          cascade(slots[(int) ((from + k) & MASK)]);
+        }
+        top = level == LEVELS - 1;
+      }
+      if(top) {
+        cascade(overflow);
+      }
+    }
+    while((c = incoming.poll()) != null) {
+      c.due = now + c.wait;
+      insert(c);
+    }
+  }
+
+  /**
+   * Reinserts all actions of the given slot relative to the current time.
+   * Actions that are due get enqueued.
+   *
+   * @param s The slot.
+   */
+  private void cascade(final Slot s) {
+    ScheduledAction cur = s.detach();
+    while(cur != null) {
+      final ScheduledAction next = cur.next;
+      cur.prev = null;
+      cur.next = null;
+      cur.slot = null;
+      --size;
+      insert(cur);
+      cur = next;
+    }
+  }
+
+  /**
+   * Inserts an action relative to the current time. If the action is due it
+   * gets enqueued instead.
+   *
+   * @param a The action.
+   */
+  private void insert(final ScheduledAction a) {
+    if(a.isDone()) return;
+    final long delta = a.due - now;
+    if(delta <= 0) {
+      if(a.execute()) {
+        AnimationAction.enqueue(a.action);
+      }
+      return;
+    }
+    int level = 0;
+    while(level < LEVELS && (delta >>> (BITS * (level + 1))) != 0) {
+      ++level;
+    }
+    final Slot s = level < LEVELS
+        ? wheels[level][(int) ((a.due >> (BITS * level)) & MASK)] : overflow;
+    s.add(a);
+    ++size;
+  }
+
+  /**
+   * Removes all actions. Callers outside the animation thread must ensure that
+   * the wheel is not advanced at the same time.
+   */
+  public void clear() {
+    incoming.clear();
+    cancelled.clear();
+    for(final Slot[] level : wheels) {
+      for(final Slot s : level) {
+        s.detach();
+      }
+    }
+    overflow.detach();
+    size = 0;
+  }
+
+}
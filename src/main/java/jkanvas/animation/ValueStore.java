@@ -0,0 +1,637 @@
+package jkanvas.animation;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Stores the values or colors of a {@link GenericPaintList}. Values are held
+ * by a {@link DoubleStore} as <code>double</code> or <code>float</code> and
+ * colors are held by an {@link IntStore}. Stores are created by a
+ * {@link PaintListStorage}.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ * @param <S> The type of the store.
+ */
+abstract class ValueStore<S extends ValueStore<S>> {
+
+  /**
+   * Getter.
+   *
+   * @return The number of values.
+   */
+  public abstract int length();
+
+  /**
+   * Changes the number of values. The values up to the smaller length are
+   * kept. New values are unspecified.
+   *
+   * @param length The new number of values.
+   * @return The resized store. This may be the same object.
+   */
+  public abstract S resize(int length);
+
+  /**
+   * Copies values within the store. The ranges may overlap.
+   *
+   * @param src The source position.
+   * @param dst The destination position.
+   * @param len The number of values.
+   */
+  public abstract void move(int src, int dst, int len);
+
+  /**
+   * Sets a range of values to zero.
+   *
+   * @param pos The position of the first value.
+   * @param len The number of values.
+   */
+  public abstract void clear(int pos, int len);
+
+  /** Writes changes to the backing file if any. */
+  public void force() {
+    // nothing to do
+  }
+
+  /**
+   * Stores <code>double</code> or <code>float</code> values.
+   *
+   * @author Joschi <josua.krause@gmail.com>
+   */
+  abstract static class DoubleStore extends ValueStore<DoubleStore> {
+
+    /**
+     * Getter.
+     *
+     * @param i The position.
+     * @return The value.
+     */
+    public abstract double get(int i);
+
+    /**
+     * Setter.
+     *
+     * @param i The position.
+     * @param v The value.
+     */
+    public abstract void set(int i, double v);
+
+    /**
+     * Getter.
+     *
+     * @return Whether values are stored as <code>float</code>.
+     */
+    public abstract boolean isSinglePrecision();
+
+    /**
+     * Sets values at regular intervals.
+     *
+     * @param pos The position of the first value.
+     * @param stride The distance between two values in the store.
+     * @param src The values.
+     * @param off The first value in the source array.
+     * @param len The number of values.
+     */
+    public void setAll(final int pos, final int stride,
+        final double[] src, final int off, final int len) {
+      for(int k = 0, p = pos; k < len; ++k, p += stride) {
+        set(p, src[off + k]);
+      }
+    }
+
+  } // DoubleStore
+
+  /**
+   * Stores <code>int</code> values.
+   *
+   * @author Joschi <josua.krause@gmail.com>
+   */
+  abstract static class IntStore extends ValueStore<IntStore> {
+
+    /**
+     * Getter.
+     *
+     * @param i The position.
+     * @return The value.
+     */
+    public abstract int getInt(int i);
+
+    /**
+     * Setter.
+     *
+     * @param i The position.
+     * @param v The value.
+     */
+    public abstract void setInt(int i, int v);
+
+  } // IntStore
+
+  /**
+   * Values stored in a <code>double</code> array.
+   *
+   * @author Joschi <josua.krause@gmail.com>
+   */
+  static final class Doubles extends DoubleStore {
+
+    /** The values. */
+    private final double[] arr;
+
+    /**
+     * Creates a store.
+     *
+     * @param arr The values.
+     */
+    public Doubles(final double[] arr) {
+      this.arr = arr;
+    }
+
+    @Override
+    public double get(final int i) {
+      return arr[i];
+    }
+
+    @Override
+    public void set(final int i, final double v) {
+      arr[i] = v;
+    }
+
+    @Override
+    public int length() {
+      return arr.length;
+    }
+
+    @Override
+    public boolean isSinglePrecision() {
+      return false;
+    }
+
+    @Override
+    public DoubleStore resize(final int length) {
+      return new Doubles(Arrays.copyOf(arr, length));
+    }
+
+    @Override
+    public void setAll(final int pos, final int stride,
+        final double[] src, final int off, final int len) {
+      if(stride == 1) {
+        System.arraycopy(src, off, arr, pos, len);
+        return;
+      }
+      for(int k = 0, p = pos; k < len; ++k, p += stride) {
+        arr[p] = src[off + k];
+      }
+    }
+
+    @Override
+    public void clear(final int pos, final int len) {
+      Arrays.fill(arr, pos, pos + len, 0.0);
+    }
+
+    @Override
+    public void move(final int src, final int dst, final int len) {
+      System.arraycopy(arr, src, arr, dst, len);
+    }
+
+  } // Doubles
+
+  /**
+   * Values stored in a <code>float</code> array.
+   *
+   * @author Joschi <josua.krause@gmail.com>
+   */
+  static final class Floats extends DoubleStore {
+
+    /** The values. */
+    private final float[] arr;
+
+    /**
+     * Creates a store.
+     *
+     * @param arr The values.
+     */
+    public Floats(final float[] arr) {
+      this.arr = arr;
+    }
+
+    @Override
+    public double get(final int i) {
+      return arr[i];
+    }
+
+    @Override
+    public void set(final int i, final double v) {
+      arr[i] = (float) v;
+    }
+
+    @Override
+    public int length() {
+      return arr.length;
+    }
+
+    @Override
+    public boolean isSinglePrecision() {
+      return true;
+    }
+
+    @Override
+    public DoubleStore resize(final int length) {
+      return new Floats(Arrays.copyOf(arr, length));
+    }
+
+    @Override
+    public void setAll(final int pos, final int stride,
+        final double[] src, final int off, final int len) {
+      for(int k = 0, p = pos; k < len; ++k, p += stride) {
+        arr[p] = (float) src[off + k];
+      }
+    }
+
+    @Override
+    public void clear(final int pos, final int len) {
+      Arrays.fill(arr, pos, pos + len, 0f);
+    }
+
+    @Override
+    public void move(final int src, final int dst, final int len) {
+      System.arraycopy(arr, src, arr, dst, len);
+    }
+
+  } // Floats
+
+  /**
+   * Colors stored in an <code>int</code> array.
+   *
+   * @author Joschi <josua.krause@gmail.com>
+   */
+  static final class Ints extends IntStore {
+
+    /** The values. */
+    private final int[] arr;
+
+    /**
+     * Creates a store.
+     *
+     * @param arr The values.
+     */
+    public Ints(final int[] arr) {
+      this.arr = arr;
+    }
+
+    @Override
+    public int getInt(final int i) {
+      return arr[i];
+    }
+
+    @Override
+    public void setInt(final int i, final int v) {
+      arr[i] = v;
+    }
+
+    @Override
+    public int length() {
+      return arr.length;
+    }
+
+    @Override
+    public IntStore resize(final int length) {
+      return new Ints(Arrays.copyOf(arr, length));
+    }
+
+    @Override
+    public void clear(final int pos, final int len) {
+      Arrays.fill(arr, pos, pos + len, 0);
+    }
+
+    @Override
+    public void move(final int src, final int dst, final int len) {
+      System.arraycopy(arr, src, arr, dst, len);
+    }
+
+  } // Ints
+
+  /**
+   * Values stored outside of the Java heap. The values are split into chunks of
+   * equal size so that stores can hold more than two gigabytes and grow
+   * without copying. Chunks are either allocated directly or mapped from a
+   * file. Mapped chunks always use the {@link #FILE_ORDER} so that files can be
+   * opened on every platform.
+   *
+   * @author Joschi <josua.krause@gmail.com>
+   */
+  static final class Chunked {
+
+    /** The number of values per chunk as power of two. */
+    static final int SHIFT = 20;
+    /** The mask for the position within a chunk. */
+    static final int MASK = (1 << SHIFT) - 1;
+    /** The byte order of mapped files. */
+    static final ByteOrder FILE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    /** The number of bytes per value. Either 4 or 8. */
+    final int bytes;
+    /** The file or <code>null</code> if chunks are allocated directly. */
+    private final File file;
+    /** The chunks. */
+    final ByteBuffer[] chunks;
+    /** The number of values. */
+    final int length;
+
+    /**
+     * Creates chunks.
+     *
+     * @param bytes The number of bytes per value. Either 4 or 8.
+     * @param file The file or <code>null</code> if chunks are allocated
+     *          directly.
+     * @param chunks The chunks.
+     * @param length The number of values.
+     */
+    private Chunked(final int bytes, final File file,
+        final ByteBuffer[] chunks, final int length) {
+      this.bytes = bytes;
+      this.file = file;
+      this.chunks = chunks;
+      this.length = length;
+    }
+
+    /**
+     * Creates chunks.
+     *
+     * @param bytes The number of bytes per value. Either 4 or 8.
+     * @param file The file or <code>null</code> if chunks are allocated
+     *          directly. Existing content of the file is kept.
+     * @param length The number of values.
+     * @return The chunks.
+     * @throws IOException If the file cannot be mapped.
+     */
+    public static Chunked create(final int bytes, final File file,
+        final int length) throws IOException {
+      return new Chunked(bytes, file, new ByteBuffer[0], 0).grow(length);
+    }
+
+    /**
+     * Creates more chunks. The existing chunks are kept.
+     *
+     * @param newLength The new number of values.
+     * @return The new chunks.
+     * @throws IOException If the file cannot be mapped.
+     */
+    private Chunked grow(final int newLength) throws IOException {
+      final int count = (int) (((long) newLength + MASK) >>> SHIFT);
+      if(count <= chunks.length) return new Chunked(bytes, file, chunks, newLength);
+      final ByteBuffer[] cs = Arrays.copyOf(chunks, count);
+      final int size = bytes << SHIFT;
+      if(file == null) {
+        for(int c = chunks.length; c < count; ++c) {
+          cs[c] = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder());
+        }
+      } else {
+        // mappings stay valid after the channel is closed
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+            FileChannel fc = raf.getChannel()) {
+          for(int c = chunks.length; c < count; ++c) {
+            final MappedByteBuffer buff = fc.map(
+                FileChannel.MapMode.READ_WRITE, (long) c * size, size);
+            cs[c] = buff.order(FILE_ORDER);
+          }
+        }
+      }
+      return new Chunked(bytes, file, cs, newLength);
+    }
+
+    /**
+     * Changes the number of values.
+     *
+     * @param newLength The new number of values.
+     * @return The resized chunks.
+     */
+    public Chunked resize(final int newLength) {
+      if(newLength > length) {
+        try {
+          return grow(newLength);
+        } catch(final IOException e) {
+          throw new IllegalStateException(e);
+        }
+      }
+      final int count = (int) (((long) newLength + MASK) >>> SHIFT);
+      return new Chunked(bytes, file, Arrays.copyOf(chunks, count), newLength);
+    }
+
+    /**
+     * Copies values within the chunks. The ranges may overlap.
+     *
+     * @param src The source position.
+     * @param dst The destination position.
+     * @param len The number of values.
+     */
+    public void move(final int src, final int dst, final int len) {
+      if(src == dst || len <= 0) return;
+      if(dst > src - len && dst < src + len) {
+        moveOverlapping(src, dst, len);
+        return;
+      }
+      int s = src;
+      int d = dst;
+      int rest = len;
+      while(rest > 0) {
+        final int n = Math.min(rest, Math.min(
+            (1 << SHIFT) - (s & MASK), (1 << SHIFT) - (d & MASK)));
+        final ByteBuffer from = chunks[s >>> SHIFT].duplicate();
+        from.position((s & MASK) * bytes);
+        from.limit((s & MASK) * bytes + n * bytes);
+        final ByteBuffer to = chunks[d >>> SHIFT].duplicate();
+        to.position((d & MASK) * bytes);
+        to.put(from);
+        s += n;
+        d += n;
+        rest -= n;
+      }
+    }
+
+    /**
+     * Sets a range of values to zero.
+     *
+     * @param pos The position of the first value.
+     * @param len The number of values.
+     */
+    public void clear(final int pos, final int len) {
+      int p = pos;
+      int rest = len;
+      while(rest > 0) {
+        final int n = Math.min(rest, (1 << SHIFT) - (p & MASK));
+        final ByteBuffer c = chunks[p >>> SHIFT];
+        final int start = (p & MASK) * bytes;
+        for(int b = start; b < start + n * bytes; b += 4) {
+          c.putInt(b, 0);
+        }
+        p += n;
+        rest -= n;
+      }
+    }
+
+    /**
+     * Copies overlapping ranges of values one by one.
+     *
+     * @param src The source position.
+     * @param dst The destination position.
+     * @param len The number of values.
+     */
+    private void moveOverlapping(final int src, final int dst, final int len) {
+      final boolean backwards = dst > src;
+      for(int k = 0; k < len; ++k) {
+        final int o = backwards ? len - 1 - k : k;
+        final int s = src + o;
+        final int d = dst + o;
+        final ByteBuffer sc = chunks[s >>> SHIFT];
+        final ByteBuffer dc = chunks[d >>> SHIFT];
+        final int sp = (s & MASK) * bytes;
+        final int dp = (d & MASK) * bytes;
+        if(bytes == 8) {
+          dc.putLong(dp, sc.getLong(sp));
+        } else {
+          dc.putInt(dp, sc.getInt(sp));
+        }
+      }
+    }
+
+    /** Writes changes to the file if any. */
+    public void force() {
+      if(file == null) return;
+      for(final ByteBuffer c : chunks) {
+        ((MappedByteBuffer) c).force();
+      }
+    }
+
+  } // Chunked
+
+  /**
+   * <code>double</code> or <code>float</code> values stored outside of the Java
+   * heap.
+   *
+   * @author Joschi <josua.krause@gmail.com>
+   */
+  static final class ChunkedDoubles extends DoubleStore {
+
+    /** The chunks. */
+    private final Chunked c;
+
+    /**
+     * Creates a store.
+     *
+     * @param c The chunks with either 4 or 8 bytes per value.
+     */
+    public ChunkedDoubles(final Chunked c) {
+      this.c = c;
+    }
+
+    @Override
+    public double get(final int i) {
+      final ByteBuffer b = c.chunks[i >>> Chunked.SHIFT];
+      final int pos = (i & Chunked.MASK) * c.bytes;
+      return c.bytes == 8 ? b.getDouble(pos) : b.getFloat(pos);
+    }
+
+    @Override
+    public void set(final int i, final double v) {
+      final ByteBuffer b = c.chunks[i >>> Chunked.SHIFT];
+      final int pos = (i & Chunked.MASK) * c.bytes;
+      if(c.bytes == 8) {
+        b.putDouble(pos, v);
+      } else {
+        b.putFloat(pos, (float) v);
+      }
+    }
+
+    @Override
+    public boolean isSinglePrecision() {
+      return c.bytes == 4;
+    }
+
+    @Override
+    public int length() {
+      return c.length;
+    }
+
+    @Override
+    public DoubleStore resize(final int length) {
+      return new ChunkedDoubles(c.resize(length));
+    }
+
+    @Override
+    public void move(final int src, final int dst, final int len) {
+      c.move(src, dst, len);
+    }
+
+    @Override
+    public void clear(final int pos, final int len) {
+      c.clear(pos, len);
+    }
+
+    @Override
+    public void force() {
+      c.force();
+    }
+
+  } // ChunkedDoubles
+
+  /**
+   * <code>int</code> values stored outside of the Java heap.
+   *
+   * @author Joschi <josua.krause@gmail.com>
+   */
+  static final class ChunkedInts extends IntStore {
+
+    /** The chunks. */
+    private final Chunked c;
+
+    /**
+     * Creates a store.
+     *
+     * @param c The chunks with 4 bytes per value.
+     */
+    public ChunkedInts(final Chunked c) {
+      this.c = c;
+    }
+
+    @Override
+    public int getInt(final int i) {
+      return c.chunks[i >>> Chunked.SHIFT].getInt((i & Chunked.MASK) << 2);
+    }
+
+    @Override
+    public void setInt(final int i, final int v) {
+      c.chunks[i >>> Chunked.SHIFT].putInt((i & Chunked.MASK) << 2, v);
+    }
+
+    @Override
+    public int length() {
+      return c.length;
+    }
+
+    @Override
+    public IntStore resize(final int length) {
+      return new ChunkedInts(c.resize(length));
+    }
+
+    @Override
+    public void move(final int src, final int dst, final int len) {
+      c.move(src, dst, len);
+    }
+
+    @Override
+    public void clear(final int pos, final int len) {
+      c.clear(pos, len);
+    }
+
+    @Override
+    public void force() {
+      c.force();
+    }
+
+  } // ChunkedInts
+
+}
@@ -76,7 +76,7 @@ public class MatrixRenderpass<T extends Matrix<?>> extends Renderpass {
    */
   public void setCellRealizer(final CellRealizer<T> cellDrawer) {
     this.cellDrawer = cellDrawer;
-    manager.refreshAll();
+    refreshBounds(manager);
   }
 
   /**
@@ -0,0 +1,64 @@
+package jkanvas.painter;
+
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/**
+ * The type of images used to cache render passes.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ */
+public enum CacheType {
+
+  /** A plain {@link BufferedImage} with integer ARGB pixels. */
+  ARGB {
+
+    @Override
+    public Image create(final GraphicsConfiguration gc, final int width, final int height) {
+      return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    }
+
+  },
+
+  /**
+   * A {@link BufferedImage} with the pixel layout of the device. Drawing such
+   * images on the device needs no conversion.
+   */
+  COMPATIBLE {
+
+    @Override
+    public Image create(final GraphicsConfiguration gc, final int width, final int height) {
+      if(gc == null) return ARGB.create(gc, width, height);
+      return gc.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+    }
+
+  },
+
+  /**
+   * A {@link java.awt.image.VolatileImage} that may be stored in video memory.
+   * Its content can be lost at any time and must be restored.
+   */
+  VOLATILE {
+
+    @Override
+    public Image create(final GraphicsConfiguration gc, final int width, final int height) {
+      if(gc == null) return ARGB.create(gc, width, height);
+      return gc.createCompatibleVolatileImage(width, height, Transparency.TRANSLUCENT);
+    }
+
+  };
+
+  /**
+   * Creates an empty image.
+   *
+   * @param gc The configuration of the device the image is drawn on. If it is
+   *          <code>null</code> an {@link #ARGB} image is created.
+   * @param width The width.
+   * @param height The height.
+   * @return The image.
+   */
+  public abstract Image create(GraphicsConfiguration gc, int width, int height);
+
+}
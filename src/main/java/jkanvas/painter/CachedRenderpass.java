@@ -1,12 +1,16 @@
 package jkanvas.painter;
 
+import java.awt.AlphaComposite;
 import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
 import java.awt.RenderingHints;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Rectangle2D;
-import java.awt.image.AffineTransformOp;
-import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+import java.util.Objects;
 
+import jkanvas.DraftContext;
 import jkanvas.KanvasContext;
 import jkanvas.util.PaintUtil;
 
@@ -17,7 +21,15 @@ import jkanvas.util.PaintUtil;
  * returns <code>true</code>. The render pass can also not work with the current
  * zoom level as it may be altered to create the cache. However visibility
  * checks against the visible canvas do work, even though the visible canvas is
- * assumed to be the cached render pass.
+ * assumed to be the cached render pass. The cache is a pyramid of images whose
+ * longest sides are powers of two times {@link #CACHE_MIN_SIZE}. The level
+ * matching the current size of the render pass on the screen is created on
+ * demand so that the cache stays sharp and drawing it costs about as much as
+ * the pixels that are visible. Only the current level and its direct neighbors
+ * are kept. The images are held by the {@link ImageCache#getDefault() image
+ * cache} and may be evicted at any time. When only a
+ * {@link DraftContext#isDraft() draft} is needed the closest present level is
+ * drawn instead of creating a new one or drawing the render pass directly.
  * 
  * @author Joschi <josua.krause@gmail.com>
  */
@@ -26,14 +38,49 @@ public abstract class CachedRenderpass extends Renderpass {
   /** The visible size at which the caching comes into effect. */
   public static int CACHE_VISIBLE = 256;
 
-  /** The orientation for the size of the cache. */
-  public static int CACHE_SIZE = 512;
+  /** The longest side of the smallest cache level. */
+  public static int CACHE_MIN_SIZE = 64;
 
-  /** The cached image. */
-  private BufferedImage cache;
+  /** The maximal longest side of the largest cache level. */
+  public static int CACHE_MAX_SIZE = 2048;
 
-  /** The scaling of the image. */
-  private double scale;
+  /** The default of {@link #CACHE_SIZE}. */
+  private static final int DEFAULT_CACHE_SIZE = 512;
+
+  /**
+   * The orientation for the size of the cache. When this value is changed from
+   * its default of <code>512</code> it is used instead of
+   * {@link #CACHE_MAX_SIZE}.
+   * 
+   * @deprecated Use {@link #CACHE_MAX_SIZE} instead.
+   */
+  @Deprecated
+  public static int CACHE_SIZE = DEFAULT_CACHE_SIZE;
+
+  /** The type of images that are used for caching. */
+  public static CacheType CACHE_TYPE = CacheType.ARGB;
+
+  /** How often a volatile cache is restored during one draw at most. */
+  private static final int MAX_RESTORE = 3;
+
+  /**
+   * The cache levels. Level <code>i</code> has a longest side of
+   * <code>CACHE_MIN_SIZE &lt;&lt; i</code>. Levels that are not created are
+   * <code>null</code>.
+   */
+  private ImageCache.Entry[] levels = new ImageCache.Entry[0];
+
+  /** The scaling of the images of the levels to canvas coordinates. */
+  private double[] scales = new double[0];
+
+  /** The image type of the current levels. */
+  private CacheType levelType;
+
+  /**
+   * Guards the cache levels since a render pass may be drawn from multiple
+   * threads by a {@link TiledRenderpass}.
+   */
+  private final Object cacheLock = new Object();
 
   /** Whether the render pass has changed during the last draw. */
   private boolean lastChanging;
@@ -64,40 +111,202 @@ public abstract class CachedRenderpass extends Renderpass {
     }
     final boolean drawSelf = noCache ||
         (comp.getWidth() >= CACHE_VISIBLE && comp.getHeight() >= CACHE_VISIBLE);
-    if(!isForceCaching() && drawSelf) {
+    // drafts prefer any existing cache level over drawing the render pass
+    final boolean draft = !noCache && ctx instanceof DraftContext
+        && ((DraftContext) ctx).isDraft() && hasCachedLevel();
+    if(!isForceCaching() && drawSelf && !draft) {
       doDraw(g, ctx);
       return;
     }
-    createCache(bbox);
-    g.translate(bbox.getX(), bbox.getY());
-    final AffineTransform sc = AffineTransform.getScaleInstance(scale, scale);
-    // FIXME experimental
-    final AffineTransformOp op = new AffineTransformOp(sc,
-        AffineTransformOp.TYPE_BILINEAR);
-    g.drawImage(cache, op, 0, 0);
+    final GraphicsConfiguration gc = g.getDeviceConfiguration();
+    final Graphics2D g2 = (Graphics2D) g.create();
+    g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+        RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+    g2.translate(bbox.getX(), bbox.getY());
+    Image cache;
+    AffineTransform sc;
+    int attempts = 0;
+    do {
+      final double scale;
+      synchronized(cacheLock) {
+        final int best = chooseLevel(Math.max(comp.getWidth(), comp.getHeight()));
+        final int level = draft ? nearestCachedLevel(best) : best;
+        cache = createCache(level, bbox, gc);
+        evictLevels(level);
+        scale = scales[level];
+      }
+      sc = AffineTransform.getScaleInstance(scale, scale);
+      g2.drawImage(cache, sc, null);
+      // volatile images may lose their content while drawing
+    } while(cache instanceof VolatileImage
+        && ((VolatileImage) cache).contentsLost() && ++attempts < MAX_RESTORE);
     if(jkanvas.Canvas.DEBUG_CACHE) {
-      jkanvas.util.PaintUtil.setAlpha(g, 0.3);
-      g.setColor(java.awt.Color.MAGENTA);
+      jkanvas.util.PaintUtil.setAlpha(g2, 0.3);
+      g2.setColor(java.awt.Color.MAGENTA);
       // we do not use a shape because we want to be as precise as the cache
-      g.transform(sc);
-      g.fillRect(0, 0, cache.getWidth(null), cache.getHeight(null));
+      g2.transform(sc);
+      g2.fillRect(0, 0, cache.getWidth(null), cache.getHeight(null));
+    }
+    g2.dispose();
+  }
+
+  /**
+   * Getter.
+   * 
+   * @return The number of cache levels.
+   */
+  private static int levelCount() {
+    final int min = Math.max(1, CACHE_MIN_SIZE);
+    @SuppressWarnings("deprecation")
+    final int max = CACHE_SIZE != DEFAULT_CACHE_SIZE ? CACHE_SIZE : CACHE_MAX_SIZE;
+    int count = 1;
+    while((min << count) <= max && count < 30) {
+      ++count;
+    }
+    return count;
+  }
+
+  /**
+   * Chooses the smallest cache level that is at least as large as the render
+   * pass on the screen.
+   * 
+   * @param screenSize The longest side of the render pass in component
+   *          coordinates.
+   * @return The cache level.
+   */
+  private int chooseLevel(final double screenSize) {
+    final int count = levelCount();
+    final CacheType type = Objects.requireNonNull(getCacheType());
+    if(levels.length != count || levelType != type) {
+      levelType = type;
+      invalidateCache();
+      levels = new ImageCache.Entry[count];
+      scales = new double[count];
+    }
+    final int min = Math.max(1, CACHE_MIN_SIZE);
+    int level = 0;
+    while(level < count - 1 && (min << level) < screenSize) {
+      ++level;
+    }
+    return level;
+  }
+
+  /**
+   * Getter.
+   * 
+   * @return Whether any cache level is present.
+   */
+  private boolean hasCachedLevel() {
+    synchronized(cacheLock) {
+      if(levelType != getCacheType()) return false;
+      for(final ImageCache.Entry e : levels) {
+        if(e != null && e.isValid()) return true;
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Finds the present cache level that is closest to the given level. Finer
+   * levels are preferred.
+   * 
+   * @param level The desired level.
+   * @return The closest present level or the desired level if no level is
+   *         present.
+   */
+  private int nearestCachedLevel(final int level) {
+    for(int d = 0; d < levels.length; ++d) {
+      final int finer = level + d;
+      if(finer < levels.length && levels[finer] != null && levels[finer].isValid()) return finer;
+      final int coarser = level - d;
+      if(coarser >= 0 && levels[coarser] != null && levels[coarser].isValid()) return coarser;
+    }
+    return level;
+  }
+
+  /**
+   * Removes all levels that are not adjacent to the given level.
+   * 
+   * @param level The currently used level.
+   */
+  private void evictLevels(final int level) {
+    for(int i = 0; i < levels.length; ++i) {
+      if(Math.abs(i - level) <= 1 || levels[i] == null) {
+        continue;
+      }
+      levels[i].release();
+      levels[i] = null;
     }
-    return;
   }
 
   /**
-   * Creates the cached image if it is not present.
+   * Getter.
+   * 
+   * @return The type of images used for caching. The default implementation
+   *         returns {@link #CACHE_TYPE}.
+   */
+  protected CacheType getCacheType() {
+    return CACHE_TYPE;
+  }
+
+  /**
+   * Creates the cached image of the given level if it is not present. Volatile
+   * images are validated and restored if necessary.
    * 
+   * @param level The cache level.
    * @param bbox The bounding box of the render pass.
+   * @param gc The configuration of the device the cache is drawn on.
+   * @return The cached image.
    */
-  private void createCache(final Rectangle2D bbox) {
-    if(cache != null) return;
-    final double s = CACHE_SIZE / Math.max(bbox.getWidth(), bbox.getHeight());
+  private Image createCache(final int level, final Rectangle2D bbox,
+      final GraphicsConfiguration gc) {
+    final ImageCache.Entry e = levels[level];
+    if(e != null) {
+      final Image img = e.get();
+      if(img instanceof VolatileImage) {
+        final VolatileImage vi = (VolatileImage) img;
+        final int state = vi.validate(gc);
+        if(state == VolatileImage.IMAGE_OK) return vi;
+        if(state == VolatileImage.IMAGE_RESTORED) {
+          renderCache(vi, 1 / scales[level], bbox);
+          return vi;
+        }
+        // the image is incompatible with the device
+      } else if(img != null) return img;
+      e.release();
+      levels[level] = null;
+    }
+    final int size = Math.max(1, CACHE_MIN_SIZE) << level;
+    final double s = size / Math.max(bbox.getWidth(), bbox.getHeight());
     final double w = bbox.getWidth() * s;
     final double h = bbox.getHeight() * s;
-    final BufferedImage img = new BufferedImage((int) Math.ceil(w), (int) Math.ceil(h),
-        BufferedImage.TYPE_INT_ARGB);
-    final Graphics2D g = img.createGraphics();
+    // small levels of very thin render passes may round to zero
+    final Image img = levelType.create(gc,
+        Math.max(1, (int) Math.ceil(w)), Math.max(1, (int) Math.ceil(h)));
+    if(img instanceof VolatileImage) {
+      ((VolatileImage) img).validate(gc);
+    }
+    renderCache(img, s, bbox);
+    levels[level] = ImageCache.getDefault().add(img);
+    scales[level] = 1 / s;
+    return img;
+  }
+
+  /**
+   * Renders the render pass into a cache image.
+   * 
+   * @param img The image.
+   * @param s The scaling from canvas coordinates to the image.
+   * @param bbox The bounding box of the render pass.
+   */
+  private void renderCache(final Image img, final double s, final Rectangle2D bbox) {
+    final Graphics2D g = (Graphics2D) img.getGraphics();
+    if(img instanceof VolatileImage) {
+      // volatile images are not guaranteed to be transparent
+      g.setComposite(AlphaComposite.Clear);
+      g.fillRect(0, 0, img.getWidth(null), img.getHeight(null));
+      g.setComposite(AlphaComposite.SrcOver);
+    }
     g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
     final CacheContext cc = new CacheContext(bbox);
     g.scale(s, s);
@@ -107,8 +316,6 @@ public abstract class CachedRenderpass extends Renderpass {
     g.clip(bbox);
     doDraw(g, cc);
     g.dispose();
-    cache = img;
-    scale = 1 / s;
   }
 
   /**
@@ -169,9 +376,15 @@ public abstract class CachedRenderpass extends Renderpass {
 
   /** Invalidates only the cache. */
   protected final void invalidateCache() {
-    if(cache == null) return;
-    cache.flush();
-    cache = null;
+    synchronized(cacheLock) {
+      for(int i = 0; i < levels.length; ++i) {
+        if(levels[i] == null) {
+          continue;
+        }
+        levels[i].release();
+        levels[i] = null;
+      }
+    }
   }
 
 }
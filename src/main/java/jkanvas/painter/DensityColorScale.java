@@ -0,0 +1,105 @@
+package jkanvas.painter;
+
+import java.awt.Color;
+import java.util.Objects;
+
+import jkanvas.util.PaintUtil;
+
+/**
+ * Maps the number of objects per pixel to colors. Counts are scaled
+ * logarithmically so that single objects stay visible next to dense clusters.
+ * Pixels without objects stay transparent. Subclasses may change the scaling by
+ * overriding {@link #normalize(int, int)}.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ */
+public class DensityColorScale {
+
+  /** The number of distinct colors of the scale. */
+  private static final int STEPS = 256;
+
+  /** The color of the lowest count. */
+  private final Color low;
+  /** The color of the highest count. */
+  private final Color high;
+  /** The colors of the scale as ARGB values. */
+  private final int[] table;
+
+  /**
+   * Creates a color scale.
+   *
+   * @param low The color of the lowest count.
+   * @param high The color of the highest count.
+   */
+  public DensityColorScale(final Color low, final Color high) {
+    this.low = Objects.requireNonNull(low);
+    this.high = Objects.requireNonNull(high);
+    table = new int[STEPS];
+    for(int i = 0; i < STEPS; ++i) {
+      table[i] = PaintUtil.interpolate(low, high, i / (STEPS - 1.0)).getRGB();
+    }
+  }
+
+  /**
+   * Getter.
+   *
+   * @return The color of the lowest count.
+   */
+  public Color getLow() {
+    return low;
+  }
+
+  /**
+   * Getter.
+   *
+   * @return The color of the highest count.
+   */
+  public Color getHigh() {
+    return high;
+  }
+
+  /**
+   * Maps a count to the range of the color scale.
+   *
+   * @param count The count. The count is always positive.
+   * @param max The highest count. The highest count is always positive.
+   * @return The position in the color scale from 0 to 1.
+   */
+  protected double normalize(final int count, final int max) {
+    if(max <= 1) return 1;
+    return Math.log(count) / Math.log(max);
+  }
+
+  /**
+   * Converts counts to colors.
+   *
+   * @param counts The counts.
+   * @param max The highest count.
+   * @param argb The output array for the ARGB values. The array may be the same
+   *          as the counts.
+   * @param length The number of values to convert.
+   */
+  public void colorize(final int[] counts, final int max,
+      final int[] argb, final int length) {
+    // the mapping only depends on the count so small counts are cached
+    final int[] cache = new int[Math.min(max, 1 << 12) + 1];
+    for(int i = 0; i < length; ++i) {
+      final int c = counts[i];
+      if(c <= 0) {
+        argb[i] = 0;
+        continue;
+      }
+      if(c < cache.length && cache[c] != 0) {
+        argb[i] = cache[c];
+        continue;
+      }
+      final double t = Math.max(0, Math.min(1, normalize(c, max)));
+      final int col = table[(int) Math.round(t * (STEPS - 1))];
+      if(c < cache.length) {
+        cache[c] = col;
+      }
+      argb[i] = col;
+    }
+  }
+
+}
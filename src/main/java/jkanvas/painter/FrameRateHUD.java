@@ -5,14 +5,15 @@ import java.awt.Graphics2D;
 import java.awt.geom.RectangularShape;
 import java.util.concurrent.atomic.AtomicLong;
 
-import jkanvas.FrameRateDisplayer;
+import jkanvas.FrameStatisticsDisplayer;
+import jkanvas.animation.FrameStatistics;
 
 /**
  * A HUD showing the current frame-rate.
  * 
  * @author Joschi <josua.krause@gmail.com>
  */
-public class FrameRateHUD extends TextHUD implements FrameRateDisplayer {
+public class FrameRateHUD extends TextHUD implements FrameStatisticsDisplayer {
 
   /** Creates a frame-rate HUD. */
   public FrameRateHUD() {
@@ -54,7 +55,7 @@ public class FrameRateHUD extends TextHUD implements FrameRateDisplayer {
 
   @Override
   public int lineCount() {
-    return 1;
+    return stats != null ? 2 : 1;
   }
 
   /** The time it took to animate the most recent frame in nano-seconds. */
@@ -63,6 +64,8 @@ public class FrameRateHUD extends TextHUD implements FrameRateDisplayer {
   private long lastFrameTime;
   /** Whether the animation thread encountered lag recently. */
   private volatile boolean lag;
+  /** The frame statistics of the animator or <code>null</code>. */
+  private volatile FrameStatistics stats;
 
   @Override
   public void setLastFrameTime(final long time) {
@@ -75,8 +78,19 @@ public class FrameRateHUD extends TextHUD implements FrameRateDisplayer {
     this.lag = lag;
   }
 
+  @Override
+  public void setFrameStatistics(final FrameStatistics stats) {
+    this.stats = stats;
+  }
+
   @Override
   public String getLine(final int i) {
+    if(i == 1) {
+      final FrameStatistics s = stats;
+      if(s == null || s.getFrames() == 0) return null;
+      return "anim: " + format(s.getFrameRate()) + " jitter: "
+          + format(s.getJitter() * 1e-6) + "ms dropped: " + s.getDropped();
+    }
     if(lastFrameTime == 0) return null;
     final double fps = 1e9 / (lastFrameTime + lastAnimationTime.get());
     return (lag ? "fps: *" : "fps: ") + format(fps);
@@ -0,0 +1,384 @@
+package jkanvas.painter;
+
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+/**
+ * A memory budgeted cache for images of render passes. Images are evicted in
+ * least recently used order when the total size of all images exceeds the
+ * budget. Images that were used during the current or the previous frame of
+ * any painter, for example a {@link jkanvas.Canvas}, are considered to be
+ * visible and are only evicted when all other images are gone already. Visible images are evicted largest first since all of them are
+ * needed and large images free the most memory. Owners of images hold an
+ * {@link Entry} and must render the image again when the entry has been
+ * evicted.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ */
+public final class ImageCache {
+
+  /**
+   * Holds the default cache so that it is only created when needed.
+   *
+   * @author Joschi <josua.krause@gmail.com>
+   */
+  private static final class DefaultHolder {
+
+    /** The JVM wide cache. */
+    static final ImageCache DEFAULT = new ImageCache(
+        Math.min(256L << 20, Runtime.getRuntime().maxMemory() / 4));
+
+  } // DefaultHolder
+
+  /**
+   * Getter.
+   *
+   * @return The JVM wide image cache. Its budget is a quarter of the maximal
+   *         heap size but at most 256 MB.
+   */
+  public static ImageCache getDefault() {
+    return DefaultHolder.DEFAULT;
+  }
+
+  /**
+   * An image in the cache.
+   *
+   * @author Joschi <josua.krause@gmail.com>
+   */
+  public static final class Entry {
+
+    /** The cache. */
+    private final ImageCache cache;
+    /** The size of the image in bytes. */
+    private final long bytes;
+    /** The image or <code>null</code> if the entry is evicted or released. */
+    private Image image;
+    /** The global frame number in which the image was last used. */
+    private long lastFrame;
+
+    /**
+     * Creates an entry.
+     *
+     * @param cache The cache.
+     * @param image The image.
+     */
+    Entry(final ImageCache cache, final Image image) {
+      this.cache = cache;
+      this.image = image;
+      bytes = sizeOf(image);
+    }
+
+    /**
+     * Getter.
+     *
+     * @return The image or <code>null</code> if the image has been evicted or
+     *         released. Getting the image marks it as recently used.
+     */
+    public Image get() {
+      return cache.use(this);
+    }
+
+    /**
+     * Getter.
+     *
+     * @return Whether the image is still in the cache. This does not mark the
+     *         image as used.
+     */
+    public boolean isValid() {
+      synchronized(cache) {
+        return image != null;
+      }
+    }
+
+    /**
+     * Getter.
+     *
+     * @return The size of the image in bytes.
+     */
+    public long getBytes() {
+      return bytes;
+    }
+
+    /** Removes the image from the cache. */
+    public void release() {
+      cache.release(this);
+    }
+
+  } // Entry
+
+  /** All images in access order. */
+  private final LinkedHashMap<Entry, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+  /** The budget in bytes. */
+  private long budget;
+
+  /** The total size of all images in bytes. */
+  private long used;
+
+  /** The global frame number. It is increased by the frames of all painters. */
+  private long frame;
+
+  /**
+   * The global frame numbers of the previous and the current frame of every
+   * painter. Painters that are garbage collected are removed automatically.
+   */
+  private final Map<Object, long[]> painters = new WeakHashMap<>();
+
+  /** The painter of {@link #beginFrame()}. */
+  private final Object defaultPainter = new Object();
+
+  /** The number of successful accesses. */
+  private long hits;
+
+  /** The number of images that had to be created. */
+  private long misses;
+
+  /** The number of evicted images. */
+  private long evictions;
+
+  /**
+   * Creates an image cache.
+   *
+   * @param budget The budget in bytes.
+   */
+  public ImageCache(final long budget) {
+    setBudget(budget);
+  }
+
+  /**
+   * Computes the size of an image.
+   *
+   * @param img The image.
+   * @return The size of the image data in bytes. The size of images other than
+   *         {@link BufferedImage} is estimated with four bytes per pixel.
+   */
+  static long sizeOf(final Image img) {
+    if(!(img instanceof BufferedImage)) return 4L
+        * Math.max(0, img.getWidth(null)) * Math.max(0, img.getHeight(null));
+    final DataBuffer buffer = ((BufferedImage) img).getRaster().getDataBuffer();
+    final long bits = (long) DataBuffer.getDataTypeSize(buffer.getDataType());
+    return buffer.getSize() * (long) buffer.getNumBanks() * bits / 8L;
+  }
+
+  /**
+   * Setter.
+   *
+   * @param budget The budget in bytes. Images are evicted immediately if
+   *          necessary.
+   */
+  public synchronized void setBudget(final long budget) {
+    if(budget < 0) throw new IllegalArgumentException("budget: " + budget);
+    this.budget = budget;
+    evict(null);
+  }
+
+  /**
+   * Getter.
+   *
+   * @return The budget in bytes.
+   */
+  public synchronized long getBudget() {
+    return budget;
+  }
+
+  /**
+   * Getter.
+   *
+   * @return The total size of all images in the cache in bytes.
+   */
+  public synchronized long getUsedBytes() {
+    return used;
+  }
+
+  /**
+   * Getter.
+   *
+   * @return The number of images in the cache.
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * Getter.
+   *
+   * @return The number of times an image was in the cache when it was needed.
+   */
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  /**
+   * Getter.
+   *
+   * @return The number of times an image had to be created because it was not
+   *         in the cache.
+   */
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  /**
+   * Getter.
+   *
+   * @return The number of images that were evicted to stay within the budget.
+   */
+  public synchronized long getEvictions() {
+    return evictions;
+  }
+
+  /** Resets the hit, miss, and eviction counters. */
+  public synchronized void resetStatistics() {
+    hits = 0;
+    misses = 0;
+    evictions = 0;
+  }
+
+  /**
+   * Signals the start of a new frame of a single default painter.
+   *
+   * @see #beginFrame(Object)
+   */
+  public void beginFrame() {
+    beginFrame(defaultPainter);
+  }
+
+  /**
+   * Signals the start of a new frame of the given painter. Images that are used
+   * in the current or the previous frame of any painter are treated as
+   * visible. This method is called by every {@link jkanvas.Canvas} before
+   * painting so that canvases sharing a cache do not make the images of each
+   * other invisible.
+   *
+   * @param painter The painter.
+   * @see #removePainter(Object)
+   */
+  public synchronized void beginFrame(final Object painter) {
+    ++frame;
+    final long[] f = painters.get(Objects.requireNonNull(painter));
+    if(f == null) {
+      painters.put(painter, new long[] { frame, frame });
+    } else {
+      f[0] = f[1];
+      f[1] = frame;
+    }
+  }
+
+  /**
+   * Removes a painter that stopped painting. Its images are no longer treated
+   * as visible.
+   *
+   * @param painter The painter.
+   */
+  public synchronized void removePainter(final Object painter) {
+    painters.remove(painter);
+  }
+
+  /**
+   * Getter.
+   *
+   * @return The oldest global frame number that still counts as visible.
+   */
+  private long visibleFrame() {
+    long min = frame - 1;
+    for(final long[] f : painters.values()) {
+      min = Math.min(min, f[0]);
+    }
+    return min;
+  }
+
+  /**
+   * Adds an image to the cache. This counts as a cache miss since the image
+   * had to be created. Other images may be evicted as a result but never the
+   * added image itself.
+   *
+   * @param img The image.
+   * @return The entry of the image.
+   */
+  public synchronized Entry add(final Image img) {
+    final Entry e = new Entry(this, Objects.requireNonNull(img));
+    e.lastFrame = frame;
+    entries.put(e, e);
+    used += e.bytes;
+    ++misses;
+    evict(e);
+    return e;
+  }
+
+  /**
+   * Marks an entry as used.
+   *
+   * @param e The entry.
+   * @return The image or <code>null</code> if the entry is not in the cache.
+   */
+  synchronized Image use(final Entry e) {
+    if(e.image == null) return null;
+    entries.get(e);
+    e.lastFrame = frame;
+    ++hits;
+    return e.image;
+  }
+
+  /**
+   * Removes an entry without counting it as eviction.
+   *
+   * @param e The entry.
+   */
+  synchronized void release(final Entry e) {
+    if(e.image == null) return;
+    entries.remove(e);
+    remove(e);
+  }
+
+  /**
+   * Frees the image of an entry that is already removed from the map.
+   *
+   * @param e The entry.
+   */
+  private void remove(final Entry e) {
+    e.image.flush();
+    e.image = null;
+    used -= e.bytes;
+  }
+
+  /**
+   * Evicts images until the cache is within the budget. Images that are not
+   * visible are evicted first in least recently used order. Afterwards visible
+   * images are evicted largest first.
+   *
+   * @param keep The entry that must not be evicted or <code>null</code>.
+   */
+  private void evict(final Entry keep) {
+    if(used <= budget) return;
+    final long visible = visibleFrame();
+    final Iterator<Entry> it = entries.keySet().iterator();
+    while(used > budget && it.hasNext()) {
+      final Entry e = it.next();
+      if(e == keep || e.lastFrame >= visible) {
+        continue;
+      }
+      it.remove();
+      remove(e);
+      ++evictions;
+    }
+    while(used > budget) {
+      Entry largest = null;
+      for(final Entry e : entries.keySet()) {
+        if(e != keep && (largest == null || e.bytes > largest.bytes)) {
+          largest = e;
+        }
+      }
+      if(largest == null) return;
+      entries.remove(largest);
+      remove(largest);
+      ++evictions;
+    }
+  }
+
+}
@@ -64,7 +64,7 @@ public class ParallelRenderpass extends CachedRenderpass {
 
   @Override
   protected void doDraw(final Graphics2D g, final KanvasContext ctx) {
-    list.paintAll(g);
+    list.paintAll(g, ctx);
   }
 
   /** Whether the underlying data structure has been changed. */
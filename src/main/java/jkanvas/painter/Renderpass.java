@@ -13,6 +13,7 @@ import jkanvas.Camera;
 import jkanvas.Canvas;
 import jkanvas.KanvasContext;
 import jkanvas.KanvasInteraction;
+import jkanvas.RefreshManager;
 import jkanvas.animation.AnimationList;
 import jkanvas.animation.AnimationTiming;
 import jkanvas.painter.pod.Renderpod;
@@ -113,6 +114,21 @@ public abstract class Renderpass implements KanvasInteraction {
     this.isVisible = isVisible;
   }
 
+  /**
+   * Refreshes only the area covered by this render pass. This is cheaper than
+   * refreshing the whole canvas when only this render pass has changed its
+   * appearance. When the bounding box changes the render pass should be
+   * refreshed before and after the change.
+   * 
+   * @param manager The refresh manager.
+   * @see RenderpassPainter#getTopLevelBounds(Rectangle2D, Renderpass)
+   */
+  public void refreshBounds(final RefreshManager manager) {
+    final Rectangle2D bbox = new Rectangle2D.Double();
+    RenderpassPainter.getTopLevelBounds(bbox, this);
+    RenderpassPainter.refreshRegion(manager, bbox);
+  }
+
   /** The x offset in canvas coordinates. */
   private double x;
 
@@ -0,0 +1,378 @@
+package jkanvas.painter;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A spatial index over the bounding boxes of a list of render passes. The index
+ * is a packed R-tree that is bulk loaded with the sort-tile-recursive method.
+ * It does not track changes of the render passes by itself. Instead the owner
+ * of the list has to {@link #invalidate()} the index whenever passes are added
+ * or removed and has to report passes that are {@link #moved(int) moved} or
+ * resized. The index is rebuilt lazily before the next query while moved
+ * passes only update the boxes along their path to the root. Queries
+ * return the indices of the render passes in list order so that the drawing
+ * order and the hit order of the passes is preserved. The results are
+ * candidates only and must be checked against the actual bounding boxes.
+ * Visibility is not considered by the index.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ */
+public final class RenderpassIndex {
+
+  /** The minimal number of render passes for which an index is used. */
+  public static int MIN_SIZE = 64;
+
+  /** The number of children of an inner node. */
+  private static final int NODE_SIZE = 16;
+
+  /** Incremented on every invalidation. */
+  private volatile int version;
+
+  /** The version the index has been built for. */
+  private volatile int builtVersion = -1;
+
+  /** The number of indexed render passes. */
+  private int size;
+
+  /**
+   * The boxes of the tree. Each position uses four values (min x, min y, max x,
+   * max y). The first {@link #size} positions are the render passes in
+   * sort-tile-recursive order followed by the inner nodes level by level.
+   */
+  private double[] boxes = new double[0];
+
+  /**
+   * The index of a render pass in the list for leaf positions or the first
+   * child position for inner nodes.
+   */
+  private int[] indices = new int[0];
+
+  /** The exclusive end position of each level. Level zero are the leaves. */
+  private int[] levelEnds = new int[0];
+
+  /** The leaf position of each render pass. */
+  private int[] leaves = new int[0];
+
+  /** The render passes that have been moved since the last update. */
+  private final BitSet moved = new BitSet();
+
+  /** Invalidates the index. It is rebuilt on the next query. */
+  public void invalidate() {
+    ++version;
+  }
+
+  /**
+   * Signals that the render pass at the given list index has been moved or
+   * resized. The boxes of the pass are updated before the next query.
+   *
+   * @param i The list index of the render pass.
+   */
+  public synchronized void moved(final int i) {
+    moved.set(i);
+  }
+
+  /**
+   * Getter.
+   *
+   * @return Whether the index is up to date.
+   */
+  public boolean isValid() {
+    return builtVersion == version;
+  }
+
+  /**
+   * Getter.
+   *
+   * @return The number of render passes in the index.
+   */
+  public synchronized int size() {
+    return size;
+  }
+
+  /**
+   * Rebuilds the index when it is invalid or the number of render passes has
+   * changed. Otherwise the boxes of moved render passes are updated.
+   *
+   * @param passes The render passes.
+   */
+  public synchronized void ensure(final List<? extends Renderpass> passes) {
+    if(!isValid() || size != passes.size()) {
+      build(passes);
+      return;
+    }
+    if(moved.isEmpty()) return;
+    if(moved.cardinality() > size / 4) {
+      refitAll(passes);
+    } else {
+      refit(passes);
+    }
+    moved.clear();
+  }
+
+  /**
+   * Stores the bounding box of a render pass at the given position.
+   *
+   * @param bbox A rectangle used for the computation.
+   * @param pass The render pass.
+   * @param pos The position.
+   */
+  private void setBox(final Rectangle2D bbox, final Renderpass pass, final int pos) {
+    RenderpassPainter.getPassBoundingBox(bbox, pass);
+    boxes[pos * 4] = bbox.getMinX();
+    boxes[pos * 4 + 1] = bbox.getMinY();
+    boxes[pos * 4 + 2] = bbox.getMaxX();
+    boxes[pos * 4 + 3] = bbox.getMaxY();
+  }
+
+  /**
+   * Computes the box of an inner node as union of the boxes of its children.
+   *
+   * @param pos The position of the inner node.
+   * @param level The level of the inner node.
+   */
+  private void fitNode(final int pos, final int level) {
+    final int start = indices[pos];
+    final int end = Math.min(start + NODE_SIZE, levelEnds[level - 1]);
+    double minX = Double.POSITIVE_INFINITY;
+    double minY = Double.POSITIVE_INFINITY;
+    double maxX = Double.NEGATIVE_INFINITY;
+    double maxY = Double.NEGATIVE_INFINITY;
+    for(int k = start; k < end; ++k) {
+      minX = Math.min(minX, boxes[k * 4]);
+      minY = Math.min(minY, boxes[k * 4 + 1]);
+      maxX = Math.max(maxX, boxes[k * 4 + 2]);
+      maxY = Math.max(maxY, boxes[k * 4 + 3]);
+    }
+    boxes[pos * 4] = minX;
+    boxes[pos * 4 + 1] = minY;
+    boxes[pos * 4 + 2] = maxX;
+    boxes[pos * 4 + 3] = maxY;
+  }
+
+  /**
+   * Updates the boxes of the moved render passes and of their ancestors. The
+   * structure of the tree stays the same so queries remain correct but may
+   * visit more nodes when passes have moved far.
+   *
+   * @param passes The render passes.
+   */
+  private void refit(final List<? extends Renderpass> passes) {
+    final Rectangle2D bbox = new Rectangle2D.Double();
+    final int levels = levelEnds.length;
+    for(int i = moved.nextSetBit(0); i >= 0 && i < size; i = moved.nextSetBit(i + 1)) {
+      int pos = leaves[i];
+      setBox(bbox, passes.get(i), pos);
+      int levelStart = 0;
+      for(int l = 1; l < levels; ++l) {
+        // the nodes of a level group consecutive runs of the level below
+        pos = levelEnds[l - 1] + (pos - levelStart) / NODE_SIZE;
+        levelStart = levelEnds[l - 1];
+        fitNode(pos, l);
+      }
+    }
+  }
+
+  /**
+   * Updates the boxes of all render passes and inner nodes.
+   *
+   * @param passes The render passes.
+   */
+  private void refitAll(final List<? extends Renderpass> passes) {
+    final Rectangle2D bbox = new Rectangle2D.Double();
+    for(int i = 0; i < size; ++i) {
+      setBox(bbox, passes.get(i), leaves[i]);
+    }
+    for(int l = 1; l < levelEnds.length; ++l) {
+      for(int pos = levelEnds[l - 1]; pos < levelEnds[l]; ++pos) {
+        fitNode(pos, l);
+      }
+    }
+  }
+
+  /**
+   * Builds the index.
+   *
+   * @param passes The render passes.
+   */
+  public synchronized void build(final List<? extends Renderpass> passes) {
+    final int v = version;
+    moved.clear();
+    final int n = passes.size();
+    final double[] bounds = new double[n * 4];
+    final Rectangle2D bbox = new Rectangle2D.Double();
+    for(int i = 0; i < n; ++i) {
+      RenderpassPainter.getPassBoundingBox(bbox, passes.get(i));
+      bounds[i * 4] = bbox.getMinX();
+      bounds[i * 4 + 1] = bbox.getMinY();
+      bounds[i * 4 + 2] = bbox.getMaxX();
+      bounds[i * 4 + 3] = bbox.getMaxY();
+    }
+    // count the positions of all levels
+    int total = n;
+    int levels = 1;
+    int count = n;
+    do {
+      count = (count + NODE_SIZE - 1) / NODE_SIZE;
+      total += count;
+      ++levels;
+    } while(count > 1);
+    boxes = new double[total * 4];
+    indices = new int[total];
+    levelEnds = new int[levels];
+    leaves = new int[n];
+    final Integer[] order = sortTileRecursive(bounds, n);
+    for(int pos = 0; pos < n; ++pos) {
+      final int i = order[pos];
+      System.arraycopy(bounds, i * 4, boxes, pos * 4, 4);
+      indices[pos] = i;
+      leaves[i] = pos;
+    }
+    levelEnds[0] = n;
+    int start = 0;
+    int end = n;
+    for(int l = 1; l < levels; ++l) {
+      int pos = end;
+      for(int c = start; c < end; c += NODE_SIZE) {
+        indices[pos] = c;
+        ++pos;
+      }
+      levelEnds[l] = pos;
+      for(int k = end; k < pos; ++k) {
+        fitNode(k, l);
+      }
+      start = end;
+      end = pos;
+    }
+    size = n;
+    builtVersion = v;
+  }
+
+  /**
+   * Computes the sort-tile-recursive order of the given boxes. The boxes are
+   * sorted by their center in x direction and cut into vertical slices whose
+   * boxes are sorted by their center in y direction.
+   *
+   * @param bounds The boxes.
+   * @param n The number of boxes.
+   * @return The order of the boxes.
+   */
+  private static Integer[] sortTileRecursive(final double[] bounds, final int n) {
+    final Integer[] order = new Integer[n];
+    for(int i = 0; i < n; ++i) {
+      order[i] = i;
+    }
+    // TODO #43 -- Java 8 simplification
+    Arrays.sort(order, new Comparator<Integer>() {
+
+      @Override
+      public int compare(final Integer a, final Integer b) {
+        return Double.compare(bounds[a * 4] + bounds[a * 4 + 2],
+            bounds[b * 4] + bounds[b * 4 + 2]);
+      }
+
+    });
+    final int leaves = (n + NODE_SIZE - 1) / NODE_SIZE;
+    final int slices = (int) Math.ceil(Math.sqrt(leaves));
+    final int sliceSize = slices > 0 ? NODE_SIZE * ((leaves + slices - 1) / slices) : n;
+    // TODO #43 -- Java 8 simplification
+    final Comparator<Integer> byY = new Comparator<Integer>() {
+
+      @Override
+      public int compare(final Integer a, final Integer b) {
+        return Double.compare(bounds[a * 4 + 1] + bounds[a * 4 + 3],
+            bounds[b * 4 + 1] + bounds[b * 4 + 3]);
+      }
+
+    };
+    for(int s = 0; s < n; s += sliceSize) {
+      Arrays.sort(order, s, Math.min(s + sliceSize, n), byY);
+    }
+    return order;
+  }
+
+  /**
+   * Finds all render passes whose bounding boxes intersect or touch the given
+   * rectangle.
+   *
+   * @param rect The rectangle in the coordinates of the render pass offsets.
+   * @return The indices of the candidates.
+   */
+  public BitSet query(final Rectangle2D rect) {
+    return query(rect.getMinX(), rect.getMinY(), rect.getMaxX(), rect.getMaxY());
+  }
+
+  /**
+   * Finds all render passes whose bounding boxes contain or touch the given
+   * point.
+   *
+   * @param p The point in the coordinates of the render pass offsets.
+   * @return The indices of the candidates.
+   */
+  public BitSet query(final Point2D p) {
+    return query(p.getX(), p.getY(), p.getX(), p.getY());
+  }
+
+  /**
+   * Finds all render passes whose bounding boxes intersect or touch the given
+   * rectangle.
+   *
+   * @param minX The left side.
+   * @param minY The top side.
+   * @param maxX The right side.
+   * @param maxY The bottom side.
+   * @return The indices of the candidates.
+   */
+  private synchronized BitSet query(final double minX, final double minY,
+      final double maxX, final double maxY) {
+    final BitSet res = new BitSet();
+    if(size == 0) return res;
+    final int levels = levelEnds.length;
+    // each level holds at most the children of one node on the stack
+    final int[] stack = new int[levels * NODE_SIZE * 2];
+    int top = 0;
+    stack[top++] = levelEnds[levels - 1] - 1;
+    stack[top++] = levels - 1;
+    while(top > 0) {
+      final int level = stack[--top];
+      final int pos = stack[--top];
+      final int start = indices[pos];
+      final int end = Math.min(start + NODE_SIZE, levelEnds[level - 1]);
+      for(int c = start; c < end; ++c) {
+        if(boxes[c * 4 + 2] < minX || boxes[c * 4] > maxX
+            || boxes[c * 4 + 3] < minY || boxes[c * 4 + 1] > maxY) {
+          continue;
+        }
+        if(level == 1) {
+          res.set(indices[c]);
+        } else {
+          stack[top++] = c;
+          stack[top++] = level - 1;
+        }
+      }
+    }
+    return res;
+  }
+
+  /**
+   * Selects elements of a list.
+   *
+   * @param <T> The element type.
+   * @param list The list.
+   * @param indices The indices of the selected elements.
+   * @return A new list containing the selected elements in list order.
+   */
+  public static <T> List<T> select(final List<T> list, final BitSet indices) {
+    final List<T> res = new ArrayList<>(indices.cardinality());
+    for(int i = indices.nextSetBit(0); i >= 0; i = indices.nextSetBit(i + 1)) {
+      res.add(list.get(i));
+    }
+    return res;
+  }
+
+}
@@ -15,6 +15,8 @@ import javax.swing.SwingUtilities;
 import jkanvas.Camera;
 import jkanvas.KanvasContext;
 import jkanvas.KanvasPainter;
+import jkanvas.RefreshManager;
+import jkanvas.RegionRefreshManager;
 import jkanvas.util.PaintUtil;
 
 /**
@@ -30,12 +32,48 @@ public class RenderpassPainter implements KanvasPainter {
   /** The normal render passes. */
   private final List<Renderpass> back;
 
+  /** The spatial index of the normal render passes or <code>null</code>. */
+  private RenderpassIndex index;
+
   /** Creates an empty render pass painter. */
   public RenderpassPainter() {
     front = new ArrayList<>();
     back = new ArrayList<>();
   }
 
+  /**
+   * Setter.
+   *
+   * @param indexed Whether to use a {@link RenderpassIndex spatial index} to
+   *          find the render passes that are visible or under the mouse. This
+   *          is useful for many render passes. When the index is used
+   *          {@link #invalidateIndex()} must be called after render passes
+   *          have been moved or resized.
+   */
+  public void setIndexed(final boolean indexed) {
+    index = indexed ? new RenderpassIndex() : null;
+  }
+
+  /**
+   * Getter.
+   *
+   * @return Whether a spatial index is used for the render passes.
+   */
+  public boolean isIndexed() {
+    return index != null;
+  }
+
+  /**
+   * Signals that render passes have been moved or resized. This is only
+   * necessary when a spatial index is used.
+   */
+  public void invalidateIndex() {
+    final RenderpassIndex index = this.index;
+    if(index != null) {
+      index.invalidate();
+    }
+  }
+
   @Override
   public boolean isAllowingPan(final Point2D p, final MouseEvent e) {
     return SwingUtilities.isLeftMouseButton(e);
@@ -48,6 +86,7 @@ public class RenderpassPainter implements KanvasPainter {
    */
   public void addPass(final Renderpass r) {
     back.add(r);
+    invalidateIndex();
   }
 
   /**
@@ -57,6 +96,7 @@ public class RenderpassPainter implements KanvasPainter {
    */
   public void removePass(final Renderpass r) {
     back.remove(r);
+    invalidateIndex();
   }
 
   /**
@@ -80,7 +120,41 @@ public class RenderpassPainter implements KanvasPainter {
   @Override
   public final void draw(final Graphics2D g, final KanvasContext ctx) {
     g.setColor(java.awt.Color.GRAY);
-    draw(back, g, ctx);
+    draw(back, index, g, ctx);
+  }
+
+  /**
+   * Selects the render passes that may intersect the given rectangle.
+   *
+   * @param <T> The render pass type.
+   * @param passes The render passes.
+   * @param index The spatial index of the render passes or <code>null</code>.
+   * @param rect The rectangle in canvas coordinates.
+   * @return The candidates in list order. Without index or for few render
+   *         passes the list itself is returned.
+   */
+  public static final <T extends Renderpass> List<T> getCandidates(
+      final List<T> passes, final RenderpassIndex index, final Rectangle2D rect) {
+    if(index == null || passes.size() < RenderpassIndex.MIN_SIZE) return passes;
+    index.ensure(passes);
+    return RenderpassIndex.select(passes, index.query(rect));
+  }
+
+  /**
+   * Selects the render passes that may contain the given point.
+   *
+   * @param <T> The render pass type.
+   * @param passes The render passes.
+   * @param index The spatial index of the render passes or <code>null</code>.
+   * @param p The point in canvas coordinates.
+   * @return The candidates in list order. Without index or for few render
+   *         passes the list itself is returned.
+   */
+  public static final <T extends Renderpass> List<T> getCandidates(
+      final List<T> passes, final RenderpassIndex index, final Point2D p) {
+    if(index == null || passes.size() < RenderpassIndex.MIN_SIZE) return passes;
+    index.ensure(passes);
+    return RenderpassIndex.select(passes, index.query(p));
   }
 
   /**
@@ -95,7 +169,24 @@ public class RenderpassPainter implements KanvasPainter {
    */
   public static final void draw(
       final List<Renderpass> passes, final Graphics2D gfx, final KanvasContext ctx) {
+    draw(passes, null, gfx, ctx);
+  }
+
+  /**
+   * Draws all render passes given by the list. This method obeys
+   * {@link jkanvas.Canvas#DEBUG_BBOX} by using the current color to draw the
+   * bounding boxes.
+   *
+   * @param all The render passes to draw.
+   * @param index The spatial index of the render passes or <code>null</code>.
+   * @param gfx The graphics context.
+   * @param ctx The canvas context.
+   * @see #draw(Graphics2D, KanvasContext)
+   */
+  public static final void draw(final List<Renderpass> all,
+      final RenderpassIndex index, final Graphics2D gfx, final KanvasContext ctx) {
     final Rectangle2D view = ctx.getVisibleCanvas();
+    final List<Renderpass> passes = getCandidates(all, index, view);
     final Rectangle2D bbox = new Rectangle2D.Double();
     for(final Renderpass r : passes) {
       if(!r.isVisible()) {
@@ -133,7 +224,7 @@ public class RenderpassPainter implements KanvasPainter {
 
   @Override
   public final boolean click(final Camera cam, final Point2D p, final MouseEvent e) {
-    return click(back, cam, p, e);
+    return click(back, index, cam, p, e);
   }
 
   /**
@@ -148,8 +239,24 @@ public class RenderpassPainter implements KanvasPainter {
    */
   public static final boolean click(
       final List<Renderpass> passes, final Camera cam, final Point2D p, final MouseEvent e) {
+    return click(passes, null, cam, p, e);
+  }
+
+  /**
+   * Clicks on render passes.
+   *
+   * @param passes The list of render passes.
+   * @param index The spatial index of the render passes or <code>null</code>.
+   * @param cam The camera on which the interaction happened.
+   * @param p The clicked point in canvas coordinates.
+   * @param e The mouse event.
+   * @return Whether the click was consumed.
+   * @see #click(Camera, Point2D, MouseEvent)
+   */
+  public static final boolean click(final List<Renderpass> passes,
+      final RenderpassIndex index, final Camera cam, final Point2D p, final MouseEvent e) {
     final Rectangle2D bbox = new Rectangle2D.Double();
-    for(final Renderpass r : reverseList(passes)) {
+    for(final Renderpass r : reverseList(getCandidates(passes, index, p))) {
       if(!r.isVisible()) {
         continue;
       }
@@ -165,7 +272,7 @@ public class RenderpassPainter implements KanvasPainter {
 
   @Override
   public boolean doubleClick(final Camera cam, final Point2D p, final MouseEvent e) {
-    if(doubleClick(back, cam, p, e)) return true;
+    if(doubleClick(back, index, cam, p, e)) return true;
     if(!Renderpass.USE_DOUBLE_CLICK_DEFAULT) return false;
     final Rectangle2D box = new Rectangle2D.Double();
     getBoundingBox(box);
@@ -184,8 +291,24 @@ public class RenderpassPainter implements KanvasPainter {
    */
   public static final boolean doubleClick(
       final List<Renderpass> passes, final Camera cam, final Point2D p, final MouseEvent e) {
+    return doubleClick(passes, null, cam, p, e);
+  }
+
+  /**
+   * Double clicks on render passes.
+   *
+   * @param passes The list of render passes.
+   * @param index The spatial index of the render passes or <code>null</code>.
+   * @param cam The camera on which the interaction happened.
+   * @param p The double clicked point in canvas coordinates.
+   * @param e The mouse event.
+   * @return Whether the click was consumed.
+   * @see #doubleClick(Camera, Point2D, MouseEvent)
+   */
+  public static final boolean doubleClick(final List<Renderpass> passes,
+      final RenderpassIndex index, final Camera cam, final Point2D p, final MouseEvent e) {
     final Rectangle2D bbox = new Rectangle2D.Double();
-    for(final Renderpass r : reverseList(passes)) {
+    for(final Renderpass r : reverseList(getCandidates(passes, index, p))) {
       if(!r.isVisible()) {
         continue;
       }
@@ -201,7 +324,7 @@ public class RenderpassPainter implements KanvasPainter {
 
   @Override
   public final String getTooltip(final Point2D p) {
-    return getTooltip(back, p);
+    return getTooltip(back, index, p);
   }
 
   /**
@@ -214,8 +337,23 @@ public class RenderpassPainter implements KanvasPainter {
    * @see #getTooltip(Point2D)
    */
   public static final String getTooltip(final List<Renderpass> passes, final Point2D p) {
+    return getTooltip(passes, null, p);
+  }
+
+  /**
+   * Returns the tool-tip from the first render pass returning one.
+   *
+   * @param passes The render passes.
+   * @param index The spatial index of the render passes or <code>null</code>.
+   * @param p The point in canvas coordinates.
+   * @return The tool-tip text or null if no tool-tip was returned by any render
+   *         pass.
+   * @see #getTooltip(Point2D)
+   */
+  public static final String getTooltip(final List<Renderpass> passes,
+      final RenderpassIndex index, final Point2D p) {
     final Rectangle2D bbox = new Rectangle2D.Double();
-    for(final Renderpass r : reverseList(passes)) {
+    for(final Renderpass r : reverseList(getCandidates(passes, index, p))) {
       if(!r.isVisible()) {
         continue;
       }
@@ -266,7 +404,7 @@ public class RenderpassPainter implements KanvasPainter {
   @Override
   public final boolean acceptDrag(final Point2D p, final MouseEvent e) {
     final Rectangle2D bbox = new Rectangle2D.Double();
-    for(final Renderpass r : reverseList(back)) {
+    for(final Renderpass r : reverseList(getCandidates(back, index, p))) {
       if(!r.isVisible()) {
         continue;
       }
@@ -555,6 +693,23 @@ public class RenderpassPainter implements KanvasPainter {
     convertToTopLevelBounds(bbox, pass);
   }
 
+  /**
+   * Refreshes a region if the refresh manager supports it and everything
+   * otherwise.
+   *
+   * @param manager The refresh manager.
+   * @param region The region in top level canvas coordinates.
+   * @see RegionRefreshManager#refreshRegion(Rectangle2D)
+   */
+  public static final void refreshRegion(
+      final RefreshManager manager, final Rectangle2D region) {
+    if(manager instanceof RegionRefreshManager) {
+      ((RegionRefreshManager) manager).refreshRegion(region);
+    } else {
+      manager.refreshAll();
+    }
+  }
+
   /**
    * Converts a rectangle in render pass local coordinates into top level canvas
    * coordinates.
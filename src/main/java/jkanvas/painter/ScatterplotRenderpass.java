@@ -1,8 +1,14 @@
 package jkanvas.painter;
 
+import java.awt.Color;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
 import java.awt.geom.RectangularShape;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.util.Objects;
 
 import jkanvas.KanvasContext;
@@ -10,7 +16,9 @@ import jkanvas.animation.GenericPaintList;
 import jkanvas.table.PointMapper;
 
 /**
- * A render pass for a scatter plot.
+ * A render pass for a scatter plot. When there are more points than pixels
+ * the points are not painted one by one. Instead the points per pixel are
+ * counted and drawn as a single image using a {@link DensityColorScale}.
  * 
  * @author Joschi <josua.krause@gmail.com>
  */
@@ -22,6 +30,11 @@ public class ScatterplotRenderpass extends CachedRenderpass {
   protected final GenericPaintList<? extends Shape> list;
   /** The map if any. */
   protected final PointMapper pm;
+  /** The number of points per pixel above which the density is drawn. */
+  private double densityThreshold = 4;
+  /** The color scale of the density. */
+  private DensityColorScale colorScale = new DensityColorScale(
+      new Color(0x9ecae1), new Color(0x08306b));
 
   /**
    * Creates a scatter plot render pass.
@@ -63,9 +76,96 @@ public class ScatterplotRenderpass extends CachedRenderpass {
     bbox.setFrame(0, 0, size, size);
   }
 
+  /**
+   * Setter.
+   * 
+   * @param densityThreshold The average number of points per visible pixel
+   *          above which the density of the points is drawn instead of the
+   *          points. Use <code>0</code> to always draw the density and
+   *          {@link Double#POSITIVE_INFINITY} to never draw the density.
+   */
+  public void setDensityThreshold(final double densityThreshold) {
+    if(Double.isNaN(densityThreshold) || densityThreshold < 0) throw new IllegalArgumentException(
+        "" + densityThreshold);
+    this.densityThreshold = densityThreshold;
+  }
+
+  /**
+   * Getter.
+   * 
+   * @return The average number of points per visible pixel above which the
+   *         density of the points is drawn instead of the points.
+   */
+  public double getDensityThreshold() {
+    return densityThreshold;
+  }
+
+  /**
+   * Setter.
+   * 
+   * @param colorScale The color scale of the density.
+   */
+  public void setColorScale(final DensityColorScale colorScale) {
+    this.colorScale = Objects.requireNonNull(colorScale);
+  }
+
+  /**
+   * Getter.
+   * 
+   * @return The color scale of the density.
+   */
+  public DensityColorScale getColorScale() {
+    return colorScale;
+  }
+
   @Override
   public void doDraw(final Graphics2D g, final KanvasContext ctx) {
-    list.paintAll(g);
+    if(!drawDensity(g, ctx)) {
+      list.paintAll(g, ctx);
+    }
+  }
+
+  /**
+   * Draws the density of the points when there are enough points per pixel.
+   * 
+   * @param g The graphics context.
+   * @param ctx The canvas context.
+   * @return Whether the density has been drawn.
+   */
+  private boolean drawDensity(final Graphics2D g, final KanvasContext ctx) {
+    final double threshold = densityThreshold;
+    if(Double.isInfinite(threshold)) return false;
+    final AffineTransform at = g.getTransform();
+    // rotated or sheared views cannot be drawn as an aligned image
+    if(at.getShearX() != 0 || at.getShearY() != 0) return false;
+    final Rectangle2D clip = g.getClipBounds() != null ? g.getClipBounds()
+        : ctx.getVisibleCanvas();
+    final Rectangle2D view = new Rectangle2D.Double(0, 0, size, size);
+    Rectangle2D.intersect(view, clip, view);
+    if(view.isEmpty()) return false;
+    final Rectangle pixels = at.createTransformedShape(view).getBounds();
+    final long area = (long) pixels.width * pixels.height;
+    if(area <= 0 || area > Integer.MAX_VALUE) return false;
+    if(list.visibleCardinality() <= threshold * area) return false;
+    final BufferedImage img = new BufferedImage(
+        pixels.width, pixels.height, BufferedImage.TYPE_INT_ARGB);
+    final int[] data = ((DataBufferInt) img.getRaster().getDataBuffer()).getData();
+    final AffineTransform toRaster = AffineTransform.getTranslateInstance(
+        -pixels.x, -pixels.y);
+    toRaster.concatenate(at);
+    final int max = list.countDensity(data, pixels.width, pixels.height, toRaster);
+    long total = 0;
+    for(final int c : data) {
+      total += c;
+    }
+    // most points may lie outside of the visible area
+    if(total <= threshold * area) return false;
+    colorScale.colorize(data, max, data, data.length);
+    final Graphics2D gfx = (Graphics2D) g.create();
+    gfx.setTransform(new AffineTransform());
+    gfx.drawImage(img, pixels.x, pixels.y, null);
+    gfx.dispose();
+    return true;
   }
 
   /** Whether the underlying data structure has been changed. */
@@ -0,0 +1,580 @@
+package jkanvas.painter;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.event.MouseEvent;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.geom.RectangularShape;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.SwingUtilities;
+
+import jkanvas.Camera;
+import jkanvas.KanvasContext;
+import jkanvas.RefreshManager;
+import jkanvas.animation.AnimationList;
+
+/**
+ * Renders another render pass in tiles on background threads. The visible
+ * canvas is split into tiles of {@link #TILE_SIZE} pixels. Tiles are identified
+ * by their zoom level and their position. Missing tiles are rendered on a
+ * worker pool and the best available tile of a coarser or finer zoom level is
+ * shown in the meantime. When the render pass reports
+ * {@link Renderpass#isChanging() changes} all tiles are discarded and the render
+ * pass is drawn directly. The images of the tiles are held by the
+ * {@link ImageCache#getDefault() image cache}. The wrapped render pass must
+ * allow to be drawn from multiple threads at once.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ * @param <T> The type of the tiled render pass.
+ */
+public class TiledRenderpass<T extends Renderpass> extends Renderpass {
+
+  /** The side length of a tile in pixels. */
+  public static int TILE_SIZE = 256;
+
+  /** The maximal number of tiles kept per tiled render pass. */
+  public static int MAX_TILES = 256;
+
+  /** The number of zoom levels to search for a replacement of a tile. */
+  public static int MAX_FALLBACK = 4;
+
+  /**
+   * Holds the worker pool so that it is only created when needed.
+   *
+   * @author Joschi <josua.krause@gmail.com>
+   */
+  private static final class PoolHolder {
+
+    /** The number of tile workers that were created. */
+    static final AtomicInteger WORKER_COUNT = new AtomicInteger();
+
+    /** The worker pool rendering tiles. */
+    // TODO #43 -- Java 8 simplification
+    static final ExecutorService POOL = Executors.newFixedThreadPool(
+        Math.max(1, Runtime.getRuntime().availableProcessors() - 1), new ThreadFactory() {
+
+          @Override
+          public Thread newThread(final Runnable r) {
+            final Thread t = new Thread(r, "tile-worker-" + WORKER_COUNT.getAndIncrement());
+            t.setDaemon(true);
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+          }
+
+        });
+
+  } // PoolHolder
+
+  /**
+   * The key of a tile.
+   *
+   * @author Joschi <josua.krause@gmail.com>
+   */
+  private static final class TileKey {
+
+    /** The zoom level. A tile has a scale of <code>2^level</code>. */
+    final int level;
+    /** The horizontal tile position. */
+    final long tx;
+    /** The vertical tile position. */
+    final long ty;
+
+    /**
+     * Creates a tile key.
+     *
+     * @param level The zoom level.
+     * @param tx The horizontal tile position.
+     * @param ty The vertical tile position.
+     */
+    TileKey(final int level, final long tx, final long ty) {
+      this.level = level;
+      this.tx = tx;
+      this.ty = ty;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if(obj == this) return true;
+      if(!(obj instanceof TileKey)) return false;
+      final TileKey other = (TileKey) obj;
+      return level == other.level && tx == other.tx && ty == other.ty;
+    }
+
+    @Override
+    public int hashCode() {
+      int res = level;
+      res = 31 * res + (int) (tx ^ (tx >>> 32));
+      res = 31 * res + (int) (ty ^ (ty >>> 32));
+      return res;
+    }
+
+  } // TileKey
+
+  /**
+   * A tile. The image is set once the tile is rendered.
+   *
+   * @author Joschi <josua.krause@gmail.com>
+   */
+  private static final class Tile {
+
+    /** The rendered image or <code>null</code> if it is not rendered yet. */
+    volatile ImageCache.Entry entry;
+    /** Whether the tile was evicted or invalidated. */
+    volatile boolean discarded;
+
+    /**
+     * Getter.
+     *
+     * @return The rendered image or <code>null</code> if the tile is not
+     *         rendered yet or the image has been evicted from the
+     *         {@link ImageCache}.
+     */
+    Image image() {
+      final ImageCache.Entry e = entry;
+      return e != null ? e.get() : null;
+    }
+
+    /**
+     * Getter.
+     *
+     * @return Whether the image has been evicted from the {@link ImageCache}.
+     */
+    boolean isEvicted() {
+      final ImageCache.Entry e = entry;
+      return e != null && !e.isValid();
+    }
+
+  } // Tile
+
+  /** The tiled render pass. */
+  private final T pass;
+
+  /** The refresh manager that is notified when tiles are finished. */
+  private final RefreshManager manager;
+
+  /** The tiles in access order. Guarded by itself. */
+  private final LinkedHashMap<TileKey, Tile> tiles;
+
+  /** Whether the render pass has changed during the last draw. */
+  private boolean lastChanging;
+
+  /**
+   * Creates a tiled render pass.
+   *
+   * @param manager The refresh manager that is notified when tiles are
+   *          finished.
+   * @param pass The render pass to draw in tiles.
+   */
+  public TiledRenderpass(final RefreshManager manager, final T pass) {
+    this.manager = Objects.requireNonNull(manager);
+    this.pass = Objects.requireNonNull(pass);
+    // TODO #43 -- Java 8 simplification
+    tiles = new LinkedHashMap<TileKey, Tile>(64, 0.75f, true) {
+
+      private static final long serialVersionUID = 7207461066718429367L;
+
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<TileKey, Tile> eldest) {
+        if(size() <= MAX_TILES) return false;
+        discard(eldest.getValue());
+        return true;
+      }
+
+    };
+    pass.setParent(this);
+  }
+
+  /**
+   * Getter.
+   *
+   * @return The tiled render pass.
+   */
+  public T getPass() {
+    return pass;
+  }
+
+  /**
+   * Computes the zoom level for the given context. The level is chosen so that
+   * tiles have at least the resolution of the screen.
+   *
+   * @param ctx The context.
+   * @return The zoom level.
+   */
+  private static int getLevel(final KanvasContext ctx) {
+    final double scale = ctx.toComponentLength(1.0);
+    final int level = (int) Math.ceil(Math.log(scale) / Math.log(2.0) - 1e-9);
+    return Math.max(-30, Math.min(30, level));
+  }
+
+  /**
+   * Getter.
+   *
+   * @param level The zoom level.
+   * @return The side length of a tile in canvas coordinates.
+   */
+  private static double getTileSize(final int level) {
+    return TILE_SIZE / Math.scalb(1.0, level);
+  }
+
+  @Override
+  public void draw(final Graphics2D g, final KanvasContext ctx) {
+    final boolean chg = pass.isChanging();
+    final boolean noTiles = chg || lastChanging;
+    lastChanging = chg;
+    if(noTiles || jkanvas.Canvas.DISABLE_CACHING) {
+      invalidate();
+      drawPass(g, ctx);
+      return;
+    }
+    final Rectangle2D bbox = new Rectangle2D.Double();
+    RenderpassPainter.getPassBoundingBox(bbox, pass);
+    final Rectangle2D vis = ctx.getVisibleCanvas().createIntersection(bbox);
+    if(vis.isEmpty()) return;
+    final int level = getLevel(ctx);
+    final double ts = getTileSize(level);
+    final long x0 = (long) Math.floor(vis.getMinX() / ts);
+    final long y0 = (long) Math.floor(vis.getMinY() / ts);
+    final long x1 = (long) Math.floor(vis.getMaxX() / ts);
+    final long y1 = (long) Math.floor(vis.getMaxY() / ts);
+    if((x1 - x0 + 1) * (y1 - y0 + 1) > MAX_TILES) {
+      // the tiles would evict each other
+      drawPass(g, ctx);
+      return;
+    }
+    final GraphicsConfiguration gc = g.getDeviceConfiguration();
+    final Graphics2D gfx = (Graphics2D) g.create();
+    gfx.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+        RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+    final Rectangle2D rect = new Rectangle2D.Double();
+    for(long ty = y0; ty <= y1; ++ty) {
+      for(long tx = x0; tx <= x1; ++tx) {
+        rect.setFrame(tx * ts, ty * ts, ts, ts);
+        final Image img = requestTile(level, tx, ty, gc).image();
+        if(img != null) {
+          drawTile(gfx, img, rect, level);
+          continue;
+        }
+        drawFallback(gfx, level, tx, ty, rect);
+      }
+    }
+    gfx.dispose();
+  }
+
+  /**
+   * Draws the render pass directly.
+   *
+   * @param g The graphics context.
+   * @param ctx The context.
+   */
+  private void drawPass(final Graphics2D g, final KanvasContext ctx) {
+    final Rectangle2D bbox = new Rectangle2D.Double();
+    RenderpassPainter.getPassBoundingBox(bbox, pass);
+    final Graphics2D gfx = (Graphics2D) g.create();
+    gfx.clip(bbox);
+    gfx.translate(pass.getOffsetX(), pass.getOffsetY());
+    pass.draw(gfx, RenderpassPainter.getContextFor(pass, ctx));
+    gfx.dispose();
+  }
+
+  /**
+   * Draws a tile image.
+   *
+   * @param g The graphics context.
+   * @param img The image.
+   * @param rect The area of the tile in canvas coordinates.
+   * @param level The zoom level of the image.
+   */
+  private static void drawTile(final Graphics2D g,
+      final Image img, final Rectangle2D rect, final int level) {
+    final double s = 1 / Math.scalb(1.0, level);
+    final AffineTransform at = AffineTransform.getTranslateInstance(
+        rect.getX(), rect.getY());
+    at.scale(s, s);
+    g.drawImage(img, at, null);
+    if(jkanvas.Canvas.DEBUG_CACHE) {
+      final Graphics2D g2 = (Graphics2D) g.create();
+      jkanvas.util.PaintUtil.setAlpha(g2, 0.1);
+      g2.setColor(java.awt.Color.MAGENTA);
+      g2.fill(rect);
+      g2.dispose();
+    }
+  }
+
+  /**
+   * Draws the best available replacement of a tile that is not rendered yet.
+   * Coarser tiles are preferred over finer tiles.
+   *
+   * @param g The graphics context.
+   * @param level The zoom level of the missing tile.
+   * @param tx The horizontal position of the missing tile.
+   * @param ty The vertical position of the missing tile.
+   * @param rect The area of the missing tile in canvas coordinates.
+   */
+  private void drawFallback(final Graphics2D g,
+      final int level, final long tx, final long ty, final Rectangle2D rect) {
+    final Rectangle2D r = new Rectangle2D.Double();
+    for(int k = 1; k <= MAX_FALLBACK; ++k) {
+      final Image img = getImage(level - k, tx >> k, ty >> k);
+      if(img == null) {
+        continue;
+      }
+      final double ts = getTileSize(level - k);
+      r.setFrame((tx >> k) * ts, (ty >> k) * ts, ts, ts);
+      final Graphics2D g2 = (Graphics2D) g.create();
+      g2.clip(rect);
+      drawTile(g2, img, r, level - k);
+      g2.dispose();
+      return;
+    }
+    final double ts = getTileSize(level + 1);
+    for(int dy = 0; dy < 2; ++dy) {
+      for(int dx = 0; dx < 2; ++dx) {
+        final long cx = 2 * tx + dx;
+        final long cy = 2 * ty + dy;
+        final Image img = getImage(level + 1, cx, cy);
+        if(img == null) {
+          continue;
+        }
+        r.setFrame(cx * ts, cy * ts, ts, ts);
+        drawTile(g, img, r, level + 1);
+      }
+    }
+  }
+
+  /**
+   * Getter.
+   *
+   * @param level The zoom level.
+   * @param tx The horizontal tile position.
+   * @param ty The vertical tile position.
+   * @return The rendered image of the tile or <code>null</code> if the tile is
+   *         not rendered yet.
+   */
+  private Image getImage(final int level, final long tx, final long ty) {
+    final Tile tile;
+    synchronized(tiles) {
+      tile = tiles.get(new TileKey(level, tx, ty));
+    }
+    return tile != null ? tile.image() : null;
+  }
+
+  /**
+   * Returns the given tile. If the tile does not exist yet its rendering is
+   * scheduled.
+   *
+   * @param level The zoom level.
+   * @param tx The horizontal tile position.
+   * @param ty The vertical tile position.
+   * @param gc The configuration of the device the tile is drawn on.
+   * @return The tile.
+   */
+  private Tile requestTile(final int level, final long tx, final long ty,
+      final GraphicsConfiguration gc) {
+    final TileKey key = new TileKey(level, tx, ty);
+    final Tile tile;
+    synchronized(tiles) {
+      final Tile t = tiles.get(key);
+      if(t != null) {
+        if(!t.isEvicted()) return t;
+        discard(t);
+      }
+      tile = new Tile();
+      tiles.put(key, tile);
+    }
+    // TODO #43 -- Java 8 simplification
+    PoolHolder.POOL.execute(new Runnable() {
+
+      @Override
+      public void run() {
+        renderTile(key, tile, gc);
+      }
+
+    });
+    return tile;
+  }
+
+  /**
+   * Discards a tile.
+   *
+   * @param tile The tile.
+   */
+  static void discard(final Tile tile) {
+    tile.discarded = true;
+    final ImageCache.Entry e = tile.entry;
+    if(e != null) {
+      e.release();
+    }
+  }
+
+  /**
+   * Renders a tile. This method is called on a worker thread. The refresh
+   * manager is notified on the event dispatch thread.
+   *
+   * @param key The key of the tile.
+   * @param tile The tile.
+   * @param gc The configuration of the device the tile is drawn on.
+   */
+  void renderTile(final TileKey key, final Tile tile, final GraphicsConfiguration gc) {
+    // the tile may be out of view already
+    if(tile.discarded) return;
+    final double scale = Math.scalb(1.0, key.level);
+    final double ts = getTileSize(key.level);
+    final Rectangle2D rect = new Rectangle2D.Double(key.tx * ts, key.ty * ts, ts, ts);
+    // volatile images cannot be restored in the background
+    final CacheType type = CachedRenderpass.CACHE_TYPE == CacheType.ARGB
+        ? CacheType.ARGB : CacheType.COMPATIBLE;
+    boolean rendered = false;
+    final Image img;
+    try {
+      img = type.create(gc, TILE_SIZE, TILE_SIZE);
+      final Graphics2D g = (Graphics2D) img.getGraphics();
+      try {
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+            RenderingHints.VALUE_ANTIALIAS_ON);
+        final CacheContext cc = new CacheContext(rect);
+        g.scale(scale, scale);
+        cc.doScale(scale);
+        g.translate(-rect.getX(), -rect.getY());
+        cc.doTranslate(-rect.getX(), -rect.getY());
+        g.clip(rect);
+        drawPass(g, cc);
+      } finally {
+        g.dispose();
+      }
+      rendered = true;
+    } finally {
+      // failed tiles are forgotten so that the next request renders them again
+      if(!rendered) {
+        synchronized(tiles) {
+          if(tiles.get(key) == tile) {
+            tiles.remove(key);
+          }
+        }
+        discard(tile);
+      }
+    }
+    final ImageCache.Entry e = ImageCache.getDefault().add(img);
+    tile.entry = e;
+    // the tile may have been discarded while it was rendered
+    if(tile.discarded) {
+      e.release();
+      return;
+    }
+    // only the area of the tile needs to be drawn again
+    final Rectangle2D region = new Rectangle2D.Double();
+    region.setFrame(rect);
+    RenderpassPainter.convertToTopLevelBounds(region, this);
+    // refresh managers are not thread safe
+    // TODO #43 -- Java 8 simplification
+    SwingUtilities.invokeLater(new Runnable() {
+
+      @Override
+      public void run() {
+        if(tile.discarded) return;
+        RenderpassPainter.refreshRegion(manager, region);
+      }
+
+    });
+  }
+
+  /** Discards all tiles. */
+  public void invalidate() {
+    synchronized(tiles) {
+      final Iterator<Tile> it = tiles.values().iterator();
+      while(it.hasNext()) {
+        discard(it.next());
+        it.remove();
+      }
+    }
+  }
+
+  /**
+   * Getter.
+   *
+   * @return The number of tiles that are currently kept.
+   */
+  public int tileCount() {
+    synchronized(tiles) {
+      return tiles.size();
+    }
+  }
+
+  @Override
+  public void getBoundingBox(final RectangularShape bbox) {
+    final Rectangle2D rect = new Rectangle2D.Double();
+    RenderpassPainter.getPassBoundingBox(rect, pass);
+    bbox.setFrame(rect);
+  }
+
+  @Override
+  public boolean isChanging() {
+    return pass.isChanging();
+  }
+
+  @Override
+  public void setAnimationList(final AnimationList list) {
+    pass.setAnimationList(list);
+  }
+
+  @Override
+  public boolean click(final Camera cam, final Point2D p, final MouseEvent e) {
+    if(!pass.isVisible()) return false;
+    return pass.click(cam, RenderpassPainter.getPositionFromCanvas(pass, p), e);
+  }
+
+  @Override
+  public boolean doubleClick(final Camera cam, final Point2D p, final MouseEvent e) {
+    if(!pass.isVisible()) return false;
+    return pass.doubleClick(cam, RenderpassPainter.getPositionFromCanvas(pass, p), e);
+  }
+
+  @Override
+  public String getTooltip(final Point2D p) {
+    if(!pass.isVisible()) return null;
+    return pass.getTooltip(RenderpassPainter.getPositionFromCanvas(pass, p));
+  }
+
+  @Override
+  public boolean moveMouse(final Point2D cur) {
+    if(!pass.isVisible()) return false;
+    return pass.moveMouse(RenderpassPainter.getPositionFromCanvas(pass, cur));
+  }
+
+  /** The start position of the drag in the coordinates of the pass. */
+  private Point2D start;
+
+  @Override
+  public boolean acceptDrag(final Point2D p, final MouseEvent e) {
+    if(!pass.isVisible()) return false;
+    final Point2D pos = RenderpassPainter.getPositionFromCanvas(pass, p);
+    if(!pass.acceptDrag(pos, e)) return false;
+    start = pos;
+    return true;
+  }
+
+  @Override
+  public void drag(final Point2D _start, final Point2D cur,
+      final double dx, final double dy) {
+    pass.drag(start, RenderpassPainter.getPositionFromCanvas(pass, cur), dx, dy);
+  }
+
+  @Override
+  public void endDrag(final Point2D _start, final Point2D end,
+      final double dx, final double dy) {
+    pass.endDrag(start, RenderpassPainter.getPositionFromCanvas(pass, end), dx, dy);
+    start = null;
+  }
+
+}
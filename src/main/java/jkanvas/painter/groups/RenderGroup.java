@@ -7,7 +7,9 @@ import java.awt.event.MouseEvent;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.geom.RectangularShape;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
@@ -20,6 +22,7 @@ import jkanvas.animation.AnimationTiming;
 import jkanvas.animation.Animator;
 import jkanvas.animation.GenericAnimated;
 import jkanvas.painter.Renderpass;
+import jkanvas.painter.RenderpassIndex;
 import jkanvas.painter.RenderpassPainter;
 import jkanvas.util.PaintUtil;
 import jkanvas.util.VecUtil;
@@ -28,7 +31,9 @@ import jkanvas.util.VecUtil;
  * A group of render passes. The layout of the render passes is determined by
  * subclasses. Render passes without bounding boxes may or may not be allowed
  * depending of the implementation of the subclass. Transitions between layouts
- * can be animated.
+ * can be animated. Groups with many members can be
+ * {@link #setIndexed(boolean) indexed} to find the members that are visible or
+ * under the mouse faster. All members still receive mouse moves.
  *
  * @author Joschi <josua.krause@gmail.com>
  * @param <T> The type of layouted render passes.
@@ -50,6 +55,15 @@ public class RenderGroup<T extends Renderpass> extends Renderpass {
     /** The current render pass bounding box. */
     private final Rectangle2D bbox;
 
+    /** The group containing the render pass or <code>null</code>. */
+    private RenderGroup<?> group;
+
+    /**
+     * The position in the member list when the spatial index of the group was
+     * built last.
+     */
+    private volatile int memberIndex;
+
     /**
      * Creates a render pass position.
      *
@@ -91,8 +105,27 @@ public class RenderGroup<T extends Renderpass> extends Renderpass {
 
     @Override
     protected void doSet(final Point2D t) {
+      final RenderGroup<?> g = group;
+      final Rectangle2D region;
+      if(g != null) {
+        // the old and the new area need to be redrawn
+        region = new Rectangle2D.Double();
+        RenderpassPainter.getTopLevelBounds(region, pass);
+      } else {
+        region = null;
+      }
       super.doSet(t);
       pass.setOffset(t.getX(), t.getY());
+      if(g != null) {
+        final RenderpassIndex idx = g.index;
+        if(idx != null) {
+          idx.moved(memberIndex);
+        }
+        final Rectangle2D now = new Rectangle2D.Double();
+        RenderpassPainter.getTopLevelBounds(now, pass);
+        region.add(now);
+        RenderpassPainter.refreshRegion(g.getAnimator(), region);
+      }
     }
 
     /**
@@ -140,6 +173,24 @@ public class RenderGroup<T extends Renderpass> extends Renderpass {
   /** The list of group members. */
   private final List<RenderpassPosition<T>> members;
 
+  /** The spatial index of the group members or <code>null</code>. */
+  private volatile RenderpassIndex index;
+
+  /** The render passes of the members as view of the member list. */
+  private final List<T> passes = new AbstractList<T>() {
+
+    @Override
+    public T get(final int i) {
+      return members.get(i).pass;
+    }
+
+    @Override
+    public int size() {
+      return members.size();
+    }
+
+  };
+
   /** The list of non layouted members in front of the layouted members. */
   private final List<Renderpass> nlFront = new ArrayList<>();
 
@@ -242,6 +293,8 @@ public class RenderGroup<T extends Renderpass> extends Renderpass {
    */
   private void addedRenderpassIntern(final RenderpassPosition<T> p) {
     p.pass.setParent(this);
+    p.group = this;
+    invalidateIndex();
     addedRenderpass(p);
   }
 
@@ -263,6 +316,8 @@ public class RenderGroup<T extends Renderpass> extends Renderpass {
   private void removedRenderpassIntern(final RenderpassPosition<T> p) {
     removedRenderpass(p);
     p.pass.setParent(null);
+    p.group = null;
+    invalidateIndex();
   }
 
   /**
@@ -508,6 +563,7 @@ public class RenderGroup<T extends Renderpass> extends Renderpass {
   /** Invalidates the current layout, recomputes the layout, and repaints. */
   public void invalidate() {
     redoLayout = true;
+    invalidateIndex();
     animator.quickRefresh();
   }
 
@@ -592,7 +648,7 @@ public class RenderGroup<T extends Renderpass> extends Renderpass {
     final Rectangle2D view = ctx.getVisibleCanvas();
     boolean changed = false;
     T last = null;
-    for(final RenderpassPosition<T> p : members) {
+    for(final RenderpassPosition<T> p : getCandidates(view)) {
       final T r = p.pass;
       if(!r.isVisible()) {
         continue;
@@ -620,7 +676,7 @@ public class RenderGroup<T extends Renderpass> extends Renderpass {
       final Graphics2D g = (Graphics2D) gfx.create();
       PaintUtil.setAlpha(g, 0.3);
       g.setColor(java.awt.Color.BLUE);
-      for(final RenderpassPosition<T> rp : members) {
+      for(final RenderpassPosition<T> rp : getCandidates(view)) {
         final Renderpass r = rp.pass;
         if(!r.isVisible()) {
           continue;
@@ -651,11 +707,87 @@ public class RenderGroup<T extends Renderpass> extends Renderpass {
     return members.toArray(new RenderpassPosition[members.size()]);
   }
 
+  /**
+   * Setter.
+   *
+   * @param indexed Whether to use a {@link RenderpassIndex spatial index} to
+   *          find the members that are visible or under the mouse. This is
+   *          useful for groups with many members. Moved members are updated
+   *          in the index without rebuilding it.
+   */
+  public void setIndexed(final boolean indexed) {
+    if(indexed == isIndexed()) return;
+    index = indexed ? new RenderpassIndex() : null;
+  }
+
+  /**
+   * Getter.
+   *
+   * @return Whether a spatial index is used for the members.
+   */
+  public boolean isIndexed() {
+    return index != null;
+  }
+
+  /** Signals that members have been added or removed. */
+  private void invalidateIndex() {
+    final RenderpassIndex idx = index;
+    if(idx != null) {
+      idx.invalidate();
+    }
+  }
+
+  /**
+   * Updates the spatial index of the members if necessary.
+   *
+   * @param idx The index.
+   */
+  private void ensureIndex(final RenderpassIndex idx) {
+    if(!idx.isValid() || idx.size() != passes.size()) {
+      for(int i = 0; i < members.size(); ++i) {
+        members.get(i).memberIndex = i;
+      }
+    }
+    idx.ensure(passes);
+  }
+
+  /**
+   * Selects the members that may intersect the given rectangle. Bounding box
+   * changes of members outside of the rectangle are still detected when the
+   * bounding box of the group is computed.
+   *
+   * @param rect The rectangle in canvas coordinates.
+   * @return The candidates in member order. For few members this is the member
+   *         list itself.
+   */
+  private List<RenderpassPosition<T>> getCandidates(final Rectangle2D rect) {
+    final RenderpassIndex idx = index;
+    if(idx == null || members.size() < RenderpassIndex.MIN_SIZE) return members;
+    ensureIndex(idx);
+    return RenderpassIndex.select(members, idx.query(rect));
+  }
+
+  /**
+   * Selects the members that may contain the given point. The result can be
+   * iterated while the member list is modified.
+   *
+   * @param position The point in canvas coordinates.
+   * @return The candidates in member order.
+   */
+  private List<RenderpassPosition<T>> getCandidates(final Point2D position) {
+    final RenderpassIndex idx = index;
+    if(idx == null || members.size() < RenderpassIndex.MIN_SIZE) {
+      return Arrays.asList(members());
+    }
+    ensureIndex(idx);
+    return RenderpassIndex.select(members, idx.query(position));
+  }
+
   @Override
   public boolean click(final Camera cam, final Point2D position, final MouseEvent e) {
     if(RenderpassPainter.click(nlFront, cam, position, e)) return true;
     final Rectangle2D bbox = new Rectangle2D.Double();
-    for(final RenderpassPosition<T> p : reverseArray(members())) {
+    for(final RenderpassPosition<T> p : reverseList(getCandidates(position))) {
       final Renderpass r = p.pass;
       if(!r.isVisible()) {
         continue;
@@ -674,7 +806,7 @@ public class RenderGroup<T extends Renderpass> extends Renderpass {
   public boolean doubleClick(final Camera cam, final Point2D position, final MouseEvent e) {
     if(RenderpassPainter.doubleClick(nlFront, cam, position, e)) return true;
     final Rectangle2D bbox = new Rectangle2D.Double();
-    for(final RenderpassPosition<T> p : reverseArray(members())) {
+    for(final RenderpassPosition<T> p : reverseList(getCandidates(position))) {
       final Renderpass r = p.pass;
       if(!r.isVisible()) {
         continue;
@@ -696,7 +828,7 @@ public class RenderGroup<T extends Renderpass> extends Renderpass {
     final String tt = RenderpassPainter.getTooltip(nlFront, position);
     if(tt != null) return tt;
     final Rectangle2D bbox = new Rectangle2D.Double();
-    for(final RenderpassPosition<T> p : reverseArray(members())) {
+    for(final RenderpassPosition<T> p : reverseList(getCandidates(position))) {
       final Renderpass r = p.pass;
       if(!r.isVisible()) {
         continue;
@@ -737,7 +869,7 @@ public class RenderGroup<T extends Renderpass> extends Renderpass {
    */
   protected Renderpass pickLayouted(final Point2D position) {
     final Rectangle2D bbox = new Rectangle2D.Double();
-    for(final RenderpassPosition<T> p : reverseArray(members())) {
+    for(final RenderpassPosition<T> p : reverseList(getCandidates(position))) {
       final Renderpass r = p.pass;
       if(!r.isVisible()) {
         continue;
@@ -786,7 +918,7 @@ public class RenderGroup<T extends Renderpass> extends Renderpass {
     for(final Renderpass r : reverseList(nlFront)) {
       if(acceptDrag(r, position, e)) return true;
     }
-    for(final RenderpassPosition<T> p : reverseArray(members())) {
+    for(final RenderpassPosition<T> p : reverseList(getCandidates(position))) {
       if(acceptDrag(p.pass, position, e)) return true;
     }
     for(final Renderpass r : reverseList(nlBack)) {
@@ -1,6 +1,7 @@
 package jkanvas.table;
 
 import java.awt.Color;
+import java.util.Arrays;
 
 import jkanvas.animation.LineList;
 
@@ -49,11 +50,52 @@ public class LineMapper extends ListMapper<LineList> {
     return new LineList(getTable().rows(), Color.BLACK);
   }
 
+  /**
+   * Computes a vertical coordinate of a line.
+   * 
+   * @param r The row.
+   * @param f The feature.
+   * @return The coordinate.
+   */
+  private double coord(final int r, final int f) {
+    return (1 - getTable().getMinMaxScaled(r, f)) * h;
+  }
+
   @Override
   protected int createForRow(final LineList ll, final int r) {
-    final DataTable table = getTable();
-    return ll.addLine(0, (1 - table.getMinMaxScaled(r, f1)) * h,
-        w, (1 - table.getMinMaxScaled(r, f2)) * h, alpha);
+    return ll.addLine(0, coord(r, f1), w, coord(r, f2), alpha);
+  }
+
+  /**
+   * Whether the lines of all rows can be added at once instead of calling
+   * {@link #createForRow} for each row. Subclasses that do not change how
+   * single lines are created can opt in by returning <code>true</code>.
+   * 
+   * @return Whether lines are added at once if the list allows it.
+   */
+  protected boolean supportsBulk() {
+    return getClass() == LineMapper.class;
+  }
+
+  @Override
+  protected void createForRows(final LineList ll, final int rows) {
+    if(!supportsBulk() || !ll.supportsBulk()) {
+      super.createForRows(ll, rows);
+      return;
+    }
+    final double[] x1s = new double[rows];
+    final double[] y1s = new double[rows];
+    final double[] x2s = new double[rows];
+    final double[] y2s = new double[rows];
+    final double[] alphas = new double[rows];
+    for(int r = 0; r < rows; ++r) {
+      y1s[r] = coord(r, f1);
+      y2s[r] = coord(r, f2);
+    }
+    Arrays.fill(x2s, w);
+    Arrays.fill(alphas, alpha);
+    final int i = ll.addLines(x1s, y1s, x2s, y2s, alphas);
+    if(i != 0) throw new IllegalStateException("unpredicted index: " + i + " != 0");
   }
 
   /**
@@ -41,19 +41,29 @@ public abstract class ListMapper<T extends GenericPaintList<?>> {
   protected abstract int createForRow(T list, int row);
 
   /**
-   * Fills the list.
+   * Creates the shapes for all rows. The shape of a row must have the row as
+   * index. Subclasses may override this method to add all shapes at once.
    * 
-   * @return The list.
+   * @param list The shape list.
+   * @param rows The number of rows.
    */
-  private T fillList() {
-    final T res = createList();
-    final int rows = table.rows();
+  protected void createForRows(final T list, final int rows) {
     for(int el = 0; el < rows; ++el) {
-      final int i = createForRow(res, el);
+      final int i = createForRow(list, el);
       // TODO allow arbitrary mappings
       if(i != el) throw new IllegalStateException(
           "unpredicted index: " + i + " != " + el);
     }
+  }
+
+  /**
+   * Fills the list.
+   * 
+   * @return The list.
+   */
+  private T fillList() {
+    final T res = createList();
+    createForRows(res, table.rows());
     return res;
   }
 
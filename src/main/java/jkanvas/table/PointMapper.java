@@ -2,6 +2,7 @@ package jkanvas.table;
 
 import java.awt.Color;
 import java.awt.Shape;
+import java.util.Arrays;
 
 import jkanvas.animation.CircleList;
 import jkanvas.animation.PointList;
@@ -107,11 +108,49 @@ public class PointMapper extends ListMapper<PointList<? extends Shape>> {
     return factory.createPointList(table, rows, defaultColor, defaultBorder);
   }
 
+  /**
+   * Computes a coordinate of a point.
+   * 
+   * @param r The row.
+   * @param f The feature.
+   * @return The coordinate.
+   */
+  private double coord(final int r, final int f) {
+    return getTable().getMinMaxScaled(r, f) * (size - border * 2) + border;
+  }
+
   @Override
   protected int createForRow(final PointList<? extends Shape> pl, final int r) {
-    final DataTable table = getTable();
-    return pl.addPoint(table.getMinMaxScaled(r, f1) * (size - border * 2) + border,
-        table.getMinMaxScaled(r, f2) * (size - border * 2) + border, pointSize);
+    return pl.addPoint(coord(r, f1), coord(r, f2), pointSize);
+  }
+
+  /**
+   * Whether the points of all rows can be added at once instead of calling
+   * {@link #createForRow} for each row. Subclasses that do not change how
+   * single points are created can opt in by returning <code>true</code>.
+   * 
+   * @return Whether points are added at once if the list allows it.
+   */
+  protected boolean supportsBulk() {
+    return getClass() == PointMapper.class;
+  }
+
+  @Override
+  protected void createForRows(final PointList<? extends Shape> pl, final int rows) {
+    if(!supportsBulk() || !pl.supportsBulk()) {
+      super.createForRows(pl, rows);
+      return;
+    }
+    final double[] xs = new double[rows];
+    final double[] ys = new double[rows];
+    final double[] sizes = new double[rows];
+    for(int r = 0; r < rows; ++r) {
+      xs[r] = coord(r, f1);
+      ys[r] = coord(r, f2);
+    }
+    Arrays.fill(sizes, pointSize);
+    final int i = pl.addPoints(xs, ys, sizes);
+    if(i != 0) throw new IllegalStateException("unpredicted index: " + i + " != 0");
   }
 
   /**
@@ -1,13 +1,14 @@
 package jkanvas.util;
 
 import java.lang.ref.WeakReference;
-import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Objects;
-import java.util.Set;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A list that is readable only through snapshots. The list can always be
@@ -18,28 +19,98 @@ import java.util.Set;
  * <code>null</code> pointers to indicate that this element no longer exists or
  * is invalid. To reduce the number of <code>null</code> pointers garbage
  * collection is performed when needed.
+ * <p>
+ * The list is lock-free for readers and writers. Changes are applied when no
+ * snapshot is active. The content is stored in an array that is only appended
+ * to. Snapshots see a fixed prefix of the array so appending never affects open
+ * snapshots. Removing invalid elements creates a new array (copy-on-write) so
+ * open snapshots continue to read the old one. Elements are identified by
+ * identity, ie. two equal but different objects may both be in the list.
  *
  * @author Joschi <josua.krause@gmail.com>
  * @param <T> The element type.
  */
 public class SnapshotList<T> {
 
-  /** All registered objects. */
-  private final List<WeakReference<T>> list = new ArrayList<>();
+  /** The initial capacity of the content array. */
+  private static final int INITIAL_CAPACITY = 16;
 
   /**
-   * The list that is filled instead of {@link #list} when there are
-   * {@link #snapshots}. The elements are added when no {@link #snapshots} are
-   * active any more. This list is also used as monitor for all changing
-   * operations and setting {@link #snapshots}.
+   * The published state of the list. The content array may contain more
+   * elements than {@link #size} but those must not be read.
+   *
+   * @author Joschi <josua.krause@gmail.com>
+   */
+  private static final class State {
+
+    /**
+     * The content. Elements are {@link WeakReference WeakReferences} or the
+     * elements itself depending on {@link SnapshotList#weak}.
+     */
+    final Object[] content;
+    /** The number of valid slots in the content array. */
+    final int size;
+
+    /**
+     * Creates a state.
+     *
+     * @param content The content.
+     * @param size The number of valid slots.
+     */
+    State(final Object[] content, final int size) {
+      this.content = content;
+      this.size = size;
+    }
+
+  } // State
+
+  /** Whether elements are referenced weakly. */
+  private final boolean weak;
+
+  /** The current state. */
+  private volatile State state = new State(new Object[INITIAL_CAPACITY], 0);
+
+  /** Elements that are not yet added to the state. */
+  private final Queue<T> toBeAdded = new ConcurrentLinkedQueue<>();
+
+  /**
+   * Whether a thread currently modifies the state. Only the thread holding this
+   * flag may change {@link #state} and {@link #index}.
+   */
+  private final AtomicBoolean modifying = new AtomicBoolean();
+
+  /** Whether the next modification should remove invalid elements. */
+  private volatile boolean gcRequested;
+
+  /**
+   * An open addressing identity hash table mapping elements to their position
+   * in the content array plus one. The value <code>0</code> indicates empty
+   * slots. The table is rebuilt when elements are removed.
    */
-  private final List<T> toBeAdded = new ArrayList<>();
+  private int[] index = new int[INITIAL_CAPACITY * 2];
+
+  /** The number of entries in the {@link #index}. */
+  private int indexCount;
+
+  /** The number of active snapshots. */
+  private final AtomicInteger snapshots = new AtomicInteger();
+
+  /** Creates a list holding its elements with weak references. */
+  public SnapshotList() {
+    this(true);
+  }
 
   /**
-   * The number of active snapshots. When there are snapshots the {@link #list}
-   * is guaranteed not to change.
+   * Creates a list.
+   *
+   * @param weak Whether elements are referenced weakly. When elements are
+   *          referenced strongly they are only removed when they become
+   *          invalid.
+   * @see #isValid(Object)
    */
-  private int snapshots;
+  public SnapshotList(final boolean weak) {
+    this.weak = weak;
+  }
 
   /**
    * Adds an object. Elements are guaranteed to appear only once in the list.
@@ -47,10 +118,7 @@ public class SnapshotList<T> {
    * @param elem The object. Must be non-<code>null</code>.
    */
   public final void add(final T elem) {
-    Objects.requireNonNull(elem);
-    synchronized(toBeAdded) {
-      toBeAdded.add(elem);
-    }
+    toBeAdded.add(Objects.requireNonNull(elem));
   }
 
   /**
@@ -65,6 +133,42 @@ public class SnapshotList<T> {
     return el != null;
   }
 
+  /**
+   * Reads an element from the content array without checking validity.
+   *
+   * @param content The content array.
+   * @param pos The position.
+   * @return The element or <code>null</code> if it does not exist anymore.
+   */
+  @SuppressWarnings("unchecked")
+  T elementAt(final Object[] content, final int pos) {
+    final Object o = content[pos];
+    if(o == null) return null;
+    return weak ? ((WeakReference<T>) o).get() : (T) o;
+  }
+
+  /**
+   * Reads an element from the content array. Invalid elements are removed from
+   * the slot.
+   *
+   * @param content The content array.
+   * @param pos The position.
+   * @return The element or <code>null</code> if it does not exist anymore or
+   *         is invalid.
+   */
+  T validElementAt(final Object[] content, final int pos) {
+    final T res = elementAt(content, pos);
+    if(isValid(res)) return res;
+    if(res != null) {
+      if(weak) {
+        ((WeakReference<?>) content[pos]).clear();
+      } else {
+        content[pos] = null;
+      }
+    }
+    return null;
+  }
+
   /**
    * A snapshot of the given list. Getter methods may return <code>null</code>
    * pointers to indicate that the element in question has been removed from
@@ -81,8 +185,10 @@ public class SnapshotList<T> {
    */
   public static final class Snapshot<T> implements AutoCloseable, Iterable<T> {
 
-    /** The list. */
-    private final List<WeakReference<T>> content;
+    /** The content array. */
+    private final Object[] content;
+    /** The number of elements in this snapshot. */
+    private final int size;
     /** The snapshot list. */
     private SnapshotList<T> list;
     /** Whether we encountered any <code>null</code> pointers. */
@@ -92,12 +198,13 @@ public class SnapshotList<T> {
      * Creates a snapshot.
      *
      * @param list The snapshot list.
-     * @param content The snapshot content.
+     * @param state The state of the list.
      */
-    public Snapshot(final SnapshotList<T> list, final List<WeakReference<T>> content) {
+    Snapshot(final SnapshotList<T> list, final State state) {
       this.list = list;
-      this.content = content;
-      list.startSnapshot();
+      content = state.content;
+      size = state.size;
+      list.snapshots.incrementAndGet();
     }
 
     /** Ensures that the snapshot is still open. */
@@ -115,14 +222,13 @@ public class SnapshotList<T> {
      */
     public T get(final int index) {
       ensureOpen();
-      final WeakReference<T> ref = content.get(index);
-      final T res = ref.get();
-      if(list.isValid(res)) return res;
-      hasNull = true;
-      if(res != null) {
-        ref.clear();
+      if(index < 0 || index >= size) throw new IndexOutOfBoundsException(
+          "index: " + index + " size: " + size);
+      final T res = list.validElementAt(content, index);
+      if(res == null) {
+        hasNull = true;
       }
-      return null;
+      return res;
     }
 
     /**
@@ -132,35 +238,26 @@ public class SnapshotList<T> {
      */
     public int size() {
       ensureOpen();
-      return content.size();
+      return size;
     }
 
     @Override
     public Iterator<T> iterator() {
       ensureOpen();
-      final List<WeakReference<T>> content = this.content;
-      final SnapshotList<T> list = this.list;
       return new Iterator<T>() {
 
         private int pos;
 
         @Override
         public boolean hasNext() {
-          return pos < content.size();
+          return pos < size;
         }
 
         @Override
         public T next() {
           ensureOpen();
           if(!hasNext()) throw new NoSuchElementException();
-          final WeakReference<T> ref = content.get(pos++);
-          final T res = ref.get();
-          if(list.isValid(res)) return res;
-          hasNull = true;
-          if(res != null) {
-            ref.clear();
-          }
-          return null;
+          return get(pos++);
         }
 
         @Override
@@ -182,55 +279,142 @@ public class SnapshotList<T> {
   } // Snapshot
 
   /**
-   * Actually adds the elements of the waiting list.
+   * Computes the start position of the given element in the index.
    *
-   * @param gc Whether to also remove all <code>null</code> pointers.
+   * @param elem The element.
+   * @param mask The mask of the index.
+   * @return The start position.
    */
-  private final void addAll(final boolean gc) {
-    // must be in synchronization
+  private static int indexStart(final Object elem, final int mask) {
+    final int h = System.identityHashCode(elem);
+    // spread the bits since identity hash codes may be clustered
+    return (h ^ (h >>> 16)) * 0x9E3779B9 & mask;
+  }
+
+  /**
+   * Checks whether the element is in the list. Must be called while holding
+   * {@link #modifying}.
+   *
+   * @param content The content array.
+   * @param elem The element.
+   * @return Whether the element is already in the list.
+   */
+  private boolean contains(final Object[] content, final T elem) {
+    final int[] index = this.index;
+    final int mask = index.length - 1;
+    int p = indexStart(elem, mask);
+    while(index[p] != 0) {
+      if(elementAt(content, index[p] - 1) == elem) return true;
+      p = (p + 1) & mask;
+    }
+    return false;
+  }
+
+  /**
+   * Adds the element at the given position to the index. Must be called while
+   * holding {@link #modifying}.
+   *
+   * @param elem The element.
+   * @param pos The position in the content array.
+   */
+  private void addToIndex(final T elem, final int pos) {
+    final int[] index = this.index;
+    final int mask = index.length - 1;
+    int p = indexStart(elem, mask);
+    while(index[p] != 0) {
+      p = (p + 1) & mask;
+    }
+    index[p] = pos + 1;
+    ++indexCount;
+  }
+
+  /**
+   * Rebuilds the index for the given content. Must be called while holding
+   * {@link #modifying}.
+   *
+   * @param content The content array.
+   * @param size The number of valid slots.
+   * @param expected The expected number of elements in the index.
+   */
+  private void rebuildIndex(final Object[] content, final int size, final int expected) {
+    int cap = INITIAL_CAPACITY * 2;
+    while(cap < expected * 2) {
+      cap <<= 1;
+    }
+    if(index.length != cap) {
+      index = new int[cap];
+    } else {
+      Arrays.fill(index, 0);
+    }
+    indexCount = 0;
+    for(int i = 0; i < size; ++i) {
+      final T el = elementAt(content, i);
+      if(el == null) {
+        continue;
+      }
+      addToIndex(el, i);
+    }
+  }
+
+  /**
+   * Actually adds the elements of the waiting list. Must be called while
+   * holding {@link #modifying}.
+   *
+   * @param gc Whether to also remove all invalid elements.
+   */
+  private void addAll(final boolean gc) {
+    final State s = state;
+    Object[] content = s.content;
+    int size = s.size;
     if(gc) {
-      int i = 0;
+      // copy-on-write since open snapshots may still use the old array
+      final Object[] compact = new Object[Math.max(INITIAL_CAPACITY, content.length)];
       int k = 0;
-      while(k < list.size()) {
-        final WeakReference<T> ref = list.get(k);
-        final T t = ref.get();
-        if(t == null) {
-          ++k;
+      for(int i = 0; i < size; ++i) {
+        final T el = elementAt(content, i);
+        if(!isValid(el)) {
           continue;
         }
-        if(k > i) {
-          list.set(i, ref);
-        }
-        ++i;
-        ++k;
-      }
-      while(k > i) {
-        list.remove(--k);
+        compact[k++] = content[i];
       }
+      content = compact;
+      size = k;
+      rebuildIndex(content, size, size);
     }
-    if(toBeAdded.isEmpty()) return;
-    final Set<T> contained = new HashSet<>();
-    for(final WeakReference<T> el : list) {
-      // we do not care for null elements
-      contained.add(el.get());
-    }
-    for(final T add : toBeAdded) {
-      if(contained.contains(add)) {
+    T add;
+    while((add = toBeAdded.poll()) != null) {
+      if(contains(content, add)) {
         continue;
       }
-      list.add(new WeakReference<>(add));
-      contained.add(add);
+      if(size >= content.length) {
+        content = Arrays.copyOf(content, content.length + content.length / 2);
+      }
+      content[size] = weak ? new WeakReference<>(add) : add;
+      if((indexCount + 1) * 2 > index.length) {
+        rebuildIndex(content, size, indexCount + 1);
+      }
+      addToIndex(add, size);
+      ++size;
+    }
+    if(content != s.content || size != s.size) {
+      state = new State(content, size);
     }
-    toBeAdded.clear();
   }
 
-  /** Starts a snapshot. */
-  protected final void startSnapshot() {
-    synchronized(toBeAdded) {
-      if(snapshots <= 0) {
-        addAll(false);
+  /**
+   * Tries to apply all pending changes. If another thread is currently
+   * modifying the list this method returns immediately and the changes will
+   * be applied by the other thread or a later call.
+   */
+  private void tryModify() {
+    while((!toBeAdded.isEmpty() || gcRequested) && modifying.compareAndSet(false, true)) {
+      try {
+        final boolean gc = gcRequested;
+        gcRequested = false;
+        addAll(gc);
+      } finally {
+        modifying.set(false);
       }
-      ++snapshots;
     }
   }
 
@@ -240,12 +424,12 @@ public class SnapshotList<T> {
    * @param gc Whether to remove all <code>null</code> pointers when this
    *          snapshot was the last.
    */
-  protected final void endSnapshot(final boolean gc) {
-    synchronized(toBeAdded) {
-      --snapshots;
-      if(snapshots > 0) return;
-      addAll(gc);
+  final void endSnapshot(final boolean gc) {
+    if(gc) {
+      gcRequested = true;
     }
+    if(snapshots.decrementAndGet() > 0) return;
+    tryModify();
   }
 
   /**
@@ -262,7 +446,22 @@ public class SnapshotList<T> {
    * @return Creates a snapshot.
    */
   public final Snapshot<T> getSnapshot() {
-    return new Snapshot<>(this, list);
+    // changes are delayed while snapshots are active in order to keep the
+    // content of nested snapshots consistent
+    if(snapshots.get() <= 0) {
+      tryModify();
+    }
+    return new Snapshot<>(this, state);
+  }
+
+  /**
+   * Getter.
+   *
+   * @return Whether the list contains no elements. Elements that are no longer
+   *         valid may still be counted until the next clean up.
+   */
+  public final boolean isEmpty() {
+    return state.size == 0 && toBeAdded.isEmpty();
   }
 
   /**
@@ -271,19 +470,31 @@ public class SnapshotList<T> {
    * @return The number of currently active snapshots.
    */
   public final int activeSnapshots() {
-    return snapshots;
+    return snapshots.get();
   }
 
   /** Clears all elements from the list. */
   public final void clear() {
-    synchronized(toBeAdded) {
+    while(!modifying.compareAndSet(false, true)) {
+      Thread.yield();
+    }
+    try {
       toBeAdded.clear();
-      startSnapshot();
-      for(final WeakReference<T> ref : list) {
-        ref.clear();
+      final State s = state;
+      // open snapshots see the elements as removed
+      for(int i = 0; i < s.size; ++i) {
+        final Object o = s.content[i];
+        if(weak && o != null) {
+          ((WeakReference<?>) o).clear();
+        } else {
+          s.content[i] = null;
+        }
       }
-      // the last snapshot will clean up the list eventually
-      endSnapshot(true);
+      state = new State(new Object[INITIAL_CAPACITY], 0);
+      rebuildIndex(state.content, 0, 0);
+      gcRequested = false;
+    } finally {
+      modifying.set(false);
     }
   }
 
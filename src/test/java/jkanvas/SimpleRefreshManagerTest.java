@@ -0,0 +1,171 @@
+package jkanvas;
+
+import static org.junit.Assert.*;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+/**
+ * Tests refreshing regions with the {@link SimpleRefreshManager}.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ */
+public class SimpleRefreshManagerTest {
+
+  /**
+   * A {@link RegionRefreshable} that records the refreshed regions.
+   *
+   * @author Joschi <josua.krause@gmail.com>
+   */
+  private static final class DummyRegionRefreshable implements RegionRefreshable {
+
+    /** The refreshed regions. Guarded by this object. */
+    final List<Rectangle2D> regions = new ArrayList<>();
+    /** The number of complete refreshes. Guarded by this object. */
+    int refreshed;
+
+    /** Creates a {@link DummyRegionRefreshable}. */
+    public DummyRegionRefreshable() {
+      // nothing to do
+    }
+
+    @Override
+    public synchronized void refresh() {
+      ++refreshed;
+    }
+
+    @Override
+    public synchronized void refresh(final Rectangle2D region) {
+      regions.add((Rectangle2D) region.clone());
+    }
+
+  } // DummyRegionRefreshable
+
+  /** Tests that regions are passed on directly outside of bulk operations. */
+  @Test
+  public void direct() {
+    final SimpleRefreshManager m = new SimpleRefreshManager();
+    final DummyRegionRefreshable r = new DummyRegionRefreshable();
+    m.addRefreshable(r);
+    m.refreshRegion(new Rectangle2D.Double(0, 0, 10, 10));
+    m.refreshRegion(new Rectangle2D.Double(5, 5, 0, 0));
+    assertEquals(1, r.regions.size());
+    assertEquals(new Rectangle2D.Double(0, 0, 10, 10), r.regions.get(0));
+    assertEquals(0, r.refreshed);
+  }
+
+  /** Tests that regions are combined during bulk operations. */
+  @Test
+  public void coalesce() {
+    final SimpleRefreshManager m = new SimpleRefreshManager();
+    final DummyRegionRefreshable r = new DummyRegionRefreshable();
+    m.addRefreshable(r);
+    m.startBulkOperation();
+    m.refreshRegion(new Rectangle2D.Double(0, 0, 10, 10));
+    m.startBulkOperation();
+    m.refreshRegion(new Rectangle2D.Double(20, 30, 10, 10));
+    m.endBulkOperation();
+    assertEquals(0, r.regions.size());
+    m.endBulkOperation();
+    assertEquals(1, r.regions.size());
+    assertEquals(new Rectangle2D.Double(0, 0, 30, 40), r.regions.get(0));
+    assertEquals(0, r.refreshed);
+    // a complete refresh supersedes regions
+    m.startBulkOperation();
+    m.refreshRegion(new Rectangle2D.Double(0, 0, 10, 10));
+    m.refreshAll();
+    m.endBulkOperation();
+    assertEquals(1, r.regions.size());
+    assertEquals(1, r.refreshed);
+  }
+
+  /** Tests that plain {@link Refreshable Refreshables} refresh completely. */
+  @Test
+  public void plain() {
+    final SimpleRefreshManager m = new SimpleRefreshManager();
+    final int[] count = new int[1];
+    // TODO #43 -- Java 8 simplification
+    m.addRefreshable(new Refreshable() {
+
+      @Override
+      public void refresh() {
+        ++count[0];
+      }
+
+    });
+    m.refreshRegion(new Rectangle2D.Double(0, 0, 10, 10));
+    assertEquals(1, count[0]);
+  }
+
+  /**
+   * Tests that regions refreshed by many threads during a bulk operation are
+   * combined without losing any.
+   *
+   * @throws InterruptedException If the thread is interrupted.
+   */
+  @Test
+  public void concurrent() throws InterruptedException {
+    final SimpleRefreshManager m = new SimpleRefreshManager();
+    final DummyRegionRefreshable r = new DummyRegionRefreshable();
+    m.addRefreshable(r);
+    final int threads = 4;
+    final int count = 10000;
+    final CountDownLatch start = new CountDownLatch(1);
+    final Thread[] ts = new Thread[threads];
+    m.startBulkOperation();
+    for(int t = 0; t < threads; ++t) {
+      final int id = t;
+      // TODO #43 -- Java 8 simplification
+      ts[t] = new Thread() {
+
+        @Override
+        public void run() {
+          try {
+            start.await();
+          } catch(final InterruptedException e) {
+            return;
+          }
+          for(int i = 0; i < count; ++i) {
+            m.refreshRegion(new Rectangle2D.Double(i, id, 1, 1));
+          }
+        }
+
+      };
+      ts[t].start();
+    }
+    start.countDown();
+    for(final Thread t : ts) {
+      t.join();
+    }
+    assertEquals(0, r.regions.size());
+    m.endBulkOperation();
+    assertEquals(1, r.regions.size());
+    assertEquals(new Rectangle2D.Double(0, 0, count, threads), r.regions.get(0));
+    assertEquals(0, r.refreshed);
+  }
+
+  /** Tests that flushing a bulk operation refreshes only when necessary. */
+  @Test
+  public void flush() {
+    final SimpleRefreshManager m = new SimpleRefreshManager();
+    final DummyRegionRefreshable r = new DummyRegionRefreshable();
+    m.addRefreshable(r);
+    m.startBulkOperation();
+    m.flushBulkOperation();
+    assertEquals(0, r.regions.size());
+    assertEquals(0, r.refreshed);
+    m.startBulkOperation();
+    m.endBulkOperation();
+    assertEquals(1, r.refreshed);
+    m.startBulkOperation();
+    m.refreshRegion(new Rectangle2D.Double(0, 0, 10, 10));
+    m.flushBulkOperation();
+    assertEquals(1, r.regions.size());
+    assertEquals(1, r.refreshed);
+  }
+
+}
@@ -0,0 +1,109 @@
+package jkanvas.animation;
+
+import static org.junit.Assert.*;
+
+import java.awt.Color;
+import java.awt.geom.Point2D;
+
+import jkanvas.util.Interpolator;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link AbstractAnimator}.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ */
+public class AbstractAnimatorTest {
+
+  /** Tests the computation of frame deadlines for all catch up policies. */
+  @Test
+  public void catchUpPolicies() {
+    // TODO #43 -- Java 8 simplification
+    final AbstractAnimator a = new AbstractAnimator() {
+
+      @Override
+      protected boolean step() {
+        return false;
+      }
+
+    };
+    try {
+      a.setFramerate(100);
+      final long p = 10000000L;
+      assertEquals(p, a.getFrameStatistics().getPeriod());
+      a.setCatchUpPolicy(CatchUpPolicy.DROP);
+      assertEquals(p, a.nextDeadline(0, p / 2));
+      assertEquals(4 * p, a.nextDeadline(0, 3 * p + 1));
+      assertEquals(3, a.getFrameStatistics().getDropped());
+      a.setCatchUpPolicy(CatchUpPolicy.COMPRESS);
+      assertEquals(p, a.nextDeadline(0, 3 * p + 1));
+      assertEquals(6 * p, a.nextDeadline(0, 10 * p + 1));
+      assertEquals(8, a.getFrameStatistics().getDropped());
+      a.setCatchUpPolicy(CatchUpPolicy.STRETCH);
+      assertEquals(0, a.getStretchTime());
+      assertEquals(3 * p + 1, a.nextDeadline(0, 3 * p + 1));
+      assertEquals(20, a.getStretchTime());
+    } finally {
+      a.dispose();
+    }
+  }
+
+  /** Tests driving an animation with synthetic time. */
+  @Test
+  public void headless() {
+    final HeadlessAnimationDriver driver = new HeadlessAnimationDriver(100);
+    final AnimatedPainter p = driver.createPainter();
+    final AnimatedDouble d = new AnimatedDouble(0.0);
+    p.getAnimationList().addAnimated(d);
+    assertEquals(1, driver.runUntilIdle(100));
+    assertTrue(p.isIdle());
+    d.startAnimationTo(1.0, new AnimationTiming(Interpolator.LINEAR, 100));
+    assertFalse(p.isIdle());
+    driver.run(6);
+    assertEquals(0.5, d.get(), 1e-9);
+    final int frames = driver.runUntilIdle(100);
+    assertEquals(1.0, d.get(), 0.0);
+    assertTrue(frames >= 5 && frames <= 7);
+    assertTrue(p.isIdle());
+    assertEquals(0, p.getFrameStatistics().getDropped());
+    driver.dispose();
+  }
+
+  /** Tests that double buffered objects only publish changes on a swap. */
+  @Test
+  public void doubleBuffered() {
+    final HeadlessAnimationDriver driver = new HeadlessAnimationDriver(100);
+    final AnimatedPainter p = driver.createPainter();
+    final AnimationList list = p.getAnimationList();
+    final AnimatedDouble d = new AnimatedDouble(0.0);
+    d.setDoubleBuffered(true);
+    list.addAnimated(d);
+    d.startAnimationTo(1.0, new AnimationTiming(Interpolator.LINEAR, 100));
+    assertEquals(0.0, d.get(), 0.0);
+    driver.run(6);
+    assertEquals(0.5, d.get(), 1e-9);
+    list.swapBuffers();
+    d.set(2.0);
+    // setting is visible immediately
+    assertEquals(2.0, d.get(), 0.0);
+    final CircleList circles = new CircleList(1, Color.BLACK, null);
+    circles.setDoubleBuffered(true);
+    list.addDoubleBuffered(circles);
+    final int i = circles.addPoint(0, 0, 1);
+    assertEquals(-1, circles.hit(new Point2D.Double(0, 0)));
+    list.swapBuffers();
+    assertEquals(i, circles.hit(new Point2D.Double(0, 0)));
+    circles.setPosition(i, 10, 10);
+    assertEquals(i, circles.hit(new Point2D.Double(0, 0)));
+    assertEquals(-1, circles.hit(new Point2D.Double(10, 10)));
+    list.swapBuffers();
+    assertEquals(-1, circles.hit(new Point2D.Double(0, 0)));
+    assertEquals(i, circles.hit(new Point2D.Double(10, 10)));
+    circles.setDoubleBuffered(false);
+    circles.setPosition(i, 20, 20);
+    assertEquals(i, circles.hit(new Point2D.Double(20, 20)));
+    driver.dispose();
+  }
+
+}
@@ -0,0 +1,67 @@
+package jkanvas.animation;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jkanvas.util.Interpolator;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link AnimatedPositionArray}.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ */
+public class AnimatedPositionArrayTest {
+
+  /** Tests setting and animating ranges of positions. */
+  @Test
+  public void animateRange() {
+    final AnimationList list = new AnimationList();
+    final AnimatedPositionArray pos = new AnimatedPositionArray(
+        new double[] { 0, 1, 2, 3}, new double[] { 0, 0, 0, 0});
+    list.addAnimated(pos);
+    final AtomicInteger finished = new AtomicInteger();
+    // TODO #43 -- Java 8 simplification
+    pos.startAnimationTo(1, new double[] { 3, 4}, new double[] { 2, 2},
+        new AnimationTiming(Interpolator.LINEAR, 2), new AnimationAction() {
+
+          @Override
+          public void animationFinished() {
+            finished.incrementAndGet();
+          }
+
+        });
+    pos.set(3, 5, 5);
+    assertEquals(3, pos.getX(3), 0.0);
+    list.doAnimate(0);
+    assertEquals(5, pos.getX(3), 0.0);
+    assertTrue(pos.inAnimation(1));
+    assertTrue(pos.inAnimation(2));
+    assertFalse(pos.inAnimation(3));
+    assertEquals(1, list.activeCount());
+    list.doAnimate(1);
+    assertEquals(2, pos.getX(1), 0.0);
+    assertEquals(3, pos.getX(2), 0.0);
+    assertEquals(1, pos.getY(1), 0.0);
+    assertEquals(0, finished.get());
+    list.doAnimate(2);
+    assertEquals(3, pos.getX(1), 0.0);
+    assertEquals(4, pos.getX(2), 0.0);
+    assertEquals(2, pos.getY(2), 0.0);
+    assertEquals(0, pos.getX(0), 0.0);
+    assertFalse(pos.inAnimation());
+    assertEquals(1, finished.get());
+    assertEquals(0, list.activeCount());
+    pos.startAnimationTo(0, 10, 10, new AnimationTiming(Interpolator.LINEAR, 10));
+    list.doAnimate(3);
+    list.doAnimate(8);
+    assertEquals(5, pos.getX(0), 0.0);
+    pos.clearAnimation();
+    list.doAnimate(9);
+    assertEquals(5, pos.getX(0), 0.0);
+    assertFalse(pos.inAnimation());
+  }
+
+}
@@ -4,6 +4,9 @@ import static org.junit.Assert.*;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import jkanvas.util.Interpolator;
 
 import org.junit.Test;
 
@@ -207,4 +210,164 @@ public class AnimationListTest {
     testRunNotAll(10000);
   }
 
+  /** Tests whether only active objects are animated. */
+  @Test
+  public void activeSet() {
+    final AnimationList list = new AnimationList();
+    final AnimatedDouble a = new AnimatedDouble(0.0);
+    final AnimatedDouble b = new AnimatedDouble(0.0);
+    list.addAnimated(a);
+    list.addAnimated(b);
+    assertFalse(list.doAnimate(1));
+    assertEquals(0, list.activeCount());
+    a.startAnimationTo(1.0, new AnimationTiming(Interpolator.LINEAR, 2));
+    list.doAnimate(2);
+    assertEquals(1, list.activeCount());
+    assertTrue(list.doAnimate(3));
+    assertEquals(0.5, a.get(), 0.0);
+    assertTrue(list.doAnimate(4));
+    assertEquals(1.0, a.get(), 0.0);
+    assertEquals(0, list.activeCount());
+    b.set(2.0);
+    assertFalse(list.isIdle());
+    assertTrue(list.doAnimate(5));
+    assertEquals(0, list.activeCount());
+    assertEquals(2.0, b.get(), 0.0);
+    assertFalse(list.doAnimate(6));
+    assertTrue(list.isIdle());
+    // TODO #43 -- Java 8 simplification
+    final ScheduledAction action = list.scheduleAction(new AnimationAction() {
+
+      @Override
+      public void animationFinished() {
+        // nothing to do
+      }
+
+    }, 1);
+    assertFalse(list.isIdle());
+    list.doAnimate(7);
+    assertFalse(list.isIdle());
+    list.doAnimate(8);
+    assertTrue(action.isDone());
+    assertTrue(list.isIdle());
+  }
+
+  /**
+   * Tests that disposing waits for the active objects of the current step.
+   *
+   * @throws InterruptedException If the thread is interrupted.
+   */
+  @Test
+  public void disposeWhileAnimating() throws InterruptedException {
+    final AnimationList list = new AnimationList();
+    final CountDownLatch entered = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    // TODO #43 -- Java 8 simplification
+    list.addAnimated(new ActiveAnimated() {
+
+      @Override
+      public void setActivationList(final AnimationList l) {
+        l.activate(this);
+      }
+
+      @Override
+      public boolean animate(final long currentTime) {
+        entered.countDown();
+        try {
+          release.await();
+        } catch(final InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return true;
+      }
+
+      @Override
+      public boolean keepActive() {
+        return true;
+      }
+
+    });
+    // TODO #43 -- Java 8 simplification
+    final Thread animator = new Thread() {
+
+      @Override
+      public void run() {
+        list.doAnimate(1);
+      }
+
+    };
+    animator.start();
+    entered.await();
+    // TODO #43 -- Java 8 simplification
+    final Thread disposer = new Thread() {
+
+      @Override
+      public void run() {
+        list.dispose();
+      }
+
+    };
+    disposer.start();
+    disposer.join(100);
+    assertTrue(disposer.isAlive());
+    release.countDown();
+    disposer.join();
+    animator.join();
+    assertEquals(0, list.activeCount());
+    assertTrue(list.isIdle());
+  }
+
+  /** Tests cancelling actions and actions far in the future. */
+  @Test
+  public void scheduledActions() {
+    final AnimationList list = new AnimationList();
+    final long[] delays = { 3, 63, 64, 65, 4095, 4096, 5000, 300000, 20000000};
+    final long[] executed = new long[delays.length];
+    final long[] time = new long[1];
+    for(int i = 0; i < delays.length; ++i) {
+      final int pos = i;
+      // TODO #43 -- Java 8 simplification
+      list.scheduleAction(new AnimationAction() {
+
+        @Override
+        public void animationFinished() {
+          executed[pos] = time[0];
+        }
+
+      }, delays[i]);
+    }
+    // TODO #43 -- Java 8 simplification
+    final ScheduledAction cancelled = list.scheduleAction(new AnimationAction() {
+
+      @Override
+      public void animationFinished() {
+        fail();
+      }
+
+    }, 10);
+    time[0] = 1000;
+    list.doAnimate(time[0]);
+    assertEquals(delays.length + 1, list.scheduledCount());
+    assertTrue(cancelled.cancel());
+    assertFalse(cancelled.cancel());
+    assertTrue(cancelled.isDone());
+    final long[] steps = { 1, 2, 3, 60, 62, 63, 64, 65, 100, 4095, 4096, 4097,
+        4999, 5000, 5001, 100000, 299999, 300000, 19999999, 20000000};
+    for(final long s : steps) {
+      time[0] = 1000 + s;
+      list.doAnimate(time[0]);
+      for(int i = 0; i < delays.length; ++i) {
+        if(delays[i] <= s) {
+          assertTrue(executed[i] >= 1000 + delays[i]);
+        } else {
+          assertEquals(0, executed[i]);
+        }
+      }
+    }
+    for(int i = 0; i < delays.length; ++i) {
+      assertEquals(1000 + delays[i], executed[i]);
+    }
+    assertEquals(0, list.scheduledCount());
+  }
+
 }
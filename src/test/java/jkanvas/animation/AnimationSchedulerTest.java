@@ -0,0 +1,302 @@
+package jkanvas.animation;
+
+import static org.junit.Assert.*;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jkanvas.RegionRefreshable;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link AnimationScheduler}.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ */
+public class AnimationSchedulerTest {
+
+  /** The maximal time to wait for the scheduler thread in milliseconds. */
+  private static final long TIMEOUT = 10000;
+
+  /**
+   * An animator counting the frames computed by its scheduler.
+   *
+   * @author Joschi <josua.krause@gmail.com>
+   */
+  private static final class CountingAnimator extends AbstractAnimator {
+
+    /** The number of computed frames. */
+    final AtomicInteger frames = new AtomicInteger();
+
+    /** The number of frames after which the animator becomes idle. */
+    volatile int work;
+
+    /**
+     * Creates an animator.
+     *
+     * @param scheduler The scheduler.
+     * @param work The number of frames after which the animator becomes idle.
+     */
+    public CountingAnimator(final AnimationScheduler scheduler, final int work) {
+      super(scheduler);
+      this.work = work;
+    }
+
+    @Override
+    protected boolean step() {
+      return false;
+    }
+
+    // the scheduler may compute frames before the fields are initialized
+
+    @Override
+    protected boolean hasPendingWork() {
+      final AtomicInteger f = frames;
+      return f == null || f.get() < work;
+    }
+
+    @Override
+    boolean scheduledFrame(final long defaultBudget) {
+      final AtomicInteger f = frames;
+      if(f != null) {
+        f.incrementAndGet();
+      }
+      return super.scheduledFrame(defaultBudget);
+    }
+
+  } // CountingAnimator
+
+  /**
+   * Waits until the counter reaches the given value.
+   *
+   * @param count The counter.
+   * @param value The value.
+   * @throws InterruptedException If the thread is interrupted.
+   */
+  private static void waitFor(final AtomicInteger count, final int value)
+      throws InterruptedException {
+    final long end = System.currentTimeMillis() + TIMEOUT;
+    while(count.get() < value) {
+      assertTrue("timeout at " + count.get() + " of " + value,
+          System.currentTimeMillis() < end);
+      Thread.sleep(1);
+    }
+  }
+
+  /**
+   * Waits until the scheduler is idle.
+   *
+   * @param scheduler The scheduler.
+   * @throws InterruptedException If the thread is interrupted.
+   */
+  private static void waitForIdle(final AnimationScheduler scheduler)
+      throws InterruptedException {
+    final long end = System.currentTimeMillis() + TIMEOUT;
+    while(!scheduler.isIdle()) {
+      assertTrue("timeout", System.currentTimeMillis() < end);
+      Thread.sleep(1);
+    }
+  }
+
+  /**
+   * Tests that registered animators are animated until they are idle and that
+   * forcing a frame wakes the scheduler.
+   *
+   * @throws InterruptedException If the thread is interrupted.
+   */
+  @Test
+  public void registration() throws InterruptedException {
+    final AnimationScheduler scheduler = new AnimationScheduler(200);
+    try {
+      assertFalse(scheduler.isManual());
+      final CountingAnimator a = new CountingAnimator(scheduler, 5);
+      final CountingAnimator b = new CountingAnimator(scheduler, 10);
+      assertSame(scheduler, a.getScheduler());
+      waitFor(b.frames, 10);
+      waitForIdle(scheduler);
+      final int before = a.frames.get();
+      a.work = before + 3;
+      a.forceNextFrame();
+      waitFor(a.frames, before + 3);
+      waitForIdle(scheduler);
+      b.dispose();
+      a.dispose();
+    } finally {
+      scheduler.dispose();
+    }
+  }
+
+  /**
+   * Tests that frames are paced by the frame period.
+   *
+   * @throws InterruptedException If the thread is interrupted.
+   */
+  @Test
+  public void pacing() throws InterruptedException {
+    final AnimationScheduler scheduler = new AnimationScheduler(100);
+    try {
+      final long start = System.nanoTime();
+      final CountingAnimator a = new CountingAnimator(scheduler, 11);
+      waitFor(a.frames, 11);
+      // ten periods between eleven frames
+      assertTrue(System.nanoTime() - start >= 9 * scheduler.getFramePeriod());
+      a.dispose();
+    } finally {
+      scheduler.dispose();
+    }
+  }
+
+  /**
+   * Tests that disposed schedulers stop animating and reject animators.
+   *
+   * @throws InterruptedException If the thread is interrupted.
+   */
+  @Test
+  public void disposal() throws InterruptedException {
+    final AnimationScheduler scheduler = new AnimationScheduler(200);
+    final CountingAnimator a = new CountingAnimator(scheduler, Integer.MAX_VALUE);
+    waitFor(a.frames, 3);
+    scheduler.dispose();
+    // a frame may be in progress
+    Thread.sleep(50);
+    final int frames = a.frames.get();
+    Thread.sleep(100);
+    assertEquals(frames, a.frames.get());
+    try {
+      new CountingAnimator(scheduler, 1);
+      fail("registered at disposed scheduler");
+    } catch(final IllegalStateException e) {
+      // expected
+    }
+    a.dispose();
+  }
+
+  /** Tests that the shared scheduler cannot be disposed. */
+  @Test(expected = IllegalStateException.class)
+  public void disposeShared() {
+    AnimationScheduler.getShared().dispose();
+  }
+
+  /** Tests that manual schedulers only compute frames on request. */
+  @Test
+  public void manual() {
+    final AnimationScheduler scheduler = new AnimationScheduler(100, true);
+    assertTrue(scheduler.isManual());
+    final CountingAnimator a = new CountingAnimator(scheduler, 3);
+    assertEquals(0, a.frames.get());
+    assertTrue(scheduler.step());
+    assertEquals(1, a.frames.get());
+    assertTrue(scheduler.step());
+    assertFalse(scheduler.step());
+    assertEquals(3, a.frames.get());
+    // idle animators are not computed
+    assertFalse(scheduler.step());
+    assertEquals(3, a.frames.get());
+    a.work = 4;
+    a.forceNextFrame();
+    assertFalse(scheduler.step());
+    assertEquals(4, a.frames.get());
+    scheduler.dispose();
+  }
+
+  /** Tests that only manual schedulers can be stepped. */
+  @Test(expected = IllegalStateException.class)
+  public void stepThreaded() {
+    final AnimationScheduler scheduler = new AnimationScheduler(100);
+    try {
+      scheduler.step();
+    } finally {
+      scheduler.dispose();
+    }
+  }
+
+  /**
+   * Records refreshed regions and complete refreshes.
+   *
+   * @author Joschi <josua.krause@gmail.com>
+   */
+  private static final class RecordingRefreshable implements RegionRefreshable {
+
+    /** The refreshed regions. */
+    final List<Rectangle2D> regions = new ArrayList<>();
+    /** The number of complete refreshes. */
+    int refreshed;
+
+    /** Creates the refreshable. */
+    public RecordingRefreshable() {
+      // nothing to do
+    }
+
+    @Override
+    public void refresh() {
+      ++refreshed;
+    }
+
+    @Override
+    public void refresh(final Rectangle2D region) {
+      regions.add((Rectangle2D) region.clone());
+    }
+
+  } // RecordingRefreshable
+
+  /**
+   * An animator moving a square by one unit every frame.
+   *
+   * @author Joschi <josua.krause@gmail.com>
+   */
+  private static final class MovingAnimator extends AbstractAnimator {
+
+    /** The position of the square. */
+    private int pos;
+
+    /**
+     * Creates the animator.
+     *
+     * @param scheduler The scheduler.
+     */
+    public MovingAnimator(final AnimationScheduler scheduler) {
+      super(scheduler);
+    }
+
+    @Override
+    protected boolean step() {
+      // the old and the new position
+      refreshRegion(new Rectangle2D.Double(pos, 0, 1, 1));
+      ++pos;
+      refreshRegion(new Rectangle2D.Double(pos, 0, 1, 1));
+      return true;
+    }
+
+    @Override
+    protected boolean hasPendingWork() {
+      return true;
+    }
+
+  } // MovingAnimator
+
+  /** Tests that animators combine reported regions per frame. */
+  @Test
+  public void animatorRegions() {
+    final AnimationScheduler scheduler = new AnimationScheduler(100, true);
+    final MovingAnimator a = new MovingAnimator(scheduler);
+    final RecordingRefreshable r = new RecordingRefreshable();
+    a.addRefreshable(r);
+    scheduler.step();
+    // the regions are combined but everything is refreshed by default
+    assertEquals(0, r.regions.size());
+    assertEquals(1, r.refreshed);
+    a.setRegionRefresh(true);
+    scheduler.step();
+    scheduler.step();
+    assertEquals(1, r.refreshed);
+    assertEquals(2, r.regions.size());
+    assertEquals(new Rectangle2D.Double(1, 0, 2, 1), r.regions.get(0));
+    assertEquals(new Rectangle2D.Double(2, 0, 2, 1), r.regions.get(1));
+    a.dispose();
+    scheduler.dispose();
+  }
+
+}
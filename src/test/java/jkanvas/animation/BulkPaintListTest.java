@@ -0,0 +1,150 @@
+package jkanvas.animation;
+
+import static org.junit.Assert.*;
+
+import java.awt.geom.Line2D;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests adding and updating many elements of {@link GenericPaintList
+ * GenericPaintLists} at once.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ */
+public class BulkPaintListTest {
+
+  /**
+   * Compares a bulk filled list with a list filled point by point.
+   *
+   * @param storage The storage of the bulk filled list.
+   */
+  private static void sameAsSingle(final PaintListStorage storage) {
+    final Random rnd = new Random(42);
+    final int n = 5000;
+    final double[] xs = new double[n];
+    final double[] ys = new double[n];
+    final double[] sizes = new double[n];
+    final CircleList single = new CircleList(10, null, null);
+    for(int i = 0; i < n; ++i) {
+      xs[i] = (float) (rnd.nextDouble() * 100);
+      ys[i] = (float) (rnd.nextDouble() * 100);
+      sizes[i] = (float) (rnd.nextDouble() * 3);
+      assertEquals(i, single.addPoint(xs[i], ys[i], sizes[i]));
+    }
+    final CircleList bulk = new CircleList(10, null, null, storage);
+    bulk.setDoubleBuffered(true);
+    assertEquals(0, bulk.addPoints(xs, ys, sizes));
+    assertEquals(n, bulk.cardinality());
+    assertEquals(n, bulk.visibleCardinality());
+    bulk.swapBuffers();
+    for(int i = 0; i < n; ++i) {
+      assertEquals(single.getX(i), bulk.getX(i), 0);
+      assertEquals(single.getY(i), bulk.getY(i), 0);
+      assertEquals(single.getRadius(i), bulk.getRadius(i), 0);
+      assertEquals(ColorTable.NO_COLOR, bulk.getColorARGB(i));
+      assertEquals(ColorTable.NO_COLOR, bulk.getBorderARGB(i));
+    }
+  }
+
+  /** Tests bulk adding on the heap. */
+  @Test
+  public void addPoints() {
+    sameAsSingle(PaintListStorage.heap(false));
+    sameAsSingle(PaintListStorage.heap(true));
+  }
+
+  /** Tests bulk adding in direct memory. */
+  @Test
+  public void addPointsDirect() {
+    sameAsSingle(PaintListStorage.direct(false));
+  }
+
+  /** Tests that bulk added points are appended with cleared colors. */
+  @Test
+  public void appendAfterHoles() {
+    final CircleList list = new CircleList(4, null, null);
+    for(int i = 0; i < 6; ++i) {
+      list.addPoint(i, i, 1);
+      list.setColorARGB(i, 0xff00ff00);
+    }
+    list.removeIndex(1);
+    list.removeRange(3, 6);
+    final double[] vals = { 10, 11, 12, 13 };
+    assertEquals(3, list.addPoints(vals, vals, vals));
+    assertFalse(list.isActive(1));
+    assertEquals(0xff00ff00, list.getColorARGB(2));
+    for(int i = 3; i < 7; ++i) {
+      assertEquals(i + 7, list.getX(i), 0);
+      assertEquals(ColorTable.NO_COLOR, list.getColorARGB(i));
+    }
+    // single adds still fill holes
+    assertEquals(1, list.addPoint(0, 0, 0));
+    assertEquals(7, list.addPoints(new double[0], new double[0], new double[0]));
+  }
+
+  /** Tests range updates. */
+  @Test
+  public void setRanges() {
+    final CircleList list = new CircleList(0, null, null);
+    list.ensureCapacity(1000);
+    assertEquals(1000, list.capacity());
+    final double[] zeros = new double[1000];
+    list.addPoints(zeros, zeros, zeros);
+    assertEquals(1000, list.capacity());
+    final double[] xs = { 1, 2, 3 };
+    final double[] ys = { 4, 5, 6 };
+    list.setPositions(50, xs, ys);
+    list.setRadii(51, xs);
+    list.setColorsARGB(52, new int[] { 0xff123456, ColorTable.TRANSPARENT, 0 });
+    list.setBordersARGB(999, new int[] { 0x80ffffff });
+    assertEquals(0, list.getX(49), 0);
+    assertEquals(3, list.getX(52), 0);
+    assertEquals(6, list.getY(52), 0);
+    assertEquals(0, list.getRadius(50), 0);
+    assertEquals(2, list.getRadius(52), 0);
+    assertEquals(0xff123456, list.getColorARGB(52));
+    assertEquals(ColorTable.TRANSPARENT, list.getColorARGB(53));
+    assertEquals(ColorTable.NO_COLOR, list.getColorARGB(54));
+    assertEquals(0x80ffffff, list.getBorderARGB(999));
+    assertEquals(ColorTable.NO_COLOR, list.getColorARGB(999));
+  }
+
+  /** Tests that ranges must be active. */
+  @Test(expected = IllegalArgumentException.class)
+  public void inactiveRange() {
+    final CircleList list = new CircleList(0, null, null);
+    final double[] vals = new double[10];
+    list.addPoints(vals, vals, vals);
+    list.setPositions(5, vals, vals);
+  }
+
+  /** Tests that arrays must have the same length. */
+  @Test(expected = IllegalArgumentException.class)
+  public void differentLengths() {
+    final CircleList list = new CircleList(0, null, null);
+    list.addPoints(new double[3], new double[3], new double[2]);
+  }
+
+  /** Tests bulk adding of lines. */
+  @Test
+  public void addLines() {
+    final LineList list = new LineList(0, null);
+    list.addLine(0, 0, 1, 1);
+    final double[] a = { 1, 2 };
+    final double[] b = { 3, 4 };
+    final double[] alphas = { 0.5, 1 };
+    assertEquals(1, list.addLines(a, b, b, a, alphas));
+    list.setColorsARGB(1, new int[] { 0xffff0000, 0xff0000ff });
+    assertEquals(0.5, list.getAlpha(1), 0);
+    assertEquals(0xff0000ff, list.getColorARGB(2));
+    final Line2D line = new Line2D.Double();
+    list.getLine(line, 2);
+    assertEquals(2, line.getX1(), 0);
+    assertEquals(4, line.getY1(), 0);
+    assertEquals(4, line.getX2(), 0);
+    assertEquals(2, line.getY2(), 0);
+  }
+
+}
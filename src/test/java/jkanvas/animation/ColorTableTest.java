@@ -0,0 +1,58 @@
+package jkanvas.animation;
+
+import static org.junit.Assert.*;
+
+import java.awt.Color;
+
+import org.junit.Test;
+
+/**
+ * Tests packed colors of {@link GenericPaintList GenericPaintLists}.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ */
+public class ColorTableTest {
+
+  /** Tests converting colors. */
+  @Test
+  public void conversion() {
+    assertEquals(ColorTable.NO_COLOR, ColorTable.toARGB(null));
+    assertNull(ColorTable.get(ColorTable.NO_COLOR));
+    assertEquals(ColorTable.TRANSPARENT, ColorTable.toARGB(new Color(0, 0, 0, 0)));
+    final Color c = new Color(10, 20, 30, 40);
+    assertEquals(c, ColorTable.get(ColorTable.toARGB(c)));
+    assertSame(ColorTable.get(0x80ff0000), ColorTable.get(0x80ff0000));
+  }
+
+  /** Tests that colors of point lists keep their meaning. */
+  @Test
+  public void pointList() {
+    final CircleList list = new CircleList(10, Color.RED, null);
+    final int a = list.addPoint(0, 0, 1);
+    final int b = list.addPoint(1, 1, 1);
+    assertNull(list.getColor(a));
+    assertEquals(ColorTable.NO_COLOR, list.getColorARGB(a));
+    list.setColor(a, Color.BLUE);
+    assertEquals(Color.BLUE, list.getColor(a));
+    assertEquals(Color.BLUE.getRGB(), list.getColorARGB(a));
+    list.setBorderARGB(b, 0xff00ff00);
+    assertEquals(Color.GREEN, list.getBorder(b));
+    list.setColor(a, null);
+    assertNull(list.getColor(a));
+    // transparent colors are not treated as missing colors
+    list.setColorARGB(b, ColorTable.TRANSPARENT);
+    assertEquals(0, list.getColor(b).getAlpha());
+    list.setColorARGB(b, 0x00123456);
+    assertEquals(0x00123456, list.getColorARGB(b));
+    list.setColor(b, new Color(0, 0, 0, 0));
+    assertEquals(ColorTable.TRANSPARENT, list.getColorARGB(b));
+    // packed values can be copied and reset to the default
+    list.setColorARGB(a, list.getColorARGB(a));
+    assertNull(list.getColor(a));
+    list.setBorderARGB(b, ColorTable.NO_COLOR);
+    assertNull(list.getBorder(b));
+    list.setColorsARGB(a, new int[] { ColorTable.NO_COLOR, ColorTable.NO_COLOR });
+    assertNull(list.getColor(b));
+  }
+
+}
@@ -0,0 +1,49 @@
+package jkanvas.animation;
+
+import static org.junit.Assert.*;
+
+import java.awt.geom.AffineTransform;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests counting the density of {@link GenericPaintList GenericPaintLists}.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ */
+public class DensityCounterTest {
+
+  /** Tests that all visible points in the raster are counted once. */
+  @Test
+  public void counts() {
+    final Random rnd = new Random(19);
+    final CircleList list = new CircleList(1000, null, null);
+    final int size = 400000;
+    final int[] expected = new int[20 * 10];
+    for(int i = 0; i < size; ++i) {
+      final double x = rnd.nextDouble() * 220 - 10;
+      final double y = rnd.nextDouble() * 110 - 5;
+      final int index = list.addPoint(x, y, 1);
+      if(index % 7 == 0) {
+        list.setVisible(index, false);
+        continue;
+      }
+      final int px = (int) Math.floor(x / 10);
+      final int py = (int) Math.floor(y / 10);
+      if(px < 0 || py < 0 || px >= 20 || py >= 10) {
+        continue;
+      }
+      ++expected[py * 20 + px];
+    }
+    int max = 0;
+    for(final int c : expected) {
+      max = Math.max(max, c);
+    }
+    final int[] counts = new int[20 * 10];
+    final AffineTransform at = AffineTransform.getScaleInstance(0.1, 0.1);
+    assertEquals(max, list.countDensity(counts, 20, 10, at));
+    assertArrayEquals(expected, counts);
+  }
+
+}
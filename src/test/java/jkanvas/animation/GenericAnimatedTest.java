@@ -2,6 +2,9 @@ package jkanvas.animation;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import jkanvas.util.Interpolator;
@@ -61,6 +64,110 @@ public class GenericAnimatedTest {
 
   } // TestAnimated
 
+  /**
+   * An implementation recording all values that are set.
+   * 
+   * @author Joschi <josua.krause@gmail.com>
+   */
+  private static class RecordingAnimated extends GenericAnimated<Double> {
+
+    /** The values in the order they were set. */
+    final List<Double> values = new ArrayList<>();
+
+    /** Creates with an initial value of 0. */
+    public RecordingAnimated() {
+      super(0.0);
+    }
+
+    @Override
+    protected Double interpolate(final Double from, final Double to, final double t) {
+      return from * (1 - t) + to * t;
+    }
+
+    @Override
+    protected void doSet(final Double t) {
+      super.doSet(t);
+      if(values != null) {
+        values.add(t);
+      }
+    }
+
+    /**
+     * Applies all pending operations and returns the values that were set.
+     * 
+     * @return The values.
+     */
+    public List<Double> apply() {
+      values.clear();
+      animate(0);
+      return new ArrayList<>(values);
+    }
+
+  } // RecordingAnimated
+
+  /** Tests that pending operations keep their order while the buffer wraps. */
+  @Test
+  public void operationsWrapAround() {
+    final RecordingAnimated a = new RecordingAnimated();
+    for(int i = 0; i < 20; i += 3) {
+      a.set((double) i);
+      assertEquals(Arrays.asList((double) i), a.apply());
+      // the second operation is stored at the start of the buffer
+      a.set(i + 1.0);
+      a.set(i + 2.0);
+      assertEquals(Arrays.asList(i + 1.0, i + 2.0), a.apply());
+    }
+    assertEquals(Arrays.<Double> asList(), a.apply());
+  }
+
+  /** Tests that the buffer grows beyond its initial capacity in order. */
+  @Test
+  public void operationsGrow() {
+    final RecordingAnimated a = new RecordingAnimated();
+    // moves the head away from the start of the buffer
+    a.set(-1.0);
+    a.apply();
+    final List<Double> expected = new ArrayList<>();
+    for(int i = 0; i < 100; ++i) {
+      a.set((double) i);
+      expected.add((double) i);
+    }
+    assertEquals(expected, a.apply());
+    assertEquals(99.0, a.get(), 0);
+    a.set(7.0);
+    a.set(8.0);
+    a.set(9.0);
+    assertEquals(Arrays.asList(7.0, 8.0, 9.0), a.apply());
+  }
+
+  /** Tests that operations added while applying others are applied last. */
+  @Test
+  public void operationsAddedWhileApplying() {
+    // TODO #43 -- Java 8 simplification
+    final RecordingAnimated a = new RecordingAnimated() {
+
+      @Override
+      protected void doSet(final Double t) {
+        super.doSet(t);
+        if(t == 1.0) {
+          // sets the value immediately and adds an operation
+          set(10.0);
+        }
+      }
+
+    };
+    a.set(2.0);
+    a.set(3.0);
+    a.values.clear();
+    a.startAnimationTo(1.0, AnimationTiming.NO_ANIMATION);
+    a.set(4.0);
+    assertEquals(Arrays.asList(1.0, 10.0, 4.0), a.values);
+    // the last value was added while applying 1.0
+    assertEquals(Arrays.asList(2.0, 3.0, 1.0, 10.0, 10.0, 4.0, 10.0), a.apply());
+    assertEquals(10.0, a.get(), 0);
+    assertEquals(Arrays.<Double> asList(), a.apply());
+  }
+
   /**
    * Tests all values.
    * 
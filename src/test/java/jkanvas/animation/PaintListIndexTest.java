@@ -0,0 +1,156 @@
+package jkanvas.animation;
+
+import static jkanvas.animation.PaintListTestUtil.*;
+import static org.junit.Assert.*;
+
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests hit tests of indexed {@link GenericPaintList GenericPaintLists}.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ */
+public class PaintListIndexTest {
+
+  /** Tests that the index returns the same topmost elements. */
+  @Test
+  public void hits() {
+    final Random rnd = new Random(12);
+    final CircleList plain = new CircleList(100, null, null);
+    final CircleList indexed = new CircleList(100, null, null);
+    indexed.setIndexed(true);
+    fill(rnd, plain, indexed, 2000);
+    assertSameHits(rnd, plain, indexed);
+    // few changes are updated incrementally
+    for(int i = 0; i < 100; ++i) {
+      final int index = rnd.nextInt(2000);
+      final double x = rnd.nextDouble() * 1000;
+      final double y = rnd.nextDouble() * 1000;
+      plain.setPosition(index, x, y);
+      indexed.setPosition(index, x, y);
+    }
+    for(int i = 0; i < 50; ++i) {
+      final int index = rnd.nextInt(2000);
+      if(!plain.isActive(index)) {
+        continue;
+      }
+      plain.removeIndex(index);
+      indexed.removeIndex(index);
+    }
+    plain.setVisible(7, false);
+    indexed.setVisible(7, false);
+    assertSameHits(rnd, plain, indexed);
+    // many changes rebuild the index
+    fill(rnd, plain, indexed, 3000);
+    assertSameHits(rnd, plain, indexed);
+    plain.clear();
+    indexed.clear();
+    assertSameHits(rnd, plain, indexed);
+    fill(rnd, plain, indexed, 10);
+    assertSameHits(rnd, plain, indexed);
+  }
+
+  /** Tests that range changes are updated incrementally. */
+  @Test
+  public void ranges() {
+    final Random rnd = new Random(17);
+    final CircleList plain = new CircleList(100, null, null);
+    final CircleList indexed = new CircleList(100, null, null);
+    indexed.setIndexed(true);
+    fill(rnd, plain, indexed, 2000);
+    assertSameHits(rnd, plain, indexed);
+    final double[] xs = new double[100];
+    final double[] ys = new double[100];
+    for(int i = 0; i < xs.length; ++i) {
+      xs[i] = rnd.nextDouble() * 1000;
+      ys[i] = rnd.nextDouble() * 1000;
+    }
+    plain.setPositions(300, xs, ys);
+    indexed.setPositions(300, xs, ys);
+    assertSameHits(rnd, plain, indexed);
+    plain.removeRange(1000, 1100);
+    indexed.removeRange(1000, 1100);
+    assertSameHits(rnd, plain, indexed);
+    final double[] sizes = new double[100];
+    Arrays.fill(sizes, 5);
+    assertEquals(2000, plain.addPoints(xs, ys, sizes));
+    assertEquals(2000, indexed.addPoints(xs, ys, sizes));
+    assertSameHits(rnd, plain, indexed);
+  }
+
+  /** Tests that lists without bounding boxes ignore the index. */
+  @Test
+  public void noBounds() {
+    final Random rnd = new Random(19);
+    final CircleList plain = new CircleList(100, null, null);
+    // TODO #43 -- Java 8 simplification
+    final CircleList indexed = new CircleList(100, null, null) {
+
+      @Override
+      protected boolean hasBounds() {
+        return false;
+      }
+
+      @Override
+      protected boolean getBounds(final int pos, final double[] bbox) {
+        return false;
+      }
+
+    };
+    indexed.setIndexed(true);
+    fill(rnd, plain, indexed, 500);
+    assertSameHits(rnd, plain, indexed);
+    assertEquals(0, indexed.countDensity(new int[4], 2, 2, new AffineTransform()));
+  }
+
+  /**
+   * Tests that changes from another thread are not lost while the index is
+   * queried.
+   *
+   * @throws InterruptedException If the thread is interrupted.
+   */
+  @Test
+  public void concurrentChanges() throws InterruptedException {
+    final Random rnd = new Random(21);
+    final CircleList plain = new CircleList(100, null, null);
+    final CircleList indexed = new CircleList(100, null, null);
+    indexed.setIndexed(true);
+    final int count = 2000;
+    fill(rnd, plain, indexed, count);
+    final double[] xs = new double[count];
+    final double[] ys = new double[count];
+    for(int i = 0; i < count; ++i) {
+      xs[i] = rnd.nextDouble() * 1000;
+      ys[i] = rnd.nextDouble() * 1000;
+      plain.setPosition(i, xs[i], ys[i]);
+    }
+    final Random q = new Random(22);
+    // TODO #43 -- Java 8 simplification
+    final Thread writer = new Thread() {
+
+      @Override
+      public void run() {
+        // few changes at a time keep the index from being rebuilt
+        for(int i = 0; i < count; ++i) {
+          indexed.setPosition(i, xs[i], ys[i]);
+          if(i % 16 == 0) {
+            Thread.yield();
+          }
+        }
+      }
+
+    };
+    writer.start();
+    while(writer.isAlive()) {
+      indexed.hit(new Point2D.Double(q.nextDouble() * 1000, q.nextDouble() * 1000));
+    }
+    writer.join();
+    assertSameHits(rnd, plain, indexed);
+  }
+
+}
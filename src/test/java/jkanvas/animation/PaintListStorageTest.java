@@ -0,0 +1,122 @@
+package jkanvas.animation;
+
+import static jkanvas.animation.PaintListTestUtil.*;
+import static org.junit.Assert.*;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests storing {@link GenericPaintList GenericPaintLists} outside of the
+ * Java heap.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ */
+public class PaintListStorageTest {
+
+  /** The number of points. The values span multiple chunks. */
+  private static final int COUNT = (1 << ValueStore.Chunked.SHIFT) / 2;
+
+  /** The folder for mapped files. */
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  /** Tests that direct memory behaves like arrays. */
+  @Test
+  public void direct() {
+    final CircleList heap = new CircleList(10, null, null);
+    final CircleList direct = new CircleList(10, null, null,
+        PaintListStorage.direct(false));
+    assertTrue(direct.getStorage().isOffHeap());
+    fill(new Random(24), heap, direct, COUNT);
+    assertSameElements(heap, direct);
+    direct.setDoubleBuffered(true);
+    direct.setPosition(5, -1, -2);
+    heap.setPosition(5, -1, -2);
+    // the front buffer is moved when growing
+    for(int i = 0; i < 1000; ++i) {
+      direct.addPoint(i, i, 1);
+      heap.addPoint(i, i, 1);
+    }
+    direct.swapBuffers();
+    direct.trimToSize();
+    direct.setDoubleBuffered(false);
+    assertSameElements(heap, direct);
+  }
+
+  /**
+   * Tests restoring lists from files.
+   *
+   * @throws IOException I/O Exception.
+   */
+  @Test
+  public void mapped() throws IOException {
+    final File base = new File(folder.getRoot(), "points");
+    final CircleList heap = new CircleList(10, null, null);
+    final CircleList mapped = new CircleList(10, null, null,
+        PaintListStorage.mapped(base, true));
+    assertTrue(mapped.isSinglePrecision());
+    fill(new Random(24), heap, mapped, COUNT);
+    heap.removeIndex(7);
+    mapped.removeIndex(7);
+    heap.setVisible(9, false);
+    mapped.setVisible(9, false);
+    // values are rounded to single precision
+    for(int i = 0; i < heap.length(); ++i) {
+      if(heap.isActive(i)) {
+        heap.setPosition(i, mapped.getX(i), mapped.getY(i));
+      }
+    }
+    mapped.flush();
+    final CircleList restored = new CircleList(10, null, null,
+        PaintListStorage.mapped(base, true));
+    assertSameElements(heap, restored);
+    final int index = restored.addPoint(1, 2, 3);
+    assertEquals(7, index);
+  }
+
+  /**
+   * Tests that mapped files use the same byte order on all platforms.
+   *
+   * @throws IOException I/O Exception.
+   */
+  @Test
+  public void byteOrder() throws IOException {
+    final File base = new File(folder.getRoot(), "order");
+    final CircleList list = new CircleList(10, null, null,
+        PaintListStorage.mapped(base, false));
+    list.addPoint(1, 2, 3);
+    list.setColorARGB(0, 0x11223344);
+    list.flush();
+    try (DataInputStream in = new DataInputStream(
+        new FileInputStream(new File(folder.getRoot(), "order.colors")))) {
+      assertEquals(0x44332211, in.readInt());
+    }
+    try (DataInputStream in = new DataInputStream(
+        new FileInputStream(new File(folder.getRoot(), "order.values")))) {
+      assertEquals(1.0, Double.longBitsToDouble(Long.reverseBytes(in.readLong())), 0);
+    }
+  }
+
+  /**
+   * Tests that incompatible lists cannot be restored.
+   *
+   * @throws IOException I/O Exception.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void incompatible() throws IOException {
+    final File base = new File(folder.getRoot(), "lines");
+    final LineList lines = new LineList(10, null, PaintListStorage.mapped(base, false));
+    lines.addLine(0, 0, 1, 1);
+    lines.flush();
+    new CircleList(10, null, null, PaintListStorage.mapped(base, false));
+  }
+
+}
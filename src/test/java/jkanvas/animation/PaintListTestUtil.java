@@ -0,0 +1,131 @@
+package jkanvas.animation;
+
+import static org.junit.Assert.*;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Shared helpers for tests comparing {@link GenericPaintList GenericPaintLists}
+ * and their paintings.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ */
+final class PaintListTestUtil {
+
+  /** No instances. */
+  private PaintListTestUtil() {
+    throw new AssertionError();
+  }
+
+  /**
+   * Fills both lists with the same random circles. Some circles are much
+   * larger than the others and every third circle has its own color. Radii are
+   * whole numbers so that they survive single precision.
+   *
+   * @param rnd The random number generator.
+   * @param a The first list.
+   * @param b The second list.
+   * @param count The number of circles.
+   */
+  static void fill(final Random rnd, final CircleList a,
+      final CircleList b, final int count) {
+    for(int i = 0; i < count; ++i) {
+      final double x = rnd.nextDouble() * 1000;
+      final double y = rnd.nextDouble() * 1000;
+      final double s = rnd.nextInt(50) == 0 ? 200 : 1 + rnd.nextInt(10);
+      final int index = a.addPoint(x, y, s);
+      assertEquals(index, b.addPoint(x, y, s));
+      if(i % 3 == 0) {
+        final int argb = rnd.nextInt();
+        a.setColorARGB(index, argb);
+        b.setColorARGB(index, argb);
+      }
+    }
+  }
+
+  /**
+   * Checks that both lists contain the same circles.
+   *
+   * @param a The first list.
+   * @param b The second list.
+   */
+  static void assertSameElements(final CircleList a, final CircleList b) {
+    assertEquals(a.length(), b.length());
+    for(int i = 0; i < a.length(); ++i) {
+      assertEquals(a.isActive(i), b.isActive(i));
+      if(!a.isActive(i)) {
+        continue;
+      }
+      assertEquals(a.isVisible(i), b.isVisible(i));
+      assertEquals(a.getX(i), b.getX(i), 0);
+      assertEquals(a.getY(i), b.getY(i), 0);
+      assertEquals(a.getRadius(i), b.getRadius(i), 0);
+      assertEquals(a.getColorARGB(i), b.getColorARGB(i));
+    }
+  }
+
+  /**
+   * Checks that random hit tests of both lists return the same elements.
+   *
+   * @param rnd The random number generator.
+   * @param a The first list.
+   * @param b The second list.
+   */
+  static void assertSameHits(final Random rnd,
+      final CircleList a, final CircleList b) {
+    for(int q = 0; q < 200; ++q) {
+      final Point2D p = new Point2D.Double(
+          rnd.nextDouble() * 1100 - 50, rnd.nextDouble() * 1100 - 50);
+      assertEquals(a.hit(p), b.hit(p));
+    }
+    for(int q = 0; q < 20; ++q) {
+      final Rectangle2D rect = new Rectangle2D.Double(rnd.nextDouble() * 1000,
+          rnd.nextDouble() * 1000, rnd.nextDouble() * 100, rnd.nextDouble() * 100);
+      final List<Integer> expected = new ArrayList<>();
+      a.hit(rect, expected);
+      final List<Integer> actual = new ArrayList<>();
+      b.hit(rect, actual);
+      assertEquals(expected, actual);
+    }
+  }
+
+  /**
+   * Computes the mean difference of the color channels of two images of the
+   * same size. The images are compared in blocks of the given size to tolerate
+   * pixels that are rounded differently.
+   *
+   * @param a The first image.
+   * @param b The second image.
+   * @param block The side length of the blocks. The side lengths of the images
+   *          must be multiples of it.
+   * @return The mean difference from <code>0</code> to <code>255</code>.
+   */
+  static double difference(final BufferedImage a,
+      final BufferedImage b, final int block) {
+    final int width = a.getWidth();
+    final int height = a.getHeight();
+    assertEquals(width, b.getWidth());
+    assertEquals(height, b.getHeight());
+    double sum = 0;
+    for(int by = 0; by < height; by += block) {
+      for(int bx = 0; bx < width; bx += block) {
+        for(int shift = 0; shift < 24; shift += 8) {
+          int d = 0;
+          for(int y = by; y < by + block; ++y) {
+            for(int x = bx; x < bx + block; ++x) {
+              d += ((a.getRGB(x, y) >>> shift) & 0xff) - ((b.getRGB(x, y) >>> shift) & 0xff);
+            }
+          }
+          sum += Math.abs(d) / (double) (block * block);
+        }
+      }
+    }
+    return sum * block * block / (3.0 * width * height);
+  }
+
+}
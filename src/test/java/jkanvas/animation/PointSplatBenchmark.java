@@ -0,0 +1,131 @@
+package jkanvas.animation;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import jkanvas.util.Benchmark;
+import jkanvas.util.Benchmark.BenchmarkExecutor;
+
+/**
+ * Benchmarks painting small points with shapes and by stamping them directly
+ * into an image.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ */
+public class PointSplatBenchmark {
+
+  /** The size of the destination. */
+  private static final int DEST_SIZE = 1024;
+
+  /**
+   * A paint benchmark task.
+   *
+   * @author Joschi <josua.krause@gmail.com>
+   */
+  private static final class PaintExecutor implements BenchmarkExecutor {
+
+    /** The list. */
+    private final PointList<?> list;
+    /** The maximal radius of the points in pixels. */
+    private final double radius;
+    /** Whether the list contains circles and squares. */
+    private final boolean glyphs;
+    /** Whether the points are stamped. */
+    private final boolean splat;
+    /** The destination. */
+    private final BufferedImage dest;
+
+    /**
+     * Creates a benchmark task.
+     *
+     * @param numberOfItems The number of items.
+     * @param radius The maximal radius of the points in pixels.
+     * @param glyphs Whether to use a glyph list.
+     * @param splat Whether the points are stamped.
+     */
+    public PaintExecutor(final int numberOfItems, final double radius,
+        final boolean glyphs, final boolean splat) {
+      this.radius = radius;
+      this.glyphs = glyphs;
+      this.splat = splat;
+      final Color fill = new Color(0, 0, 255, 128);
+      if(glyphs) {
+        // TODO #43 -- Java 8 simplification
+        list = new GlyphList(numberOfItems, fill, Color.BLACK) {
+
+          @Override
+          protected int getType(final int index) {
+            return index % 2 == 0 ? TYPE_CIRCLE : TYPE_RECT;
+          }
+
+        };
+      } else {
+        list = new CircleList(numberOfItems, fill, Color.BLACK);
+      }
+      final Random rnd = new Random(numberOfItems);
+      for(int i = 0; i < numberOfItems; ++i) {
+        list.addPoint(rnd.nextDouble() * DEST_SIZE, rnd.nextDouble() * DEST_SIZE,
+            0.5 + rnd.nextDouble() * (radius - 0.5));
+      }
+      dest = new BufferedImage(DEST_SIZE, DEST_SIZE, BufferedImage.TYPE_INT_RGB);
+    }
+
+    @Override
+    public String getConfigurationString() {
+      return (splat ? "splat" : "shape") + "[count: " + list.cardinality()
+          + " radius: " + radius + " glyphs: " + glyphs + "]";
+    }
+
+    @Override
+    public void execute() {
+      final double old = PointList.SPLAT_RADIUS;
+      PointList.SPLAT_RADIUS = splat ? radius : 0;
+      final Graphics2D g = dest.createGraphics();
+      g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+      g.setClip(0, 0, DEST_SIZE, DEST_SIZE);
+      list.paintAll(g);
+      g.dispose();
+      PointList.SPLAT_RADIUS = old;
+    }
+
+  } // PaintExecutor
+
+  /**
+   * Performs the benchmark.
+   *
+   * @param args No arguments.
+   */
+  public static void main(final String[] args) {
+    final PaintExecutor[] benchmarks = {
+        new PaintExecutor(10000, 1, false, false), // #1
+        new PaintExecutor(10000, 1, false, true), // #2
+        new PaintExecutor(10000, 3, false, false), // #3
+        new PaintExecutor(10000, 3, false, true), // #4
+        new PaintExecutor(10000, 3, true, false), // #5
+        new PaintExecutor(10000, 3, true, true), // #6
+    };
+    final Benchmark benchmark = new Benchmark(benchmarks);
+    benchmark.getResults(System.out, System.err);
+  }
+
+  /**
+   * <pre>
+   * Benchmark on Linux, headless
+   * no VM arguments
+   * +-------------------------------------------+-----------------+---------------------+
+   * | configuration                             |            mean |              stddev |
+   * +-------------------------------------------+-----------------+---------------------+
+   * | shape[count: 10000 radius: 1.0 circles]   |   107.324052 ms | +/-    15.647556 ms |
+   * | splat[count: 10000 radius: 1.0 circles]   |     8.457526 ms | +/-     1.056082 ms |
+   * | shape[count: 10000 radius: 3.0 circles]   |   103.594219 ms | +/-    11.705512 ms |
+   * | splat[count: 10000 radius: 3.0 circles]   |    17.655114 ms | +/-     2.451647 ms |
+   * | shape[count: 10000 radius: 3.0 glyphs]    |    90.328125 ms | +/-    13.375243 ms |
+   * | splat[count: 10000 radius: 3.0 glyphs]    |    18.859384 ms | +/-     2.820248 ms |
+   * +-------------------------------------------+-----------------+---------------------+
+   * </pre>
+   */
+
+}
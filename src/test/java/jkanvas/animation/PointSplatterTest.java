@@ -0,0 +1,196 @@
+package jkanvas.animation;
+
+import static jkanvas.animation.PaintListTestUtil.*;
+import static org.junit.Assert.*;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.BitSet;
+import java.util.Random;
+
+import jkanvas.painter.ImageCache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Compares points stamped by the {@link PointSplatter} with points painted as
+ * shapes.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ */
+public class PointSplatterTest {
+
+  /** The size of the images. */
+  private static final int SIZE = 200;
+
+  /** The number of points. */
+  private static final int COUNT = 400;
+
+  /** The previous splat radius. */
+  private double splatRadius;
+
+  /** Stores the splat radius. */
+  @Before
+  public void setUp() {
+    splatRadius = PointList.SPLAT_RADIUS;
+  }
+
+  /** Restores the splat radius. */
+  @After
+  public void tearDown() {
+    PointList.SPLAT_RADIUS = splatRadius;
+  }
+
+  /**
+   * Creates a list of circles and squares.
+   *
+   * @param glyphs Whether the list contains squares too.
+   * @param colors Whether the points have their own colors.
+   * @return The list.
+   */
+  private static PointList<?> createList(final boolean glyphs, final boolean colors) {
+    final Color fill = new Color(0, 0, 255, 128);
+    final PointList<?> list;
+    if(glyphs) {
+      // TODO #43 -- Java 8 simplification
+      list = new GlyphList(COUNT, fill, Color.BLACK) {
+
+        @Override
+        protected int getType(final int index) {
+          return index % 2 == 0 ? TYPE_CIRCLE : TYPE_RECT;
+        }
+
+      };
+    } else {
+      list = new CircleList(COUNT, fill, Color.BLACK);
+    }
+    final Random rnd = new Random(7);
+    for(int i = 0; i < COUNT; ++i) {
+      list.addPoint(rnd.nextDouble() * SIZE, rnd.nextDouble() * SIZE,
+          0.5 + rnd.nextDouble() * 2);
+      if(colors) {
+        list.setColorARGB(i, 0x80000000 | rnd.nextInt(0x1000000));
+        list.setBorderARGB(i, 0xff000000 | rnd.nextInt(0x1000000));
+      }
+    }
+    return list;
+  }
+
+  /**
+   * Paints the list.
+   *
+   * @param list The list.
+   * @param aa Whether to use anti-aliasing.
+   * @param pure Whether to use pure strokes.
+   * @param splat Whether the points are stamped.
+   * @param dx The horizontal translation in pixels.
+   * @return The image.
+   */
+  private static BufferedImage paint(final PointList<?> list, final boolean aa,
+      final boolean pure, final boolean splat, final double dx) {
+    final BufferedImage img = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_ARGB);
+    final Graphics2D g = img.createGraphics();
+    g.setColor(Color.WHITE);
+    g.fillRect(0, 0, SIZE, SIZE);
+    g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, aa
+        ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF);
+    g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, pure
+        ? RenderingHints.VALUE_STROKE_PURE : RenderingHints.VALUE_STROKE_DEFAULT);
+    g.setClip(0, 0, SIZE, SIZE);
+    g.translate(dx, 0);
+    if(splat) {
+      PointList.SPLAT_RADIUS = 3;
+      final BitSet visibles = new BitSet();
+      visibles.set(0, COUNT);
+      assertTrue(list.paintDirect(g, visibles, 0, 0));
+    } else {
+      PointList.SPLAT_RADIUS = 0;
+      list.paintAll(g);
+    }
+    g.dispose();
+    return img;
+  }
+
+  /**
+   * Compares stamped and shape painted points. The stamped points must be
+   * closer to the shapes than the shapes moved by one pixel and both must
+   * cover the same amount of color.
+   *
+   * @param glyphs Whether the list contains squares too.
+   * @param colors Whether the points have their own colors.
+   * @param aa Whether to use anti-aliasing.
+   * @param pure Whether to use pure strokes.
+   */
+  private static void compare(final boolean glyphs, final boolean colors,
+      final boolean aa, final boolean pure) {
+    final PointList<?> list = createList(glyphs, colors);
+    final BufferedImage shapes = paint(list, aa, pure, false, 0);
+    final BufferedImage stamps = paint(list, aa, pure, true, 0);
+    // an offset of a quarter pixel is not visible with snapped positions
+    final BufferedImage moved = paint(list, aa, pure, false, 1.25);
+    final double diff = difference(shapes, stamps, 1);
+    final double reference = difference(shapes, moved, 1);
+    assertTrue(diff + " of " + reference, diff < 0.6 * reference);
+    final double total = difference(shapes, stamps, SIZE);
+    assertTrue("total: " + total, total < 3);
+  }
+
+  /** Tests circles. */
+  @Test
+  public void circles() {
+    compare(false, false, false, false);
+    compare(false, false, true, false);
+    compare(false, true, false, false);
+    compare(false, true, true, false);
+  }
+
+  /** Tests circles and squares. */
+  @Test
+  public void glyphs() {
+    compare(true, false, false, false);
+    compare(true, false, true, false);
+    compare(true, true, false, false);
+    compare(true, true, true, false);
+  }
+
+  /** Tests points at sub-pixel positions. */
+  @Test
+  public void pure() {
+    compare(false, false, true, true);
+    compare(true, true, true, true);
+  }
+
+  /** Tests that the image is reused and cleared by the next painting. */
+  @Test
+  public void reuse() {
+    final PointList<?> list = createList(false, true);
+    final BufferedImage first = paint(list, true, false, true, 0);
+    final ImageCache.Entry entry = list.splats.get();
+    assertNotNull(entry);
+    final BufferedImage second = paint(list, true, false, true, 0);
+    assertSame(entry, list.splats.get());
+    assertEquals(0, difference(first, second, 1), 0);
+  }
+
+  /** Tests that radii too large for the stamp key are not stamped. */
+  @Test
+  public void largeRadius() {
+    final PointList<?> list = createList(false, false);
+    final BufferedImage img = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_ARGB);
+    final Graphics2D g = img.createGraphics();
+    g.setClip(0, 0, SIZE, SIZE);
+    final BitSet visibles = new BitSet();
+    visibles.set(0, COUNT);
+    // rounds to 256 steps
+    PointList.SPLAT_RADIUS = 31.97;
+    assertFalse(PointSplatter.paint(list, g, visibles, 0, 0));
+    PointList.SPLAT_RADIUS = 31.9;
+    assertTrue(PointSplatter.paint(list, g, visibles, 0, 0));
+    g.dispose();
+  }
+
+}
@@ -0,0 +1,63 @@
+package jkanvas.animation;
+
+import static org.junit.Assert.*;
+
+import java.awt.geom.Point2D;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link GenericPaintList GenericPaintLists} storing single precision
+ * values.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ */
+public class SinglePrecisionTest {
+
+  /** Tests that single precision lists behave like double precision lists. */
+  @Test
+  public void sameAsDouble() {
+    final Random rnd = new Random(23);
+    final CircleList doubles = new CircleList(10, null, null);
+    final CircleList floats = new CircleList(10, null, null, true);
+    assertFalse(doubles.isSinglePrecision());
+    assertTrue(floats.isSinglePrecision());
+    // enlarges the arrays several times
+    for(int i = 0; i < 1000; ++i) {
+      final double x = (float) (rnd.nextDouble() * 100);
+      final double y = (float) (rnd.nextDouble() * 100);
+      final double s = (float) (rnd.nextDouble() * 3);
+      assertEquals(doubles.addPoint(x, y, s), floats.addPoint(x, y, s));
+    }
+    floats.setDoubleBuffered(true);
+    floats.setPosition(3, 0.25, Double.NaN);
+    doubles.setPosition(3, 0.25, Double.NaN);
+    floats.swapBuffers();
+    floats.trimToSize();
+    floats.setDoubleBuffered(false);
+    assertEquals(0.25, floats.getX(3), 0);
+    assertTrue(Double.isNaN(floats.getY(3)));
+    assertEquals(0.1f, getSet(floats, 0.1), 0);
+    for(int q = 0; q < 200; ++q) {
+      final Point2D p = new Point2D.Double(rnd.nextDouble() * 100, rnd.nextDouble() * 100);
+      assertEquals(doubles.hit(p), floats.hit(p));
+    }
+  }
+
+  /**
+   * Sets and gets the radius of the first point.
+   *
+   * @param list The list.
+   * @param v The radius.
+   * @return The stored radius.
+   */
+  private static double getSet(final CircleList list, final double v) {
+    final double old = list.getRadius(0);
+    list.setRadius(0, v);
+    final double res = list.getRadius(0);
+    list.setRadius(0, old);
+    return res;
+  }
+
+}
@@ -0,0 +1,175 @@
+package jkanvas.animation;
+
+import static jkanvas.animation.PaintListTestUtil.*;
+import static org.junit.Assert.*;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import jkanvas.painter.ImageCache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Compares lists painted in stripes by the {@link StripePainter} with lists
+ * painted sequentially.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ */
+public class StripePainterTest {
+
+  /** The size of the images. */
+  private static final int SIZE = 256;
+
+  /** The number of stripes. */
+  private static final int STRIPES = 4;
+
+  /** The previous splat radius. */
+  private double splatRadius;
+
+  /** The pool painting the stripes. */
+  private ForkJoinPool pool;
+
+  /** Disables stamping and creates the pool. */
+  @Before
+  public void setUp() {
+    splatRadius = PointList.SPLAT_RADIUS;
+    PointList.SPLAT_RADIUS = 0;
+    // the worker pool may be too small on machines with few processors
+    pool = new ForkJoinPool(STRIPES);
+  }
+
+  /** Restores the splat radius and shuts down the pool. */
+  @After
+  public void tearDown() {
+    PointList.SPLAT_RADIUS = splatRadius;
+    pool.shutdown();
+  }
+
+  /**
+   * Creates overlapping circles of random colors.
+   *
+   * @param rnd The random number generator.
+   * @return The list.
+   */
+  private static CircleList createCircles(final Random rnd) {
+    final int n = GenericPaintList.PARALLEL_SIZE;
+    final CircleList list = new CircleList(n, new Color(0, 0, 255, 64), Color.BLACK);
+    for(int i = 0; i < n; ++i) {
+      list.addPoint(rnd.nextDouble() * 2 * SIZE, rnd.nextDouble() * 2 * SIZE,
+          1 + rnd.nextDouble() * 6);
+      if(i % 3 == 0) {
+        list.setColorARGB(i, 0x40000000 | rnd.nextInt(0x1000000));
+      }
+    }
+    return list;
+  }
+
+  /**
+   * Creates overlapping lines of random lengths and colors.
+   *
+   * @param rnd The random number generator.
+   * @return The list.
+   */
+  private static LineList createLines(final Random rnd) {
+    final int n = GenericPaintList.PARALLEL_SIZE;
+    final LineList list = new LineList(n, new Color(255, 0, 0, 32));
+    for(int i = 0; i < n; ++i) {
+      final double x = rnd.nextDouble() * 2 * SIZE;
+      final double y = rnd.nextDouble() * 2 * SIZE;
+      // some lines cross many stripes
+      final double len = i % 100 == 0 ? 2 * SIZE : 40;
+      list.addLine(x, y, x + (rnd.nextDouble() - 0.5) * len,
+          y + (rnd.nextDouble() - 0.5) * len);
+      if(i % 5 == 0) {
+        list.setColorARGB(i, 0x20000000 | rnd.nextInt(0x1000000));
+      }
+    }
+    return list;
+  }
+
+  /**
+   * Paints the lists.
+   *
+   * @param lists The lists.
+   * @param aa Whether to use anti-aliasing.
+   * @param parallel Whether to paint in stripes.
+   * @return The image.
+   */
+  private BufferedImage paint(final GenericPaintList<?>[] lists,
+      final boolean aa, final boolean parallel) {
+    final BufferedImage img = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_ARGB);
+    final Graphics2D g = img.createGraphics();
+    g.setColor(Color.WHITE);
+    g.fillRect(0, 0, SIZE, SIZE);
+    g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, aa
+        ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF);
+    g.setStroke(new BasicStroke(1.5f));
+    g.setClip(0, 0, SIZE, SIZE);
+    // the lists are twice as large as the image
+    g.scale(0.5, 0.5);
+    for(final GenericPaintList<?> list : lists) {
+      if(parallel) {
+        final BitSet visibles = new BitSet();
+        visibles.set(0, list.cardinality());
+        assertTrue(StripePainter.paint(list, g, visibles, 0, 0, pool));
+      } else {
+        list.paintAll(g);
+      }
+    }
+    g.dispose();
+    return img;
+  }
+
+  /**
+   * Compares painting in stripes with painting sequentially.
+   *
+   * @param aa Whether to use anti-aliasing.
+   */
+  private void compare(final boolean aa) {
+    final Random rnd = new Random(23);
+    final GenericPaintList<?>[] lists = { createCircles(rnd), createLines(rnd) };
+    final BufferedImage sequential = paint(lists, aa, false);
+    final BufferedImage parallel = paint(lists, aa, true);
+    final double diff = difference(sequential, parallel, 1);
+    // premultiplied stripes round many overlapping translucent colors
+    // differently
+    assertTrue("difference: " + diff, diff < 1);
+  }
+
+  /** Tests painting without anti-aliasing. */
+  @Test
+  public void aliased() {
+    compare(false);
+  }
+
+  /** Tests painting with anti-aliasing. */
+  @Test
+  public void antiAliased() {
+    compare(true);
+  }
+
+  /** Tests that the stripe images are reused by the next painting. */
+  @Test
+  public void reuse() {
+    final CircleList list = createCircles(new Random(5));
+    final GenericPaintList<?>[] lists = { list };
+    final BufferedImage first = paint(lists, true, true);
+    final ImageCache.Entry[] entries = list.stripes.get();
+    assertNotNull(entries);
+    assertEquals(STRIPES, entries.length);
+    final BufferedImage second = paint(lists, true, true);
+    assertArrayEquals(entries, list.stripes.get());
+    // the reused images are cleared
+    assertEquals(0, difference(first, second, 1), 0);
+  }
+
+}
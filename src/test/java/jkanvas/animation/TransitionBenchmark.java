@@ -0,0 +1,99 @@
+package jkanvas.animation;
+
+import java.awt.geom.Point2D;
+import java.util.Random;
+
+import jkanvas.util.Benchmark;
+import jkanvas.util.Benchmark.BenchmarkExecutor;
+import jkanvas.util.Interpolator;
+
+/**
+ * Benchmarks transitions of many positions with synthetic time. The results
+ * do not depend on the wall clock since every frame advances the time by
+ * exactly one frame period.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ */
+public class TransitionBenchmark {
+
+  /**
+   * A transition benchmark task.
+   *
+   * @author Joschi <josua.krause@gmail.com>
+   */
+  private static final class TransitionExecutor implements BenchmarkExecutor {
+
+    /** The number of positions. */
+    private final int count;
+    /** The duration of the transition. */
+    private final long duration;
+    /** The number of times the targets change during the transition. */
+    private final int retargets;
+    /** The driver. */
+    private final HeadlessAnimationDriver driver;
+    /** The positions. */
+    private final AnimatedPosition[] positions;
+
+    /**
+     * Creates a benchmark task.
+     *
+     * @param count The number of positions.
+     * @param duration The duration of the transition.
+     * @param retargets The number of times the targets change during the
+     *          transition.
+     */
+    public TransitionExecutor(final int count, final long duration, final int retargets) {
+      this.count = count;
+      this.duration = duration;
+      this.retargets = retargets;
+      driver = new HeadlessAnimationDriver(60);
+      final AnimationList list = driver.createPainter().getAnimationList();
+      positions = new AnimatedPosition[count];
+      for(int i = 0; i < count; ++i) {
+        positions[i] = new AnimatedPosition(0, 0);
+        list.addAnimated(positions[i]);
+      }
+    }
+
+    @Override
+    public String getConfigurationString() {
+      return "positions: " + count + " duration: " + duration + " retargets: "
+          + retargets;
+    }
+
+    @Override
+    public void execute() {
+      final Random rnd = new Random(42);
+      final AnimationTiming timing = new AnimationTiming(Interpolator.SMOOTH, duration);
+      for(int r = 0; r <= retargets; ++r) {
+        for(final AnimatedPosition p : positions) {
+          p.startAnimationTo(new Point2D.Double(
+              rnd.nextDouble() * 1000, rnd.nextDouble() * 1000), timing);
+        }
+        driver.run(2);
+      }
+      driver.runUntilIdle(Integer.MAX_VALUE);
+      for(final AnimatedPosition p : positions) {
+        if(p.inAnimation()) throw new IllegalStateException("still in animation: " + p);
+      }
+    }
+
+  } // TransitionExecutor
+
+  /**
+   * Performs the benchmark.
+   *
+   * @param args No arguments.
+   */
+  public static void main(final String[] args) {
+    final TransitionExecutor[] benchmarks = {
+        new TransitionExecutor(1000, 1000, 0), // #0
+        new TransitionExecutor(10000, 1000, 0), // #1
+        new TransitionExecutor(10000, 1000, 10), // #2
+        new TransitionExecutor(100000, 1000, 10), // #3
+    };
+    final Benchmark benchmark = new Benchmark(benchmarks);
+    benchmark.getResults(System.out, System.err);
+  }
+
+}
@@ -0,0 +1,167 @@
+package jkanvas.painter;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.Toolkit;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+
+import jkanvas.util.Benchmark;
+import jkanvas.util.Benchmark.BenchmarkExecutor;
+
+/**
+ * Benchmarks drawing cached images of each {@link CacheType}. When a screen is
+ * available the images are drawn onto a volatile image of the screen
+ * configuration which resembles drawing onto a component. Otherwise the images
+ * are drawn onto an opaque buffered image.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ */
+public class CacheBlitBenchmark {
+
+  /** The size of the destination. */
+  private static final int DEST_SIZE = 1024;
+
+  /**
+   * A blit benchmark task.
+   *
+   * @author Joschi <josua.krause@gmail.com>
+   */
+  private static final class BlitExecutor implements BenchmarkExecutor {
+
+    /** The cache type. */
+    private final CacheType type;
+    /** The size of the cached image. */
+    private final int size;
+    /** Whether the image is drawn scaled. */
+    private final boolean scaled;
+    /** The number of blits per execution. */
+    private final int blits;
+    /** The device configuration. */
+    private final GraphicsConfiguration gc;
+    /** The destination. */
+    private final Image dest;
+    /** The cached image. */
+    private Image img;
+
+    /**
+     * Creates a benchmark task.
+     *
+     * @param type The cache type.
+     * @param size The size of the cached image.
+     * @param scaled Whether the image is drawn scaled.
+     * @param blits The number of blits per execution.
+     */
+    public BlitExecutor(final CacheType type, final int size,
+        final boolean scaled, final int blits) {
+      this.type = type;
+      this.size = size;
+      this.scaled = scaled;
+      this.blits = blits;
+      if(GraphicsEnvironment.isHeadless()) {
+        final BufferedImage d = new BufferedImage(
+            DEST_SIZE, DEST_SIZE, BufferedImage.TYPE_INT_RGB);
+        final Graphics2D g = d.createGraphics();
+        gc = g.getDeviceConfiguration();
+        g.dispose();
+        dest = d;
+      } else {
+        gc = GraphicsEnvironment.getLocalGraphicsEnvironment()
+            .getDefaultScreenDevice().getDefaultConfiguration();
+        dest = gc.createCompatibleVolatileImage(DEST_SIZE, DEST_SIZE, Transparency.OPAQUE);
+      }
+      img = createImage();
+    }
+
+    /**
+     * Creates and fills the cached image.
+     *
+     * @return The image.
+     */
+    private Image createImage() {
+      final Image res = type.create(gc, size, size);
+      if(res instanceof VolatileImage) {
+        ((VolatileImage) res).validate(gc);
+      }
+      fill(res);
+      return res;
+    }
+
+    /**
+     * Fills the image with a semi-transparent pattern.
+     *
+     * @param res The image.
+     */
+    private void fill(final Image res) {
+      final Graphics2D g = (Graphics2D) res.getGraphics();
+      g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+      for(int i = 0; i < size; i += 16) {
+        g.setColor(new Color(i % 256, 64, 255 - i % 256, 128));
+        g.fillOval(i, i, size - i, size - i);
+      }
+      g.dispose();
+    }
+
+    /**
+     * Ensures that a volatile image still has its content.
+     *
+     * @return The image.
+     */
+    private Image validate() {
+      if(!(img instanceof VolatileImage)) return img;
+      final VolatileImage vi = (VolatileImage) img;
+      final int state = vi.validate(gc);
+      if(state == VolatileImage.IMAGE_INCOMPATIBLE) {
+        img = createImage();
+      } else if(state == VolatileImage.IMAGE_RESTORED) {
+        fill(vi);
+      }
+      return img;
+    }
+
+    @Override
+    public String getConfigurationString() {
+      return type + "[size: " + size + " scaled: " + scaled + " blits: " + blits + "]";
+    }
+
+    @Override
+    public void execute() {
+      final Graphics2D g = (Graphics2D) dest.getGraphics();
+      g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+          RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+      final int s = scaled ? size * 3 / 2 : size;
+      for(int i = 0; i < blits; ++i) {
+        final int pos = i % (DEST_SIZE - s);
+        g.drawImage(validate(), pos, pos, s, s, null);
+      }
+      g.dispose();
+      // ensures that accelerated pipelines have finished drawing
+      if(dest instanceof VolatileImage) {
+        Toolkit.getDefaultToolkit().sync();
+      }
+    }
+
+  } // BlitExecutor
+
+  /**
+   * Performs the benchmark.
+   *
+   * @param args No arguments.
+   */
+  public static void main(final String[] args) {
+    final CacheType[] types = CacheType.values();
+    final BlitExecutor[] benchmarks = new BlitExecutor[types.length * 2];
+    for(int i = 0; i < types.length; ++i) {
+      benchmarks[2 * i] = new BlitExecutor(types[i], 512, false, 20);
+      benchmarks[2 * i + 1] = new BlitExecutor(types[i], 512, true, 20);
+    }
+    final Benchmark benchmark = new Benchmark(benchmarks);
+    benchmark.getResults(System.out, System.err);
+  }
+
+}
@@ -0,0 +1,113 @@
+package jkanvas.painter;
+
+import static org.junit.Assert.*;
+
+import java.awt.image.BufferedImage;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link ImageCache}.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ */
+public class ImageCacheTest {
+
+  /**
+   * Creates a square image.
+   *
+   * @param size The side length.
+   * @return The image using four bytes per pixel.
+   */
+  private static BufferedImage image(final int size) {
+    return new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+  }
+
+  /** Tests eviction in least recently used order within the budget. */
+  @Test
+  public void eviction() {
+    final ImageCache cache = new ImageCache(1000);
+    final ImageCache.Entry a = cache.add(image(10));
+    assertEquals(400, a.getBytes());
+    final ImageCache.Entry b = cache.add(image(10));
+    cache.beginFrame();
+    cache.beginFrame();
+    assertNotNull(a.get());
+    final ImageCache.Entry c = cache.add(image(10));
+    // b is the least recently used entry
+    assertFalse(b.isValid());
+    assertNull(b.get());
+    assertTrue(a.isValid());
+    assertTrue(c.isValid());
+    assertEquals(800, cache.getUsedBytes());
+    assertEquals(2, cache.size());
+    assertEquals(1, cache.getHits());
+    assertEquals(3, cache.getMisses());
+    assertEquals(1, cache.getEvictions());
+    a.release();
+    assertEquals(400, cache.getUsedBytes());
+    assertEquals(1, cache.getEvictions());
+    cache.setBudget(0);
+    assertFalse(c.isValid());
+    assertEquals(0, cache.getUsedBytes());
+  }
+
+  /** Tests that visible images are evicted last and largest first. */
+  @Test
+  public void visiblePriority() {
+    final ImageCache cache = new ImageCache(2000);
+    final ImageCache.Entry small = cache.add(image(10));
+    final ImageCache.Entry big = cache.add(image(20));
+    assertEquals(1600, big.getBytes());
+    cache.beginFrame();
+    assertNotNull(small.get());
+    assertNotNull(big.get());
+    final ImageCache.Entry other = cache.add(image(10));
+    // all images are visible so the largest is evicted
+    assertFalse(big.isValid());
+    assertTrue(small.isValid());
+    assertTrue(other.isValid());
+    cache.beginFrame();
+    cache.beginFrame();
+    assertNotNull(other.get());
+    final ImageCache.Entry big2 = cache.add(image(20));
+    // the invisible image is evicted before the larger visible ones
+    assertFalse(small.isValid());
+    assertTrue(other.isValid());
+    assertTrue(big2.isValid());
+    assertEquals(2000, cache.getUsedBytes());
+  }
+
+  /** Tests that painters sharing a cache keep the images of each other. */
+  @Test
+  public void painters() {
+    final ImageCache cache = new ImageCache(2800);
+    final Object[] canvases = { new Object(), new Object(), new Object() };
+    final ImageCache.Entry[] images = new ImageCache.Entry[canvases.length];
+    for(int f = 0; f < 2; ++f) {
+      for(int i = 0; i < canvases.length; ++i) {
+        cache.beginFrame(canvases[i]);
+        if(images[i] == null) {
+          images[i] = cache.add(image(10 + 4 * i));
+        } else {
+          assertNotNull(images[i].get());
+        }
+      }
+    }
+    // the image of the first canvas was used two frames ago
+    final ImageCache.Entry added = cache.add(image(10));
+    assertTrue(images[0].isValid());
+    assertTrue(images[1].isValid());
+    assertFalse(images[2].isValid());
+    // the images of removed painters are not visible anymore
+    cache.removePainter(canvases[0]);
+    cache.removePainter(canvases[1]);
+    cache.beginFrame(canvases[2]);
+    assertNotNull(added.get());
+    cache.add(image(20));
+    assertFalse(images[0].isValid());
+    assertTrue(images[1].isValid());
+    assertTrue(added.isValid());
+  }
+
+}
@@ -0,0 +1,124 @@
+package jkanvas.painter;
+
+import static org.junit.Assert.*;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link RenderpassIndex}.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ */
+public class RenderpassIndexTest {
+
+  /**
+   * Creates random render passes.
+   *
+   * @param rnd The random number generator.
+   * @param count The number of render passes.
+   * @return The render passes.
+   */
+  private static List<Renderpass> createPasses(final Random rnd, final int count) {
+    final List<Renderpass> passes = new ArrayList<>();
+    for(int i = 0; i < count; ++i) {
+      final BoxRenderpass r = new BoxRenderpass(new Rectangle2D.Double(
+          0, 0, rnd.nextDouble() * 50, rnd.nextDouble() * 50));
+      r.setOffset(rnd.nextDouble() * 1000, rnd.nextDouble() * 1000);
+      passes.add(r);
+    }
+    return passes;
+  }
+
+  /**
+   * Computes the expected result by testing every render pass.
+   *
+   * @param passes The render passes.
+   * @param rect The query rectangle.
+   * @return The indices of all intersecting render passes.
+   */
+  private static BitSet linear(final List<Renderpass> passes, final Rectangle2D rect) {
+    final BitSet res = new BitSet();
+    final Rectangle2D bbox = new Rectangle2D.Double();
+    for(int i = 0; i < passes.size(); ++i) {
+      RenderpassPainter.getPassBoundingBox(bbox, passes.get(i));
+      if(bbox.getMaxX() < rect.getMinX() || bbox.getMinX() > rect.getMaxX()
+          || bbox.getMaxY() < rect.getMinY() || bbox.getMinY() > rect.getMaxY()) {
+        continue;
+      }
+      res.set(i);
+    }
+    return res;
+  }
+
+  /** Compares queries of the index with testing every render pass. */
+  @Test
+  public void queries() {
+    final Random rnd = new Random(42);
+    for(final int count : new int[] { 0, 1, 15, 16, 17, 300, 5000}) {
+      final List<Renderpass> passes = createPasses(rnd, count);
+      final RenderpassIndex index = new RenderpassIndex();
+      index.ensure(passes);
+      assertTrue(index.isValid());
+      assertEquals(count, index.size());
+      for(int q = 0; q < 100; ++q) {
+        final Rectangle2D rect = new Rectangle2D.Double(rnd.nextDouble() * 1000,
+            rnd.nextDouble() * 1000, rnd.nextDouble() * 200, rnd.nextDouble() * 200);
+        assertEquals(linear(passes, rect), index.query(rect));
+        final Point2D p = new Point2D.Double(rect.getX(), rect.getY());
+        assertEquals(linear(passes, new Rectangle2D.Double(p.getX(), p.getY(), 0, 0)),
+            index.query(p));
+      }
+    }
+  }
+
+  /** Tests that the index is rebuilt after invalidation. */
+  @Test
+  public void invalidation() {
+    final List<Renderpass> passes = createPasses(new Random(7), 100);
+    final RenderpassIndex index = new RenderpassIndex();
+    index.ensure(passes);
+    final Rectangle2D far = new Rectangle2D.Double(5000, 5000, 1, 1);
+    assertTrue(index.query(far).isEmpty());
+    passes.get(42).setOffset(5000, 5000);
+    index.invalidate();
+    assertFalse(index.isValid());
+    index.ensure(passes);
+    final BitSet res = index.query(far);
+    assertEquals(1, res.cardinality());
+    assertTrue(res.get(42));
+  }
+
+  /**
+   * Tests that moved render passes are updated without rebuilding the index.
+   */
+  @Test
+  public void moves() {
+    final Random rnd = new Random(13);
+    final List<Renderpass> passes = createPasses(rnd, 1000);
+    final RenderpassIndex index = new RenderpassIndex();
+    index.ensure(passes);
+    // few moves update single paths and many moves update all boxes
+    for(final int count : new int[] { 1, 10, 200, 1000}) {
+      for(int k = 0; k < count; ++k) {
+        final int i = rnd.nextInt(passes.size());
+        passes.get(i).setOffset(rnd.nextDouble() * 2000, rnd.nextDouble() * 2000);
+        index.moved(i);
+      }
+      index.ensure(passes);
+      assertTrue(index.isValid());
+      for(int q = 0; q < 100; ++q) {
+        final Rectangle2D rect = new Rectangle2D.Double(rnd.nextDouble() * 2000,
+            rnd.nextDouble() * 2000, rnd.nextDouble() * 200, rnd.nextDouble() * 200);
+        assertEquals(linear(passes, rect), index.query(rect));
+      }
+    }
+  }
+
+}
@@ -0,0 +1,353 @@
+package jkanvas.painter;
+
+import static org.junit.Assert.*;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.geom.RectangularShape;
+import java.awt.image.BufferedImage;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.SwingUtilities;
+
+import jkanvas.KanvasContext;
+import jkanvas.RegionRefreshable;
+import jkanvas.SimpleRefreshManager;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link TiledRenderpass}.
+ *
+ * @author Joschi <josua.krause@gmail.com>
+ */
+public class TiledRenderpassTest {
+
+  /** The maximal time to wait for tile workers in milliseconds. */
+  private static final long TIMEOUT = 10000;
+
+  /** The color of the tiled render pass. */
+  private static final int RED = Color.RED.getRGB();
+
+  /**
+   * A render pass filling its bounding box. Drawing on tile workers can be
+   * blocked to keep tiles from being finished.
+   *
+   * @author Joschi <josua.krause@gmail.com>
+   */
+  private static final class FillRenderpass extends Renderpass {
+
+    /** The number of started draws. */
+    final AtomicInteger started = new AtomicInteger();
+    /** The number of finished draws. */
+    final AtomicInteger finished = new AtomicInteger();
+    /**
+     * Blocks drawing on other threads than the creating thread until released
+     * or <code>null</code>.
+     */
+    volatile CountDownLatch block;
+    /** The creating thread. */
+    private final Thread owner = Thread.currentThread();
+    /** Whether the render pass reports changes. */
+    volatile boolean changing;
+    /** Whether drawing on other threads than the creating thread fails. */
+    volatile boolean failing;
+
+    /** Creates the render pass. */
+    public FillRenderpass() {
+      // nothing to do
+    }
+
+    @Override
+    public void draw(final Graphics2D g, final KanvasContext ctx) {
+      started.incrementAndGet();
+      if(failing && Thread.currentThread() != owner) throw new IllegalStateException(
+          "drawing failed");
+      final CountDownLatch b = block;
+      if(b != null && Thread.currentThread() != owner) {
+        try {
+          b.await();
+        } catch(final InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      g.setColor(Color.RED);
+      g.fill(new Rectangle2D.Double(0, 0, 1024, 1024));
+      finished.incrementAndGet();
+    }
+
+    @Override
+    public void getBoundingBox(final RectangularShape bbox) {
+      bbox.setFrame(0, 0, 1024, 1024);
+    }
+
+    @Override
+    public boolean isChanging() {
+      return changing;
+    }
+
+  } // FillRenderpass
+
+  /**
+   * Records refreshed regions.
+   *
+   * @author Joschi <josua.krause@gmail.com>
+   */
+  private static final class RecordingRefreshable implements RegionRefreshable {
+
+    /** The refreshed regions. Guarded by itself. */
+    final List<Rectangle2D> regions = new ArrayList<>();
+    /** Whether a refresh happened outside of the event dispatch thread. */
+    volatile boolean wrongThread;
+
+    /** Creates the refreshable. */
+    public RecordingRefreshable() {
+      // nothing to do
+    }
+
+    @Override
+    public void refresh() {
+      fail("only regions should be refreshed");
+    }
+
+    @Override
+    public void refresh(final Rectangle2D region) {
+      if(!SwingUtilities.isEventDispatchThread()) {
+        wrongThread = true;
+      }
+      synchronized(regions) {
+        regions.add((Rectangle2D) region.clone());
+      }
+    }
+
+    /**
+     * Getter.
+     *
+     * @return The number of refreshed regions.
+     */
+    int count() {
+      synchronized(regions) {
+        return regions.size();
+      }
+    }
+
+  } // RecordingRefreshable
+
+  /** The tiled render pass. */
+  private TiledRenderpass<FillRenderpass> tiled;
+  /** The wrapped render pass. */
+  private FillRenderpass pass;
+  /** The refresh recorder. */
+  private RecordingRefreshable rec;
+  /** The previous tile size. */
+  private int tileSize;
+
+  /** Sets up the tiled render pass. */
+  @Before
+  public void setUp() {
+    tileSize = TiledRenderpass.TILE_SIZE;
+    TiledRenderpass.TILE_SIZE = 64;
+    final SimpleRefreshManager manager = new SimpleRefreshManager();
+    rec = new RecordingRefreshable();
+    manager.addRefreshable(rec);
+    pass = new FillRenderpass();
+    tiled = new TiledRenderpass<>(manager, pass);
+  }
+
+  /** Releases blocked workers and discards all tiles. */
+  @After
+  public void tearDown() {
+    final CountDownLatch b = pass.block;
+    if(b != null) {
+      b.countDown();
+    }
+    tiled.invalidate();
+    TiledRenderpass.TILE_SIZE = tileSize;
+  }
+
+  /**
+   * Draws the tiled render pass.
+   *
+   * @param view The visible area in canvas coordinates.
+   * @param scale The scale.
+   * @return The image.
+   */
+  private BufferedImage draw(final Rectangle2D view, final double scale) {
+    final BufferedImage img = new BufferedImage(
+        (int) Math.ceil(view.getWidth() * scale), (int) Math.ceil(view.getHeight() * scale),
+        BufferedImage.TYPE_INT_ARGB);
+    final Graphics2D g = img.createGraphics();
+    final CacheContext ctx = new CacheContext(view);
+    g.scale(scale, scale);
+    ctx.doScale(scale);
+    g.translate(-view.getX(), -view.getY());
+    ctx.doTranslate(-view.getX(), -view.getY());
+    g.clip(view);
+    tiled.draw(g, ctx);
+    g.dispose();
+    return img;
+  }
+
+  /**
+   * Waits until the given number of tiles have been refreshed.
+   *
+   * @param count The number of refreshed regions.
+   * @throws Exception If waiting failed.
+   */
+  private void waitForRefreshes(final int count) throws Exception {
+    final long end = System.currentTimeMillis() + TIMEOUT;
+    while(rec.count() < count) {
+      assertTrue("timeout", System.currentTimeMillis() < end);
+      Thread.sleep(1);
+    }
+    flushEventQueue();
+    assertFalse(rec.wrongThread);
+  }
+
+  /**
+   * Waits until all pending events are dispatched.
+   *
+   * @throws InvocationTargetException If an event failed.
+   * @throws InterruptedException If the thread is interrupted.
+   */
+  private static void flushEventQueue()
+      throws InvocationTargetException, InterruptedException {
+    // TODO #43 -- Java 8 simplification
+    SwingUtilities.invokeAndWait(new Runnable() {
+
+      @Override
+      public void run() {
+        // nothing to do
+      }
+
+    });
+  }
+
+  /**
+   * Tests that tiles are identified by their zoom level and position.
+   *
+   * @throws Exception If waiting failed.
+   */
+  @Test
+  public void tileKeys() throws Exception {
+    // four tiles at level 0
+    draw(new Rectangle2D.Double(0, 0, 127, 127), 1);
+    assertEquals(4, tiled.tileCount());
+    // the same tiles are requested again
+    draw(new Rectangle2D.Double(10, 10, 100, 100), 1);
+    assertEquals(4, tiled.tileCount());
+    waitForRefreshes(4);
+    assertEquals(4, rec.count());
+    // a scale of 1.5 uses the finer level 1 with tiles of 32 canvas units
+    draw(new Rectangle2D.Double(0, 0, 63, 31), 1.5);
+    assertEquals(6, tiled.tileCount());
+    // a scale of 0.5 uses the coarser level -1 with tiles of 128 units
+    draw(new Rectangle2D.Double(0, 0, 127, 127), 0.5);
+    assertEquals(7, tiled.tileCount());
+    waitForRefreshes(7);
+    synchronized(rec.regions) {
+      assertTrue(rec.regions.contains(new Rectangle2D.Double(64, 64, 64, 64)));
+      assertTrue(rec.regions.contains(new Rectangle2D.Double(32, 0, 32, 32)));
+      assertTrue(rec.regions.contains(new Rectangle2D.Double(0, 0, 128, 128)));
+    }
+    final BufferedImage img = draw(new Rectangle2D.Double(0, 0, 127, 127), 1);
+    assertEquals(RED, img.getRGB(100, 100));
+  }
+
+  /**
+   * Tests that missing tiles are replaced by coarser or finer tiles.
+   *
+   * @throws Exception If waiting failed.
+   */
+  @Test
+  public void fallback() throws Exception {
+    draw(new Rectangle2D.Double(0, 0, 127, 127), 1);
+    waitForRefreshes(4);
+    final int before = pass.started.get();
+    pass.block = new CountDownLatch(1);
+    // level 1 tiles are not finished so the level 0 tiles are used
+    final BufferedImage finer = draw(new Rectangle2D.Double(0, 0, 63, 63), 2);
+    assertEquals(RED, finer.getRGB(60, 60));
+    assertEquals(RED, finer.getRGB(120, 120));
+    // level -1 tiles are not finished so the level 0 tiles are used
+    final BufferedImage coarser = draw(new Rectangle2D.Double(0, 0, 127, 127), 0.5);
+    assertEquals(RED, coarser.getRGB(10, 10));
+    assertEquals(RED, coarser.getRGB(60, 60));
+    // nothing is available for tiles far away
+    final BufferedImage none = draw(new Rectangle2D.Double(512, 512, 63, 63), 1);
+    assertEquals(0, none.getRGB(10, 10));
+    // the workers are rendering but cannot finish
+    final long end = System.currentTimeMillis() + TIMEOUT;
+    while(pass.started.get() <= before) {
+      assertTrue("timeout", System.currentTimeMillis() < end);
+      Thread.sleep(1);
+    }
+    flushEventQueue();
+    assertEquals(4, rec.count());
+  }
+
+  /**
+   * Tests that tiles are discarded when the render pass changes and that
+   * discarded tiles do not cause refreshes.
+   *
+   * @throws Exception If waiting failed.
+   */
+  @Test
+  public void discard() throws Exception {
+    draw(new Rectangle2D.Double(0, 0, 127, 127), 1);
+    waitForRefreshes(4);
+    pass.block = new CountDownLatch(1);
+    draw(new Rectangle2D.Double(0, 0, 63, 63), 2);
+    final int pending = tiled.tileCount() - 4;
+    assertTrue(pending > 0);
+    pass.changing = true;
+    final BufferedImage img = draw(new Rectangle2D.Double(0, 0, 63, 63), 2);
+    // the render pass is drawn directly while the workers are blocked
+    assertEquals(0, tiled.tileCount());
+    final int started = pass.started.get();
+    pass.block.countDown();
+    final long end = System.currentTimeMillis() + TIMEOUT;
+    while(pass.finished.get() < started) {
+      assertTrue("timeout", System.currentTimeMillis() < end);
+      Thread.sleep(1);
+    }
+    assertEquals(RED, img.getRGB(10, 10));
+    flushEventQueue();
+    assertEquals(4, rec.count());
+    // while changing no tiles are created
+    pass.changing = false;
+    draw(new Rectangle2D.Double(0, 0, 63, 63), 2);
+    assertEquals(0, tiled.tileCount());
+  }
+
+  /**
+   * Tests that tiles whose rendering failed are rendered again by the next
+   * request.
+   *
+   * @throws Exception If waiting failed.
+   */
+  @Test
+  public void failure() throws Exception {
+    pass.failing = true;
+    draw(new Rectangle2D.Double(0, 0, 63, 63), 1);
+    final long end = System.currentTimeMillis() + TIMEOUT;
+    while(tiled.tileCount() > 0) {
+      assertTrue("timeout", System.currentTimeMillis() < end);
+      Thread.sleep(1);
+    }
+    pass.failing = false;
+    draw(new Rectangle2D.Double(0, 0, 63, 63), 1);
+    assertEquals(1, tiled.tileCount());
+    waitForRefreshes(1);
+    final BufferedImage img = draw(new Rectangle2D.Double(0, 0, 63, 63), 1);
+    assertEquals(RED, img.getRGB(10, 10));
+  }
+
+}
@@ -218,4 +218,36 @@ public class SnapshotListTest {
     testGC(10000, 10000, true, false);
   }
 
+  /** Tests strong references and the removal of invalid elements. */
+  @Test
+  public void strongReferences() {
+    final String a = "a", b = "b", c = "c";
+    final SnapshotList<String> sl = new SnapshotList<String>(false) {
+
+      @Override
+      protected boolean isValid(final String el) {
+        return el != null && el != b;
+      }
+
+    };
+    sl.add(a);
+    sl.add(b);
+    sl.add(c);
+    sl.add(a);
+    try (Snapshot<String> s = sl.getSnapshot()) {
+      assertEquals(3, s.size());
+      assertEquals(a, s.get(0));
+      assertNull(s.get(1));
+      assertEquals(c, s.get(2));
+    }
+    try (Snapshot<String> s = sl.getSnapshot()) {
+      equal(s, new String[] { a, c});
+      sl.clear();
+      assertNull(s.get(0));
+    }
+    try (Snapshot<String> s = sl.getSnapshot()) {
+      assertEquals(0, s.size());
+    }
+  }
+
 }